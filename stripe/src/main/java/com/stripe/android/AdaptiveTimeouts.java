@@ -0,0 +1,104 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Derives the connect and read timeouts for each kind of request to an endpoint (a host and
+ * port) from the latency of its recent requests, so that a request to a degraded network gives
+ * up long before the default timeouts would. {@link RequestExecutor#getTimeoutKey} gives the
+ * key that the requests are tracked by.
+ *
+ * A timeout is {@link #LATENCY_MULTIPLIER} times the 95th percentile of the key's last
+ * {@link #SAMPLE_COUNT} latencies, kept between a floor and the default timeout. Until a
+ * key has {@link #MIN_SAMPLE_COUNT} samples, the default timeouts are used.
+ */
+class AdaptiveTimeouts {
+    static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = (int) TimeUnit.SECONDS.toMillis(30);
+    static final int DEFAULT_READ_TIMEOUT_MILLIS = (int) TimeUnit.SECONDS.toMillis(80);
+    @VisibleForTesting
+    static final int MIN_CONNECT_TIMEOUT_MILLIS = (int) TimeUnit.SECONDS.toMillis(10);
+    @VisibleForTesting
+    static final int MIN_READ_TIMEOUT_MILLIS = (int) TimeUnit.SECONDS.toMillis(20);
+
+    private static final int SAMPLE_COUNT = 20;
+    private static final int MIN_SAMPLE_COUNT = 5;
+    private static final int LATENCY_MULTIPLIER = 4;
+    private static final double PERCENTILE = 0.95;
+
+    @NonNull private final Map<String, Latencies> mConnectLatencies = new HashMap<>();
+    @NonNull private final Map<String, Latencies> mReadLatencies = new HashMap<>();
+
+    synchronized int getConnectTimeoutMillis(@NonNull String key) {
+        return getTimeoutMillis(mConnectLatencies.get(key),
+                MIN_CONNECT_TIMEOUT_MILLIS, DEFAULT_CONNECT_TIMEOUT_MILLIS);
+    }
+
+    synchronized int getReadTimeoutMillis(@NonNull String key) {
+        return getTimeoutMillis(mReadLatencies.get(key),
+                MIN_READ_TIMEOUT_MILLIS, DEFAULT_READ_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Record the latency of a request that completed.
+     *
+     * @param connectMillis the time it took to connect and send the request
+     * @param readMillis the time from sending the request to receiving the first byte of
+     *                   the response
+     */
+    synchronized void onRequestCompleted(@NonNull String key,
+                                         long connectMillis,
+                                         long readMillis) {
+        getLatencies(mConnectLatencies, key).add(connectMillis);
+        getLatencies(mReadLatencies, key).add(readMillis);
+    }
+
+    private static int getTimeoutMillis(@Nullable Latencies latencies, int minMillis,
+                                        int maxMillis) {
+        if (latencies == null || latencies.mCount < MIN_SAMPLE_COUNT) {
+            return maxMillis;
+        }
+
+        final long timeoutMillis = LATENCY_MULTIPLIER * latencies.getPercentile(PERCENTILE);
+        return (int) Math.max(minMillis, Math.min(maxMillis, timeoutMillis));
+    }
+
+    @NonNull
+    private static Latencies getLatencies(@NonNull Map<String, Latencies> latenciesMap,
+                                          @NonNull String key) {
+        Latencies latencies = latenciesMap.get(key);
+        if (latencies == null) {
+            latencies = new Latencies();
+            latenciesMap.put(key, latencies);
+        }
+        return latencies;
+    }
+
+    /**
+     * The last {@link #SAMPLE_COUNT} latencies of a key.
+     */
+    private static final class Latencies {
+        @NonNull private final long[] mSamples = new long[SAMPLE_COUNT];
+        private int mCount;
+        private int mNext;
+
+        private void add(long millis) {
+            mSamples[mNext] = millis;
+            mNext = (mNext + 1) % SAMPLE_COUNT;
+            mCount = Math.min(mCount + 1, SAMPLE_COUNT);
+        }
+
+        private long getPercentile(double percentile) {
+            final long[] sorted = Arrays.copyOf(mSamples, mCount);
+            Arrays.sort(sorted);
+            final int index = (int) Math.ceil(percentile * mCount) - 1;
+            return sorted[Math.max(0, index)];
+        }
+    }
+}
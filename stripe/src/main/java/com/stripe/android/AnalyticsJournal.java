@@ -0,0 +1,338 @@
+package com.stripe.android;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import com.stripe.android.exception.InvalidRequestException;
+import com.stripe.android.utils.ObjectUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An append-only, size-capped journal of analytics requests that could not be sent, so that
+ * they can be replayed once the device is back online. Other fire-and-forget requests, such as
+ * a {@link FingerprintRequest}, are never written to disk.
+ *
+ * Each request is stored as one length-prefixed binary record holding an event id, the time
+ * the request was first journaled, the HTTP method, the full URL, the headers and the body.
+ * A record that was only partly written (e.g. because the process was killed) is ignored when
+ * the journal is read, and so is one older than {@link #MAX_AGE_MILLIS}.
+ *
+ * The {@code Authorization} header is never written. A record only notes that the request had
+ * one, and the header is rebuilt from the {@code publishable_key} in the analytics URL when the
+ * request is replayed.
+ */
+class AnalyticsJournal {
+    private static final String FILE_NAME = "stripe_analytics_journal";
+    private static final int RECORD_VERSION = 3;
+    private static final String PARAM_PUBLISHABLE_KEY = LoggingUtils.FIELD_PUBLISHABLE_KEY + "=";
+    private static final long DEFAULT_MAX_SIZE_BYTES = 256 * 1024;
+    @VisibleForTesting
+    static final long MAX_AGE_MILLIS = TimeUnit.HOURS.toMillis(24);
+
+    @NonNull private final File mFile;
+    private final long mMaxSizeBytes;
+
+    AnalyticsJournal(@NonNull Context context) {
+        this(new File(context.getCacheDir(), FILE_NAME), DEFAULT_MAX_SIZE_BYTES);
+    }
+
+    @VisibleForTesting
+    AnalyticsJournal(@NonNull File file, long maxSizeBytes) {
+        mFile = file;
+        mMaxSizeBytes = maxSizeBytes;
+    }
+
+    /**
+     * Append the request to the journal, if it is an analytics request.
+     *
+     * @return {@code true} if the request was written, {@code false} if it is not an analytics
+     *         request, could not be encoded or the journal is full
+     */
+    boolean append(@NonNull StripeRequest request) {
+        return append(request, System.currentTimeMillis());
+    }
+
+    /**
+     * @param nowMillis the wall-clock time, which is kept as the request's creation time
+     *                  unless the request was read back from the journal
+     */
+    @VisibleForTesting
+    synchronized boolean append(@NonNull StripeRequest request, long nowMillis) {
+        if (!isAnalyticsRequest(request)) {
+            return false;
+        }
+
+        final byte[] record;
+        try {
+            record = encode(request, nowMillis);
+        } catch (IOException | InvalidRequestException e) {
+            return false;
+        }
+
+        if (mFile.length() + record.length + 4 > mMaxSizeBytes) {
+            return false;
+        }
+
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(mFile, true)))) {
+            output.writeInt(record.length);
+            output.write(record);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Read and remove all journaled requests. Records with the same event id are only
+     * returned once, and records older than {@link #MAX_AGE_MILLIS} are dropped.
+     */
+    @NonNull
+    List<StripeRequest> drain() {
+        return drain(System.currentTimeMillis());
+    }
+
+    /**
+     * @param nowMillis the wall-clock time
+     */
+    @NonNull
+    @VisibleForTesting
+    synchronized List<StripeRequest> drain(long nowMillis) {
+        if (!mFile.exists()) {
+            return new ArrayList<>();
+        }
+
+        final Map<String, StripeRequest> requests = new LinkedHashMap<>();
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(mFile)))) {
+            while (true) {
+                final int recordLength = input.readInt();
+                if (recordLength <= 0 || recordLength > mMaxSizeBytes) {
+                    break;
+                }
+                final byte[] record = new byte[recordLength];
+                input.readFully(record);
+                final JournaledRequest request = decode(record);
+                if (request != null && nowMillis - request.mCreatedAtMillis <= MAX_AGE_MILLIS) {
+                    requests.put(request.mEventId, request);
+                }
+            }
+        } catch (EOFException ignore) {
+            // reached the end of the journal, or a record that was only partly written
+        } catch (IOException | IllegalArgumentException ignore) {
+            // the journal is corrupt, so keep whatever could be read
+        }
+
+        //noinspection ResultOfMethodCallIgnored
+        mFile.delete();
+        return new ArrayList<>(requests.values());
+    }
+
+    private static boolean isAnalyticsRequest(@NonNull StripeRequest request) {
+        // a journaled request was an analytics request when it was first journaled
+        return request instanceof JournaledRequest ||
+                (request instanceof ApiRequest && ((ApiRequest) request).isAnalyticsRequest());
+    }
+
+    @NonNull
+    private static byte[] encode(@NonNull StripeRequest request, long nowMillis)
+            throws IOException, InvalidRequestException {
+        final String eventId;
+        final long createdAtMillis;
+        if (request instanceof JournaledRequest) {
+            eventId = ((JournaledRequest) request).mEventId;
+            createdAtMillis = ((JournaledRequest) request).mCreatedAtMillis;
+        } else {
+            eventId = UUID.randomUUID().toString();
+            createdAtMillis = nowMillis;
+        }
+        final Map<String, String> headers = request.getHeaders();
+        final boolean isAuthorized = headers.remove(ApiRequest.HEADER_AUTHORIZATION) != null;
+        final byte[] body = StripeRequest.Method.POST == request.method ?
+                request.getOutputBytes() : new byte[0];
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(RECORD_VERSION);
+            output.writeUTF(eventId);
+            output.writeLong(createdAtMillis);
+            output.writeUTF(request.method.code);
+            output.writeUTF(request.getUrl());
+            output.writeUTF(request.getContentType());
+            output.writeBoolean(isAuthorized);
+            output.writeShort(headers.size());
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                output.writeUTF(header.getKey());
+                output.writeUTF(header.getValue());
+            }
+            output.writeInt(body.length);
+            output.write(body);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Nullable
+    private static JournaledRequest decode(@NonNull byte[] record) throws IOException {
+        final DataInputStream input = new DataInputStream(
+                new ByteArrayInputStream(record));
+        if (input.readByte() != RECORD_VERSION) {
+            return null;
+        }
+
+        final String eventId = input.readUTF();
+        final long createdAtMillis = input.readLong();
+        final StripeRequest.Method method = StripeRequest.Method.valueOf(input.readUTF());
+        final String url = input.readUTF();
+        final String contentType = input.readUTF();
+        final String publishableKey;
+        if (input.readBoolean()) {
+            publishableKey = getPublishableKey(url);
+            if (publishableKey == null) {
+                // there is no way to authorize the request again
+                return null;
+            }
+        } else {
+            publishableKey = null;
+        }
+        final int headerCount = input.readShort();
+        final Map<String, String> headers = new HashMap<>(headerCount);
+        for (int i = 0; i < headerCount; i++) {
+            headers.put(input.readUTF(), input.readUTF());
+        }
+        final int bodyLength = input.readInt();
+        if (bodyLength < 0 || bodyLength > record.length) {
+            return null;
+        }
+        final byte[] body = new byte[bodyLength];
+        input.readFully(body);
+        return new JournaledRequest(eventId, createdAtMillis, method, url, contentType,
+                publishableKey, headers, body);
+    }
+
+    /**
+     * @return the publishable key in the query of the URL, or {@code null} if there is none
+     */
+    @Nullable
+    @VisibleForTesting
+    static String getPublishableKey(@NonNull String url) {
+        final int queryStart = url.indexOf('?');
+        if (queryStart < 0) {
+            return null;
+        }
+
+        for (String param : url.substring(queryStart + 1).split("&")) {
+            if (param.startsWith(PARAM_PUBLISHABLE_KEY)) {
+                try {
+                    return ApiKeyValidator.get().requireValid(URLDecoder.decode(
+                            param.substring(PARAM_PUBLISHABLE_KEY.length()), "UTF-8"));
+                } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+                    // not a publishable key
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A request read back from the journal. It is replayed as it was first sent.
+     */
+    static final class JournaledRequest extends StripeRequest {
+        @NonNull final String mEventId;
+        final long mCreatedAtMillis;
+        @NonNull private final String mContentType;
+        @Nullable private final String mPublishableKey;
+        @NonNull private final Map<String, String> mHeaders;
+        @NonNull private final byte[] mBody;
+
+        private JournaledRequest(@NonNull String eventId,
+                                 long createdAtMillis,
+                                 @NonNull Method method,
+                                 @NonNull String url,
+                                 @NonNull String contentType,
+                                 @Nullable String publishableKey,
+                                 @NonNull Map<String, String> headers,
+                                 @NonNull byte[] body) {
+            super(method, url, null, contentType);
+            mEventId = eventId;
+            mCreatedAtMillis = createdAtMillis;
+            mContentType = contentType;
+            mPublishableKey = publishableKey;
+            mHeaders = headers;
+            mBody = body;
+        }
+
+        @NonNull
+        @Override
+        String getContentType() {
+            return mContentType;
+        }
+
+        @NonNull
+        @Override
+        Map<String, String> createHeaders() {
+            final Map<String, String> headers = new HashMap<>(mHeaders);
+            if (mPublishableKey != null) {
+                headers.put(ApiRequest.HEADER_AUTHORIZATION,
+                        ApiRequest.createAuthorization(mPublishableKey));
+            }
+            return headers;
+        }
+
+        @NonNull
+        @Override
+        String getUserAgent() {
+            final String userAgent = mHeaders.get(HEADER_USER_AGENT);
+            return userAgent != null ? userAgent : DEFAULT_USER_AGENT;
+        }
+
+        @NonNull
+        @Override
+        byte[] getOutputBytes() throws UnsupportedEncodingException, InvalidRequestException {
+            return mBody;
+        }
+
+        @NonNull
+        @Override
+        RequestScheduler.Priority getPriority() {
+            return RequestScheduler.Priority.Background;
+        }
+
+        @Override
+        public int hashCode() {
+            return ObjectUtils.hash(getBaseHashCode(), mEventId);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            return super.equals(obj) || (obj instanceof JournaledRequest &&
+                    typedEquals((JournaledRequest) obj));
+        }
+
+        private boolean typedEquals(@NonNull JournaledRequest obj) {
+            return super.typedEquals(obj) && ObjectUtils.equals(mEventId, obj.mEventId);
+        }
+    }
+}
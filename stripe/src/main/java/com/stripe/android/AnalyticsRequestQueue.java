@@ -0,0 +1,184 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+
+import com.stripe.android.exception.APIConnectionException;
+import com.stripe.android.exception.StripeException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded, in-memory queue of fire-and-forget analytics and fingerprint requests.
+ *
+ * Requests are sent off the calling thread, in batches of up to {@link #mBatchSize}. A batch is
+ * flushed as soon as that many requests are queued, or {@link #mFlushDelayMillis} after the first
+ * request was queued, whichever comes first. When {@link #mCapacity} requests are already waiting,
+ * new requests are dropped so that analytics can never grow without bound or delay API requests.
+ *
+ * Analytics requests that fail because the device is offline are written to an
+ * {@link AnalyticsJournal} and replayed after the next batch that is sent successfully.
+ */
+class AnalyticsRequestQueue {
+    private static final int DEFAULT_CAPACITY = 100;
+    private static final int DEFAULT_BATCH_SIZE = 10;
+    private static final long DEFAULT_FLUSH_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    @NonNull private static final ScheduledExecutorService DEFAULT_SCHEDULER =
+            createScheduler();
+
+    @NonNull private final RequestExecutor mRequestExecutor;
+    @NonNull private final AnalyticsJournal mJournal;
+    @NonNull private final ScheduledExecutorService mScheduler;
+    private final int mCapacity;
+    private final int mBatchSize;
+    private final long mFlushDelayMillis;
+
+    @NonNull private final Queue<StripeRequest> mRequests;
+    @NonNull private final Runnable mFlushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+    private boolean mIsFlushScheduled;
+
+    AnalyticsRequestQueue(@NonNull RequestExecutor requestExecutor,
+                          @NonNull AnalyticsJournal journal) {
+        this(requestExecutor, journal, DEFAULT_SCHEDULER, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE,
+                DEFAULT_FLUSH_DELAY_MILLIS);
+    }
+
+    @VisibleForTesting
+    AnalyticsRequestQueue(@NonNull RequestExecutor requestExecutor,
+                          @NonNull AnalyticsJournal journal,
+                          @NonNull ScheduledExecutorService scheduler,
+                          int capacity,
+                          int batchSize,
+                          long flushDelayMillis) {
+        mRequestExecutor = requestExecutor;
+        mJournal = journal;
+        mScheduler = scheduler;
+        mCapacity = capacity;
+        mBatchSize = batchSize;
+        mFlushDelayMillis = flushDelayMillis;
+        mRequests = new ArrayDeque<>(capacity);
+    }
+
+    /**
+     * Queue a request to be sent in the background.
+     *
+     * @return {@code true} if the request was queued, {@code false} if it was dropped because
+     *         the queue is full
+     */
+    boolean enqueue(@NonNull StripeRequest request) {
+        synchronized (mRequests) {
+            if (mRequests.size() >= mCapacity) {
+                return false;
+            }
+
+            mRequests.add(request);
+            if (mRequests.size() == mBatchSize) {
+                // a full batch is waiting, so send it now
+                scheduleFlush(0);
+            } else {
+                scheduleFlush(mFlushDelayMillis);
+            }
+            return true;
+        }
+    }
+
+    @VisibleForTesting
+    int size() {
+        synchronized (mRequests) {
+            return mRequests.size();
+        }
+    }
+
+    /**
+     * Send the next batch of queued requests, then schedule another flush if requests remain.
+     */
+    @VisibleForTesting
+    void flush() {
+        final List<StripeRequest> batch = new ArrayList<>(mBatchSize);
+        synchronized (mRequests) {
+            mIsFlushScheduled = false;
+            while (batch.size() < mBatchSize && !mRequests.isEmpty()) {
+                batch.add(mRequests.poll());
+            }
+        }
+
+        boolean isOnline = false;
+        boolean isOffline = false;
+        for (StripeRequest request : batch) {
+            try {
+                mRequestExecutor.executeAndForget(request);
+                isOnline = true;
+            } catch (APIConnectionException e) {
+                // keep an analytics request so that it can be sent once the device is back
+                // online; the journal ignores other requests
+                mJournal.append(request);
+                isOffline = true;
+            } catch (StripeException ignore) {
+                // We're just logging. No need to crash here or attempt to re-log things.
+            }
+        }
+
+        if (isOnline && !isOffline) {
+            replayJournal();
+        }
+
+        synchronized (mRequests) {
+            if (!mRequests.isEmpty()) {
+                scheduleFlush(mRequests.size() >= mBatchSize ? 0 : mFlushDelayMillis);
+            }
+        }
+    }
+
+    /**
+     * Re-queue requests that were journaled while the device was offline.
+     */
+    private void replayJournal() {
+        for (StripeRequest request : mJournal.drain()) {
+            if (!enqueue(request)) {
+                mJournal.append(request);
+            }
+        }
+    }
+
+    /**
+     * Must be called while holding the {@link #mRequests} lock.
+     */
+    private void scheduleFlush(long delayMillis) {
+        if (!mIsFlushScheduled || delayMillis == 0) {
+            mIsFlushScheduled = true;
+            mScheduler.schedule(mFlushRunnable, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @NonNull
+    private static ScheduledExecutorService createScheduler() {
+        final ScheduledThreadPoolExecutor scheduler =
+                new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                    @NonNull
+                    @Override
+                    public Thread newThread(@NonNull Runnable runnable) {
+                        final Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+                        thread.setName("StripeAnalytics");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        scheduler.setKeepAliveTime(2, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+        return scheduler;
+    }
+}
@@ -1,6 +1,7 @@
 package com.stripe.android;
 
-import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
@@ -8,16 +9,65 @@ import com.stripe.android.exception.StripeException;
 
 import org.json.JSONException;
 
-abstract class ApiOperation<ResultType>
-        extends AsyncTask<Void, Void, ResultWrapper<ResultType>> {
+import java.util.concurrent.Executor;
+
+/**
+ * An API call that runs in the background and delivers its result to an
+ * {@link ApiResultCallback} on the main thread.
+ */
+abstract class ApiOperation<ResultType> implements Runnable, Cancellable {
     @NonNull private final ApiResultCallback<ResultType> mCallback;
+    @NonNull private final Handler mMainHandler;
+    private volatile boolean mIsCancelled;
 
     ApiOperation(@NonNull ApiResultCallback<ResultType> callback) {
         mCallback = callback;
+        mMainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Run this operation on the SDK's {@link ApiOperationExecutor#getDefault() default executor}.
+     */
+    @NonNull
+    final ApiOperation<ResultType> execute() {
+        return executeOnExecutor(ApiOperationExecutor.getDefault());
+    }
+
+    @NonNull
+    final ApiOperation<ResultType> executeOnExecutor(@NonNull Executor executor) {
+        executor.execute(this);
+        return this;
+    }
+
+    @Override
+    public final void cancel() {
+        mIsCancelled = true;
+    }
+
+    @Override
+    public final boolean isCancelled() {
+        return mIsCancelled;
     }
 
     @Override
-    protected final ResultWrapper<ResultType> doInBackground(Void... voids) {
+    public final void run() {
+        if (mIsCancelled) {
+            return;
+        }
+
+        final ResultWrapper<ResultType> resultWrapper = getResultWrapper();
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (!mIsCancelled) {
+                    deliverResult(resultWrapper);
+                }
+            }
+        });
+    }
+
+    @NonNull
+    private ResultWrapper<ResultType> getResultWrapper() {
         try {
             return new ResultWrapper<>(getResult());
         } catch (StripeException | JSONException e) {
@@ -25,9 +75,7 @@ abstract class ApiOperation<ResultType>
         }
     }
 
-    @Override
-    protected final void onPostExecute(@NonNull ResultWrapper<ResultType> resultWrapper) {
-        super.onPostExecute(resultWrapper);
+    private void deliverResult(@NonNull ResultWrapper<ResultType> resultWrapper) {
         if (resultWrapper.result != null) {
             mCallback.onSuccess(resultWrapper.result);
         } else if (resultWrapper.error != null) {
@@ -38,6 +86,15 @@ abstract class ApiOperation<ResultType>
         }
     }
 
+    /**
+     * @return how urgently this operation needs to run. Operations that are waiting to run
+     *         are started in order of priority.
+     */
+    @NonNull
+    RequestScheduler.Priority getPriority() {
+        return RequestScheduler.Priority.Interactive;
+    }
+
     @Nullable
     abstract ResultType getResult() throws StripeException, JSONException;
 }
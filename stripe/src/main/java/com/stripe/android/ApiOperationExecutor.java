@@ -0,0 +1,120 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The SDK's default {@link Executor} for {@link ApiOperation}s.
+ *
+ * Runs up to {@link #THREAD_POOL_SIZE} operations in parallel on its own worker threads, so a
+ * slow request does not hold up other Stripe calls (or the app's own
+ * {@link android.os.AsyncTask AsyncTasks}) the way the global serial
+ * {@link android.os.AsyncTask} executor does. Idle workers are released after
+ * {@link #KEEP_ALIVE_TIME} seconds.
+ *
+ * Queued work runs in order of {@link RequestScheduler.Priority}, so a payment confirmation
+ * submitted behind background work starts as soon as a worker is free. An {@link ApiOperation}
+ * has the priority of its request; any other work runs in the background.
+ */
+final class ApiOperationExecutor {
+    private static final int THREAD_POOL_SIZE = 4;
+    // Sets the amount of time an idle thread waits before terminating
+    private static final int KEEP_ALIVE_TIME = 2;
+    // Sets the Time Unit to seconds
+    private static final TimeUnit KEEP_ALIVE_TIME_UNIT = TimeUnit.SECONDS;
+
+    @NonNull private static final Executor DEFAULT_EXECUTOR =
+            createThreadPoolExecutor(THREAD_POOL_SIZE);
+
+    private ApiOperationExecutor() {
+    }
+
+    @NonNull
+    static Executor getDefault() {
+        return DEFAULT_EXECUTOR;
+    }
+
+    @NonNull
+    @VisibleForTesting
+    static ThreadPoolExecutor createThreadPoolExecutor(int threadPoolSize) {
+        final ThreadPoolExecutor executor = new PriorityThreadPoolExecutor(threadPoolSize);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class PriorityThreadPoolExecutor extends ThreadPoolExecutor {
+        @NonNull private final AtomicLong mSequence = new AtomicLong();
+
+        private PriorityThreadPoolExecutor(int threadPoolSize) {
+            super(threadPoolSize,
+                    threadPoolSize,
+                    KEEP_ALIVE_TIME,
+                    KEEP_ALIVE_TIME_UNIT,
+                    new PriorityBlockingQueue<Runnable>(),
+                    new ApiThreadFactory());
+        }
+
+        @Override
+        public void execute(@NonNull Runnable runnable) {
+            final RequestScheduler.Priority priority = runnable instanceof ApiOperation ?
+                    ((ApiOperation<?>) runnable).getPriority() :
+                    RequestScheduler.Priority.Background;
+            super.execute(new PrioritizedRunnable(runnable, priority,
+                    mSequence.getAndIncrement()));
+        }
+    }
+
+    /**
+     * Orders queued work by priority, then by the order in which it was submitted.
+     */
+    private static final class PrioritizedRunnable
+            implements Runnable, Comparable<PrioritizedRunnable> {
+        @NonNull private final Runnable mRunnable;
+        @NonNull private final RequestScheduler.Priority mPriority;
+        private final long mSequence;
+
+        private PrioritizedRunnable(@NonNull Runnable runnable,
+                                    @NonNull RequestScheduler.Priority priority,
+                                    long sequence) {
+            mRunnable = runnable;
+            mPriority = priority;
+            mSequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            mRunnable.run();
+        }
+
+        @Override
+        public int compareTo(@NonNull PrioritizedRunnable other) {
+            final int priorityComparison = mPriority.compareTo(other.mPriority);
+            if (priorityComparison != 0) {
+                return priorityComparison;
+            }
+            return mSequence < other.mSequence ? -1 : (mSequence == other.mSequence ? 0 : 1);
+        }
+    }
+
+    private static final class ApiThreadFactory implements ThreadFactory {
+        @NonNull private final AtomicInteger mThreadCount = new AtomicInteger(1);
+
+        @NonNull
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            final Thread thread = new Thread(runnable, String.format(Locale.ROOT,
+                    "StripeApiOperation #%d", mThreadCount.getAndIncrement()));
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -15,6 +15,7 @@ import java.util.AbstractMap;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * A class representing a Stripe API or Analytics request.
@@ -25,8 +26,15 @@ final class ApiRequest extends StripeRequest {
 
     private static final String ANALYTICS_HOST = "https://q.stripe.com";
 
+    static final String HEADER_AUTHORIZATION = "Authorization";
+    static final String HEADER_IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+
     @NonNull final Options options;
     @Nullable private final AppInfo mAppInfo;
+    @Nullable private final String mIdempotencyKey;
+    @NonNull private final RequestScheduler.Priority mPriority;
+    @Nullable private final String mIfNoneMatch;
 
     @VisibleForTesting
     ApiRequest(@NonNull Method method,
@@ -34,9 +42,24 @@ final class ApiRequest extends StripeRequest {
                @Nullable Map<String, ?> params,
                @NonNull Options options,
                @Nullable AppInfo appInfo) {
+        this(method, url, params, options, appInfo, RequestScheduler.Priority.Interactive, null);
+    }
+
+    private ApiRequest(@NonNull Method method,
+                       @NonNull String url,
+                       @Nullable Map<String, ?> params,
+                       @NonNull Options options,
+                       @Nullable AppInfo appInfo,
+                       @NonNull RequestScheduler.Priority priority,
+                       @Nullable String ifNoneMatch) {
         super(method, url, params, MIME_TYPE);
         this.options = options;
         mAppInfo = appInfo;
+        mPriority = priority;
+        mIfNoneMatch = ifNoneMatch;
+        // a POST keeps the same key for all of its attempts, so that the API can recognize a
+        // retry of a request that it already processed
+        mIdempotencyKey = Method.POST == method ? UUID.randomUUID().toString() : null;
     }
 
     @NonNull
@@ -69,6 +92,19 @@ final class ApiRequest extends StripeRequest {
         return new ApiRequest(Method.POST, url, params, options, appInfo);
     }
 
+    /**
+     * Create a POST request that a payment is waiting on, such as a confirmation. It is sent
+     * ahead of other requests.
+     */
+    @NonNull
+    static ApiRequest createPaymentPost(@NonNull String url,
+                                        @NonNull Map<String, ?> params,
+                                        @NonNull Options options,
+                                        @Nullable AppInfo appInfo) {
+        return new ApiRequest(Method.POST, url, params, options, appInfo,
+                RequestScheduler.Priority.PaymentCritical, null);
+    }
+
     @NonNull
     static ApiRequest createDelete(@NonNull String url,
                                    @NonNull Options options,
@@ -80,7 +116,24 @@ final class ApiRequest extends StripeRequest {
     static ApiRequest createAnalyticsRequest(@NonNull Map<String, ?> params,
                                              @NonNull Options options,
                                              @Nullable AppInfo appInfo) {
-        return new ApiRequest(Method.GET, ANALYTICS_HOST, params, options, appInfo);
+        return new ApiRequest(Method.GET, ANALYTICS_HOST, params, options, appInfo,
+                RequestScheduler.Priority.Background, null);
+    }
+
+    boolean isAnalyticsRequest() {
+        return ANALYTICS_HOST.equals(getBaseUrl());
+    }
+
+    /**
+     * Create a copy of this GET that asks the API to respond with
+     * {@link java.net.HttpURLConnection#HTTP_NOT_MODIFIED} if the object still has the given
+     * entity tag.
+     *
+     * @param eTag the value of the {@code ETag} header of an earlier response to this request
+     */
+    @NonNull
+    ApiRequest createConditional(@NonNull String eTag) {
+        return new ApiRequest(method, getBaseUrl(), params, options, mAppInfo, mPriority, eTag);
     }
 
     @NonNull
@@ -91,14 +144,24 @@ final class ApiRequest extends StripeRequest {
         headers.put("Accept", "application/json");
         headers.put("X-Stripe-Client-User-Agent", createStripeClientUserAgent());
         headers.put("Stripe-Version", ApiVersion.getDefault().getCode());
-        headers.put("Authorization",
-                String.format(Locale.ENGLISH, "Bearer %s", options.apiKey));
+        headers.put(HEADER_AUTHORIZATION, createAuthorization(options.apiKey));
         if (options.stripeAccount != null) {
             headers.put("Stripe-Account", options.stripeAccount);
         }
+        if (mIdempotencyKey != null) {
+            headers.put(HEADER_IDEMPOTENCY_KEY, mIdempotencyKey);
+        }
+        if (mIfNoneMatch != null) {
+            headers.put(HEADER_IF_NONE_MATCH, mIfNoneMatch);
+        }
         return headers;
     }
 
+    @NonNull
+    static String createAuthorization(@NonNull String apiKey) {
+        return String.format(Locale.ENGLISH, "Bearer %s", apiKey);
+    }
+
     @NonNull
     private String createStripeClientUserAgent() {
         final AbstractMap<String, String> propertyMap = new HashMap<>();
@@ -115,6 +178,12 @@ final class ApiRequest extends StripeRequest {
         return new JSONObject(propertyMap).toString();
     }
 
+    @NonNull
+    @Override
+    RequestScheduler.Priority getPriority() {
+        return mPriority;
+    }
+
     @NonNull
     @Override
     String getUserAgent() {
@@ -135,7 +204,7 @@ final class ApiRequest extends StripeRequest {
 
     @Override
     public int hashCode() {
-        return ObjectUtils.hash(getBaseHashCode(), options, mAppInfo);
+        return ObjectUtils.hash(getBaseHashCode(), options, mAppInfo, mIfNoneMatch);
     }
 
     @Override
@@ -147,7 +216,8 @@ final class ApiRequest extends StripeRequest {
     private boolean typedEquals(@NonNull ApiRequest obj) {
         return super.typedEquals(obj) &&
                 ObjectUtils.equals(options, obj.options) &&
-                ObjectUtils.equals(mAppInfo, obj.mAppInfo);
+                ObjectUtils.equals(mAppInfo, obj.mAppInfo) &&
+                ObjectUtils.equals(mIfNoneMatch, obj.mIfNoneMatch);
     }
 
     /**
@@ -0,0 +1,19 @@
+package com.stripe.android;
+
+/**
+ * A call to the Stripe API that runs in the background, returned so that it can be cancelled,
+ * e.g. when the screen that started it goes away.
+ */
+public interface Cancellable {
+
+    /**
+     * Cancel the call. If it has not started yet, it will not run. If it is already running,
+     * its result will not be delivered to the callback.
+     */
+    void cancel();
+
+    /**
+     * @return {@code true} if {@link #cancel()} was called
+     */
+    boolean isCancelled();
+}
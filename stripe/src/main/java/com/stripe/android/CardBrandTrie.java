@@ -0,0 +1,161 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.stripe.android.model.Card;
+
+/**
+ * Finds the brand of a card from the first digits of its number, with a trie of the digits of
+ * the prefixes in {@link Card}. A lookup reads the number one digit at a time, skipping the
+ * spaces and hyphens that {@link StripeTextUtils#removeSpacesAndHyphens(String)} removes,
+ * without copying it, and returns the brand with the lengths that its numbers can have.
+ */
+final class CardBrandTrie {
+    private static final int NO_BRAND = -1;
+
+    @NonNull static final Entry UNKNOWN = new Entry(Card.UNKNOWN, new int[0]);
+
+    // in the order that the prefixes are checked in, so that the first brand wins if the
+    // prefixes of two brands overlap
+    @NonNull private static final Entry[] ENTRIES = {
+            new Entry(Card.AMERICAN_EXPRESS, new int[] {Card.MAX_LENGTH_AMERICAN_EXPRESS}),
+            new Entry(Card.DISCOVER, new int[] {Card.MAX_LENGTH_STANDARD}),
+            new Entry(Card.JCB, new int[] {Card.MAX_LENGTH_STANDARD}),
+            new Entry(Card.DINERS_CLUB, new int[] {Card.MAX_LENGTH_DINERS_CLUB}),
+            new Entry(Card.VISA, new int[] {Card.MAX_LENGTH_STANDARD}),
+            new Entry(Card.MASTERCARD, new int[] {Card.MAX_LENGTH_STANDARD}),
+            new Entry(Card.UNIONPAY, new int[] {Card.MAX_LENGTH_STANDARD})
+    };
+    @NonNull private static final String[][] PREFIXES = {
+            Card.PREFIXES_AMERICAN_EXPRESS,
+            Card.PREFIXES_DISCOVER,
+            Card.PREFIXES_JCB,
+            Card.PREFIXES_DINERS_CLUB,
+            Card.PREFIXES_VISA,
+            Card.PREFIXES_MASTERCARD,
+            Card.PREFIXES_UNIONPAY
+    };
+
+    @NonNull private static final Node ROOT = new Node();
+
+    static {
+        for (int brand = 0; brand < PREFIXES.length; brand++) {
+            for (String prefix : PREFIXES[brand]) {
+                Node node = ROOT;
+                for (int i = 0; i < prefix.length(); i++) {
+                    node = node.getOrAddChild(prefix.charAt(i) - '0');
+                }
+                if (node.mBrand == NO_BRAND) {
+                    node.mBrand = brand;
+                }
+            }
+        }
+    }
+
+    private CardBrandTrie() {
+    }
+
+    /**
+     * @param cardNumber a card number or the start of one, which may have spaces or hyphens
+     * @return the brand of the card, or {@link #UNKNOWN}
+     */
+    @NonNull
+    static Entry lookup(@Nullable CharSequence cardNumber) {
+        return lookup(cardNumber, true);
+    }
+
+    /**
+     * @param skipSpacesAndHyphens {@code false} if the number has no spaces or hyphens, so
+     *                             that any it has anyway are not part of a prefix
+     */
+    @NonNull
+    static Entry lookup(@Nullable CharSequence cardNumber, boolean skipSpacesAndHyphens) {
+        if (cardNumber == null) {
+            return UNKNOWN;
+        }
+
+        // every prefix that the number starts with is on the path, and the first brand wins
+        Node node = ROOT;
+        int brand = NO_BRAND;
+        for (int i = 0; i < cardNumber.length(); i++) {
+            final char c = cardNumber.charAt(i);
+            if (skipSpacesAndHyphens && StripeTextUtils.isSpaceOrHyphen(c)) {
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                break;
+            }
+
+            node = node.mChildren == null ? null : node.mChildren[c - '0'];
+            if (node == null) {
+                break;
+            }
+            if (node.mBrand != NO_BRAND && (brand == NO_BRAND || node.mBrand < brand)) {
+                brand = node.mBrand;
+            }
+        }
+        return brand == NO_BRAND ? UNKNOWN : ENTRIES[brand];
+    }
+
+    /**
+     * @return the entry for a {@link Card.CardBrand}, or {@link #UNKNOWN}
+     */
+    @NonNull
+    static Entry forBrand(@Nullable @Card.CardBrand String brand) {
+        for (Entry entry : ENTRIES) {
+            if (entry.mBrand.equals(brand)) {
+                return entry;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * What is known about a card brand.
+     */
+    static final class Entry {
+        @NonNull @Card.CardBrand private final String mBrand;
+        @NonNull private final int[] mLengths;
+
+        private Entry(@NonNull @Card.CardBrand String brand, @NonNull int[] lengths) {
+            mBrand = brand;
+            mLengths = lengths;
+        }
+
+        @NonNull
+        @Card.CardBrand
+        String getBrand() {
+            return mBrand;
+        }
+
+        /**
+         * @return {@code true} if a number of this brand can have this many digits, which is
+         *         never the case for {@link #UNKNOWN}
+         */
+        boolean isValidLength(int length) {
+            for (int validLength : mLengths) {
+                if (length == validLength) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Node {
+        @Nullable private Node[] mChildren;
+        private int mBrand = NO_BRAND;
+
+        @NonNull
+        Node getOrAddChild(int digit) {
+            if (mChildren == null) {
+                mChildren = new Node[10];
+            }
+            if (mChildren[digit] == null) {
+                mChildren[digit] = new Node();
+            }
+            return mChildren[digit];
+        }
+    }
+}
@@ -12,10 +12,6 @@ import static com.stripe.android.model.Card.CardBrand;
  */
 public class CardUtils {
 
-    private static final int LENGTH_COMMON_CARD = 16;
-    private static final int LENGTH_AMERICAN_EXPRESS = 15;
-    private static final int LENGTH_DINERS_CLUB = 14;
-
     /**
      * Returns a {@link Card.CardBrand} corresponding to a partial card number,
      * or {@link Card#UNKNOWN} if the card brand can't be determined from the input value.
@@ -27,7 +23,21 @@ public class CardUtils {
     @NonNull
     @Card.CardBrand
     public static String getPossibleCardType(@Nullable String cardNumber) {
-        return getPossibleCardType(cardNumber, true);
+        return CardBrandTrie.lookup(cardNumber).getBrand();
+    }
+
+    /**
+     * Returns a {@link Card.CardBrand} corresponding to a partial card number, without copying
+     * the text, e.g. of a field as it is edited.
+     *
+     * @param cardNumber a credit card number or partial card number
+     * @return the {@link Card.CardBrand} corresponding to that number,
+     * or {@link Card#UNKNOWN} if it can't be determined
+     */
+    @NonNull
+    @Card.CardBrand
+    public static String getPossibleCardType(@Nullable CharSequence cardNumber) {
+        return CardBrandTrie.lookup(cardNumber).getBrand();
     }
 
     /**
@@ -87,8 +97,8 @@ public class CardUtils {
      * @return {@code true} if the card number is of known type and the correct length
      */
     static boolean isValidCardLength(@Nullable String cardNumber) {
-        return cardNumber != null && isValidCardLength(cardNumber,
-                getPossibleCardType(cardNumber, false));
+        return cardNumber != null
+                && CardBrandTrie.lookup(cardNumber, false).isValidLength(cardNumber.length());
     }
 
     /**
@@ -102,50 +112,7 @@ public class CardUtils {
     static boolean isValidCardLength(
             @Nullable String cardNumber,
             @NonNull @CardBrand String cardBrand) {
-        if (cardNumber == null || Card.UNKNOWN.equals(cardBrand)) {
-            return false;
-        }
-
-        int length = cardNumber.length();
-        switch (cardBrand) {
-            case Card.AMERICAN_EXPRESS:
-                return length == LENGTH_AMERICAN_EXPRESS;
-            case Card.DINERS_CLUB:
-                return length == LENGTH_DINERS_CLUB;
-            default:
-                return length == LENGTH_COMMON_CARD;
-        }
-    }
-
-    @NonNull
-    @Card.CardBrand
-    private static String getPossibleCardType(@Nullable String cardNumber,
-                                              boolean shouldNormalize) {
-        if (StripeTextUtils.isBlank(cardNumber)) {
-            return Card.UNKNOWN;
-        }
-
-        String spacelessCardNumber = cardNumber;
-        if (shouldNormalize) {
-            spacelessCardNumber = StripeTextUtils.removeSpacesAndHyphens(cardNumber);
-        }
-
-        if (StripeTextUtils.hasAnyPrefix(spacelessCardNumber, Card.PREFIXES_AMERICAN_EXPRESS)) {
-            return Card.AMERICAN_EXPRESS;
-        } else if (StripeTextUtils.hasAnyPrefix(spacelessCardNumber, Card.PREFIXES_DISCOVER)) {
-            return Card.DISCOVER;
-        } else if (StripeTextUtils.hasAnyPrefix(spacelessCardNumber, Card.PREFIXES_JCB)) {
-            return Card.JCB;
-        } else if (StripeTextUtils.hasAnyPrefix(spacelessCardNumber, Card.PREFIXES_DINERS_CLUB)) {
-            return Card.DINERS_CLUB;
-        } else if (StripeTextUtils.hasAnyPrefix(spacelessCardNumber, Card.PREFIXES_VISA)) {
-            return Card.VISA;
-        } else if (StripeTextUtils.hasAnyPrefix(spacelessCardNumber, Card.PREFIXES_MASTERCARD)) {
-            return Card.MASTERCARD;
-        } else if (StripeTextUtils.hasAnyPrefix(spacelessCardNumber, Card.PREFIXES_UNIONPAY)) {
-            return Card.UNIONPAY;
-        } else {
-            return Card.UNKNOWN;
-        }
+        return cardNumber != null
+                && CardBrandTrie.forBrand(cardBrand).isValidLength(cardNumber.length());
     }
 }
@@ -0,0 +1,145 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+
+import com.stripe.android.exception.APIConnectionException;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks consecutive failures of the requests to each endpoint (a host and port), so that
+ * requests to an endpoint that keeps failing fail fast instead of waiting for a timeout.
+ *
+ * After {@link #mFailureThreshold} consecutive failures, an endpoint's circuit opens and its
+ * requests are refused for {@link #mOpenMillis}. Then a single probe request is let through:
+ * if it succeeds the circuit closes, otherwise it opens again.
+ *
+ * Fire-and-forget requests, such as analytics, are shed first: they are refused while any
+ * endpoint has failed {@link #mSheddingThreshold} times in a row within the last
+ * {@link #mOpenMillis}.
+ */
+class CircuitBreaker {
+    private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    private static final int DEFAULT_SHEDDING_THRESHOLD = 2;
+    private static final long DEFAULT_OPEN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final int mFailureThreshold;
+    private final int mSheddingThreshold;
+    private final long mOpenMillis;
+    @NonNull private final Clock mClock;
+    @NonNull private final Map<String, Circuit> mCircuits = new HashMap<>();
+
+    CircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_SHEDDING_THRESHOLD, DEFAULT_OPEN_MILLIS,
+                Clock.DEFAULT);
+    }
+
+    @VisibleForTesting
+    CircuitBreaker(int failureThreshold,
+                   int sheddingThreshold,
+                   long openMillis,
+                   @NonNull Clock clock) {
+        mFailureThreshold = failureThreshold;
+        mSheddingThreshold = sheddingThreshold;
+        mOpenMillis = openMillis;
+        mClock = clock;
+    }
+
+    /**
+     * @param isSheddable {@code true} for requests that can be dropped while the network is
+     *                    degraded, such as analytics
+     * @return {@code true} if a request to the endpoint can be sent. If so, its result must be
+     *         reported with {@link #onSuccess(String)} or {@link #onFailure(String)}.
+     */
+    synchronized boolean allowRequest(@NonNull String endpoint, boolean isSheddable) {
+        final long now = mClock.currentTimeMillis();
+        if (isSheddable && isDegraded(now)) {
+            return false;
+        }
+
+        final Circuit circuit = mCircuits.get(endpoint);
+        if (circuit == null || circuit.mState == State.Closed) {
+            return true;
+        }
+
+        // open or half-open: let a single probe through once the circuit has been open long
+        // enough, or the previous probe never reported back
+        if (now - circuit.mChangedAt >= mOpenMillis) {
+            circuit.mState = State.HalfOpen;
+            circuit.mChangedAt = now;
+            return true;
+        }
+        return false;
+    }
+
+    synchronized void onSuccess(@NonNull String endpoint) {
+        mCircuits.remove(endpoint);
+    }
+
+    synchronized void onFailure(@NonNull String endpoint) {
+        final long now = mClock.currentTimeMillis();
+        Circuit circuit = mCircuits.get(endpoint);
+        if (circuit == null) {
+            circuit = new Circuit();
+            mCircuits.put(endpoint, circuit);
+        }
+
+        circuit.mFailureCount++;
+        circuit.mLastFailureAt = now;
+        if (circuit.mState == State.HalfOpen || circuit.mFailureCount >= mFailureThreshold) {
+            circuit.mState = State.Open;
+            circuit.mChangedAt = now;
+        }
+    }
+
+    @NonNull
+    @VisibleForTesting
+    synchronized State getState(@NonNull String endpoint) {
+        final Circuit circuit = mCircuits.get(endpoint);
+        return circuit != null ? circuit.mState : State.Closed;
+    }
+
+    @NonNull
+    static APIConnectionException createOpenCircuitException(@NonNull String endpoint) {
+        return new OpenCircuitException(String.format(Locale.ENGLISH,
+                "Requests to %s have been failing, so this request was not sent. "
+                        + "Please check your internet connection and try again.", endpoint));
+    }
+
+    private boolean isDegraded(long now) {
+        for (Circuit circuit : mCircuits.values()) {
+            if (circuit.mFailureCount >= mSheddingThreshold &&
+                    now - circuit.mLastFailureAt < mOpenMillis) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    enum State {
+        Closed,
+        Open,
+        HalfOpen
+    }
+
+    private static final class Circuit {
+        @NonNull private State mState = State.Closed;
+        private int mFailureCount;
+        private long mLastFailureAt;
+        private long mChangedAt;
+    }
+
+    /**
+     * Thrown instead of sending a request to an endpoint whose circuit is open. It is not
+     * worth retrying until the circuit lets a probe through.
+     */
+    static final class OpenCircuitException extends APIConnectionException {
+        private OpenCircuitException(@NonNull String message) {
+            super(message, null);
+        }
+    }
+}
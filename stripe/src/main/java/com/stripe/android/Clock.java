@@ -0,0 +1,28 @@
+package com.stripe.android;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A monotonic clock that can be replaced in tests.
+ */
+interface Clock {
+    Clock DEFAULT = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+        }
+
+        @Override
+        public void sleep(long millis) throws InterruptedException {
+            Thread.sleep(millis);
+        }
+    };
+
+    /**
+     * @return the current time in milliseconds. Only the difference between two values is
+     *         meaningful.
+     */
+    long currentTimeMillis();
+
+    void sleep(long millis) throws InterruptedException;
+}
@@ -0,0 +1,71 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import com.stripe.android.exception.APIConnectionException;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sets up a connection to the Stripe API in the background, so that the first API request
+ * made afterwards does not have to wait for DNS resolution, TCP and TLS handshakes, or the
+ * initialization of the {@link StripeSSLSocketFactory}.
+ */
+class ConnectionWarmer {
+    @Nullable private static ConnectionWarmer sDefaultInstance;
+
+    @NonNull private final RequestExecutor mRequestExecutor;
+    @NonNull private final Executor mExecutor;
+    @NonNull private final AtomicBoolean mIsWarmingUp = new AtomicBoolean();
+
+    /**
+     * @return the warmer used by {@link PaymentConfiguration}, which shares the
+     *         {@link RequestExecutor#getDefault() default RequestExecutor}
+     */
+    @NonNull
+    static synchronized ConnectionWarmer getDefault() {
+        if (sDefaultInstance == null) {
+            sDefaultInstance = new ConnectionWarmer(RequestExecutor.getDefault());
+        }
+        return sDefaultInstance;
+    }
+
+    ConnectionWarmer(@NonNull RequestExecutor requestExecutor) {
+        this(requestExecutor, ApiOperationExecutor.getDefault());
+    }
+
+    @VisibleForTesting
+    ConnectionWarmer(@NonNull RequestExecutor requestExecutor, @NonNull Executor executor) {
+        mRequestExecutor = requestExecutor;
+        mExecutor = executor;
+    }
+
+    /**
+     * Connect to the Stripe API in the background.
+     *
+     * @return {@code true} if a connection is being set up, {@code false} if this warmer is
+     *         already doing so
+     */
+    boolean warmUp() {
+        if (!mIsWarmingUp.compareAndSet(false, true)) {
+            return false;
+        }
+
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    mRequestExecutor.warmUp(ApiRequest.API_HOST);
+                } catch (APIConnectionException ignore) {
+                    // the next API request will connect again and report the error
+                } finally {
+                    mIsWarmingUp.set(false);
+                }
+            }
+        });
+        return true;
+    }
+}
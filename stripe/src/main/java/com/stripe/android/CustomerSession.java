@@ -16,7 +16,10 @@ import android.support.v4.content.LocalBroadcastManager;
 
 import com.stripe.android.exception.StripeException;
 import com.stripe.android.model.Customer;
+import com.stripe.android.model.CustomerSource;
+import com.stripe.android.model.CustomerSourcesPage;
 import com.stripe.android.model.PaymentMethod;
+import com.stripe.android.model.PaymentMethodsPage;
 import com.stripe.android.model.ShippingInformation;
 import com.stripe.android.model.Source;
 import com.stripe.android.view.AddPaymentMethodActivity;
@@ -29,12 +32,14 @@ import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -50,15 +55,30 @@ public class CustomerSession {
 
     public static final String EVENT_SHIPPING_INFO_SAVED = "shipping_info_saved";
 
+    /**
+     * The largest page size that
+     * {@link #getPaymentMethods(PaymentMethod.Type, int, PaymentMethodsPageListener)} accepts.
+     */
+    public static final int MAX_PAYMENT_METHODS_PAGE_SIZE = 100;
+
+    /**
+     * The largest page size that
+     * {@link #getCustomerSources(int, CustomerSourcesPageListener)} accepts.
+     */
+    public static final int MAX_CUSTOMER_SOURCES_PAGE_SIZE = 100;
+
     private static final String ACTION_ADD_SOURCE = "add_source";
     private static final String ACTION_DELETE_SOURCE = "delete_source";
+    private static final String ACTION_GET_CUSTOMER_SOURCES_PAGES = "get_customer_sources_pages";
     private static final String ACTION_ATTACH_PAYMENT_METHOD = "attach_payment_method";
     private static final String ACTION_DETACH_PAYMENT_METHOD = "detach_payment_method";
     private static final String ACTION_GET_PAYMENT_METHODS = "get_payment_methods";
+    private static final String ACTION_GET_PAYMENT_METHODS_PAGES = "get_payment_methods_pages";
     private static final String ACTION_SET_DEFAULT_SOURCE = "default_source";
     private static final String ACTION_SET_CUSTOMER_SHIPPING_INFO = "set_shipping_info";
     private static final String KEY_PAYMENT_METHOD = "payment_method";
     private static final String KEY_PAYMENT_METHOD_TYPE = "payment_method_type";
+    private static final String KEY_PAGE_SIZE = "page_size";
     private static final String KEY_SOURCE = "source";
     private static final String KEY_SOURCE_TYPE = "source_type";
     private static final String KEY_SHIPPING_INFO = "shipping_info";
@@ -79,7 +99,11 @@ public class CustomerSession {
             MessageCode.SOURCE_RETRIEVED,
             MessageCode.PAYMENT_METHOD_RETRIEVED,
             MessageCode.CUSTOMER_SHIPPING_INFO_SAVED,
-            MessageCode.PAYMENT_METHODS_RETRIEVED
+            MessageCode.PAYMENT_METHODS_RETRIEVED,
+            MessageCode.PAYMENT_METHODS_PAGE_RETRIEVED,
+            MessageCode.PAYMENT_METHODS_LAST_PAGE_RETRIEVED,
+            MessageCode.CUSTOMER_SOURCES_PAGE_RETRIEVED,
+            MessageCode.CUSTOMER_SOURCES_LAST_PAGE_RETRIEVED
     })
     @Retention(RetentionPolicy.SOURCE)
     public @interface MessageCode {
@@ -89,6 +113,10 @@ public class CustomerSession {
         int PAYMENT_METHOD_RETRIEVED = 4;
         int CUSTOMER_SHIPPING_INFO_SAVED = 5;
         int PAYMENT_METHODS_RETRIEVED = 6;
+        int PAYMENT_METHODS_PAGE_RETRIEVED = 7;
+        int PAYMENT_METHODS_LAST_PAGE_RETRIEVED = 8;
+        int CUSTOMER_SOURCES_PAGE_RETRIEVED = 9;
+        int CUSTOMER_SOURCES_LAST_PAGE_RETRIEVED = 10;
     }
 
     // The maximum number of active threads we support
@@ -106,7 +134,9 @@ public class CustomerSession {
     @Nullable private Customer mCustomer;
     private long mCustomerCacheTime;
     @NonNull private final LocalBroadcastManager mLocalBroadcastManager;
-    @NonNull private final Map<String, RetrievalListener> mCustomerListeners = new HashMap<>();
+    // read by the paging operations, which stop once their listener is gone
+    @NonNull private final Map<String, RetrievalListener> mCustomerListeners =
+            new ConcurrentHashMap<>();
 
     @NonNull private final OperationIdFactory mOperationIdFactory;
     @NonNull private final EphemeralKeyManager mEphemeralKeyManager;
@@ -115,6 +145,7 @@ public class CustomerSession {
     @Nullable private final Calendar mProxyNowCalendar;
     @NonNull private final ThreadPoolExecutor mThreadPoolExecutor;
     @NonNull private final StripeApiHandler mApiHandler;
+    @NonNull private final RequestMetricsListener mMetricsListener;
 
     /**
      * Create a CustomerSession with the provided {@link EphemeralKeyProvider}.
@@ -186,7 +217,7 @@ public class CustomerSession {
     private CustomerSession(@NonNull Context context, @NonNull EphemeralKeyProvider keyProvider,
                             @Nullable AppInfo appInfo) {
         this(context, keyProvider, null, createThreadPoolExecutor(),
-                new StripeApiHandler(context, appInfo));
+                new StripeApiHandler(context, appInfo), Stripe.getRequestMetricsListener());
     }
 
     @VisibleForTesting
@@ -196,6 +227,19 @@ public class CustomerSession {
             @Nullable Calendar proxyNowCalendar,
             @NonNull ThreadPoolExecutor threadPoolExecutor,
             @NonNull StripeApiHandler apiHandler) {
+        this(context, keyProvider, proxyNowCalendar, threadPoolExecutor, apiHandler,
+                RequestMetricsListener.NO_OP);
+    }
+
+    @VisibleForTesting
+    CustomerSession(
+            @NonNull Context context,
+            @NonNull EphemeralKeyProvider keyProvider,
+            @Nullable Calendar proxyNowCalendar,
+            @NonNull ThreadPoolExecutor threadPoolExecutor,
+            @NonNull StripeApiHandler apiHandler,
+            @NonNull RequestMetricsListener metricsListener) {
+        mMetricsListener = metricsListener;
         mOperationIdFactory = new OperationIdFactory();
         mLocalBroadcastManager = LocalBroadcastManager.getInstance(context);
         mThreadPoolExecutor = threadPoolExecutor;
@@ -245,6 +289,36 @@ public class CustomerSession {
                 }
             }
 
+            @Override
+            public void onPaymentMethodsPageRetrieved(@Nullable PaymentMethodsPage page,
+                                                      boolean isLastPage,
+                                                      @NonNull String operationId) {
+                // the listener stays registered until the last page
+                final PaymentMethodsPageListener listener = (PaymentMethodsPageListener)
+                        (isLastPage ? mCustomerListeners.remove(operationId) :
+                                mCustomerListeners.get(operationId));
+                if (listener != null) {
+                    listener.onPaymentMethodsPageRetrieved(page != null ?
+                            page.paymentMethods : Collections.<PaymentMethod>emptyList(),
+                            !isLastPage);
+                }
+            }
+
+            @Override
+            public void onCustomerSourcesPageRetrieved(@Nullable CustomerSourcesPage page,
+                                                       boolean isLastPage,
+                                                       @NonNull String operationId) {
+                // the listener stays registered until the last page
+                final CustomerSourcesPageListener listener = (CustomerSourcesPageListener)
+                        (isLastPage ? mCustomerListeners.remove(operationId) :
+                                mCustomerListeners.get(operationId));
+                if (listener != null) {
+                    listener.onCustomerSourcesPageRetrieved(page != null ?
+                            page.customerSources : Collections.<CustomerSource>emptyList(),
+                            !isLastPage);
+                }
+            }
+
             @Override
             public void onCustomerShippingInfoSaved(@Nullable Customer customer) {
                 mCustomer = customer;
@@ -418,6 +492,94 @@ public class CustomerSession {
                 .retrieveEphemeralKey(operationId, ACTION_GET_PAYMENT_METHODS, arguments);
     }
 
+    /**
+     * Retrieves the customer's PaymentMethod objects of a {@link PaymentMethod.Type} one page
+     * at a time, rather than all of them at once. Each page is delivered to the listener as
+     * soon as it arrives, and the next page is requested right away, so that it is usually
+     * ready by the time the previous one has been shown.
+     *
+     * @param paymentMethodType the {@link PaymentMethod.Type} to filter by
+     * @param pageSize          the number of PaymentMethods on each page, from 1 to
+     *                          {@link #MAX_PAYMENT_METHODS_PAGE_SIZE}
+     * @param listener          a {@link PaymentMethodsPageListener} called with each page
+     */
+    public void getPaymentMethods(@NonNull PaymentMethod.Type paymentMethodType,
+                                  int pageSize,
+                                  @NonNull PaymentMethodsPageListener listener) {
+        if (pageSize < 1 || pageSize > MAX_PAYMENT_METHODS_PAGE_SIZE) {
+            throw new IllegalArgumentException("Invalid page size: " + pageSize);
+        }
+
+        final Map<String, Object> arguments = new HashMap<>();
+        arguments.put(KEY_PAYMENT_METHOD_TYPE, paymentMethodType.code);
+        arguments.put(KEY_PAGE_SIZE, pageSize);
+
+        final String operationId = mOperationIdFactory.create();
+        mCustomerListeners.put(operationId, listener);
+        mEphemeralKeyManager
+                .retrieveEphemeralKey(operationId, ACTION_GET_PAYMENT_METHODS_PAGES, arguments);
+    }
+
+    /**
+     * Retrieves all of the customer's sources one page at a time, rather than only the ones
+     * that come with the {@link Customer}. Each page is delivered to the listener as soon as
+     * it arrives, and the next page is requested right away. The sources on a page are read
+     * from the response as they are used, and the ones that can't be used on Android, such as
+     * Apple Pay cards, are left out.
+     *
+     * @param pageSize the number of sources on each page, from 1 to
+     *                 {@link #MAX_CUSTOMER_SOURCES_PAGE_SIZE}
+     * @param listener a {@link CustomerSourcesPageListener} called with each page
+     */
+    public void getCustomerSources(int pageSize, @NonNull CustomerSourcesPageListener listener) {
+        if (pageSize < 1 || pageSize > MAX_CUSTOMER_SOURCES_PAGE_SIZE) {
+            throw new IllegalArgumentException("Invalid page size: " + pageSize);
+        }
+
+        final Map<String, Object> arguments = new HashMap<>();
+        arguments.put(KEY_PAGE_SIZE, pageSize);
+
+        final String operationId = mOperationIdFactory.create();
+        mCustomerListeners.put(operationId, listener);
+        mEphemeralKeyManager
+                .retrieveEphemeralKey(operationId, ACTION_GET_CUSTOMER_SOURCES_PAGES, arguments);
+    }
+
+    /**
+     * Stop a {@link #getPaymentMethods(PaymentMethod.Type, int, PaymentMethodsPageListener)}
+     * call: no more pages are delivered to the listener, and the pages that are left are not
+     * fetched. Call this when the listener's screen goes away or starts over.
+     *
+     * @param listener the listener that was passed to the call
+     */
+    public void cancelPaymentMethodsPages(@NonNull PaymentMethodsPageListener listener) {
+        removeListener(listener);
+    }
+
+    /**
+     * Stop a {@link #getCustomerSources(int, CustomerSourcesPageListener)} call: no more pages
+     * are delivered to the listener, and the pages that are left are not fetched.
+     *
+     * @param listener the listener that was passed to the call
+     */
+    public void cancelCustomerSourcesPages(@NonNull CustomerSourcesPageListener listener) {
+        removeListener(listener);
+    }
+
+    private void removeListener(@NonNull RetrievalListener listener) {
+        mCustomerListeners.values().removeAll(Collections.singleton(listener));
+    }
+
+    /**
+     * @return {@code true} if the operation's listener is still registered, so that the next
+     *         page is worth fetching
+     */
+    private boolean isListening(@NonNull String operationId) {
+        // cancelCallbacks() interrupts the operation's thread
+        return mCustomerListeners.containsKey(operationId) &&
+                !Thread.currentThread().isInterrupted();
+    }
+
     /**
      * Set the shipping information on the current customer.
      *
@@ -554,6 +716,58 @@ public class CustomerSession {
         };
     }
 
+    @NonNull
+    private Runnable createGetPaymentMethodsPagesRunnable(
+            @NonNull final CustomerEphemeralKey key,
+            @NonNull final String paymentMethodType,
+            final int pageSize,
+            @NonNull final String operationId) {
+        final List<String> productUsageTokens = new ArrayList<>(mProductUsageTokens);
+        return new CustomerSessionRunnable<PaymentMethodsPage>(mUiThreadHandler,
+                mLocalBroadcastManager, MessageCode.PAYMENT_METHODS_LAST_PAGE_RETRIEVED,
+                operationId) {
+            @Nullable
+            @Override
+            public PaymentMethodsPage createMessageObject() throws StripeException {
+                PaymentMethodsPage page = getCustomerPaymentMethodsPageWithKey(key,
+                        paymentMethodType, pageSize, null, productUsageTokens);
+                while (page != null && page.hasMore && page.getLastPaymentMethodId() != null
+                        && isListening(operationId)) {
+                    // deliver the page, and fetch the next one while it is being shown
+                    sendMessage(MessageCode.PAYMENT_METHODS_PAGE_RETRIEVED, page);
+                    page = getCustomerPaymentMethodsPageWithKey(key, paymentMethodType,
+                            pageSize, page.getLastPaymentMethodId(), productUsageTokens);
+                }
+                return page;
+            }
+        };
+    }
+
+    @NonNull
+    private Runnable createGetCustomerSourcesPagesRunnable(
+            @NonNull final CustomerEphemeralKey key,
+            final int pageSize,
+            @NonNull final String operationId) {
+        return new CustomerSessionRunnable<CustomerSourcesPage>(mUiThreadHandler,
+                mLocalBroadcastManager, MessageCode.CUSTOMER_SOURCES_LAST_PAGE_RETRIEVED,
+                operationId) {
+            @Nullable
+            @Override
+            public CustomerSourcesPage createMessageObject() throws StripeException {
+                CustomerSourcesPage page = mApiHandler.getCustomerSourcesPage(
+                        key.getCustomerId(), pageSize, null, key.getSecret());
+                while (page != null && page.hasMore && page.getLastCustomerSourceId() != null
+                        && isListening(operationId)) {
+                    // deliver the page, and fetch the next one while it is being shown
+                    sendMessage(MessageCode.CUSTOMER_SOURCES_PAGE_RETRIEVED, page);
+                    page = mApiHandler.getCustomerSourcesPage(key.getCustomerId(), pageSize,
+                            page.getLastCustomerSourceId(), key.getSecret());
+                }
+                return page;
+            }
+        };
+    }
+
     @NonNull
     private Runnable createSetCustomerSourceDefaultRunnable(
             @NonNull final CustomerEphemeralKey key,
@@ -598,8 +812,21 @@ public class CustomerSession {
         };
     }
 
-    private void executeRunnable(@NonNull Runnable runnable) {
-        mThreadPoolExecutor.execute(runnable);
+    private void executeRunnable(@NonNull final Runnable runnable) {
+        if (mMetricsListener == RequestMetricsListener.NO_OP) {
+            mThreadPoolExecutor.execute(runnable);
+            return;
+        }
+
+        final long queuedTime = System.nanoTime();
+        mThreadPoolExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                mMetricsListener.onQueueWait(
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queuedTime));
+                runnable.run();
+            }
+        });
     }
 
     @NonNull
@@ -653,6 +880,17 @@ public class CustomerSession {
                             ephemeralKey,
                             (String) Objects.requireNonNull(arguments.get(KEY_PAYMENT_METHOD_TYPE)),
                             operationId);
+                } else if (ACTION_GET_CUSTOMER_SOURCES_PAGES.equals(actionString)) {
+                    runnable = createGetCustomerSourcesPagesRunnable(
+                            ephemeralKey,
+                            (Integer) Objects.requireNonNull(arguments.get(KEY_PAGE_SIZE)),
+                            operationId);
+                } else if (ACTION_GET_PAYMENT_METHODS_PAGES.equals(actionString)) {
+                    runnable = createGetPaymentMethodsPagesRunnable(
+                            ephemeralKey,
+                            (String) Objects.requireNonNull(arguments.get(KEY_PAYMENT_METHOD_TYPE)),
+                            (Integer) Objects.requireNonNull(arguments.get(KEY_PAGE_SIZE)),
+                            operationId);
                 } else if (ACTION_SET_DEFAULT_SOURCE.equals(actionString) &&
                         arguments.containsKey(KEY_SOURCE) &&
                         arguments.containsKey(KEY_SOURCE_TYPE)) {
@@ -783,6 +1021,24 @@ public class CustomerSession {
         );
     }
 
+    @Nullable
+    private PaymentMethodsPage getCustomerPaymentMethodsPageWithKey(
+            @NonNull CustomerEphemeralKey key,
+            @NonNull String paymentMethodType,
+            int pageSize,
+            @Nullable String startingAfter,
+            @NonNull List<String> productUsageTokens) throws StripeException {
+        return mApiHandler.getPaymentMethodsPage(
+                key.getCustomerId(),
+                paymentMethodType,
+                pageSize,
+                startingAfter,
+                PaymentConfiguration.getInstance().getPublishableKey(),
+                productUsageTokens,
+                key.getSecret()
+        );
+    }
+
     @Nullable
     private Customer setCustomerShippingInfoWithKey(
             @NonNull CustomerEphemeralKey key,
@@ -879,6 +1135,26 @@ public class CustomerSession {
         void onPaymentMethodsRetrieved(@NonNull List<PaymentMethod> paymentMethods);
     }
 
+    public interface PaymentMethodsPageListener extends RetrievalListener {
+        /**
+         * Called with each page of PaymentMethods, in order, as it arrives.
+         *
+         * @param hasMore {@code true} if another page will follow this one
+         */
+        void onPaymentMethodsPageRetrieved(@NonNull List<PaymentMethod> paymentMethods,
+                                           boolean hasMore);
+    }
+
+    public interface CustomerSourcesPageListener extends RetrievalListener {
+        /**
+         * Called with each page of sources, in order, as it arrives.
+         *
+         * @param hasMore {@code true} if another page will follow this one
+         */
+        void onCustomerSourcesPageRetrieved(@NonNull List<CustomerSource> customerSources,
+                                            boolean hasMore);
+    }
+
     interface RetrievalListener {
         void onError(int errorCode, @NonNull String errorMessage,
                      @Nullable StripeError stripeError);
@@ -902,6 +1178,24 @@ public class CustomerSession {
         }
     }
 
+    /**
+     * Abstract implementation of {@link PaymentMethodsPageListener} that holds a
+     * {@link WeakReference} to an {@link Activity} object.
+     */
+    public abstract static class ActivityPaymentMethodsPageListener<A extends Activity>
+            implements PaymentMethodsPageListener {
+        @NonNull private final WeakReference<A> mActivityRef;
+
+        public ActivityPaymentMethodsPageListener(@NonNull A activity) {
+            this.mActivityRef = new WeakReference<>(activity);
+        }
+
+        @Nullable
+        protected A getActivity() {
+            return mActivityRef.get();
+        }
+    }
+
     /**
      * Abstract implementation of {@link SourceRetrievalListener} that holds a
      * {@link WeakReference} to an {@link Activity} object.
@@ -971,7 +1265,14 @@ public class CustomerSession {
         }
 
         private void sendMessage(@Nullable T messageObject) {
-            mUiThreadHandler.sendMessage(mUiThreadHandler.obtainMessage(mMessageCode,
+            sendMessage(mMessageCode, messageObject);
+        }
+
+        /**
+         * Send a result before the final one, which is sent with {@link #mMessageCode}.
+         */
+        void sendMessage(@MessageCode int messageCode, @Nullable T messageObject) {
+            mUiThreadHandler.sendMessage(mUiThreadHandler.obtainMessage(messageCode,
                     new MessageData<>(mOperationId, messageObject)));
         }
 
@@ -1030,6 +1331,20 @@ public class CustomerSession {
                     mListener.onPaymentMethodRetrieved((PaymentMethod) obj, operationId);
                     break;
                 }
+                case MessageCode.PAYMENT_METHODS_PAGE_RETRIEVED:
+                case MessageCode.PAYMENT_METHODS_LAST_PAGE_RETRIEVED: {
+                    mListener.onPaymentMethodsPageRetrieved((PaymentMethodsPage) obj,
+                            msg.what == MessageCode.PAYMENT_METHODS_LAST_PAGE_RETRIEVED,
+                            operationId);
+                    break;
+                }
+                case MessageCode.CUSTOMER_SOURCES_PAGE_RETRIEVED:
+                case MessageCode.CUSTOMER_SOURCES_LAST_PAGE_RETRIEVED: {
+                    mListener.onCustomerSourcesPageRetrieved((CustomerSourcesPage) obj,
+                            msg.what == MessageCode.CUSTOMER_SOURCES_LAST_PAGE_RETRIEVED,
+                            operationId);
+                    break;
+                }
                 case MessageCode.CUSTOMER_SHIPPING_INFO_SAVED: {
                     mListener.onCustomerShippingInfoSaved((Customer) obj);
                     break;
@@ -1063,6 +1378,14 @@ public class CustomerSession {
             void onPaymentMethodsRetrieved(@NonNull List<PaymentMethod> paymentMethods,
                                            @NonNull String operationId);
 
+            void onPaymentMethodsPageRetrieved(@Nullable PaymentMethodsPage page,
+                                               boolean isLastPage,
+                                               @NonNull String operationId);
+
+            void onCustomerSourcesPageRetrieved(@Nullable CustomerSourcesPage page,
+                                                boolean isLastPage,
+                                                @NonNull String operationId);
+
             void onCustomerShippingInfoSaved(@Nullable Customer customer);
 
             void onError(@NonNull StripeException exception, @NonNull String operationId);
@@ -23,6 +23,7 @@ final class FingerprintRequest extends StripeRequest {
     private static final String URL = "https://m.stripe.com/4";
 
     @NonNull private final String guid;
+    @Nullable private byte[] mOutputBytes;
 
     FingerprintRequest(@NonNull Map<String, Object> params, @NonNull String guid) {
         super(Method.POST, URL, params, MIME_TYPE);
@@ -45,14 +46,24 @@ final class FingerprintRequest extends StripeRequest {
 
     @NonNull
     @Override
-    byte[] getOutputBytes() throws UnsupportedEncodingException, InvalidRequestException {
-        final JSONObject jsonData = mapToJsonObject(params);
-        if (jsonData == null) {
-            throw new InvalidRequestException("Unable to create JSON data from " +
-                    "parameters. Please contact support@stripe.com for assistance.",
-                    null, null, 0, null, null, null, null);
+    RequestScheduler.Priority getPriority() {
+        return RequestScheduler.Priority.Background;
+    }
+
+    @NonNull
+    @Override
+    synchronized byte[] getOutputBytes()
+            throws UnsupportedEncodingException, InvalidRequestException {
+        if (mOutputBytes == null) {
+            final JSONObject jsonData = mapToJsonObject(params);
+            if (jsonData == null) {
+                throw new InvalidRequestException("Unable to create JSON data from " +
+                        "parameters. Please contact support@stripe.com for assistance.",
+                        null, null, 0, null, null, null, null);
+            }
+            mOutputBytes = jsonData.toString().getBytes(CHARSET);
         }
-        return jsonData.toString().getBytes(CHARSET);
+        return mOutputBytes;
     }
 
     @Override
@@ -2,14 +2,22 @@ package com.stripe.android;
 
 import android.content.Context;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 
 import java.util.Map;
 
+/**
+ * Creates {@link FingerprintRequest} objects. The last request is reused for as long as the
+ * telemetry it carries has not changed, so that its params and JSON body are only built once.
+ */
 final class FingerprintRequestFactory implements Factory0<FingerprintRequest> {
 
     @NonNull private final TelemetryClientUtil mTelemetryClientUtil;
 
+    @Nullable private FingerprintRequest mFingerprintRequest;
+    @Nullable private String mEnvironmentKey;
+
     FingerprintRequestFactory(@NonNull Context context) {
         this(new TelemetryClientUtil(context));
     }
@@ -21,9 +29,15 @@ final class FingerprintRequestFactory implements Factory0<FingerprintRequest> {
 
     @NonNull
     @Override
-    public FingerprintRequest create() {
-        final Map<String, Object> params = mTelemetryClientUtil.createTelemetryMap();
-        StripeNetworkUtils.removeNullAndEmptyParams(params);
-        return new FingerprintRequest(params, mTelemetryClientUtil.getHashedId());
+    public synchronized FingerprintRequest create() {
+        final String environmentKey = mTelemetryClientUtil.createEnvironmentKey();
+        if (mFingerprintRequest == null || !environmentKey.equals(mEnvironmentKey)) {
+            final Map<String, Object> params = mTelemetryClientUtil.createTelemetryMap();
+            StripeNetworkUtils.removeNullAndEmptyParams(params);
+            mFingerprintRequest =
+                    new FingerprintRequest(params, mTelemetryClientUtil.getHashedId());
+            mEnvironmentKey = environmentKey;
+        }
+        return mFingerprintRequest;
     }
 }
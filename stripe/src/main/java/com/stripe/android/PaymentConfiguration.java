@@ -26,7 +26,20 @@ public final class PaymentConfiguration {
      * A publishable key from https://dashboard.stripe.com/apikeys
      */
     public static void init(@NonNull String publishableKey) {
+        init(publishableKey, false);
+    }
+
+    /**
+     * @param publishableKey a publishable key from https://dashboard.stripe.com/apikeys
+     * @param shouldWarmUpConnection if {@code true}, set up a connection to the Stripe API in
+     *                               the background, so that the first API request does not
+     *                               have to wait for it
+     */
+    public static void init(@NonNull String publishableKey, boolean shouldWarmUpConnection) {
         mInstance = new PaymentConfiguration(publishableKey);
+        if (shouldWarmUpConnection) {
+            ConnectionWarmer.getDefault().warmUp();
+        }
     }
 
     @NonNull
@@ -304,7 +304,7 @@ class PaymentController {
                 areqParams.getMessageVersion(),
                 timeout
         );
-        mApiHandler.start3ds2Auth(authParams, publishableKey,
+        mApiHandler.start3ds2Auth(authParams, stripeIntent.getId(), publishableKey,
                 new Stripe3ds2AuthCallback(activity, mApiHandler, transaction, timeout,
                         stripeIntent, stripe3ds2Fingerprint.source, publishableKey));
     }
@@ -328,6 +328,10 @@ class PaymentController {
                 .start(new PaymentRelayStarter.Data(exception));
     }
 
+    /**
+     * Retrieves the intent after authentication. Authentication changed its status, so a
+     * response cached before it is not used.
+     */
     private static final class RetrieveIntentTask extends ApiOperation<StripeIntent> {
         @NonNull private final Stripe mStripe;
         @NonNull private final StripeIntentParams mParams;
@@ -347,10 +351,10 @@ class PaymentController {
         @Override
         StripeIntent getResult() throws StripeException {
             if (mParams instanceof PaymentIntentParams) {
-                return mStripe.retrievePaymentIntentSynchronous(
+                return mStripe.retrieveUncachedPaymentIntentSynchronous(
                         (PaymentIntentParams) mParams, mPublishableKey);
             } else if (mParams instanceof SetupIntentParams) {
-                return mStripe.retrieveSetupIntentSynchronous(
+                return mStripe.retrieveUncachedSetupIntentSynchronous(
                         (SetupIntentParams) mParams, mPublishableKey);
             }
             return null;
@@ -384,6 +388,12 @@ class PaymentController {
             }
             return null;
         }
+
+        @NonNull
+        @Override
+        RequestScheduler.Priority getPriority() {
+            return RequestScheduler.Priority.PaymentCritical;
+        }
     }
 
     private static final class ConfirmStripeIntentCallback
@@ -613,7 +623,7 @@ class PaymentController {
 
         private void notifyCompletion(
                 @NonNull final Stripe3ds2CompletionStarter.StartData startData) {
-            mApiHandler.complete3ds2Auth(mSourceId, mPublishableKey,
+            mApiHandler.complete3ds2Auth(mSourceId, mStripeIntent.getId(), mPublishableKey,
                     new ApiResultCallback<Boolean>() {
                         @Override
                         public void onSuccess(@NonNull Boolean result) {
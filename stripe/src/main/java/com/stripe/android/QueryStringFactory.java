@@ -0,0 +1,149 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.stripe.android.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes a (possibly nested) parameter map as an {@code application/x-www-form-urlencoded}
+ * query string in a single pass.
+ *
+ * Nested maps and lists are flattened using the Stripe API's bracket notation
+ * (e.g. {@code card[number]=4242} or {@code expand[]=customer}). The key path is kept in one
+ * reusable buffer and each pair is percent-encoded straight into the output, so no intermediate
+ * parameter lists or formatted key strings are allocated. The output is identical to encoding
+ * each flattened key and value with {@link java.net.URLEncoder} using UTF-8.
+ */
+final class QueryStringFactory {
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    @NonNull
+    String create(@Nullable Map<String, ?> params) throws InvalidRequestException {
+        final StringBuilder query = new StringBuilder();
+        if (params != null) {
+            appendParamsMap(query, new StringBuilder(), params, true);
+        }
+        return query.toString();
+    }
+
+    private void appendParamsMap(@NonNull StringBuilder query,
+                                 @NonNull StringBuilder keyPath,
+                                 @NonNull Map<?, ?> params,
+                                 boolean isRoot)
+            throws InvalidRequestException {
+        final int keyPathLength = keyPath.length();
+        for (Map.Entry<?, ?> entry : params.entrySet()) {
+            if (isRoot) {
+                keyPath.append(entry.getKey());
+            } else {
+                keyPath.append('[').append(entry.getKey()).append(']');
+            }
+            appendParamsValue(query, keyPath, entry.getValue());
+            keyPath.setLength(keyPathLength);
+        }
+    }
+
+    private void appendParamsList(@NonNull StringBuilder query,
+                                  @NonNull StringBuilder keyPath,
+                                  @NonNull List<?> params)
+            throws InvalidRequestException {
+        // Because application/x-www-form-urlencoded cannot represent an empty
+        // list, convention is to take the list parameter and just set it to an
+        // empty string. (e.g. A regular list might look like `a[]=1&b[]=2`.
+        // Emptying it would look like `a=`.)
+        if (params.isEmpty()) {
+            appendPair(query, keyPath, "");
+            return;
+        }
+
+        final int keyPathLength = keyPath.length();
+        keyPath.append("[]");
+        for (Object param : params) {
+            appendParamsValue(query, keyPath, param);
+        }
+        keyPath.setLength(keyPathLength);
+    }
+
+    private void appendParamsValue(@NonNull StringBuilder query,
+                                   @NonNull StringBuilder keyPath,
+                                   @Nullable Object value)
+            throws InvalidRequestException {
+        if (value instanceof Map<?, ?>) {
+            appendParamsMap(query, keyPath, (Map<?, ?>) value, false);
+        } else if (value instanceof List<?>) {
+            appendParamsList(query, keyPath, (List<?>) value);
+        } else if ("".equals(value)) {
+            final String key = keyPath.toString();
+            throw new InvalidRequestException("You cannot set '" + key + "' to an empty "
+                    + "string. " + "We interpret empty strings as null in requests. "
+                    + "You may set '" + key + "' to null to delete the property.",
+                    key, null, 0, null, null, null, null);
+        } else if (value == null) {
+            appendPair(query, keyPath, "");
+        } else {
+            appendPair(query, keyPath, value.toString());
+        }
+    }
+
+    private static void appendPair(@NonNull StringBuilder query,
+                                   @NonNull CharSequence key,
+                                   @NonNull CharSequence value) {
+        if (query.length() > 0) {
+            query.append('&');
+        }
+        appendUrlEncoded(query, key);
+        query.append('=');
+        appendUrlEncoded(query, value);
+    }
+
+    /**
+     * Percent-encode {@code str} into {@code out}, matching
+     * {@link java.net.URLEncoder#encode(String, String)} with UTF-8.
+     */
+    private static void appendUrlEncoded(@NonNull StringBuilder out, @NonNull CharSequence str) {
+        final int length = str.length();
+        int i = 0;
+        while (i < length) {
+            final char c = str.charAt(i);
+            if (isUnreserved(c)) {
+                out.append(c);
+                i++;
+            } else if (c == ' ') {
+                out.append('+');
+                i++;
+            } else if (c < 0x80) {
+                appendPercentEncoded(out, (byte) c);
+                i++;
+            } else {
+                // encode the whole run of non-ASCII characters at once so that surrogate pairs
+                // are kept together
+                int end = i + 1;
+                while (end < length && str.charAt(end) >= 0x80) {
+                    end++;
+                }
+                final byte[] bytes = str.subSequence(i, end).toString()
+                        .getBytes(StandardCharsets.UTF_8);
+                for (byte b : bytes) {
+                    appendPercentEncoded(out, b);
+                }
+                i = end;
+            }
+        }
+    }
+
+    private static void appendPercentEncoded(@NonNull StringBuilder out, byte b) {
+        out.append('%')
+                .append(HEX_DIGITS[(b >> 4) & 0xF])
+                .append(HEX_DIGITS[b & 0xF]);
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') ||
+                c == '-' || c == '_' || c == '.' || c == '*';
+    }
+}
@@ -0,0 +1,107 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import com.stripe.android.exception.APIConnectionException;
+import com.stripe.android.exception.InvalidRequestException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Makes sure that only one of several identical, concurrent requests goes out over the network.
+ * Requests are identical if they are {@link ApiRequest#equals(Object) equal}. The first caller
+ * makes the request; callers that arrive while it is in flight wait for it and receive the same
+ * response, or the same exception.
+ *
+ * Only use this for requests that do not change anything on the server, i.e. GETs.
+ */
+class RequestCoalescer {
+    @NonNull private final Map<ApiRequest, InFlightRequest> mInFlightRequests = new HashMap<>();
+
+    @NonNull
+    StripeResponse execute(@NonNull ApiRequest request, @NonNull Call call)
+            throws APIConnectionException, InvalidRequestException {
+        final InFlightRequest inFlightRequest;
+        final boolean isLeader;
+        synchronized (mInFlightRequests) {
+            final InFlightRequest existingRequest = mInFlightRequests.get(request);
+            if (existingRequest != null) {
+                inFlightRequest = existingRequest;
+                inFlightRequest.mWaiterCount++;
+                isLeader = false;
+            } else {
+                inFlightRequest = new InFlightRequest();
+                mInFlightRequests.put(request, inFlightRequest);
+                isLeader = true;
+            }
+        }
+
+        if (isLeader) {
+            try {
+                inFlightRequest.mResponse = call.execute();
+            } catch (APIConnectionException | InvalidRequestException e) {
+                inFlightRequest.mException = e;
+            } finally {
+                synchronized (mInFlightRequests) {
+                    mInFlightRequests.remove(request);
+                }
+                inFlightRequest.mLatch.countDown();
+            }
+        } else {
+            try {
+                inFlightRequest.mLatch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new APIConnectionException("Interrupted while waiting for a response", e);
+            }
+        }
+
+        return inFlightRequest.getResult();
+    }
+
+    /**
+     * @return the number of callers waiting for the in-flight request that is equal to
+     *         {@code request}, or -1 if there is no such request
+     */
+    @VisibleForTesting
+    int getWaiterCount(@NonNull ApiRequest request) {
+        synchronized (mInFlightRequests) {
+            final InFlightRequest inFlightRequest = mInFlightRequests.get(request);
+            return inFlightRequest != null ? inFlightRequest.mWaiterCount : -1;
+        }
+    }
+
+    interface Call {
+        @NonNull
+        StripeResponse execute() throws APIConnectionException, InvalidRequestException;
+    }
+
+    private static final class InFlightRequest {
+        @NonNull private final CountDownLatch mLatch = new CountDownLatch(1);
+        @Nullable private volatile StripeResponse mResponse;
+        @Nullable private volatile Exception mException;
+        private int mWaiterCount;
+
+        @NonNull
+        private StripeResponse getResult()
+                throws APIConnectionException, InvalidRequestException {
+            final Exception exception = mException;
+            if (exception instanceof APIConnectionException) {
+                throw (APIConnectionException) exception;
+            } else if (exception instanceof InvalidRequestException) {
+                throw (InvalidRequestException) exception;
+            }
+
+            final StripeResponse response = mResponse;
+            if (response == null) {
+                // the leader failed with an unchecked exception, which it has already rethrown
+                throw new APIConnectionException("The request failed", null);
+            }
+            return response;
+        }
+    }
+}
@@ -2,20 +2,27 @@ package com.stripe.android;
 
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
 
 import com.stripe.android.exception.APIConnectionException;
 import com.stripe.android.exception.InvalidRequestException;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLSocketFactory;
@@ -26,11 +33,86 @@ import javax.net.ssl.SSLSocketFactory;
 class RequestExecutor {
 
     private static final String CHARSET = StandardCharsets.UTF_8.name();
+    private static final int BUFFER_SIZE = 2048;
+    // the Content-Length comes from the server, so don't trust it for more than this up front
+    private static final int MAX_INITIAL_BODY_CAPACITY = 64 * 1024;
+    private static final String ENCODING_GZIP = "gzip";
+
+    @Nullable private static RequestExecutor sDefaultInstance;
 
     @NonNull private final ConnectionFactory mConnectionFactory;
+    @NonNull private final RequestMetricsListener mMetricsListener;
+    @NonNull private final CircuitBreaker mCircuitBreaker;
+    @NonNull private final AdaptiveTimeouts mTimeouts;
+    @NonNull private final RequestScheduler mScheduler;
+
+    /**
+     * @return an executor that is shared by the callers that don't need their own metrics
+     *         listener or transport, so that they share its circuit breaker and timeouts
+     */
+    @NonNull
+    static synchronized RequestExecutor getDefault() {
+        if (sDefaultInstance == null) {
+            sDefaultInstance = new RequestExecutor();
+        }
+        return sDefaultInstance;
+    }
 
     RequestExecutor() {
-        mConnectionFactory = new ConnectionFactory();
+        this(RequestMetricsListener.NO_OP);
+    }
+
+    RequestExecutor(@NonNull RequestMetricsListener metricsListener) {
+        this(new ConnectionFactory(), metricsListener);
+    }
+
+    @VisibleForTesting
+    RequestExecutor(@NonNull ConnectionFactory connectionFactory) {
+        this(connectionFactory, RequestMetricsListener.NO_OP);
+    }
+
+    /**
+     * @param connectionFactory the transport used for every request
+     */
+    RequestExecutor(@NonNull ConnectionFactory connectionFactory,
+                    @NonNull RequestMetricsListener metricsListener) {
+        this(connectionFactory, metricsListener, new CircuitBreaker(), new AdaptiveTimeouts());
+    }
+
+    @VisibleForTesting
+    RequestExecutor(@NonNull ConnectionFactory connectionFactory,
+                    @NonNull RequestMetricsListener metricsListener,
+                    @NonNull CircuitBreaker circuitBreaker,
+                    @NonNull AdaptiveTimeouts timeouts) {
+        this(connectionFactory, metricsListener, circuitBreaker, timeouts,
+                RequestScheduler.getDefault());
+    }
+
+    @VisibleForTesting
+    RequestExecutor(@NonNull ConnectionFactory connectionFactory,
+                    @NonNull RequestMetricsListener metricsListener,
+                    @NonNull CircuitBreaker circuitBreaker,
+                    @NonNull AdaptiveTimeouts timeouts,
+                    @NonNull RequestScheduler scheduler) {
+        mConnectionFactory = connectionFactory;
+        mMetricsListener = metricsListener;
+        mCircuitBreaker = circuitBreaker;
+        mTimeouts = timeouts;
+        mScheduler = scheduler;
+    }
+
+    @NonNull
+    RequestMetricsListener getMetricsListener() {
+        return mMetricsListener;
+    }
+
+    /**
+     * Report how long the body of a response took to parse.
+     *
+     * @param model the name of the model class the body was parsed into
+     */
+    void onResponseParsed(@NonNull String model, long parseMillis) {
+        mMetricsListener.onResponseParsed(model, parseMillis);
     }
 
     /**
@@ -39,25 +121,71 @@ class RequestExecutor {
     @NonNull
     StripeResponse execute(@NonNull StripeRequest request)
             throws APIConnectionException, InvalidRequestException {
+        return execute(request, true);
+    }
+
+    /**
+     * Make the request and return the response as a {@link StripeResponse}
+     *
+     * @param shouldReportFailure {@code false} for a retry of a request whose failure was
+     *                            already reported to the {@link CircuitBreaker}
+     */
+    @NonNull
+    StripeResponse execute(@NonNull StripeRequest request, boolean shouldReportFailure)
+            throws APIConnectionException, InvalidRequestException {
+        final String endpoint = getEndpoint(request.getBaseUrl());
+        checkCircuit(endpoint, request, false);
+
+        final RequestScheduler.Priority priority = request.getPriority();
+        mScheduler.onRequestStarting(priority);
         // HttpURLConnection verifies SSL cert by default
         HttpURLConnection conn = null;
+        boolean isReusable = false;
         try {
-            conn = mConnectionFactory.create(request);
+            final RequestMetrics.Builder metricsBuilder =
+                    new RequestMetrics.Builder(request.method.code, request.getUrl());
+            final String timeoutKey = getTimeoutKey(endpoint, request.method);
+            final long startTime = System.nanoTime();
+            conn = mConnectionFactory.create(request, metricsBuilder,
+                    getConnectTimeoutMillis(timeoutKey, priority),
+                    getReadTimeoutMillis(timeoutKey, priority));
+            final long connectedTime = System.nanoTime();
             // trigger the request
             final int responseCode = conn.getResponseCode();
-            final String responseBody;
-            if (responseCode >= 200 && responseCode < 300) {
-                responseBody = getResponseBody(conn.getInputStream());
-            } else {
-                responseBody = getResponseBody(conn.getErrorStream());
-            }
-            return new StripeResponse(responseCode, responseBody, conn.getHeaderFields());
+            final long firstByteTime = System.nanoTime();
+            onResponse(endpoint, timeoutKey, responseCode, connectedTime - startTime,
+                    firstByteTime - connectedTime, shouldReportFailure);
+            final CountingInputStream responseStream = CountingInputStream.wrap(
+                    responseCode >= 200 && responseCode < 300 ?
+                            conn.getInputStream() : conn.getErrorStream());
+            final boolean isGzipped = isGzipped(conn);
+            // Content-Length is the compressed size of a gzipped body, so don't size by it
+            final String responseBody = getResponseBody(
+                    isGzipped ? createGzipInputStream(responseStream) : responseStream,
+                    isGzipped ? -1 : conn.getContentLength());
+            // the body was fully consumed, so the socket can go back to the keep-alive pool
+            isReusable = true;
+            final StripeResponse response =
+                    new StripeResponse(responseCode, responseBody, conn.getHeaderFields());
+
+            final long endTime = System.nanoTime();
+            reportMetrics(metricsBuilder
+                    .setStatusCode(responseCode)
+                    .setRequestId(conn.getHeaderField("Request-Id"))
+                    .setBytesReceived(responseStream != null ? responseStream.getCount() : 0)
+                    .setConnectMillis(toMillis(connectedTime - startTime))
+                    .setTimeToFirstByteMillis(toMillis(firstByteTime - connectedTime))
+                    .setBodyReadMillis(toMillis(endTime - firstByteTime))
+                    .setTotalMillis(toMillis(endTime - startTime)));
+            return response;
         } catch (IOException e) {
+            if (shouldReportFailure) {
+                mCircuitBreaker.onFailure(endpoint);
+            }
             throw createApiConnectionException(e);
         } finally {
-            if (conn != null) {
-                conn.disconnect();
-            }
+            releaseConnection(conn, isReusable);
+            mScheduler.onRequestFinished(priority);
         }
     }
 
@@ -68,34 +196,277 @@ class RequestExecutor {
      */
     int executeAndForget(@NonNull StripeRequest request)
             throws APIConnectionException, InvalidRequestException {
+        // nobody waits for these requests, so they are the first to be dropped when requests
+        // are failing
+        final String endpoint = getEndpoint(request.getBaseUrl());
+        checkCircuit(endpoint, request, true);
+
+        final RequestScheduler.Priority priority = request.getPriority();
+        mScheduler.onRequestStarting(priority);
         // HttpURLConnection verifies SSL cert by default
         HttpURLConnection conn = null;
+        boolean isReusable = false;
         try {
-            conn = mConnectionFactory.create(request);
+            final RequestMetrics.Builder metricsBuilder =
+                    new RequestMetrics.Builder(request.method.code, request.getUrl());
+            final String timeoutKey = getTimeoutKey(endpoint, request.method);
+            final long startTime = System.nanoTime();
+            conn = mConnectionFactory.create(request, metricsBuilder,
+                    getConnectTimeoutMillis(timeoutKey, priority),
+                    getReadTimeoutMillis(timeoutKey, priority));
+            final long connectedTime = System.nanoTime();
             // required to trigger the request
-            return conn.getResponseCode();
+            final int responseCode = conn.getResponseCode();
+            final long firstByteTime = System.nanoTime();
+            onResponse(endpoint, timeoutKey, responseCode, connectedTime - startTime,
+                    firstByteTime - connectedTime, true);
+            final long bytesReceived;
+            if (responseCode >= 200 && responseCode < 300) {
+                bytesReceived = drainAndClose(conn.getInputStream());
+            } else {
+                bytesReceived = drainAndClose(conn.getErrorStream());
+            }
+            isReusable = true;
+
+            final long endTime = System.nanoTime();
+            reportMetrics(metricsBuilder
+                    .setStatusCode(responseCode)
+                    .setRequestId(conn.getHeaderField("Request-Id"))
+                    .setBytesReceived(bytesReceived)
+                    .setConnectMillis(toMillis(connectedTime - startTime))
+                    .setTimeToFirstByteMillis(toMillis(firstByteTime - connectedTime))
+                    .setBodyReadMillis(toMillis(endTime - firstByteTime))
+                    .setTotalMillis(toMillis(endTime - startTime)));
+            return responseCode;
+        } catch (IOException e) {
+            mCircuitBreaker.onFailure(endpoint);
+            throw createApiConnectionException(e);
+        } finally {
+            releaseConnection(conn, isReusable);
+            mScheduler.onRequestFinished(priority);
+        }
+    }
+
+    /**
+     * Make a GET request to the given URL and leave its connection in the keep-alive pool, so
+     * that the next request to that host does not have to resolve it, connect or do a TLS
+     * handshake. This also initializes the {@link StripeSSLSocketFactory}.
+     *
+     * The response body is read and discarded, since a connection is only pooled once its
+     * response has been fully consumed. A HEAD request is not used because some platform
+     * HTTP stacks don't return its connection to the pool.
+     *
+     * @return the response status code
+     */
+    int warmUp(@NonNull String url) throws APIConnectionException {
+        final String endpoint = getEndpoint(url);
+        if (!mCircuitBreaker.allowRequest(endpoint, true)) {
+            throw CircuitBreaker.createOpenCircuitException(endpoint);
+        }
+
+        HttpURLConnection conn = null;
+        boolean isReusable = false;
+        try {
+            final String timeoutKey = getTimeoutKey(endpoint, StripeRequest.Method.GET);
+            final long startTime = System.nanoTime();
+            conn = mConnectionFactory.createWarmUp(new URL(url),
+                    mTimeouts.getConnectTimeoutMillis(timeoutKey),
+                    mTimeouts.getReadTimeoutMillis(timeoutKey));
+            final long connectedTime = System.nanoTime();
+            final int responseCode = conn.getResponseCode();
+            onResponse(endpoint, timeoutKey, responseCode, connectedTime - startTime,
+                    System.nanoTime() - connectedTime, true);
+            // redirects are not followed, so a 3xx body is read from the input stream
+            if (responseCode < 400) {
+                drainAndClose(conn.getInputStream());
+            } else {
+                drainAndClose(conn.getErrorStream());
+            }
+            isReusable = true;
+            return responseCode;
         } catch (IOException e) {
+            mCircuitBreaker.onFailure(endpoint);
             throw createApiConnectionException(e);
         } finally {
-            if (conn != null) {
-                conn.disconnect();
+            releaseConnection(conn, isReusable);
+        }
+    }
+
+    /**
+     * Throw if the endpoint's circuit is open. A request that a payment is waiting on is
+     * always sent: it is worth waiting for, even while other requests are failing.
+     */
+    private void checkCircuit(@NonNull String endpoint, @NonNull StripeRequest request,
+                              boolean isSheddable) throws APIConnectionException {
+        if (request.getPriority() != RequestScheduler.Priority.PaymentCritical &&
+                !mCircuitBreaker.allowRequest(endpoint, isSheddable)) {
+            throw CircuitBreaker.createOpenCircuitException(endpoint);
+        }
+    }
+
+    /**
+     * A request that a payment is waiting on, such as a confirmation, can take much longer
+     * than other requests to the same endpoint while the card's bank is contacted, so it is
+     * not cut short by the timeouts learned from them.
+     */
+    private int getConnectTimeoutMillis(@NonNull String timeoutKey,
+                                        @NonNull RequestScheduler.Priority priority) {
+        return priority == RequestScheduler.Priority.PaymentCritical ?
+                AdaptiveTimeouts.DEFAULT_CONNECT_TIMEOUT_MILLIS :
+                mTimeouts.getConnectTimeoutMillis(timeoutKey);
+    }
+
+    private int getReadTimeoutMillis(@NonNull String timeoutKey,
+                                     @NonNull RequestScheduler.Priority priority) {
+        return priority == RequestScheduler.Priority.PaymentCritical ?
+                AdaptiveTimeouts.DEFAULT_READ_TIMEOUT_MILLIS :
+                mTimeouts.getReadTimeoutMillis(timeoutKey);
+    }
+
+    /**
+     * Record the latency of a request to the endpoint, and whether the endpoint is healthy.
+     * A server error counts as a failure of the endpoint.
+     *
+     * @param shouldReportFailure {@code false} if the caller reports failures itself
+     */
+    private void onResponse(@NonNull String endpoint, @NonNull String timeoutKey,
+                            int responseCode, long connectNanos, long firstByteNanos,
+                            boolean shouldReportFailure) {
+        mTimeouts.onRequestCompleted(timeoutKey, toMillis(connectNanos),
+                toMillis(firstByteNanos));
+        if (responseCode < HttpURLConnection.HTTP_INTERNAL_ERROR) {
+            mCircuitBreaker.onSuccess(endpoint);
+        } else if (shouldReportFailure) {
+            mCircuitBreaker.onFailure(endpoint);
+        }
+    }
+
+    /**
+     * @return the key that {@link AdaptiveTimeouts} tracks the request's latencies by. GETs
+     *         and POSTs to the same endpoint take different times, so they are kept apart.
+     */
+    @NonNull
+    @VisibleForTesting
+    static String getTimeoutKey(@NonNull String endpoint, @NonNull StripeRequest.Method method) {
+        return method.code + " " + endpoint;
+    }
+
+    /**
+     * @return the host and port of the URL, which identify the endpoint for
+     *         {@link CircuitBreaker} and, with the request method, for {@link AdaptiveTimeouts}
+     */
+    @NonNull
+    @VisibleForTesting
+    static String getEndpoint(@NonNull String url) {
+        try {
+            final String authority = new URL(url).getAuthority();
+            return authority != null ? authority : url;
+        } catch (MalformedURLException e) {
+            return url;
+        }
+    }
+
+    /**
+     * {@link HttpURLConnection} keeps the underlying socket (and its TLS session) in the
+     * platform's keep-alive pool as long as the response body has been fully read and closed.
+     * Calling {@link HttpURLConnection#disconnect()} would close the socket instead, so only
+     * do that when the connection is in an unknown state.
+     */
+    private static void releaseConnection(@Nullable HttpURLConnection conn,
+                                          boolean isReusable) {
+        if (conn != null && !isReusable) {
+            conn.disconnect();
+        }
+    }
+
+    private void reportMetrics(@NonNull RequestMetrics.Builder metricsBuilder) {
+        if (mMetricsListener != RequestMetricsListener.NO_OP) {
+            mMetricsListener.onRequestCompleted(metricsBuilder.build());
+        }
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * @return the number of bytes that were discarded
+     */
+    private static long drainAndClose(@Nullable InputStream responseStream)
+            throws IOException {
+        if (responseStream == null) {
+            return 0;
+        }
+
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long bytesRead = 0;
+        try {
+            int count;
+            while ((count = responseStream.read(buffer)) != -1) {
+                // discard the body so that the connection can be reused
+                bytesRead += count;
             }
+        } finally {
+            responseStream.close();
         }
+        return bytesRead;
     }
 
+    private static boolean isGzipped(@NonNull HttpURLConnection conn) {
+        return ENCODING_GZIP.equalsIgnoreCase(conn.getContentEncoding());
+    }
+
+    /**
+     * Wrap a gzipped response body so that it is decompressed as it is read.
+     *
+     * @return the decompressing stream, or a stream with no data if the body is empty
+     */
     @Nullable
-    private String getResponseBody(@Nullable InputStream responseStream)
+    @VisibleForTesting
+    static InputStream createGzipInputStream(@Nullable InputStream responseStream)
             throws IOException {
         if (responseStream == null) {
             return null;
         }
 
-        //\A is the beginning of
-        // the stream boundary
-        final Scanner scanner = new Scanner(responseStream, CHARSET).useDelimiter("\\A");
-        final String rBody = scanner.hasNext() ? scanner.next() : null;
-        responseStream.close();
-        return rBody;
+        // GZIPInputStream reads the gzip header when it is created, which fails for an empty
+        // body (e.g. a 204), so check for one first
+        final PushbackInputStream pushbackStream = new PushbackInputStream(responseStream, 1);
+        final int firstByte = pushbackStream.read();
+        if (firstByte == -1) {
+            return pushbackStream;
+        }
+        pushbackStream.unread(firstByte);
+        return new GZIPInputStream(pushbackStream, BUFFER_SIZE);
+    }
+
+    /**
+     * Decode the response body into a {@link String} in a single pass, sizing the destination
+     * from the response's Content-Length when it is known, up to
+     * {@link #MAX_INITIAL_BODY_CAPACITY}.
+     *
+     * @return the response body, or {@code null} if there was no body
+     */
+    @Nullable
+    @VisibleForTesting
+    static String getResponseBody(@Nullable InputStream responseStream, int contentLength)
+            throws IOException {
+        if (responseStream == null) {
+            return null;
+        }
+
+        try (Reader reader = new InputStreamReader(responseStream, StandardCharsets.UTF_8)) {
+            final StringBuilder responseBody = new StringBuilder(
+                    contentLength > 0
+                            ? Math.min(contentLength, MAX_INITIAL_BODY_CAPACITY)
+                            : BUFFER_SIZE);
+            final char[] buffer = new char[BUFFER_SIZE];
+            int charsRead;
+            while ((charsRead = reader.read(buffer)) != -1) {
+                responseBody.append(buffer, 0, charsRead);
+            }
+            return responseBody.length() > 0 ? responseBody.toString() : null;
+        }
     }
 
     @NonNull
@@ -110,40 +481,132 @@ class RequestExecutor {
                         StripeApiHandler.getTokensUrl(), e.getMessage()), e);
     }
 
+    /**
+     * Counts the bytes read from the wrapped stream.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long mCount;
+
+        @Nullable
+        static CountingInputStream wrap(@Nullable InputStream inputStream) {
+            return inputStream != null ? new CountingInputStream(inputStream) : null;
+        }
+
+        private CountingInputStream(@NonNull InputStream inputStream) {
+            super(inputStream);
+        }
+
+        long getCount() {
+            return mCount;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int value = super.read();
+            if (value != -1) {
+                mCount++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+            final int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                mCount += count;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Opens and configures the {@link HttpURLConnection} for each request.
+     *
+     * By default, connections come from the platform's HTTP/1.1 stack, which keeps idle
+     * connections alive for reuse. A different transport, such as an HTTP/2 client that exposes
+     * {@link HttpURLConnection}, can be used by overriding {@link #openConnection(URL)}.
+     */
     static class ConnectionFactory {
         private static final SSLSocketFactory SSL_SOCKET_FACTORY = new StripeSSLSocketFactory();
 
+        /**
+         * Open a connection for the request, connect it and write the request body, if any.
+         *
+         * @param metricsBuilder receives the number of bytes written
+         */
         @NonNull
-        private HttpURLConnection create(@NonNull StripeRequest request)
+        HttpURLConnection create(@NonNull StripeRequest request,
+                                 @NonNull RequestMetrics.Builder metricsBuilder,
+                                 int connectTimeoutMillis,
+                                 int readTimeoutMillis)
                 throws IOException, InvalidRequestException {
-            final URL stripeURL = new URL(request.getUrl());
-            final HttpURLConnection conn = (HttpURLConnection) stripeURL.openConnection();
-            conn.setConnectTimeout(30 * 1000);
-            conn.setReadTimeout(80 * 1000);
-            conn.setUseCaches(false);
+            final HttpURLConnection conn = openConnection(new URL(request.getUrl()));
+            configure(conn, connectTimeoutMillis, readTimeoutMillis);
 
             for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
                 conn.setRequestProperty(header.getKey(), header.getValue());
             }
 
-            if (conn instanceof HttpsURLConnection) {
-                ((HttpsURLConnection) conn).setSSLSocketFactory(SSL_SOCKET_FACTORY);
-            }
-
             conn.setRequestMethod(request.method.code);
 
             if (StripeRequest.Method.POST == request.method) {
                 conn.setDoOutput(true);
                 conn.setRequestProperty("Content-Type", request.getContentType());
 
+                final byte[] body = getRequestOutputBytes(request);
+                // the body's size is known, so send it directly instead of buffering a copy
+                conn.setFixedLengthStreamingMode(body.length);
                 try (OutputStream output = conn.getOutputStream()) {
-                    output.write(getRequestOutputBytes(request));
+                    output.write(body);
                 }
+                metricsBuilder.setBytesSent(body.length);
+            } else {
+                // connect now rather than on the first read, so that connecting is timed
+                // separately from waiting for the response
+                conn.connect();
             }
 
             return conn;
         }
 
+        /**
+         * Open a connection for a GET request to the given URL, without following redirects,
+         * and connect it. Used to set up a connection, including its TLS session, before it
+         * is needed.
+         */
+        @NonNull
+        HttpURLConnection createWarmUp(@NonNull URL url,
+                                       int connectTimeoutMillis,
+                                       int readTimeoutMillis) throws IOException {
+            final HttpURLConnection conn = openConnection(url);
+            configure(conn, connectTimeoutMillis, readTimeoutMillis);
+            conn.setInstanceFollowRedirects(false);
+            conn.setRequestMethod(StripeRequest.Method.GET.code);
+            conn.connect();
+            return conn;
+        }
+
+        private void configure(@NonNull HttpURLConnection conn,
+                               int connectTimeoutMillis,
+                               int readTimeoutMillis) {
+            conn.setConnectTimeout(connectTimeoutMillis);
+            conn.setReadTimeout(readTimeoutMillis);
+            conn.setUseCaches(false);
+
+            // ask for a compressed body; responses are decompressed in RequestExecutor, since
+            // setting this header turns off the platform's transparent decompression
+            conn.setRequestProperty("Accept-Encoding", ENCODING_GZIP);
+
+            if (conn instanceof HttpsURLConnection) {
+                ((HttpsURLConnection) conn).setSSLSocketFactory(SSL_SOCKET_FACTORY);
+            }
+        }
+
+        @NonNull
+        HttpURLConnection openConnection(@NonNull URL url) throws IOException {
+            return (HttpURLConnection) url.openConnection();
+        }
+
         @NonNull
         byte[] getRequestOutputBytes(@NonNull StripeRequest request)
                 throws InvalidRequestException {
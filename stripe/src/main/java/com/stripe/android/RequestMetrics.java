@@ -0,0 +1,164 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+/**
+ * Timings and sizes of a single HTTP request made by the SDK.
+ *
+ * {@link java.net.HttpURLConnection} does not report DNS, TCP and TLS handshake times
+ * separately, so {@link #connectMillis} covers all of them, plus writing the request body.
+ */
+public final class RequestMetrics {
+    @NonNull public final String method;
+    /**
+     * The URL of the request without its query string, which can hold secrets such as a
+     * {@code client_secret}
+     */
+    @NonNull public final String url;
+    /**
+     * The path of the URL with object IDs replaced by {@code :id}, such as
+     * {@code /v1/payment_intents/:id/confirm}, which is the same for every request to an
+     * endpoint
+     */
+    @NonNull public final String endpoint;
+    public final int statusCode;
+    @Nullable public final String requestId;
+    public final long bytesSent;
+    public final long bytesReceived;
+    public final long connectMillis;
+    public final long timeToFirstByteMillis;
+    public final long bodyReadMillis;
+    public final long totalMillis;
+
+    private RequestMetrics(@NonNull Builder builder) {
+        method = builder.mMethod;
+        url = builder.mUrl;
+        endpoint = getEndpoint(builder.mUrl);
+        statusCode = builder.mStatusCode;
+        requestId = builder.mRequestId;
+        bytesSent = builder.mBytesSent;
+        bytesReceived = builder.mBytesReceived;
+        connectMillis = builder.mConnectMillis;
+        timeToFirstByteMillis = builder.mTimeToFirstByteMillis;
+        bodyReadMillis = builder.mBodyReadMillis;
+        totalMillis = builder.mTotalMillis;
+    }
+
+    /**
+     * @param url a URL without a query string
+     */
+    @NonNull
+    @VisibleForTesting
+    static String getEndpoint(@NonNull String url) {
+        final String path;
+        try {
+            path = new URL(url).getPath();
+        } catch (MalformedURLException e) {
+            return url;
+        }
+        if (path.isEmpty()) {
+            return "/";
+        }
+
+        final StringBuilder endpoint = new StringBuilder(path.length());
+        for (String segment : path.substring(1).split("/", -1)) {
+            endpoint.append('/').append(isObjectId(segment) ? ":id" : segment);
+        }
+        return endpoint.toString();
+    }
+
+    /**
+     * @return {@code true} if the path segment looks like an object ID such as
+     *         {@code pi_1EceMnCRMbs6FrXf}, rather than a name such as {@code payment_intents}
+     */
+    private static boolean isObjectId(@NonNull String segment) {
+        final int prefixEnd = segment.indexOf('_');
+        if (prefixEnd <= 0) {
+            return false;
+        }
+        for (int i = prefixEnd + 1; i < segment.length(); i++) {
+            final char c = segment.charAt(i);
+            if (Character.isDigit(c) || Character.isUpperCase(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static final class Builder {
+        @NonNull private final String mMethod;
+        @NonNull private final String mUrl;
+        private int mStatusCode;
+        @Nullable private String mRequestId;
+        private long mBytesSent;
+        private long mBytesReceived;
+        private long mConnectMillis;
+        private long mTimeToFirstByteMillis;
+        private long mBodyReadMillis;
+        private long mTotalMillis;
+
+        Builder(@NonNull String method, @NonNull String url) {
+            mMethod = method;
+            final int queryStart = url.indexOf('?');
+            mUrl = queryStart < 0 ? url : url.substring(0, queryStart);
+        }
+
+        @NonNull
+        Builder setStatusCode(int statusCode) {
+            mStatusCode = statusCode;
+            return this;
+        }
+
+        @NonNull
+        Builder setRequestId(@Nullable String requestId) {
+            mRequestId = requestId;
+            return this;
+        }
+
+        @NonNull
+        Builder setBytesSent(long bytesSent) {
+            mBytesSent = bytesSent;
+            return this;
+        }
+
+        @NonNull
+        Builder setBytesReceived(long bytesReceived) {
+            mBytesReceived = bytesReceived;
+            return this;
+        }
+
+        @NonNull
+        Builder setConnectMillis(long connectMillis) {
+            mConnectMillis = connectMillis;
+            return this;
+        }
+
+        @NonNull
+        Builder setTimeToFirstByteMillis(long timeToFirstByteMillis) {
+            mTimeToFirstByteMillis = timeToFirstByteMillis;
+            return this;
+        }
+
+        @NonNull
+        Builder setBodyReadMillis(long bodyReadMillis) {
+            mBodyReadMillis = bodyReadMillis;
+            return this;
+        }
+
+        @NonNull
+        Builder setTotalMillis(long totalMillis) {
+            mTotalMillis = totalMillis;
+            return this;
+        }
+
+        @NonNull
+        RequestMetrics build() {
+            return new RequestMetrics(this);
+        }
+    }
+}
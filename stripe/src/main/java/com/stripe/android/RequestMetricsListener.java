@@ -0,0 +1,48 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Receives timings for the SDK's HTTP requests. Callbacks are made on the thread that made the
+ * request, so implementations should return quickly.
+ *
+ * See {@link Stripe#setRequestMetricsListener(RequestMetricsListener)}.
+ */
+public interface RequestMetricsListener {
+    RequestMetricsListener NO_OP = new RequestMetricsListener() {
+        @Override
+        public void onRequestCompleted(@NonNull RequestMetrics metrics) {
+        }
+
+        @Override
+        public void onResponseParsed(@NonNull String model, long parseMillis) {
+        }
+
+        @Override
+        public void onQueueWait(long waitMillis) {
+        }
+    };
+
+    /**
+     * Called after a response was received and its body was read. Not called if the request
+     * failed with an {@link java.io.IOException}.
+     */
+    void onRequestCompleted(@NonNull RequestMetrics metrics);
+
+    /**
+     * Called after the body of a response was parsed into a model object. This includes
+     * responses served from the SDK's cache, for which
+     * {@link #onRequestCompleted(RequestMetrics)} is not called.
+     *
+     * @param model the name of the model class, such as {@code PaymentIntent}
+     * @param parseMillis how long parsing took
+     */
+    void onResponseParsed(@NonNull String model, long parseMillis);
+
+    /**
+     * Called when a queued {@link CustomerSession} operation starts running.
+     *
+     * @param waitMillis how long the operation waited for a thread
+     */
+    void onQueueWait(long waitMillis);
+}
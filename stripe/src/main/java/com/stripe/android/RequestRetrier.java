@@ -0,0 +1,179 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import com.stripe.android.exception.APIConnectionException;
+import com.stripe.android.exception.InvalidRequestException;
+
+import java.net.HttpURLConnection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends an {@link ApiRequest} with {@link RequestExecutor}, retrying it when it fails with a
+ * connection error or a response that says the request can be tried again.
+ *
+ * Every request can be retried safely: an {@link ApiRequest} POST carries an
+ * {@code Idempotency-Key} that all of its attempts share. Retries wait an exponentially
+ * growing, jittered delay, or the delay that the server asked for in {@code Retry-After}.
+ * A request is retried at most {@link #mMaxRetries} times, and never once
+ * {@link #mDeadlineMillis} would be exceeded.
+ *
+ * A request counts as at most a single failure for the {@link CircuitBreaker}, however many
+ * of its attempts failed.
+ */
+class RequestRetrier {
+    private static final int DEFAULT_MAX_RETRIES = 2;
+    private static final long DEFAULT_INITIAL_DELAY_MILLIS = 500L;
+    private static final long DEFAULT_MAX_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    private static final long DEFAULT_DEADLINE_MILLIS = TimeUnit.SECONDS.toMillis(20);
+
+    private static final String HEADER_RETRY_AFTER = "Retry-After";
+    private static final String HEADER_SHOULD_RETRY = "Stripe-Should-Retry";
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final int mMaxRetries;
+    private final long mInitialDelayMillis;
+    private final long mMaxDelayMillis;
+    private final long mDeadlineMillis;
+    @NonNull private final Clock mClock;
+    @NonNull private final Random mRandom;
+
+    RequestRetrier() {
+        this(DEFAULT_MAX_RETRIES, DEFAULT_INITIAL_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS,
+                DEFAULT_DEADLINE_MILLIS, Clock.DEFAULT, new Random());
+    }
+
+    @VisibleForTesting
+    RequestRetrier(int maxRetries,
+                   long initialDelayMillis,
+                   long maxDelayMillis,
+                   long deadlineMillis,
+                   @NonNull Clock clock,
+                   @NonNull Random random) {
+        mMaxRetries = maxRetries;
+        mInitialDelayMillis = initialDelayMillis;
+        mMaxDelayMillis = maxDelayMillis;
+        mDeadlineMillis = deadlineMillis;
+        mClock = clock;
+        mRandom = random;
+    }
+
+    /**
+     * @return the response to the last attempt
+     * @throws APIConnectionException if the last attempt failed with a connection error
+     */
+    @NonNull
+    StripeResponse execute(@NonNull RequestExecutor requestExecutor,
+                           @NonNull ApiRequest request)
+            throws APIConnectionException, InvalidRequestException {
+        final long startTime = mClock.currentTimeMillis();
+        int retryCount = 0;
+        while (true) {
+            StripeResponse response = null;
+            APIConnectionException connectionException = null;
+            try {
+                // only the first attempt's failure counts, so that retrying a request
+                // doesn't open the circuit sooner
+                response = retryCount == 0 ?
+                        requestExecutor.execute(request) :
+                        requestExecutor.execute(request, false);
+            } catch (CircuitBreaker.OpenCircuitException e) {
+                // the request was not sent, and won't be until the circuit lets a probe through
+                throw e;
+            } catch (APIConnectionException e) {
+                connectionException = e;
+            }
+
+            if (response != null && !shouldRetry(request, response)) {
+                return response;
+            }
+
+            final long delayMillis = getDelayMillis(retryCount, response);
+            final long elapsedMillis = mClock.currentTimeMillis() - startTime;
+            if (retryCount >= mMaxRetries ||
+                    elapsedMillis + delayMillis > mDeadlineMillis || !sleep(delayMillis)) {
+                if (connectionException != null) {
+                    throw connectionException;
+                }
+                return response;
+            }
+            retryCount++;
+        }
+    }
+
+    @VisibleForTesting
+    static boolean shouldRetry(@NonNull ApiRequest request, @NonNull StripeResponse response) {
+        final String shouldRetry = response.getHeaderValue(HEADER_SHOULD_RETRY);
+        if (shouldRetry != null) {
+            return Boolean.parseBoolean(shouldRetry);
+        }
+
+        switch (response.getResponseCode()) {
+            case HttpURLConnection.HTTP_CONFLICT:
+            case HTTP_TOO_MANY_REQUESTS:
+            case HttpURLConnection.HTTP_BAD_GATEWAY:
+            case HttpURLConnection.HTTP_UNAVAILABLE:
+            case HttpURLConnection.HTTP_GATEWAY_TIMEOUT: {
+                return true;
+            }
+            case HttpURLConnection.HTTP_INTERNAL_ERROR: {
+                // the result of a POST that failed with a 500 is saved with its idempotency
+                // key, so retrying it would only return the same error
+                return StripeRequest.Method.POST != request.method;
+            }
+            default: {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return the delay before retry number {@code retryCount + 1}: the server's
+     *         {@code Retry-After}, if any, otherwise an exponential backoff with jitter
+     */
+    @VisibleForTesting
+    long getDelayMillis(int retryCount, @Nullable StripeResponse response) {
+        final Long retryAfterMillis = response != null ? getRetryAfterMillis(response) : null;
+        if (retryAfterMillis != null) {
+            return retryAfterMillis;
+        }
+
+        final long delayMillis = Math.min(mMaxDelayMillis,
+                mInitialDelayMillis * (1L << Math.min(retryCount, 30)));
+        // wait between half and all of the delay, so that clients that failed together
+        // do not all retry together
+        return delayMillis / 2 + (long) (mRandom.nextDouble() * (delayMillis / 2 + 1));
+    }
+
+    @Nullable
+    private static Long getRetryAfterMillis(@NonNull StripeResponse response) {
+        final String retryAfter = response.getHeaderValue(HEADER_RETRY_AFTER);
+        if (retryAfter == null) {
+            return null;
+        }
+
+        try {
+            final long seconds = Long.parseLong(retryAfter.trim());
+            return seconds >= 0 ? TimeUnit.SECONDS.toMillis(seconds) : null;
+        } catch (NumberFormatException e) {
+            // an HTTP date; fall back to the regular backoff
+            return null;
+        }
+    }
+
+    /**
+     * @return {@code false} if the thread was interrupted
+     */
+    private boolean sleep(long millis) {
+        try {
+            mClock.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
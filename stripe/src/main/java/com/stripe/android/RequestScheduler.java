@@ -0,0 +1,117 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when {@link RequestExecutor} may send a request, based on the request's
+ * {@link Priority}.
+ *
+ * {@link Priority#Background} requests are held back while a {@link Priority#PaymentCritical}
+ * request is in flight, so that analytics and fingerprinting don't compete with a payment for
+ * the network. A background request is held for at most {@link #mMaxDeferMillis}.
+ *
+ * Network contention is shared by the whole process, so by default every
+ * {@link RequestExecutor} uses the same scheduler.
+ */
+class RequestScheduler {
+    private static final long DEFAULT_MAX_DEFER_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    @NonNull private static final RequestScheduler DEFAULT_INSTANCE = new RequestScheduler();
+
+    private final long mMaxDeferMillis;
+    @NonNull private final Clock mClock;
+    @NonNull private final Waiter mWaiter;
+    private int mCriticalRequestCount;
+
+    @NonNull
+    static RequestScheduler getDefault() {
+        return DEFAULT_INSTANCE;
+    }
+
+    private RequestScheduler() {
+        this(DEFAULT_MAX_DEFER_MILLIS, Clock.DEFAULT, Waiter.DEFAULT);
+    }
+
+    @VisibleForTesting
+    RequestScheduler(long maxDeferMillis, @NonNull Clock clock, @NonNull Waiter waiter) {
+        mMaxDeferMillis = maxDeferMillis;
+        mClock = clock;
+        mWaiter = waiter;
+    }
+
+    /**
+     * Wait until a request with the given priority may be sent. Every call must be followed
+     * by a call to {@link #onRequestFinished(Priority)}.
+     */
+    synchronized void onRequestStarting(@NonNull Priority priority) {
+        if (priority == Priority.PaymentCritical) {
+            mCriticalRequestCount++;
+        } else if (priority == Priority.Background) {
+            final long deadline = mClock.currentTimeMillis() + mMaxDeferMillis;
+            long remainingMillis = mMaxDeferMillis;
+            while (mCriticalRequestCount > 0 && remainingMillis > 0) {
+                try {
+                    mWaiter.await(this, remainingMillis);
+                } catch (InterruptedException e) {
+                    // send the request now, and leave the interrupt to the caller
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                remainingMillis = deadline - mClock.currentTimeMillis();
+            }
+        }
+    }
+
+    synchronized void onRequestFinished(@NonNull Priority priority) {
+        if (priority == Priority.PaymentCritical && --mCriticalRequestCount == 0) {
+            notifyAll();
+        }
+    }
+
+    @VisibleForTesting
+    synchronized int getCriticalRequestCount() {
+        return mCriticalRequestCount;
+    }
+
+    /**
+     * Waits on the scheduler's monitor for another request to finish. Can be replaced in tests,
+     * so that they don't need other threads.
+     */
+    interface Waiter {
+        Waiter DEFAULT = new Waiter() {
+            @Override
+            public void await(@NonNull Object monitor, long timeoutMillis)
+                    throws InterruptedException {
+                monitor.wait(timeoutMillis);
+            }
+        };
+
+        /**
+         * Called with the monitor held, and a timeout greater than 0.
+         */
+        void await(@NonNull Object monitor, long timeoutMillis) throws InterruptedException;
+    }
+
+    /**
+     * How urgently a request needs to be sent.
+     */
+    enum Priority {
+        /**
+         * A request that a payment is waiting on, such as a confirmation
+         */
+        PaymentCritical,
+
+        /**
+         * A request whose result the user is waiting for
+         */
+        Interactive,
+
+        /**
+         * A request that nobody is waiting for, such as analytics
+         */
+        Background
+    }
+}
@@ -0,0 +1,161 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the responses to recent GETs of objects whose status an app polls, such as a
+ * {@link com.stripe.android.model.Source} waiting for a redirect to complete, so that polling
+ * the same object again within a short time does not go out over the network.
+ *
+ * A response is keyed by its {@link ApiRequest}, i.e. by the object's URL, its client secret
+ * and the API key. It is fresh for {@link #DEFAULT_TTL_MILLIS}, or for
+ * {@link #TERMINAL_TTL_MILLIS} if the object's status can no longer change. Once it is stale,
+ * its {@code ETag}, if the API sent one, can be used to revalidate it. The least recently used
+ * response is evicted once the cache holds {@link #mMaxSize} responses.
+ */
+class ResponseCache {
+    static final long DEFAULT_TTL_MILLIS = TimeUnit.SECONDS.toMillis(2);
+    @VisibleForTesting
+    static final long TERMINAL_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final int DEFAULT_MAX_SIZE = 32;
+    private static final String HEADER_ETAG = "ETag";
+
+    private final int mMaxSize;
+    @NonNull private final Clock mClock;
+    @NonNull private final LinkedHashMap<ApiRequest, Entry> mEntries;
+    private int mHitCount;
+    private int mMissCount;
+    private int mRevalidatedCount;
+
+    ResponseCache() {
+        this(DEFAULT_MAX_SIZE, Clock.DEFAULT);
+    }
+
+    @VisibleForTesting
+    ResponseCache(int maxSize, @NonNull Clock clock) {
+        mMaxSize = maxSize;
+        mClock = clock;
+        // access order, so that the eldest entry is the least recently used one
+        mEntries = new LinkedHashMap<ApiRequest, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ApiRequest, Entry> eldest) {
+                return size() > mMaxSize;
+            }
+        };
+    }
+
+    /**
+     * @return the response to the request if it is still fresh, otherwise {@code null}
+     */
+    @Nullable
+    synchronized StripeResponse get(@NonNull ApiRequest request) {
+        final Entry entry = mEntries.get(request);
+        if (entry != null && mClock.currentTimeMillis() < entry.mExpiresAt) {
+            mHitCount++;
+            return entry.mResponse;
+        }
+
+        mMissCount++;
+        return null;
+    }
+
+    /**
+     * @return a copy of the request that the API can answer with
+     *         {@link java.net.HttpURLConnection#HTTP_NOT_MODIFIED} if the cached response is
+     *         still current, or {@code null} if there is no response that can be revalidated
+     */
+    @Nullable
+    synchronized ApiRequest createRevalidationRequest(@NonNull ApiRequest request) {
+        final Entry entry = mEntries.get(request);
+        final String eTag = entry != null ? entry.mResponse.getHeaderValue(HEADER_ETAG) : null;
+        return eTag != null ? request.createConditional(eTag) : null;
+    }
+
+    /**
+     * Called when the API confirmed that the cached response to the request is still current.
+     *
+     * @return the cached response, or {@code null} if it was evicted in the meantime
+     */
+    @Nullable
+    synchronized StripeResponse onNotModified(@NonNull ApiRequest request) {
+        final Entry entry = mEntries.get(request);
+        if (entry == null) {
+            return null;
+        }
+
+        mRevalidatedCount++;
+        return entry.mResponse;
+    }
+
+    /**
+     * @param objectId the ID of the object in the response, used by {@link #invalidate(String)}
+     * @param isTerminal {@code true} if the object's status can no longer change
+     */
+    synchronized void put(@NonNull ApiRequest request,
+                          @NonNull String objectId,
+                          @NonNull StripeResponse response,
+                          boolean isTerminal) {
+        final long ttlMillis = isTerminal ? TERMINAL_TTL_MILLIS : DEFAULT_TTL_MILLIS;
+        mEntries.put(request,
+                new Entry(objectId, response, mClock.currentTimeMillis() + ttlMillis));
+    }
+
+    /**
+     * Remove every response for the given object, e.g. because the object was just changed.
+     */
+    synchronized void invalidate(@NonNull String objectId) {
+        final Iterator<Entry> entries = mEntries.values().iterator();
+        while (entries.hasNext()) {
+            if (objectId.equals(entries.next().mObjectId)) {
+                entries.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the number of calls to {@link #get(ApiRequest)} that returned a fresh response
+     */
+    synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * @return the number of calls to {@link #get(ApiRequest)} that found no fresh response
+     */
+    synchronized int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return the number of stale responses that the API confirmed were still current
+     */
+    synchronized int getRevalidatedCount() {
+        return mRevalidatedCount;
+    }
+
+    @VisibleForTesting
+    synchronized int size() {
+        return mEntries.size();
+    }
+
+    private static final class Entry {
+        @NonNull private final String mObjectId;
+        @NonNull private final StripeResponse mResponse;
+        private final long mExpiresAt;
+
+        private Entry(@NonNull String objectId, @NonNull StripeResponse response,
+                      long expiresAt) {
+            mObjectId = objectId;
+            mResponse = response;
+            mExpiresAt = expiresAt;
+        }
+    }
+}
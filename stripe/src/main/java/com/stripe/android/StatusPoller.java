@@ -0,0 +1,452 @@
+package com.stripe.android;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import com.stripe.android.exception.APIConnectionException;
+import com.stripe.android.exception.APIException;
+import com.stripe.android.exception.RateLimitException;
+import com.stripe.android.exception.StripeException;
+import com.stripe.android.model.PaymentIntent;
+import com.stripe.android.model.PaymentIntentParams;
+import com.stripe.android.model.Source;
+import com.stripe.android.model.StripeIntent;
+import com.stripe.android.utils.ObjectUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls Stripe objects in the background until their status stops changing, e.g. a
+ * {@link Source} that waits for the customer to complete a redirect.
+ *
+ * A poll starts right away. While the status does not change, the delay before the next poll
+ * grows from {@link #INITIAL_DELAY_MILLIS} by {@link #BACKOFF_MULTIPLIER} up to
+ * {@link #MAX_DELAY_MILLIS}; when it changes, the delay starts over. Connection errors and
+ * server errors are retried the same way.
+ *
+ * Listeners that poll the same object at the same time share a single poll. Polling objects
+ * is independent of which screen started it, so by default the whole process shares the same
+ * poller.
+ */
+class StatusPoller {
+    /**
+     * Polling sooner would be answered from the {@link ResponseCache}.
+     */
+    @VisibleForTesting
+    static final long INITIAL_DELAY_MILLIS = ResponseCache.DEFAULT_TTL_MILLIS;
+    @VisibleForTesting
+    static final long MAX_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(15);
+    private static final double BACKOFF_MULTIPLIER = 1.5;
+
+    @Nullable private static StatusPoller sDefaultInstance;
+
+    @NonNull private final Scheduler mScheduler;
+    @NonNull private final Clock mClock;
+    @NonNull private final Map<Object, Poll<?>> mPolls = new HashMap<>();
+
+    @NonNull
+    static synchronized StatusPoller getDefault() {
+        if (sDefaultInstance == null) {
+            sDefaultInstance = new StatusPoller(new DefaultScheduler(), Clock.DEFAULT);
+        }
+        return sDefaultInstance;
+    }
+
+    @VisibleForTesting
+    StatusPoller(@NonNull Scheduler scheduler, @NonNull Clock clock) {
+        mScheduler = scheduler;
+        mClock = clock;
+    }
+
+    /**
+     * Poll the target until its status stops changing, or until the timeout.
+     */
+    synchronized <ResultType> void poll(@NonNull Target<ResultType> target,
+                                        long timeoutMillis,
+                                        @NonNull StatusPollingListener<ResultType> listener) {
+        final Subscription<ResultType> subscription = new Subscription<>(listener,
+                mClock.currentTimeMillis() + timeoutMillis);
+
+        @SuppressWarnings("unchecked")
+        Poll<ResultType> poll = (Poll<ResultType>) mPolls.get(target.getKey());
+        if (poll == null) {
+            poll = new Poll<>(target);
+            mPolls.put(target.getKey(), poll);
+            poll.mSubscriptions.add(subscription);
+            mScheduler.schedule(poll, 0);
+        } else {
+            poll.mSubscriptions.add(subscription);
+            if (poll.mLastResult != null) {
+                deliverStatusChanged(subscription, poll.mLastResult);
+            }
+        }
+    }
+
+    /**
+     * Stop delivering results to the listener. A poll stops once it has no listeners left.
+     */
+    synchronized void stop(@NonNull StatusPollingListener<?> listener) {
+        final Iterator<Poll<?>> polls = mPolls.values().iterator();
+        while (polls.hasNext()) {
+            final Poll<?> poll = polls.next();
+            final Iterator<? extends Subscription<?>> subscriptions =
+                    poll.mSubscriptions.iterator();
+            while (subscriptions.hasNext()) {
+                final Subscription<?> subscription = subscriptions.next();
+                if (subscription.mListener == listener) {
+                    subscription.mIsStopped = true;
+                    subscriptions.remove();
+                }
+            }
+            if (poll.mSubscriptions.isEmpty()) {
+                polls.remove();
+            }
+        }
+    }
+
+    @VisibleForTesting
+    synchronized int getPollCount() {
+        return mPolls.size();
+    }
+
+    private synchronized boolean isPolling(@NonNull Poll<?> poll) {
+        return mPolls.get(poll.mTarget.getKey()) == poll;
+    }
+
+    private synchronized <ResultType> void onPolled(@NonNull Poll<ResultType> poll,
+                                                    @Nullable ResultType result,
+                                                    @Nullable StripeException error) {
+        if (!isPolling(poll)) {
+            // every listener stopped while the request was in flight
+            return;
+        }
+
+        if (error != null) {
+            mPolls.remove(poll.mTarget.getKey());
+            for (Subscription<ResultType> subscription : poll.mSubscriptions) {
+                deliverError(subscription, error);
+            }
+            return;
+        }
+
+        if (result != null) {
+            final String status = poll.mTarget.getStatus(result);
+            if (poll.mLastResult == null || !ObjectUtils.equals(status, poll.mLastStatus)) {
+                poll.mDelayMillis = INITIAL_DELAY_MILLIS;
+                for (Subscription<ResultType> subscription : poll.mSubscriptions) {
+                    deliverStatusChanged(subscription, result);
+                }
+            } else {
+                poll.increaseDelay();
+            }
+            poll.mLastResult = result;
+            poll.mLastStatus = status;
+
+            if (poll.mTarget.isTerminal(result)) {
+                mPolls.remove(poll.mTarget.getKey());
+                for (Subscription<ResultType> subscription : poll.mSubscriptions) {
+                    deliverComplete(subscription, result);
+                }
+                return;
+            }
+        } else {
+            poll.increaseDelay();
+        }
+
+        final long now = mClock.currentTimeMillis();
+        long nextDeadline = Long.MAX_VALUE;
+        final Iterator<Subscription<ResultType>> subscriptions =
+                poll.mSubscriptions.iterator();
+        while (subscriptions.hasNext()) {
+            final Subscription<ResultType> subscription = subscriptions.next();
+            if (subscription.mDeadline <= now) {
+                subscriptions.remove();
+                deliverTimeout(subscription, poll.mLastResult);
+            } else {
+                nextDeadline = Math.min(nextDeadline, subscription.mDeadline);
+            }
+        }
+
+        if (poll.mSubscriptions.isEmpty()) {
+            mPolls.remove(poll.mTarget.getKey());
+        } else {
+            // poll one last time when the next listener times out
+            mScheduler.schedule(poll, Math.min(poll.mDelayMillis, nextDeadline - now));
+        }
+    }
+
+    private <ResultType> void deliverStatusChanged(
+            @NonNull final Subscription<ResultType> subscription,
+            @NonNull final ResultType result) {
+        mScheduler.deliver(new Runnable() {
+            @Override
+            public void run() {
+                if (!subscription.mIsStopped) {
+                    subscription.mListener.onStatusChanged(result);
+                }
+            }
+        });
+    }
+
+    private <ResultType> void deliverComplete(
+            @NonNull final Subscription<ResultType> subscription,
+            @NonNull final ResultType result) {
+        mScheduler.deliver(new Runnable() {
+            @Override
+            public void run() {
+                if (!subscription.mIsStopped) {
+                    subscription.mListener.onComplete(result);
+                }
+            }
+        });
+    }
+
+    private <ResultType> void deliverTimeout(
+            @NonNull final Subscription<ResultType> subscription,
+            @Nullable final ResultType lastResult) {
+        mScheduler.deliver(new Runnable() {
+            @Override
+            public void run() {
+                if (!subscription.mIsStopped) {
+                    subscription.mListener.onTimeout(lastResult);
+                }
+            }
+        });
+    }
+
+    private <ResultType> void deliverError(
+            @NonNull final Subscription<ResultType> subscription,
+            @NonNull final StripeException error) {
+        mScheduler.deliver(new Runnable() {
+            @Override
+            public void run() {
+                if (!subscription.mIsStopped) {
+                    subscription.mListener.onError(error);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return {@code true} if polling again may get past the error
+     */
+    private static boolean isTransient(@NonNull StripeException error) {
+        return error instanceof APIConnectionException || error instanceof APIException ||
+                error instanceof RateLimitException;
+    }
+
+    @NonNull
+    static Target<Source> createSourceTarget(@NonNull StripeApiHandler apiHandler,
+                                             @NonNull String sourceId,
+                                             @NonNull String clientSecret,
+                                             @NonNull ApiRequest.Options options) {
+        return new SourceTarget(apiHandler, sourceId, clientSecret, options);
+    }
+
+    @NonNull
+    static Target<PaymentIntent> createPaymentIntentTarget(@NonNull StripeApiHandler apiHandler,
+                                                           @NonNull String clientSecret,
+                                                           @NonNull ApiRequest.Options options) {
+        return new PaymentIntentTarget(apiHandler, clientSecret, options);
+    }
+
+    /**
+     * An object to poll.
+     */
+    interface Target<ResultType> {
+        /**
+         * @return a key that is equal to the key of any other target for the same object
+         */
+        @NonNull
+        Object getKey();
+
+        @Nullable
+        ResultType retrieve() throws StripeException;
+
+        @Nullable
+        String getStatus(@NonNull ResultType result);
+
+        /**
+         * @return {@code true} if the result's status will not change without further action
+         *         by the app or the customer
+         */
+        boolean isTerminal(@NonNull ResultType result);
+    }
+
+    /**
+     * Runs polls in the background and delivers their results to listeners.
+     */
+    interface Scheduler {
+        /**
+         * Run the task on a background thread after the delay.
+         */
+        void schedule(@NonNull Runnable task, long delayMillis);
+
+        /**
+         * Run the task on the thread that listeners expect to be called on.
+         */
+        void deliver(@NonNull Runnable task);
+    }
+
+    /**
+     * Waits on the main thread's {@link Handler}, so that a waiting poll does not hold on to a
+     * thread, then runs the poll on the {@link ApiOperationExecutor#getDefault() SDK's executor}.
+     */
+    private static final class DefaultScheduler implements Scheduler {
+        @NonNull private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+        @NonNull private final Executor mExecutor = ApiOperationExecutor.getDefault();
+
+        @Override
+        public void schedule(@NonNull final Runnable task, long delayMillis) {
+            mMainHandler.postDelayed(new Runnable() {
+                @Override
+                public void run() {
+                    mExecutor.execute(task);
+                }
+            }, delayMillis);
+        }
+
+        @Override
+        public void deliver(@NonNull Runnable task) {
+            mMainHandler.post(task);
+        }
+    }
+
+    private final class Poll<ResultType> implements Runnable {
+        @NonNull private final Target<ResultType> mTarget;
+        @NonNull private final List<Subscription<ResultType>> mSubscriptions = new ArrayList<>();
+        @Nullable private ResultType mLastResult;
+        @Nullable private String mLastStatus;
+        private long mDelayMillis = INITIAL_DELAY_MILLIS;
+
+        private Poll(@NonNull Target<ResultType> target) {
+            mTarget = target;
+        }
+
+        @Override
+        public void run() {
+            if (!isPolling(this)) {
+                return;
+            }
+
+            try {
+                onPolled(this, mTarget.retrieve(), null);
+            } catch (StripeException e) {
+                onPolled(this, null, isTransient(e) ? null : e);
+            }
+        }
+
+        private void increaseDelay() {
+            mDelayMillis = Math.min(MAX_DELAY_MILLIS,
+                    (long) (mDelayMillis * BACKOFF_MULTIPLIER));
+        }
+    }
+
+    private static final class Subscription<ResultType> {
+        @NonNull private final StatusPollingListener<ResultType> mListener;
+        private final long mDeadline;
+        private volatile boolean mIsStopped;
+
+        private Subscription(@NonNull StatusPollingListener<ResultType> listener,
+                             long deadline) {
+            mListener = listener;
+            mDeadline = deadline;
+        }
+    }
+
+    private static final class SourceTarget implements Target<Source> {
+        @NonNull private final StripeApiHandler mApiHandler;
+        @NonNull private final String mSourceId;
+        @NonNull private final String mClientSecret;
+        @NonNull private final ApiRequest.Options mOptions;
+
+        private SourceTarget(@NonNull StripeApiHandler apiHandler,
+                             @NonNull String sourceId,
+                             @NonNull String clientSecret,
+                             @NonNull ApiRequest.Options options) {
+            mApiHandler = apiHandler;
+            mSourceId = sourceId;
+            mClientSecret = clientSecret;
+            mOptions = options;
+        }
+
+        @NonNull
+        @Override
+        public Object getKey() {
+            return Arrays.asList(Source.class, mSourceId, mClientSecret, mOptions);
+        }
+
+        @Nullable
+        @Override
+        public Source retrieve() throws StripeException {
+            return mApiHandler.retrieveSource(mSourceId, mClientSecret, mOptions);
+        }
+
+        @Nullable
+        @Override
+        public String getStatus(@NonNull Source result) {
+            return result.getStatus();
+        }
+
+        @Override
+        public boolean isTerminal(@NonNull Source result) {
+            // a pending source waits for the customer, e.g. to complete a redirect
+            return result.getStatus() != null && !Source.PENDING.equals(result.getStatus());
+        }
+    }
+
+    private static final class PaymentIntentTarget implements Target<PaymentIntent> {
+        @NonNull private final StripeApiHandler mApiHandler;
+        @NonNull private final String mClientSecret;
+        @NonNull private final ApiRequest.Options mOptions;
+
+        private PaymentIntentTarget(@NonNull StripeApiHandler apiHandler,
+                                    @NonNull String clientSecret,
+                                    @NonNull ApiRequest.Options options) {
+            mApiHandler = apiHandler;
+            mClientSecret = clientSecret;
+            mOptions = options;
+        }
+
+        @NonNull
+        @Override
+        public Object getKey() {
+            return Arrays.asList(PaymentIntent.class, mClientSecret, mOptions);
+        }
+
+        @Nullable
+        @Override
+        public PaymentIntent retrieve() throws StripeException {
+            return mApiHandler.retrievePaymentIntent(
+                    PaymentIntentParams.createRetrievePaymentIntentParams(mClientSecret),
+                    mOptions);
+        }
+
+        @Nullable
+        @Override
+        public String getStatus(@NonNull PaymentIntent result) {
+            final StripeIntent.Status status = result.getStatus();
+            return status != null ? status.code : null;
+        }
+
+        @Override
+        public boolean isTerminal(@NonNull PaymentIntent result) {
+            // these wait for the customer to authenticate, or for the payment to be processed
+            final StripeIntent.Status status = result.getStatus();
+            return status != null &&
+                    StripeIntent.Status.RequiresAction != status &&
+                    StripeIntent.Status.RequiresAuthorization != status &&
+                    StripeIntent.Status.Processing != status;
+        }
+    }
+}
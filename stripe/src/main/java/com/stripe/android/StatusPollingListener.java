@@ -0,0 +1,38 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Receives the results of polling a Stripe object until its status stops changing, e.g. with
+ * {@link Stripe#pollSource(String, String, long, StatusPollingListener)}. Methods are called
+ * on the main thread.
+ */
+public interface StatusPollingListener<ResultType> {
+    /**
+     * Called with the first result of the poll, and with every result whose status differs
+     * from the previous one, including the final result.
+     */
+    void onStatusChanged(@NonNull ResultType result);
+
+    /**
+     * Called once the object reached a status that it will not leave on its own. No more
+     * methods are called after this one.
+     */
+    void onComplete(@NonNull ResultType result);
+
+    /**
+     * Called if the object did not reach such a status before the timeout. No more methods
+     * are called after this one.
+     *
+     * @param lastResult the last result of the poll, or {@code null} if none was received
+     */
+    void onTimeout(@Nullable ResultType lastResult);
+
+    /**
+     * Called if polling failed with an error that will not go away by polling again, such as
+     * an {@link com.stripe.android.exception.AuthenticationException}. Connection errors do
+     * not stop the poll. No more methods are called after this one.
+     */
+    void onError(@NonNull Exception e);
+}
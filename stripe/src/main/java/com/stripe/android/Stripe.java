@@ -3,7 +3,6 @@ package com.stripe.android;
 import android.app.Activity;
 import android.content.Context;
 import android.content.Intent;
-import android.os.AsyncTask;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.Size;
@@ -44,12 +43,14 @@ import static com.stripe.android.StripeNetworkUtils.createUpdateCvcTokenParams;
 @SuppressWarnings("WeakerAccess")
 public class Stripe {
     @Nullable private static AppInfo sAppInfo;
+    @Nullable private static RequestMetricsListener sRequestMetricsListener;
 
     @NonNull private final StripeApiHandler mApiHandler;
     @NonNull private final StripeNetworkUtils mStripeNetworkUtils;
     @NonNull private final PaymentController mPaymentController;
     @NonNull private final TokenCreator mTokenCreator;
     @NonNull private final ApiKeyValidator mApiKeyValidator;
+    @NonNull private final StatusPoller mStatusPoller;
     private String mDefaultPublishableKey;
     @Nullable private String mStripeAccount;
 
@@ -87,14 +88,15 @@ public class Stripe {
            @Nullable String publishableKey) {
         this(apiHandler, stripeNetworkUtils, paymentController, publishableKey,
                 new TokenCreator() {
+                    @NonNull
                     @Override
-                    public void create(
+                    public Cancellable create(
                             @NonNull final Map<String, Object> tokenParams,
                             @NonNull final ApiRequest.Options options,
                             @NonNull @Token.TokenType final String tokenType,
                             @Nullable final Executor executor,
                             @NonNull final TokenCallback callback) {
-                        executeTask(executor,
+                        return executeTask(executor,
                                 new CreateTokenTask(apiHandler, tokenParams, options,
                                         tokenType, callback));
                     }
@@ -112,6 +114,7 @@ public class Stripe {
         mStripeNetworkUtils = stripeNetworkUtils;
         mPaymentController = paymentController;
         mTokenCreator = tokenCreator;
+        mStatusPoller = StatusPoller.getDefault();
         mDefaultPublishableKey = publishableKey != null ?
                 mApiKeyValidator.requireValid(publishableKey) : null;
     }
@@ -131,6 +134,23 @@ public class Stripe {
         return sAppInfo;
     }
 
+    /**
+     * Setter for a listener that receives the timings of the SDK's HTTP requests, including
+     * analytics requests. It is used by the {@link Stripe} and {@link CustomerSession}
+     * instances that are created after it is set.
+     *
+     * @param listener the listener, or {@code null} to stop reporting timings
+     */
+    public static void setRequestMetricsListener(@Nullable RequestMetricsListener listener) {
+        sRequestMetricsListener = listener;
+    }
+
+    @NonNull
+    static RequestMetricsListener getRequestMetricsListener() {
+        return sRequestMetricsListener != null ?
+                sRequestMetricsListener : RequestMetricsListener.NO_OP;
+    }
+
     /**
      * Confirm and, if necessary, authenticate a {@link SetupIntent}.
      *
@@ -256,11 +276,13 @@ public class Stripe {
      *
      * @param bankAccount the {@link BankAccount} used to create this token
      * @param callback a {@link TokenCallback} to receive either the token or an error
+     * @return a {@link Cancellable} that stops the callback from being called
      */
-    public void createBankAccountToken(
+    @NonNull
+    public Cancellable createBankAccountToken(
             @NonNull final BankAccount bankAccount,
             @NonNull final TokenCallback callback) {
-        createBankAccountToken(bankAccount, mDefaultPublishableKey, null, callback);
+        return createBankAccountToken(bankAccount, mDefaultPublishableKey, null, callback);
     }
 
     /**
@@ -272,8 +294,10 @@ public class Stripe {
      * @param executor an {@link Executor} to run this operation on. If null, this is run on a
      *         default non-ui executor
      * @param callback a {@link TokenCallback} to receive the result or error message
+     * @return a {@link Cancellable} that stops the callback from being called
      */
-    public void createBankAccountToken(
+    @NonNull
+    public Cancellable createBankAccountToken(
             @NonNull final BankAccount bankAccount,
             @NonNull @Size(min = 1) final String publishableKey,
             @Nullable final Executor executor,
@@ -282,7 +306,7 @@ public class Stripe {
 
                     "Required parameter: 'bankAccount' is requred to create a token");
 
-        createTokenFromParams(
+        return createTokenFromParams(
                 mStripeNetworkUtils.createBankAccountTokenParams(bankAccount),
                 publishableKey,
                 Token.TYPE_BANK_ACCOUNT,
@@ -296,11 +320,13 @@ public class Stripe {
      *
      * @param personalId the personal id used to create this token
      * @param callback a {@link TokenCallback} to receive either the token or an error
+     * @return a {@link Cancellable} that stops the callback from being called
      */
-    public void createPiiToken(
+    @NonNull
+    public Cancellable createPiiToken(
             @NonNull final String personalId,
             @NonNull final TokenCallback callback) {
-        createPiiToken(personalId, mDefaultPublishableKey, null, callback);
+        return createPiiToken(personalId, mDefaultPublishableKey, null, callback);
     }
 
     /**
@@ -312,13 +338,15 @@ public class Stripe {
      * @param executor an {@link Executor} to run this operation on. If null, this is run on a
      *         default non-ui executor
      * @param callback a {@link TokenCallback} to receive the result or error message
+     * @return a {@link Cancellable} that stops the callback from being called
      */
-    public void createPiiToken(
+    @NonNull
+    public Cancellable createPiiToken(
             @NonNull final String personalId,
             @NonNull @Size(min = 1) final String publishableKey,
             @Nullable final Executor executor,
             @NonNull final TokenCallback callback) {
-        createTokenFromParams(
+        return createTokenFromParams(
                 createPersonalIdTokenParams(personalId),
                 publishableKey,
                 Token.TYPE_PII,
@@ -387,11 +415,13 @@ public class Stripe {
      *
      * @param cvc the CVC used to create this token
      * @param callback a {@link TokenCallback} to receive either the token or an error
+     * @return a {@link Cancellable} that stops the callback from being called
      */
-    public void createCvcUpdateToken(
+    @NonNull
+    public Cancellable createCvcUpdateToken(
             @NonNull @Size(min = 3, max = 4) final String cvc,
             @NonNull final TokenCallback callback) {
-        createCvcUpdateToken(cvc, mDefaultPublishableKey, null, callback);
+        return createCvcUpdateToken(cvc, mDefaultPublishableKey, null, callback);
     }
 
     /**
@@ -403,13 +433,15 @@ public class Stripe {
      * @param executor an {@link Executor} to run this operation on. If null, this is run on a
      *         default non-ui executor
      * @param callback a {@link TokenCallback} to receive the result or error message
+     * @return a {@link Cancellable} that stops the callback from being called
      */
-    public void createCvcUpdateToken(
+    @NonNull
+    public Cancellable createCvcUpdateToken(
             @NonNull @Size(min = 3, max = 4) final String cvc,
             @NonNull @Size(min = 1) final String publishableKey,
             @Nullable final Executor executor,
             @NonNull final TokenCallback callback) {
-        createTokenFromParams(
+        return createTokenFromParams(
                 createUpdateCvcTokenParams(cvc),
                 publishableKey,
                 Token.TYPE_CVC_UPDATE,
@@ -418,63 +450,74 @@ public class Stripe {
     }
 
     /**
-     * Create a {@link Source} using an {@link AsyncTask} on the default {@link Executor} with a
+     * Create a {@link Source} in the background on the default {@link Executor} with a
      * publishable api key that has already been set on this {@link Stripe} instance.
      *
      * @param sourceParams the {@link SourceParams} to be used
      * @param callback a {@link SourceCallback} to receive a result or an error message
+     * @return a {@link Cancellable} that stops the callback from being called
      */
-    public void createSource(@NonNull SourceParams sourceParams, @NonNull SourceCallback callback) {
-        createSource(sourceParams, callback, mDefaultPublishableKey, null);
+    @NonNull
+    public Cancellable createSource(@NonNull SourceParams sourceParams,
+                                    @NonNull SourceCallback callback) {
+        return createSource(sourceParams, callback, mDefaultPublishableKey, null);
     }
 
     /**
-     * Create a {@link Source} using an {@link AsyncTask}.
+     * Create a {@link Source} in the background.
      *
      * @param sourceParams the {@link SourceParams} to be used
      * @param callback a {@link SourceCallback} to receive a result or an error message
      * @param publishableKey the publishable api key to be used
      * @param executor an {@link Executor} on which to execute the task, or {@link null} for default
+     * @return a {@link Cancellable} that stops the callback from being called
      */
-    public void createSource(
+    @NonNull
+    public Cancellable createSource(
             @NonNull SourceParams sourceParams,
             @NonNull SourceCallback callback,
             @NonNull String publishableKey,
             @Nullable Executor executor) {
-        executeTask(executor,
+        return executeTask(executor,
                 new CreateSourceTask(mApiHandler, sourceParams, publishableKey, mStripeAccount,
                         callback));
     }
 
     /**
-     * Create a {@link PaymentMethod} using an {@link AsyncTask} on the default {@link Executor}
+     * Create a {@link PaymentMethod} in the background on the default {@link Executor}
      * with a publishable api key that has already been set on this {@link Stripe} instance.
      *
      * @param paymentMethodCreateParams the {@link PaymentMethodCreateParams} to be used
      * @param callback a {@link ApiResultCallback<PaymentMethod>} to receive a result or an error
      *         message
+     * @return a {@link Cancellable} that stops the callback from being called
      */
-    public void createPaymentMethod(@NonNull PaymentMethodCreateParams paymentMethodCreateParams,
-                                    @NonNull ApiResultCallback<PaymentMethod> callback) {
-        createPaymentMethod(paymentMethodCreateParams, callback, mDefaultPublishableKey, null);
+    @NonNull
+    public Cancellable createPaymentMethod(
+            @NonNull PaymentMethodCreateParams paymentMethodCreateParams,
+            @NonNull ApiResultCallback<PaymentMethod> callback) {
+        return createPaymentMethod(paymentMethodCreateParams, callback, mDefaultPublishableKey,
+                null);
     }
 
     /**
-     * Create a {@link PaymentMethod} using an {@link AsyncTask}.
+     * Create a {@link PaymentMethod} in the background.
      *
      * @param paymentMethodCreateParams the {@link PaymentMethodCreateParams} to be used
      * @param callback a {@link ApiResultCallback<PaymentMethod>} to receive a result or an error
      *         message
      * @param publishableKey the publishable api key to be used
      * @param executor an {@link Executor} on which to execute the task, or {@link null} for default
+     * @return a {@link Cancellable} that stops the callback from being called
      */
-    public void createPaymentMethod(
+    @NonNull
+    public Cancellable createPaymentMethod(
             @NonNull PaymentMethodCreateParams paymentMethodCreateParams,
             @NonNull ApiResultCallback<PaymentMethod> callback,
             @NonNull String publishableKey,
             @Nullable Executor executor) {
-        executeTask(executor, new CreatePaymentMethodTask(mApiHandler, paymentMethodCreateParams,
-                publishableKey, mStripeAccount, callback));
+        return executeTask(executor, new CreatePaymentMethodTask(mApiHandler,
+                paymentMethodCreateParams, publishableKey, mStripeAccount, callback));
     }
 
     /**
@@ -484,9 +527,12 @@ public class Stripe {
      *
      * @param card the {@link Card} used to create this payment token
      * @param callback a {@link TokenCallback} to receive either the token or an error
+     * @return a {@link Cancellable} that stops the callback from being called
      */
-    public void createToken(@NonNull final Card card, @NonNull final TokenCallback callback) {
-        createToken(card, mDefaultPublishableKey, callback);
+    @NonNull
+    public Cancellable createToken(@NonNull final Card card,
+                                   @NonNull final TokenCallback callback) {
+        return createToken(card, mDefaultPublishableKey, callback);
     }
 
     /**
@@ -495,12 +541,14 @@ public class Stripe {
      * @param card the {@link Card} used for this transaction
      * @param publishableKey the public key used for this transaction
      * @param callback a {@link TokenCallback} to receive the result of this operation
+     * @return a {@link Cancellable} that stops the callback from being called
      */
-    public void createToken(
+    @NonNull
+    public Cancellable createToken(
             @NonNull final Card card,
             @NonNull final String publishableKey,
             @NonNull final TokenCallback callback) {
-        createToken(card, publishableKey, null, callback);
+        return createToken(card, publishableKey, null, callback);
     }
 
     /**
@@ -510,12 +558,14 @@ public class Stripe {
      * @param executor An {@link Executor} on which to run this operation. If you don't wish to
      *         specify an executor, use one of the other createTokenFromParams methods.
      * @param callback a {@link TokenCallback} to receive the result of this operation
+     * @return a {@link Cancellable} that stops the callback from being called
      */
-    public void createToken(
+    @NonNull
+    public Cancellable createToken(
             @NonNull final Card card,
             @NonNull final Executor executor,
             @NonNull final TokenCallback callback) {
-        createToken(card, mDefaultPublishableKey, executor, callback);
+        return createToken(card, mDefaultPublishableKey, executor, callback);
     }
 
     /**
@@ -526,8 +576,10 @@ public class Stripe {
      * @param executor an {@link Executor} to run this operation on. If null, this is run on a
      *         default non-ui executor
      * @param callback a {@link TokenCallback} to receive the result or error message
+     * @return a {@link Cancellable} that stops the callback from being called
      */
-    public void createToken(
+    @NonNull
+    public Cancellable createToken(
             @NonNull final Card card,
             @NonNull @Size(min = 1) final String publishableKey,
             @Nullable final Executor executor,
@@ -535,7 +587,7 @@ public class Stripe {
         Objects.requireNonNull(card,
                 "Required Parameter: 'card' is required to create a token");
 
-        createTokenFromParams(
+        return createTokenFromParams(
                 mStripeNetworkUtils.createCardTokenParams(card),
                 publishableKey,
                 Token.TYPE_CARD,
@@ -612,6 +664,24 @@ public class Stripe {
         );
     }
 
+    /**
+     * Retrieve the {@link PaymentIntent} from the API, even if a recent response is cached.
+     * Used after authentication, which changes the PaymentIntent's status.
+     */
+    @Nullable
+    PaymentIntent retrieveUncachedPaymentIntentSynchronous(
+            @NonNull PaymentIntentParams paymentIntentParams,
+            @NonNull String publishableKey) throws AuthenticationException,
+            InvalidRequestException,
+            APIConnectionException,
+            APIException {
+        return mApiHandler.retrievePaymentIntent(
+                paymentIntentParams,
+                ApiRequest.Options.create(publishableKey, mStripeAccount),
+                false
+        );
+    }
+
     /**
      * See {@link #retrievePaymentIntentSynchronous(PaymentIntentParams, String)}
      */
@@ -665,6 +735,24 @@ public class Stripe {
         );
     }
 
+    /**
+     * Retrieve the {@link SetupIntent} from the API, even if a recent response is cached.
+     * Used after authentication, which changes the SetupIntent's status.
+     */
+    @Nullable
+    SetupIntent retrieveUncachedSetupIntentSynchronous(
+            @NonNull SetupIntentParams setupIntentParams,
+            @NonNull String publishableKey) throws AuthenticationException,
+            InvalidRequestException,
+            APIConnectionException,
+            APIException {
+        return mApiHandler.retrieveSetupIntent(
+                setupIntentParams,
+                ApiRequest.Options.create(publishableKey, mStripeAccount),
+                false
+        );
+    }
+
     /**
      * See {@link #retrieveSetupIntentSynchronous(SetupIntentParams, String)}
      */
@@ -987,6 +1075,63 @@ public class Stripe {
                 ApiRequest.Options.create(publishableKey, mStripeAccount));
     }
 
+    /**
+     * Poll an existing {@link Source} in the background until its status is no longer
+     * {@link Source#PENDING}, e.g. because the customer completed a redirect and the Source is
+     * {@link Source#CHARGEABLE}. The delay between polls grows while the status does not
+     * change. This method uses the default publishable key for this {@link Stripe} instance.
+     *
+     * If the same Source is already being polled, the listener receives the results of that
+     * poll instead of starting another one.
+     *
+     * @param sourceId the {@link Source#getId()} field of the Source to poll
+     * @param clientSecret the {@link Source#getClientSecret()} field of the Source to poll
+     * @param timeoutMillis how long to poll before calling
+     *                      {@link StatusPollingListener#onTimeout(Object)}
+     * @param listener a {@link StatusPollingListener} to receive the results on the main thread
+     */
+    public void pollSource(@NonNull @Size(min = 1) String sourceId,
+                           @NonNull @Size(min = 1) String clientSecret,
+                           long timeoutMillis,
+                           @NonNull StatusPollingListener<Source> listener) {
+        mStatusPoller.poll(StatusPoller.createSourceTarget(mApiHandler, sourceId, clientSecret,
+                ApiRequest.Options.create(mDefaultPublishableKey, mStripeAccount)),
+                timeoutMillis, listener);
+    }
+
+    /**
+     * Poll an existing {@link PaymentIntent} in the background until its status stops
+     * changing on its own, i.e. until it no longer requires action and is no longer
+     * processing. The delay between polls grows while the status does not change. This method
+     * uses the default publishable key for this {@link Stripe} instance.
+     *
+     * If the same PaymentIntent is already being polled, the listener receives the results of
+     * that poll instead of starting another one.
+     *
+     * @param clientSecret the {@link PaymentIntent#getClientSecret()} field of the
+     *                     PaymentIntent to poll
+     * @param timeoutMillis how long to poll before calling
+     *                      {@link StatusPollingListener#onTimeout(Object)}
+     * @param listener a {@link StatusPollingListener} to receive the results on the main thread
+     */
+    public void pollPaymentIntent(@NonNull @Size(min = 1) String clientSecret,
+                                  long timeoutMillis,
+                                  @NonNull StatusPollingListener<PaymentIntent> listener) {
+        mStatusPoller.poll(StatusPoller.createPaymentIntentTarget(mApiHandler, clientSecret,
+                ApiRequest.Options.create(mDefaultPublishableKey, mStripeAccount)),
+                timeoutMillis, listener);
+    }
+
+    /**
+     * Stop delivering the results of
+     * {@link #pollSource(String, String, long, StatusPollingListener)} or
+     * {@link #pollPaymentIntent(String, long, StatusPollingListener)} to the listener, e.g.
+     * because the screen that started the poll was closed.
+     */
+    public void stopPolling(@NonNull StatusPollingListener<?> listener) {
+        mStatusPoller.stop(listener);
+    }
+
     /**
      * Set the default publishable key to use with this {@link Stripe} instance.
      *
@@ -999,6 +1144,16 @@ public class Stripe {
         mDefaultPublishableKey = mApiKeyValidator.requireValid(publishableKey);
     }
 
+    /**
+     * Set up a connection to the Stripe API in the background, so that the first API request
+     * made afterwards, such as {@link #createPaymentMethod(PaymentMethodCreateParams,
+     * ApiResultCallback)} or {@link #confirmPayment(Activity, PaymentIntentParams)}, does not
+     * have to wait for it. Call this when a checkout screen is opened.
+     */
+    public void warmUp() {
+        mApiHandler.warmUp();
+    }
+
     /**
      * Set the Stripe Connect account to use with this Stripe instance.
      *
@@ -1010,7 +1165,8 @@ public class Stripe {
         mStripeAccount = stripeAccount;
     }
 
-    private void createTokenFromParams(
+    @NonNull
+    private Cancellable createTokenFromParams(
             @NonNull final Map<String, Object> tokenParams,
             @NonNull @Size(min = 1) final String publishableKey,
             @NonNull @Token.TokenType final String tokenType,
@@ -1019,25 +1175,27 @@ public class Stripe {
         Objects.requireNonNull(callback,
                     "Required Parameter: 'callback' is required to use the created " +
                             "token and handle errors");
-        mTokenCreator.create(
+        return mTokenCreator.create(
                 tokenParams,
                 ApiRequest.Options.create(publishableKey, mStripeAccount),
                 tokenType,
                 executor, callback);
     }
 
-    private static void executeTask(@Nullable Executor executor,
-                             @NonNull AsyncTask<Void, Void, ?> task) {
+    @NonNull
+    private static Cancellable executeTask(@Nullable Executor executor,
+                                           @NonNull ApiOperation<?> task) {
         if (executor != null) {
-            task.executeOnExecutor(executor);
+            return task.executeOnExecutor(executor);
         } else {
-            task.execute();
+            return task.execute();
         }
     }
 
     @VisibleForTesting
     interface TokenCreator {
-        void create(@NonNull Map<String, Object> params,
+        @NonNull
+        Cancellable create(@NonNull Map<String, Object> params,
                     @NonNull ApiRequest.Options options,
                     @NonNull @Token.TokenType String tokenType,
                     @Nullable Executor executor,
@@ -1065,6 +1223,12 @@ public class Stripe {
         Source getResult() throws StripeException {
                 return mApiHandler.createSource(mSourceParams, mOptions);
         }
+
+        @NonNull
+        @Override
+        RequestScheduler.Priority getPriority() {
+            return RequestScheduler.Priority.PaymentCritical;
+        }
     }
 
     private static class CreatePaymentMethodTask extends ApiOperation<PaymentMethod> {
@@ -1088,6 +1252,12 @@ public class Stripe {
         PaymentMethod getResult() throws StripeException {
             return mApiHandler.createPaymentMethod(mPaymentMethodCreateParams, mOptions);
         }
+
+        @NonNull
+        @Override
+        RequestScheduler.Priority getPriority() {
+            return RequestScheduler.Priority.PaymentCritical;
+        }
     }
 
     private static class CreateTokenTask extends ApiOperation<Token> {
@@ -1114,5 +1284,11 @@ public class Stripe {
         Token getResult() throws StripeException {
             return mApiHandler.createToken(mTokenParams, mOptions, mTokenType);
         }
+
+        @NonNull
+        @Override
+        RequestScheduler.Priority getPriority() {
+            return RequestScheduler.Priority.PaymentCritical;
+        }
     }
 }
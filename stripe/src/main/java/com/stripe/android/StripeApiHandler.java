@@ -4,7 +4,6 @@ import android.content.Context;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
-import android.util.Pair;
 
 import com.stripe.android.exception.APIConnectionException;
 import com.stripe.android.exception.APIException;
@@ -15,48 +14,128 @@ import com.stripe.android.exception.PermissionException;
 import com.stripe.android.exception.RateLimitException;
 import com.stripe.android.exception.StripeException;
 import com.stripe.android.model.Customer;
+import com.stripe.android.model.CustomerSourcesPage;
 import com.stripe.android.model.PaymentIntent;
 import com.stripe.android.model.PaymentIntentParams;
 import com.stripe.android.model.PaymentMethod;
 import com.stripe.android.model.PaymentMethodCreateParams;
+import com.stripe.android.model.PaymentMethodsPage;
 import com.stripe.android.model.SetupIntent;
 import com.stripe.android.model.SetupIntentParams;
 import com.stripe.android.model.ShippingInformation;
 import com.stripe.android.model.Source;
 import com.stripe.android.model.SourceParams;
 import com.stripe.android.model.Stripe3ds2AuthResult;
+import com.stripe.android.model.StripeIntent;
 import com.stripe.android.model.Token;
-import com.stripe.android.utils.ObjectUtils;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.net.HttpURLConnection;
-import java.security.Security;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Handler for calls to the Stripe API.
  */
 class StripeApiHandler {
 
-    private static final String DNS_CACHE_TTL_PROPERTY_NAME = "networkaddress.cache.ttl";
+    @NonNull private static final ModelParser<PaymentIntent> PAYMENT_INTENT_PARSER =
+            new ModelParser<PaymentIntent>("PaymentIntent") {
+                @Nullable
+                @Override
+                PaymentIntent parse(@Nullable String json) {
+                    return PaymentIntent.fromString(json);
+                }
+            };
+    @NonNull private static final ModelParser<SetupIntent> SETUP_INTENT_PARSER =
+            new ModelParser<SetupIntent>("SetupIntent") {
+                @Nullable
+                @Override
+                SetupIntent parse(@Nullable String json) {
+                    return SetupIntent.fromString(json);
+                }
+            };
+    @NonNull private static final ModelParser<Source> SOURCE_PARSER =
+            new ModelParser<Source>("Source") {
+                @Nullable
+                @Override
+                Source parse(@Nullable String json) {
+                    return Source.fromString(json);
+                }
+            };
+    @NonNull private static final ModelParser<PaymentMethod> PAYMENT_METHOD_PARSER =
+            new ModelParser<PaymentMethod>("PaymentMethod") {
+                @Nullable
+                @Override
+                PaymentMethod parse(@Nullable String json) {
+                    return PaymentMethod.fromString(json);
+                }
+            };
+    @NonNull private static final ModelParser<PaymentMethodsPage> PAYMENT_METHODS_PAGE_PARSER =
+            new ModelParser<PaymentMethodsPage>("PaymentMethodsPage") {
+                @Nullable
+                @Override
+                PaymentMethodsPage parse(@Nullable String json) {
+                    return PaymentMethodsPage.fromString(json);
+                }
+            };
+    @NonNull private static final ModelParser<Customer> CUSTOMER_PARSER =
+            new ModelParser<Customer>("Customer") {
+                @Nullable
+                @Override
+                Customer parse(@Nullable String json) {
+                    return Customer.fromString(json);
+                }
+            };
+    @NonNull private static final ModelParser<CustomerSourcesPage> CUSTOMER_SOURCES_PAGE_PARSER =
+            new ModelParser<CustomerSourcesPage>("CustomerSourcesPage") {
+                @Nullable
+                @Override
+                CustomerSourcesPage parse(@Nullable String json) {
+                    return CustomerSourcesPage.fromString(json);
+                }
+            };
+    @NonNull private static final ModelParser<Token> TOKEN_PARSER =
+            new ModelParser<Token>("Token") {
+                @Nullable
+                @Override
+                Token parse(@Nullable String json) {
+                    return Token.fromString(json);
+                }
+            };
 
     @NonNull private final LoggingUtils mLoggingUtils;
     @NonNull private final FingerprintRequestFactory mFingerprintRequestFactory;
     @NonNull private final StripeNetworkUtils mNetworkUtils;
     @NonNull private final RequestExecutor mRequestExecutor;
+    @NonNull private final AnalyticsRequestQueue mAnalyticsRequestQueue;
+    @NonNull private final RequestRetrier mRequestRetrier;
+    @NonNull private final RequestCoalescer mRequestCoalescer;
+    @NonNull private final ResponseCache mResponseCache;
+    @NonNull private final ConnectionWarmer mConnectionWarmer;
     private final boolean mShouldLogRequest;
     @Nullable private final AppInfo mAppInfo;
 
     StripeApiHandler(@NonNull Context context, @Nullable AppInfo appInfo) {
-        this(context.getApplicationContext(), new RequestExecutor(), true, appInfo);
+        this(context, appInfo, Stripe.getRequestMetricsListener());
+    }
+
+    /**
+     * @param metricsListener receives the timings of every request made by this handler,
+     *                        including analytics and fingerprint requests
+     */
+    StripeApiHandler(@NonNull Context context, @Nullable AppInfo appInfo,
+                     @NonNull RequestMetricsListener metricsListener) {
+        this(context.getApplicationContext(), new RequestExecutor(metricsListener), true,
+                appInfo);
     }
 
     @VisibleForTesting
@@ -74,7 +153,62 @@ class StripeApiHandler {
                      boolean shouldLogRequest,
                      @Nullable AppInfo appInfo,
                      @NonNull FingerprintRequestFactory fingerprintRequestFactory) {
+        this(context, requestExecutor, shouldLogRequest, appInfo, fingerprintRequestFactory,
+                new AnalyticsRequestQueue(requestExecutor, new AnalyticsJournal(context)));
+    }
+
+    @VisibleForTesting
+    StripeApiHandler(@NonNull Context context,
+                     @NonNull RequestExecutor requestExecutor,
+                     boolean shouldLogRequest,
+                     @Nullable AppInfo appInfo,
+                     @NonNull FingerprintRequestFactory fingerprintRequestFactory,
+                     @NonNull AnalyticsRequestQueue analyticsRequestQueue) {
+        this(context, requestExecutor, shouldLogRequest, appInfo, fingerprintRequestFactory,
+                analyticsRequestQueue, new RequestRetrier());
+    }
+
+    @VisibleForTesting
+    StripeApiHandler(@NonNull Context context,
+                     @NonNull RequestExecutor requestExecutor,
+                     boolean shouldLogRequest,
+                     @Nullable AppInfo appInfo,
+                     @NonNull FingerprintRequestFactory fingerprintRequestFactory,
+                     @NonNull AnalyticsRequestQueue analyticsRequestQueue,
+                     @NonNull RequestRetrier requestRetrier) {
+        this(context, requestExecutor, shouldLogRequest, appInfo, fingerprintRequestFactory,
+                analyticsRequestQueue, requestRetrier, new RequestCoalescer());
+    }
+
+    @VisibleForTesting
+    StripeApiHandler(@NonNull Context context,
+                     @NonNull RequestExecutor requestExecutor,
+                     boolean shouldLogRequest,
+                     @Nullable AppInfo appInfo,
+                     @NonNull FingerprintRequestFactory fingerprintRequestFactory,
+                     @NonNull AnalyticsRequestQueue analyticsRequestQueue,
+                     @NonNull RequestRetrier requestRetrier,
+                     @NonNull RequestCoalescer requestCoalescer) {
+        this(context, requestExecutor, shouldLogRequest, appInfo, fingerprintRequestFactory,
+                analyticsRequestQueue, requestRetrier, requestCoalescer, new ResponseCache());
+    }
+
+    @VisibleForTesting
+    StripeApiHandler(@NonNull Context context,
+                     @NonNull RequestExecutor requestExecutor,
+                     boolean shouldLogRequest,
+                     @Nullable AppInfo appInfo,
+                     @NonNull FingerprintRequestFactory fingerprintRequestFactory,
+                     @NonNull AnalyticsRequestQueue analyticsRequestQueue,
+                     @NonNull RequestRetrier requestRetrier,
+                     @NonNull RequestCoalescer requestCoalescer,
+                     @NonNull ResponseCache responseCache) {
         mRequestExecutor = requestExecutor;
+        mAnalyticsRequestQueue = analyticsRequestQueue;
+        mRequestRetrier = requestRetrier;
+        mRequestCoalescer = requestCoalescer;
+        mResponseCache = responseCache;
+        mConnectionWarmer = new ConnectionWarmer(requestExecutor);
         mShouldLogRequest = shouldLogRequest;
         mLoggingUtils = new LoggingUtils(context);
         mFingerprintRequestFactory = fingerprintRequestFactory;
@@ -82,6 +216,13 @@ class StripeApiHandler {
         mAppInfo = appInfo;
     }
 
+    /**
+     * Set up a connection to the Stripe API in the background, ahead of the first request.
+     */
+    void warmUp() {
+        mConnectionWarmer.warmUp();
+    }
+
     void logApiCall(
             @NonNull Map<String, Object> loggingMap,
             @NonNull String publishableKey) {
@@ -122,9 +263,17 @@ class StripeApiHandler {
             );
             final String paymentIntentId = PaymentIntent.parseIdFromClientSecret(
                     Objects.requireNonNull(paymentIntentParams.getClientSecret()));
-            final StripeResponse response = makeApiRequest(ApiRequest.createPost(
-                    getConfirmPaymentIntentUrl(paymentIntentId), paramMap, options, mAppInfo));
-            return PaymentIntent.fromString(response.getResponseBody());
+            final StripeResponse response;
+            try {
+                response = makeApiRequest(ApiRequest.createPaymentPost(
+                        getConfirmPaymentIntentUrl(paymentIntentId), paramMap, options,
+                        mAppInfo));
+            } finally {
+                // the confirmation changes the PaymentIntent's status, whatever its outcome, so
+                // a response cached while it was in flight is already stale
+                mResponseCache.invalidate(paymentIntentId);
+            }
+            return parse(PAYMENT_INTENT_PARSER, response);
         } catch (CardException unexpected) {
             // This particular kind of exception should not be possible from a PaymentI API endpoint
             throw new APIException(unexpected.getMessage(), unexpected.getRequestId(),
@@ -144,6 +293,24 @@ class StripeApiHandler {
             InvalidRequestException,
             APIConnectionException,
             APIException {
+        return retrievePaymentIntent(paymentIntentParams, options, true);
+    }
+
+    /**
+     * Retrieve a {@link PaymentIntent} using the provided {@link PaymentIntentParams}
+     * @param paymentIntentParams contains the retrieval params
+     * @param shouldUseCache {@code false} to ask the API even if a fresh response is cached,
+     *                       e.g. right after authentication changed the PaymentIntent
+     */
+    @Nullable
+    PaymentIntent retrievePaymentIntent(
+            @NonNull PaymentIntentParams paymentIntentParams,
+            @NonNull ApiRequest.Options options,
+            boolean shouldUseCache)
+            throws AuthenticationException,
+            InvalidRequestException,
+            APIConnectionException,
+            APIException {
         final Map<String, Object> paramMap = paymentIntentParams.toParamMap();
 
         try {
@@ -153,9 +320,21 @@ class StripeApiHandler {
                     options.apiKey);
             final String paymentIntentId = PaymentIntent.parseIdFromClientSecret(
                     Objects.requireNonNull(paymentIntentParams.getClientSecret()));
-            final StripeResponse response = makeApiRequest(ApiRequest.createGet(
-                    getRetrievePaymentIntentUrl(paymentIntentId), paramMap, options, mAppInfo));
-            return PaymentIntent.fromString(response.getResponseBody());
+            final ApiRequest request = ApiRequest.createGet(
+                    getRetrievePaymentIntentUrl(paymentIntentId), paramMap, options, mAppInfo);
+            final StripeResponse cachedResponse =
+                    shouldUseCache ? mResponseCache.get(request) : null;
+            if (cachedResponse != null) {
+                return parse(PAYMENT_INTENT_PARSER, cachedResponse);
+            }
+
+            final StripeResponse response = makeRevalidatingApiRequest(request);
+            final PaymentIntent paymentIntent = parse(PAYMENT_INTENT_PARSER, response);
+            if (paymentIntent != null) {
+                mResponseCache.put(request, paymentIntentId, response,
+                        isTerminal(paymentIntent.getStatus()));
+            }
+            return paymentIntent;
         } catch (CardException unexpected) {
             // This particular kind of exception should not be possible from a PaymentI API endpoint
             throw new APIException(unexpected.getMessage(), unexpected.getRequestId(),
@@ -189,9 +368,16 @@ class StripeApiHandler {
             );
             final String setupIntentId = SetupIntent.parseIdFromClientSecret(
                     Objects.requireNonNull(setupIntentParams.getClientSecret()));
-            final StripeResponse response = makeApiRequest(ApiRequest.createPost(
-                    getConfirmSetupIntentUrl(setupIntentId), paramMap, options, mAppInfo));
-            return SetupIntent.fromString(response.getResponseBody());
+            final StripeResponse response;
+            try {
+                response = makeApiRequest(ApiRequest.createPaymentPost(
+                        getConfirmSetupIntentUrl(setupIntentId), paramMap, options, mAppInfo));
+            } finally {
+                // the confirmation changes the SetupIntent's status, whatever its outcome, so
+                // a response cached while it was in flight is already stale
+                mResponseCache.invalidate(setupIntentId);
+            }
+            return parse(SETUP_INTENT_PARSER, response);
         } catch (CardException unexpected) {
             // This particular kind of exception should not be possible from a PaymentI API endpoint
             throw new APIException(unexpected.getMessage(), unexpected.getRequestId(),
@@ -211,6 +397,24 @@ class StripeApiHandler {
             InvalidRequestException,
             APIConnectionException,
             APIException {
+        return retrieveSetupIntent(setupIntentParams, options, true);
+    }
+
+    /**
+     * Retrieve a {@link SetupIntent} using the provided {@link SetupIntentParams}
+     * @param setupIntentParams contains the retrieval params
+     * @param shouldUseCache {@code false} to ask the API even if a fresh response is cached,
+     *                       e.g. right after authentication changed the SetupIntent
+     */
+    @Nullable
+    SetupIntent retrieveSetupIntent(
+            @NonNull SetupIntentParams setupIntentParams,
+            @NonNull ApiRequest.Options options,
+            boolean shouldUseCache)
+            throws AuthenticationException,
+            InvalidRequestException,
+            APIConnectionException,
+            APIException {
         final Map<String, Object> paramMap = setupIntentParams.toParamMap();
 
         try {
@@ -219,9 +423,21 @@ class StripeApiHandler {
                     options.apiKey);
             final String setupIntentId = SetupIntent.parseIdFromClientSecret(
                     Objects.requireNonNull(setupIntentParams.getClientSecret()));
-            final StripeResponse response = makeApiRequest(ApiRequest.createGet(
-                    getRetrieveSetupIntentUrl(setupIntentId), paramMap, options, mAppInfo));
-            return SetupIntent.fromString(response.getResponseBody());
+            final ApiRequest request = ApiRequest.createGet(
+                    getRetrieveSetupIntentUrl(setupIntentId), paramMap, options, mAppInfo);
+            final StripeResponse cachedResponse =
+                    shouldUseCache ? mResponseCache.get(request) : null;
+            if (cachedResponse != null) {
+                return parse(SETUP_INTENT_PARSER, cachedResponse);
+            }
+
+            final StripeResponse response = makeRevalidatingApiRequest(request);
+            final SetupIntent setupIntent = parse(SETUP_INTENT_PARSER, response);
+            if (setupIntent != null) {
+                mResponseCache.put(request, setupIntentId, response,
+                        isTerminal(setupIntent.getStatus()));
+            }
+            return setupIntent;
         } catch (CardException unexpected) {
             // This particular kind of exception should not be possible from a PaymentI API endpoint
             throw new APIException(unexpected.getMessage(), unexpected.getRequestId(),
@@ -258,8 +474,9 @@ class StripeApiHandler {
                             sourceParams.getType()),
                     options.apiKey);
             final StripeResponse response = makeApiRequest(
-                    ApiRequest.createPost(getSourcesUrl(), requestParams, options, mAppInfo));
-            return Source.fromString(response.getResponseBody());
+                    ApiRequest.createPaymentPost(getSourcesUrl(), requestParams, options,
+                            mAppInfo));
+            return parse(SOURCE_PARSER, response);
         } catch (CardException unexpected) {
             // This particular kind of exception should not be possible from a Source API endpoint.
             throw new APIException(unexpected.getMessage(), unexpected.getRequestId(),
@@ -291,10 +508,20 @@ class StripeApiHandler {
             APIException {
         final Map<String, String> paramMap = SourceParams.createRetrieveSourceParams(clientSecret);
         try {
-            final StripeResponse response = makeApiRequest(
-                    ApiRequest.createGet(getRetrieveSourceApiUrl(sourceId), paramMap, options,
-                            mAppInfo));
-            return Source.fromString(response.getResponseBody());
+            final ApiRequest request = ApiRequest.createGet(getRetrieveSourceApiUrl(sourceId),
+                    paramMap, options, mAppInfo);
+            final StripeResponse cachedResponse = mResponseCache.get(request);
+            if (cachedResponse != null) {
+                return parse(SOURCE_PARSER, cachedResponse);
+            }
+
+            final StripeResponse response = makeRevalidatingApiRequest(request);
+            final Source source = parse(SOURCE_PARSER, response);
+            if (source != null) {
+                mResponseCache.put(request, sourceId, response,
+                        isTerminalSourceStatus(source.getStatus()));
+            }
+            return source;
         } catch (CardException unexpected) {
             // This particular kind of exception should not be possible from a Source API endpoint.
             throw new APIException(unexpected.getMessage(), unexpected.getRequestId(),
@@ -320,8 +547,9 @@ class StripeApiHandler {
 
         try {
             final StripeResponse response = makeApiRequest(
-                    ApiRequest.createPost(getPaymentMethodsUrl(), params, options, mAppInfo));
-            return PaymentMethod.fromString(response.getResponseBody());
+                    ApiRequest.createPaymentPost(getPaymentMethodsUrl(), params, options,
+                            mAppInfo));
+            return parse(PAYMENT_METHOD_PARSER, response);
         } catch (CardException unexpected) {
             throw new APIException(unexpected.getMessage(), unexpected.getRequestId(),
                     unexpected.getStatusCode(), null, unexpected);
@@ -404,7 +632,7 @@ class StripeApiHandler {
         );
         // Method throws if errors are found, so no return value occurs.
         convertErrorsToExceptionsAndThrowIfNecessary(response);
-        return Source.fromString(response.getResponseBody());
+        return parse(SOURCE_PARSER, response);
     }
 
     @Nullable
@@ -433,7 +661,7 @@ class StripeApiHandler {
 
         // Method throws if errors are found, so no return value occurs.
         convertErrorsToExceptionsAndThrowIfNecessary(response);
-        return Source.fromString(response.getResponseBody());
+        return parse(SOURCE_PARSER, response);
     }
 
     @Nullable
@@ -465,7 +693,7 @@ class StripeApiHandler {
         );
         // Method throws if errors are found, so no return value occurs.
         convertErrorsToExceptionsAndThrowIfNecessary(response);
-        return PaymentMethod.fromString(response.getResponseBody());
+        return parse(PAYMENT_METHOD_PARSER, response);
     }
 
     @Nullable
@@ -492,11 +720,12 @@ class StripeApiHandler {
         );
         // Method throws if errors are found, so no return value occurs.
         convertErrorsToExceptionsAndThrowIfNecessary(response);
-        return PaymentMethod.fromString(response.getResponseBody());
+        return parse(PAYMENT_METHOD_PARSER, response);
     }
 
     /**
-     * Retrieve a Customer's {@link PaymentMethod}s
+     * Retrieve all of a Customer's {@link PaymentMethod}s of the given type, following
+     * {@code has_more} until the last page.
      */
     @NonNull
     List<PaymentMethod> getPaymentMethods(
@@ -510,15 +739,61 @@ class StripeApiHandler {
             APIException,
             AuthenticationException,
             CardException {
-        final Map<String, String> queryParams = new HashMap<>(2);
+        final List<PaymentMethod> paymentMethods = new ArrayList<>();
+        String startingAfter = null;
+        do {
+            final PaymentMethodsPage page = getPaymentMethodsPage(customerId, paymentMethodType,
+                    null, startingAfter, publishableKey, productUsageTokens, ephemeralKey);
+            if (page == null) {
+                break;
+            }
+
+            paymentMethods.addAll(page.paymentMethods);
+            startingAfter = page.hasMore ? page.getLastPaymentMethodId() : null;
+        } while (startingAfter != null);
+        return paymentMethods;
+    }
+
+    /**
+     * Retrieve one page of a Customer's {@link PaymentMethod}s.
+     *
+     * @param limit the number of {@link PaymentMethod}s on the page, or {@code null} for the
+     *              API's default
+     * @param startingAfter the ID of the last {@link PaymentMethod} on the previous page, or
+     *                      {@code null} for the first page
+     * @return the page, or {@code null} if the response could not be read
+     */
+    @Nullable
+    PaymentMethodsPage getPaymentMethodsPage(
+            @NonNull String customerId,
+            @NonNull String paymentMethodType,
+            @Nullable Integer limit,
+            @Nullable String startingAfter,
+            @NonNull String publishableKey,
+            @NonNull List<String> productUsageTokens,
+            @NonNull String ephemeralKey)
+            throws InvalidRequestException,
+            APIConnectionException,
+            APIException,
+            AuthenticationException,
+            CardException {
+        final Map<String, String> queryParams = new HashMap<>(4);
         queryParams.put("customer", customerId);
         queryParams.put("type", paymentMethodType);
-
-        logApiCall(
-                mLoggingUtils.getDetachPaymentMethodParams(productUsageTokens, publishableKey),
-                // We use the public key to log, so we need different Options.
-                publishableKey
-        );
+        if (limit != null) {
+            queryParams.put("limit", String.valueOf(limit));
+        }
+        if (startingAfter != null) {
+            queryParams.put("starting_after", startingAfter);
+        } else {
+            // log the listing once, not once per page
+            logApiCall(
+                    mLoggingUtils.getDetachPaymentMethodParams(productUsageTokens,
+                            publishableKey),
+                    // We use the public key to log, so we need different Options.
+                    publishableKey
+            );
+        }
 
         final StripeResponse response = getStripeResponse(
                 ApiRequest.createGet(
@@ -529,18 +804,7 @@ class StripeApiHandler {
         // Method throws if errors are found, so no return value occurs.
         convertErrorsToExceptionsAndThrowIfNecessary(response);
 
-        final JSONArray data;
-        try {
-            data = new JSONObject(response.getResponseBody()).optJSONArray("data");
-        } catch (JSONException e) {
-            return new ArrayList<>();
-        }
-
-        final List<PaymentMethod> paymentMethods = new ArrayList<>();
-        for (int i = 0; i < data.length(); i++) {
-            paymentMethods.add(PaymentMethod.fromJson(data.optJSONObject(i)));
-        }
-        return paymentMethods;
+        return parse(PAYMENT_METHODS_PAGE_PARSER, response);
     }
 
     @Nullable
@@ -574,7 +838,7 @@ class StripeApiHandler {
 
         // Method throws if errors are found, so no return value occurs.
         convertErrorsToExceptionsAndThrowIfNecessary(response);
-        return Customer.fromString(response.getResponseBody());
+        return parse(CUSTOMER_PARSER, response);
     }
 
     @Nullable
@@ -606,7 +870,7 @@ class StripeApiHandler {
         );
         // Method throws if errors are found, so no return value occurs.
         convertErrorsToExceptionsAndThrowIfNecessary(response);
-        return Customer.fromString(response.getResponseBody());
+        return parse(CUSTOMER_PARSER, response);
     }
 
 
@@ -622,7 +886,42 @@ class StripeApiHandler {
                         ApiRequest.Options.create(ephemeralKey), mAppInfo)
         );
         convertErrorsToExceptionsAndThrowIfNecessary(response);
-        return Customer.fromString(response.getResponseBody());
+        return parse(CUSTOMER_PARSER, response);
+    }
+
+    /**
+     * Retrieve one page of a Customer's sources.
+     *
+     * @param limit the number of sources on the page, or {@code null} for the API's default
+     * @param startingAfter the ID of the last source on the previous page, or {@code null} for
+     *                      the first page
+     * @return the page, or {@code null} if the response could not be read
+     */
+    @Nullable
+    CustomerSourcesPage getCustomerSourcesPage(
+            @NonNull String customerId,
+            @Nullable Integer limit,
+            @Nullable String startingAfter,
+            @NonNull String ephemeralKey)
+            throws InvalidRequestException,
+            APIConnectionException,
+            APIException,
+            AuthenticationException,
+            CardException {
+        final Map<String, String> queryParams = new HashMap<>(2);
+        if (limit != null) {
+            queryParams.put("limit", String.valueOf(limit));
+        }
+        if (startingAfter != null) {
+            queryParams.put("starting_after", startingAfter);
+        }
+
+        final StripeResponse response = getStripeResponse(
+                ApiRequest.createGet(getCustomerSourcesUrl(customerId), queryParams,
+                        ApiRequest.Options.create(ephemeralKey), mAppInfo)
+        );
+        convertErrorsToExceptionsAndThrowIfNecessary(response);
+        return parse(CUSTOMER_SOURCES_PAGE_PARSER, response);
     }
 
     @NonNull
@@ -683,51 +982,77 @@ class StripeApiHandler {
         convertErrorsToExceptionsAndThrowIfNecessary(response);
     }
 
+    /**
+     * @param stripeIntentId the ID of the intent being authenticated. Its status changes, so its
+     *                       cached responses are dropped.
+     */
     @NonNull
     @VisibleForTesting
     Stripe3ds2AuthResult start3ds2Auth(@NonNull Stripe3ds2AuthParams authParams,
+                                       @Nullable String stripeIntentId,
                                        @NonNull String publishableKey)
             throws InvalidRequestException, APIConnectionException, APIException, CardException,
             AuthenticationException, JSONException {
-        final StripeResponse response = getStripeResponse(
-                ApiRequest.createPost(
-                        getApiUrl("3ds2/authenticate"),
-                        authParams.toParamMap(),
-                        ApiRequest.Options.create(publishableKey), mAppInfo)
-        );
+        final StripeResponse response;
+        try {
+            response = getStripeResponse(
+                    ApiRequest.createPaymentPost(
+                            getApiUrl("3ds2/authenticate"),
+                            authParams.toParamMap(),
+                            ApiRequest.Options.create(publishableKey), mAppInfo)
+            );
+        } finally {
+            invalidateCache(stripeIntentId);
+        }
         convertErrorsToExceptionsAndThrowIfNecessary(response);
-        return Stripe3ds2AuthResult.fromJson(new JSONObject(response.getResponseBody()));
+        final long parseStartTime = System.nanoTime();
+        final Stripe3ds2AuthResult authResult =
+                Stripe3ds2AuthResult.fromJson(new JSONObject(response.getResponseBody()));
+        onResponseParsed("Stripe3ds2AuthResult", parseStartTime);
+        return authResult;
     }
 
     void start3ds2Auth(@NonNull Stripe3ds2AuthParams authParams,
+                       @Nullable String stripeIntentId,
                        @NonNull String publishableKey,
                        @NonNull ApiResultCallback<Stripe3ds2AuthResult> callback) {
-        new Start3ds2AuthTask(this, authParams, publishableKey, callback)
+        new Start3ds2AuthTask(this, authParams, stripeIntentId, publishableKey, callback)
                 .execute();
     }
 
+    /**
+     * @param stripeIntentId the ID of the intent being authenticated. Its status changes, so its
+     *                       cached responses are dropped.
+     */
     @VisibleForTesting
     boolean complete3ds2Auth(@NonNull String sourceId,
+                             @Nullable String stripeIntentId,
                              @NonNull String publishableKey)
             throws InvalidRequestException, APIConnectionException, APIException, CardException,
             AuthenticationException {
         final Map<String, String> params = new HashMap<>();
         params.put("source", sourceId);
 
-        final StripeResponse response = getStripeResponse(
-                ApiRequest.createPost(
-                        getApiUrl("3ds2/challenge_complete"),
-                        params,
-                        ApiRequest.Options.create(publishableKey), mAppInfo)
-        );
+        final StripeResponse response;
+        try {
+            response = getStripeResponse(
+                    ApiRequest.createPaymentPost(
+                            getApiUrl("3ds2/challenge_complete"),
+                            params,
+                            ApiRequest.Options.create(publishableKey), mAppInfo)
+            );
+        } finally {
+            invalidateCache(stripeIntentId);
+        }
         convertErrorsToExceptionsAndThrowIfNecessary(response);
         return response.isOk();
     }
 
     void complete3ds2Auth(@NonNull String sourceId,
+                          @Nullable String stripeIntentId,
                           @NonNull String publishableKey,
                           @NonNull ApiResultCallback<Boolean> callback) {
-        new Complete3ds2AuthTask(this, sourceId, publishableKey, callback)
+        new Complete3ds2AuthTask(this, sourceId, stripeIntentId, publishableKey, callback)
                 .execute();
     }
 
@@ -802,6 +1127,15 @@ class StripeApiHandler {
         return getApiUrl("customers/%s/sources", customerId);
     }
 
+    /**
+     * @return https://api.stripe.com/v1/customers/:customer_id/sources
+     */
+    @VisibleForTesting
+    @NonNull
+    static String getCustomerSourcesUrl(@NonNull String customerId) {
+        return getApiUrl("customers/%s/sources", customerId);
+    }
+
     /**
      * @return https://api.stripe.com/v1/customers/:customer_id/sources/:source_id
      */
@@ -973,9 +1307,20 @@ class StripeApiHandler {
     }
 
     @NonNull
-    private StripeResponse getStripeResponse(@NonNull StripeRequest request)
+    private StripeResponse getStripeResponse(@NonNull final ApiRequest request)
             throws InvalidRequestException, APIConnectionException {
-        return mRequestExecutor.execute(request);
+        final RequestCoalescer.Call call = new RequestCoalescer.Call() {
+            @NonNull
+            @Override
+            public StripeResponse execute()
+                    throws APIConnectionException, InvalidRequestException {
+                return mRequestRetrier.execute(mRequestExecutor, request);
+            }
+        };
+
+        // identical GETs that are already in flight share the same response
+        return StripeRequest.Method.GET == request.method ?
+                mRequestCoalescer.execute(request, call) : call.execute();
     }
 
     private void handleAPIError(@Nullable String responseBody, int responseCode,
@@ -1028,56 +1373,68 @@ class StripeApiHandler {
     StripeResponse makeApiRequest(@NonNull ApiRequest request)
             throws AuthenticationException, InvalidRequestException,
             APIConnectionException, CardException, APIException {
-        final Pair<Boolean, String> dnsCacheData = disableDnsCache();
-
         final StripeResponse response = getStripeResponse(request);
         if (response.hasErrorCode()) {
             handleAPIError(response.getResponseBody(), response.getResponseCode(),
                     response.getRequestId());
         }
 
-        resetDnsCacheTtl(dnsCacheData);
-
         return response;
     }
 
-    private void makeFireAndForgetRequest(@NonNull StripeRequest request) {
-        final Pair<Boolean, String> dnsCacheData = disableDnsCache();
+    /**
+     * Make a GET whose response is in {@link #mResponseCache}, but is no longer fresh. If the
+     * API sent an {@code ETag} with the cached response, ask the API whether the response is
+     * still current instead of downloading the object again.
+     */
+    @NonNull
+    private StripeResponse makeRevalidatingApiRequest(@NonNull ApiRequest request)
+            throws AuthenticationException, InvalidRequestException,
+            APIConnectionException, CardException, APIException {
+        final ApiRequest revalidationRequest = mResponseCache.createRevalidationRequest(request);
+        if (revalidationRequest == null) {
+            return makeApiRequest(request);
+        }
 
-        try {
-            mRequestExecutor.executeAndForget(request);
-        } catch (StripeException ignore) {
-            // We're just logging. No need to crash here or attempt to re-log things.
-        } finally {
-            resetDnsCacheTtl(dnsCacheData);
+        final StripeResponse response = getStripeResponse(revalidationRequest);
+        if (response.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            final StripeResponse cachedResponse = mResponseCache.onNotModified(request);
+            // the cached response may have been evicted since the request was sent
+            return cachedResponse != null ? cachedResponse : makeApiRequest(request);
+        }
+        if (response.hasErrorCode()) {
+            handleAPIError(response.getResponseBody(), response.getResponseCode(),
+                    response.getRequestId());
         }
+        return response;
     }
 
-    @NonNull
-    private Pair<Boolean, String> disableDnsCache() {
-        try {
-            final String originalDNSCacheTtl = Security.getProperty(DNS_CACHE_TTL_PROPERTY_NAME);
-            // disable DNS cache
-            Security.setProperty(DNS_CACHE_TTL_PROPERTY_NAME, "0");
-            return Pair.create(true, originalDNSCacheTtl);
-        } catch (SecurityException se) {
-            return Pair.create(false, null);
-        }
+    private static boolean isTerminal(@Nullable StripeIntent.Status status) {
+        return StripeIntent.Status.Succeeded == status || StripeIntent.Status.Canceled == status;
     }
 
     /**
-     * @param dnsCacheData first object - flag to reset {@link #DNS_CACHE_TTL_PROPERTY_NAME}
-     *                     second object - the original DNS cache TTL value
+     * A chargeable source is not terminal: it becomes consumed once it is charged.
      */
-    private void resetDnsCacheTtl(@NonNull Pair<Boolean, String> dnsCacheData) {
-        if (dnsCacheData.first) {
-            // value unspecified by implementation
-            // DNS_CACHE_TTL_PROPERTY_NAME of -1 = cache forever
-            Security.setProperty(DNS_CACHE_TTL_PROPERTY_NAME,
-                    ObjectUtils.getOrDefault(dnsCacheData.second, "-1"));
+    private static boolean isTerminalSourceStatus(@Nullable @Source.SourceStatus String status) {
+        return Source.CONSUMED.equals(status) || Source.CANCELED.equals(status) ||
+                Source.FAILED.equals(status);
+    }
+
+    private void invalidateCache(@Nullable String objectId) {
+        if (objectId != null) {
+            mResponseCache.invalidate(objectId);
         }
     }
 
+    /**
+     * Queue the request to be sent in the background so that it does not delay the API request
+     * that it describes.
+     */
+    private void makeFireAndForgetRequest(@NonNull StripeRequest request) {
+        mAnalyticsRequestQueue.enqueue(request);
+    }
+
     @Nullable
     private Token requestToken(
             @NonNull String url,
@@ -1085,9 +1442,25 @@ class StripeApiHandler {
             @NonNull ApiRequest.Options options)
             throws AuthenticationException, InvalidRequestException,
             APIConnectionException, CardException, APIException {
-        final StripeResponse response = makeApiRequest(ApiRequest.createPost(url, params, options,
-                mAppInfo));
-        return Token.fromString(response.getResponseBody());
+        final StripeResponse response = makeApiRequest(ApiRequest.createPaymentPost(url, params,
+                options, mAppInfo));
+        return parse(TOKEN_PARSER, response);
+    }
+
+    /**
+     * Parse the body of a response, and report how long that took.
+     */
+    @Nullable
+    private <T> T parse(@NonNull ModelParser<T> parser, @NonNull StripeResponse response) {
+        final long startTime = System.nanoTime();
+        final T model = parser.parse(response.getResponseBody());
+        onResponseParsed(parser.mModel, startTime);
+        return model;
+    }
+
+    private void onResponseParsed(@NonNull String model, long startTime) {
+        mRequestExecutor.onResponseParsed(model,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
     }
 
     private void logTelemetryData() {
@@ -1096,47 +1469,82 @@ class StripeApiHandler {
         }
     }
 
+    /**
+     * Parses a response body into a model object.
+     */
+    private abstract static class ModelParser<T> {
+        @NonNull private final String mModel;
+
+        /**
+         * @param model the name of the model class, which is reported with the parse time
+         */
+        ModelParser(@NonNull String model) {
+            mModel = model;
+        }
+
+        @Nullable
+        abstract T parse(@Nullable String json);
+    }
+
     private static final class Start3ds2AuthTask extends ApiOperation<Stripe3ds2AuthResult> {
         @NonNull private final StripeApiHandler mApiHandler;
         @NonNull private final Stripe3ds2AuthParams mParams;
+        @Nullable private final String mStripeIntentId;
         @NonNull private final String mPublishableKey;
 
         private Start3ds2AuthTask(@NonNull StripeApiHandler apiHandler,
                                   @NonNull Stripe3ds2AuthParams params,
+                                  @Nullable String stripeIntentId,
                                   @NonNull String publishableKey,
                                   @NonNull ApiResultCallback<Stripe3ds2AuthResult> callback) {
             super(callback);
             mApiHandler = apiHandler;
             mParams = params;
+            mStripeIntentId = stripeIntentId;
             mPublishableKey = publishableKey;
         }
 
         @NonNull
         @Override
         Stripe3ds2AuthResult getResult() throws StripeException, JSONException {
-            return mApiHandler.start3ds2Auth(mParams, mPublishableKey);
+            return mApiHandler.start3ds2Auth(mParams, mStripeIntentId, mPublishableKey);
+        }
+
+        @NonNull
+        @Override
+        RequestScheduler.Priority getPriority() {
+            return RequestScheduler.Priority.PaymentCritical;
         }
     }
 
     private static final class Complete3ds2AuthTask extends ApiOperation<Boolean> {
         @NonNull private final StripeApiHandler mApiHandler;
         @NonNull private final String mSourceId;
+        @Nullable private final String mStripeIntentId;
         @NonNull private final String mPublishableKey;
 
         private Complete3ds2AuthTask(@NonNull StripeApiHandler apiHandler,
                                      @NonNull String sourceId,
+                                     @Nullable String stripeIntentId,
                                      @NonNull String publishableKey,
                                      @NonNull ApiResultCallback<Boolean> callback) {
             super(callback);
             mApiHandler = apiHandler;
             mSourceId = sourceId;
+            mStripeIntentId = stripeIntentId;
             mPublishableKey = publishableKey;
         }
 
         @NonNull
         @Override
         Boolean getResult() throws StripeException {
-            return mApiHandler.complete3ds2Auth(mSourceId, mPublishableKey);
+            return mApiHandler.complete3ds2Auth(mSourceId, mStripeIntentId, mPublishableKey);
+        }
+
+        @NonNull
+        @Override
+        RequestScheduler.Priority getPriority() {
+            return RequestScheduler.Priority.PaymentCritical;
         }
     }
 }
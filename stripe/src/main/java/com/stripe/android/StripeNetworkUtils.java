@@ -2,6 +2,7 @@ package com.stripe.android;
 
 import android.content.Context;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 
 import com.stripe.android.model.BankAccount;
@@ -10,6 +11,7 @@ import com.stripe.android.model.PaymentIntentParams;
 import com.stripe.android.model.Token;
 
 import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -25,6 +27,7 @@ public class StripeNetworkUtils {
 
     @NonNull private final String mPackageName;
     @NonNull private final Supplier<StripeUid> mUidSupplier;
+    @Nullable private volatile Map<String, String> mUidParams;
 
     StripeNetworkUtils(@NonNull Context context) {
         this(context.getPackageName(), new UidSupplier(context));
@@ -166,15 +169,29 @@ public class StripeNetworkUtils {
         }
     }
 
+    /**
+     * @return an unmodifiable map of the hashed {@code guid} and {@code muid} params. The map is
+     *         only created once per instance.
+     */
     @NonNull
     Map<String, String> createUidParams() {
-        final String guid = mUidSupplier.get().value;
+        Map<String, String> uidParams = mUidParams;
+        if (uidParams == null) {
+            uidParams = Collections.unmodifiableMap(createUidParams(mUidSupplier.get()));
+            mUidParams = uidParams;
+        }
+        return uidParams;
+    }
+
+    @NonNull
+    private Map<String, String> createUidParams(@NonNull StripeUid uid) {
+        final String guid = uid.value;
         if (StripeTextUtils.isBlank(guid)) {
             return new HashMap<>();
         }
 
         final Map<String, String> uidParams = new HashMap<>(2);
-        final String hashGuid = StripeTextUtils.shaHashInput(guid);
+        final String hashGuid = uid.getHashedValue();
         if (!StripeTextUtils.isBlank(hashGuid)) {
             uidParams.put(FIELD_GUID, hashGuid);
         }
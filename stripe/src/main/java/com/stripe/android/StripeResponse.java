@@ -1,5 +1,6 @@
 package com.stripe.android;
 
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import java.net.HttpURLConnection;
@@ -62,6 +63,25 @@ class StripeResponse {
         return mResponseHeaders;
     }
 
+    /**
+     * @return the first value of the header with the given name, ignoring case, or {@code null}
+     *         if the response does not have that header
+     */
+    @Nullable
+    String getHeaderValue(@NonNull String name) {
+        if (mResponseHeaders == null) {
+            return null;
+        }
+
+        for (Map.Entry<String, List<String>> header : mResponseHeaders.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                final List<String> values = header.getValue();
+                return values != null && !values.isEmpty() ? values.get(0) : null;
+            }
+        }
+        return null;
+    }
+
     @Nullable
     String getRequestId() {
         final Map<String, List<String>> headers = getResponseHeaders();
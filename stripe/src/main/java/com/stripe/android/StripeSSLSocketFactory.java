@@ -1,6 +1,12 @@
 package com.stripe.android;
 
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.security.NoSuchAlgorithmException;
@@ -16,6 +22,11 @@ import javax.net.ssl.SSLSocketFactory;
 /**
  * Wraps a SSLSocketFactory and enables more TLS versions on older versions of Android.
  * Most of the code is taken from stripe-java.
+ *
+ * The factory also turns on TLS session tickets, so that new connections to the Stripe hosts
+ * can resume a session from the client session cache of the {@link SSLContext} behind the
+ * wrapped factory instead of doing a full handshake. That cache belongs to the app and is
+ * left as it is.
  */
 class StripeSSLSocketFactory extends SSLSocketFactory {
 
@@ -23,25 +34,43 @@ class StripeSSLSocketFactory extends SSLSocketFactory {
     private final boolean tlsv11Supported;
     private final boolean tlsv12Supported;
 
+    // looked up on the first socket, because finding it by reflection is slow
+    @Nullable private volatile Method setUseSessionTicketsMethod;
+    private volatile boolean isSetUseSessionTicketsMethodLookedUp;
+
     private static final String TLS_V11_PROTO = "TLSv1.1";
     private static final String TLS_V12_PROTO = "TLSv1.2";
 
     /**
-     * Constructor for a socket factory instance.
+     * Constructor for a socket factory instance, which wraps
+     * {@link HttpsURLConnection#getDefaultSSLSocketFactory()}.
      */
     StripeSSLSocketFactory() {
-        this.under = HttpsURLConnection.getDefaultSSLSocketFactory();
+        this(HttpsURLConnection.getDefaultSSLSocketFactory(), getDefaultSslContext());
+    }
 
-        // For Android prior to 4.1, TLSv1.1 and TLSv1.2 might not be supported
-        boolean tlsv11Supported = false, tlsv12Supported = false;
+    @VisibleForTesting
+    StripeSSLSocketFactory(@NonNull SSLContext sslContext) {
+        this(sslContext.getSocketFactory(), sslContext);
+    }
 
-        String[] supportedProtocols;
-        try {
-            supportedProtocols = SSLContext.getDefault().getSupportedSSLParameters().getProtocols();
-        } catch (NoSuchAlgorithmException e) {
+    /**
+     * @param under the factory to create sockets from
+     * @param sslContext the context to find the supported protocols from
+     */
+    private StripeSSLSocketFactory(@NonNull SSLSocketFactory under,
+                                   @Nullable SSLContext sslContext) {
+        this.under = under;
+
+        final String[] supportedProtocols;
+        if (sslContext != null) {
+            supportedProtocols = sslContext.getSupportedSSLParameters().getProtocols();
+        } else {
             supportedProtocols = new String[0];
         }
 
+        // For Android prior to 4.1, TLSv1.1 and TLSv1.2 might not be supported
+        boolean tlsv11Supported = false, tlsv12Supported = false;
         for (String proto : supportedProtocols) {
             if (proto.equals(TLS_V11_PROTO)) {
                 tlsv11Supported = true;
@@ -54,6 +83,15 @@ class StripeSSLSocketFactory extends SSLSocketFactory {
         this.tlsv12Supported = tlsv12Supported;
     }
 
+    @Nullable
+    private static SSLContext getDefaultSslContext() {
+        try {
+            return SSLContext.getDefault();
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
     @Override
     public String[] getDefaultCipherSuites() {
         return this.under.getDefaultCipherSuites();
@@ -118,6 +156,39 @@ class StripeSSLSocketFactory extends SSLSocketFactory {
         }
 
         sslSock.setEnabledProtocols(protos.toArray(new String[0]));
+        enableSessionTickets(sslSock);
         return sslSock;
     }
+
+    /**
+     * Let the socket resume sessions with TLS session tickets, as well as with session IDs.
+     * Android's TLS provider supports tickets but doesn't expose them in the public
+     * {@link SSLSocket} API, and other providers manage them on their own.
+     */
+    private void enableSessionTickets(@NonNull SSLSocket sslSock) {
+        if (!isSetUseSessionTicketsMethodLookedUp) {
+            setUseSessionTicketsMethod = getSetUseSessionTicketsMethod(sslSock.getClass());
+            isSetUseSessionTicketsMethodLookedUp = true;
+        }
+
+        final Method method = setUseSessionTicketsMethod;
+        if (method == null || !method.getDeclaringClass().isInstance(sslSock)) {
+            return;
+        }
+        try {
+            method.invoke(sslSock, true);
+        } catch (IllegalAccessException | InvocationTargetException ignore) {
+            // not supported by this TLS provider
+        }
+    }
+
+    @Nullable
+    private static Method getSetUseSessionTicketsMethod(@NonNull Class<?> socketClass) {
+        try {
+            return socketClass.getMethod("setUseSessionTickets", boolean.class);
+        } catch (NoSuchMethodException e) {
+            // not supported by this TLS provider
+            return null;
+        }
+    }
 }
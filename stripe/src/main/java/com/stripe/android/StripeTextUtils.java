@@ -66,7 +66,35 @@ public class StripeTextUtils {
         if (isBlank(cardNumberWithSpaces)) {
             return null;
         }
-        return cardNumberWithSpaces.replaceAll("\\s|-", "");
+
+        // copy the number only if there is something to remove from it
+        int index = 0;
+        while (index < cardNumberWithSpaces.length()
+                && !isSpaceOrHyphen(cardNumberWithSpaces.charAt(index))) {
+            index++;
+        }
+        if (index == cardNumberWithSpaces.length()) {
+            return cardNumberWithSpaces;
+        }
+
+        final StringBuilder builder = new StringBuilder(cardNumberWithSpaces.length());
+        builder.append(cardNumberWithSpaces, 0, index);
+        for (; index < cardNumberWithSpaces.length(); index++) {
+            final char c = cardNumberWithSpaces.charAt(index);
+            if (!isSpaceOrHyphen(c)) {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return {@code true} if {@link #removeSpacesAndHyphens(String)} removes the character,
+     *         i.e. it is a hyphen or matches {@code \s}
+     */
+    static boolean isSpaceOrHyphen(char c) {
+        return c == ' ' || c == '-' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f'
+                || c == '\r';
     }
 
     /**
@@ -1,9 +1,11 @@
 package com.stripe.android;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 final class StripeUid {
     @NonNull final String value;
+    @Nullable private volatile String mHashedValue;
 
     @NonNull
     static StripeUid create(@NonNull String uid) {
@@ -13,4 +15,20 @@ final class StripeUid {
     private StripeUid(@NonNull String value) {
         this.value = value;
     }
+
+    /**
+     * @return the SHA-1 hash of {@link #value} as a hex string, or an empty string if the value
+     *         is blank. The hash is only computed once.
+     */
+    @NonNull
+    String getHashedValue() {
+        String hashedValue = mHashedValue;
+        if (hashedValue == null) {
+            final String hash = StripeTextUtils.isBlank(value) ?
+                    null : StripeTextUtils.shaHashInput(value);
+            hashedValue = hash == null ? "" : hash;
+            mHashedValue = hashedValue;
+        }
+        return hashedValue;
+    }
 }
@@ -5,6 +5,8 @@ import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
 import android.os.Build;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.DisplayMetrics;
 
 import java.math.BigDecimal;
 import java.math.MathContext;
@@ -14,11 +16,21 @@ import java.util.Map;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Creates the telemetry params sent with fingerprint requests.
+ *
+ * Values that are fixed for the lifetime of the process, such as the hashed ids and the app's
+ * version name, are computed once and reused.
+ */
 class TelemetryClientUtil {
 
     @NonNull private final Context mContext;
     @NonNull private final Supplier<StripeUid> mUidSupplier;
 
+    @Nullable private String mHashedId;
+    @Nullable private String mHashedMuid;
+    @Nullable private String mVersionName;
+
     TelemetryClientUtil(@NonNull Context context) {
         this(context, new UidSupplier(context));
     }
@@ -53,18 +65,44 @@ class TelemetryClientUtil {
         secondMap.put("s", Build.MODEL);
         secondMap.put("t", Build.TAGS);
 
-        if (mContext.getPackageName() != null) {
-            try {
-                final PackageInfo pInfo = mContext.getPackageManager()
-                        .getPackageInfo(packageName, 0);
-                secondMap.put("l", pInfo.versionName);
-            } catch (PackageManager.NameNotFoundException ignored) { }
+        final String versionName = getVersionName();
+        if (!versionName.isEmpty()) {
+            secondMap.put("l", versionName);
         }
 
         telemetryMap.put("b", secondMap);
         return telemetryMap;
     }
 
+    /**
+     * @return a key that changes whenever a value in {@link #createTelemetryMap()} that can
+     *         change during the lifetime of the process changes (locale, time zone, and screen
+     *         size, e.g. after a rotation)
+     */
+    @NonNull
+    String createEnvironmentKey() {
+        return Locale.getDefault().toString() + "|" +
+                TimeZone.getDefault().getRawOffset() + "|" +
+                getScreen();
+    }
+
+    @NonNull
+    private synchronized String getVersionName() {
+        if (mVersionName == null) {
+            mVersionName = "";
+            if (mContext.getPackageName() != null) {
+                try {
+                    final PackageInfo pInfo = mContext.getPackageManager()
+                            .getPackageInfo(getPackageName(), 0);
+                    if (pInfo.versionName != null) {
+                        mVersionName = pInfo.versionName;
+                    }
+                } catch (PackageManager.NameNotFoundException ignored) { }
+            }
+        }
+        return mVersionName;
+    }
+
     @NonNull
     private static Map<String, Object> createSingleValuePair(Object value) {
         Map<String, Object> singleItemMap = new HashMap<>();
@@ -97,11 +135,10 @@ class TelemetryClientUtil {
             return "";
         }
 
-        int width = mContext.getResources().getDisplayMetrics().widthPixels;
-        int height = mContext.getResources().getDisplayMetrics().heightPixels;
-        int density = mContext.getResources().getDisplayMetrics().densityDpi;
-
-        return String.format(Locale.ENGLISH, "%dw_%dh_%ddpi", width, height, density);
+        final DisplayMetrics displayMetrics = mContext.getResources().getDisplayMetrics();
+        return displayMetrics.widthPixels + "w_" +
+                displayMetrics.heightPixels + "h_" +
+                displayMetrics.densityDpi + "dpi";
     }
 
     @NonNull
@@ -114,20 +151,20 @@ class TelemetryClientUtil {
     }
 
     @NonNull
-    String getHashedId() {
-        final String id = mUidSupplier.get().value;
-        if (StripeTextUtils.isBlank(id)) {
-            return "";
+    synchronized String getHashedId() {
+        if (mHashedId == null) {
+            mHashedId = mUidSupplier.get().getHashedValue();
         }
-
-        final String hashId = StripeTextUtils.shaHashInput(id);
-        return hashId == null ? "" : hashId;
+        return mHashedId;
     }
 
     @NonNull
-    private String getHashedMuid() {
-        final String hashed = StripeTextUtils.shaHashInput(getPackageName() + getHashedId());
-        return hashed == null ? "" : hashed;
+    private synchronized String getHashedMuid() {
+        if (mHashedMuid == null) {
+            final String hashed = StripeTextUtils.shaHashInput(getPackageName() + getHashedId());
+            mHashedMuid = hashed == null ? "" : hashed;
+        }
+        return mHashedMuid;
     }
 
     @NonNull
@@ -4,17 +4,66 @@ import android.content.ContentResolver;
 import android.content.Context;
 import android.provider.Settings;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Supplies the device's {@link StripeUid}.
+ *
+ * The id does not change while the process is running, so it is read once and shared by all
+ * instances. The first instance reads it on a background thread so that the first API call made
+ * from the main thread does not have to query {@link Settings.Secure}. Instances created after
+ * that don't start another read.
+ */
 final class UidSupplier implements Supplier<StripeUid> {
+    @Nullable private static volatile StripeUid sUid;
+    @NonNull private static final AtomicBoolean PREFETCH_STARTED = new AtomicBoolean();
+
     @NonNull private final ContentResolver mContentResolver;
 
     UidSupplier(@NonNull Context context) {
+        this(context, ApiOperationExecutor.getDefault());
+    }
+
+    @VisibleForTesting
+    UidSupplier(@NonNull Context context, @NonNull Executor prefetchExecutor) {
         mContentResolver = context.getApplicationContext().getContentResolver();
+        if (sUid == null && PREFETCH_STARTED.compareAndSet(false, true)) {
+            prefetchExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    get().getHashedValue();
+                }
+            });
+        }
     }
 
-    @SuppressWarnings("HardwareIds")
     @NonNull
     public StripeUid get() {
+        StripeUid uid = sUid;
+        if (uid == null) {
+            // reading the id twice from different threads is harmless, so no lock is needed
+            uid = readUid();
+            sUid = uid;
+        }
+        return uid;
+    }
+
+    /**
+     * Forget the id that was read, so that the next instance reads it again.
+     */
+    @VisibleForTesting
+    static void reset() {
+        sUid = null;
+        PREFETCH_STARTED.set(false);
+    }
+
+    @SuppressWarnings("HardwareIds")
+    @NonNull
+    private StripeUid readUid() {
         return StripeUid.create(
                 Settings.Secure.getString(mContentResolver, Settings.Secure.ANDROID_ID));
     }
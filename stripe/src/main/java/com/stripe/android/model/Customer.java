@@ -138,12 +138,100 @@ public final class Customer extends StripeModel {
         }
 
         try {
-            return fromJson(new JSONObject(jsonString));
+            return fromReader(new StripeJsonReader(jsonString), jsonString);
         } catch (JSONException ignored) {
             return null;
         }
     }
 
+    /**
+     * Reads the same fields as {@link #fromJson(JSONObject)}, straight from the JSON. The
+     * sources are each read when they are first used, see {@link CustomerSourceList}.
+     */
+    @Nullable
+    private static Customer fromReader(@NonNull StripeJsonReader reader,
+                                       @NonNull String jsonString)
+            throws JSONException {
+        if (!reader.beginObject()) {
+            return null;
+        }
+
+        String objectType = null;
+        String id = null;
+        String defaultSource = null;
+        ShippingInformation shippingInformation = null;
+        String sourcesObjectType = null;
+        Boolean hasMore = null;
+        Integer totalCount = null;
+        String url = null;
+        List<CustomerSource> sources = new ArrayList<>();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case FIELD_OBJECT:
+                    objectType = reader.nextString();
+                    break;
+                case FIELD_ID:
+                    id = reader.nextString();
+                    break;
+                case FIELD_DEFAULT_SOURCE:
+                    defaultSource = reader.nextString();
+                    break;
+                case FIELD_SHIPPING:
+                    shippingInformation = ShippingInformation.fromJson(reader.nextJsonObject());
+                    break;
+                case FIELD_SOURCES:
+                    sourcesObjectType = null;
+                    hasMore = null;
+                    totalCount = null;
+                    url = null;
+                    sources = new ArrayList<>();
+                    if (!reader.beginObject()) {
+                        break;
+                    }
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case FIELD_OBJECT:
+                                sourcesObjectType = reader.nextString();
+                                break;
+                            case FIELD_HAS_MORE:
+                                hasMore = reader.nextBoolean();
+                                break;
+                            case FIELD_TOTAL_COUNT:
+                                totalCount = reader.nextInt();
+                                break;
+                            case FIELD_URL:
+                                url = reader.nextString();
+                                break;
+                            case FIELD_DATA:
+                                sources = CustomerSourceList.read(reader, jsonString);
+                                break;
+                            default:
+                                reader.skipValue();
+                                break;
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (!VALUE_CUSTOMER.equals(objectType)) {
+            return null;
+        }
+
+        if (VALUE_LIST.equals(sourcesObjectType)) {
+            return new Customer(id, defaultSource, shippingInformation, sources, hasMore,
+                    totalCount, url);
+        } else {
+            return new Customer(id, defaultSource, shippingInformation,
+                    new ArrayList<CustomerSource>(), null, null, null);
+        }
+    }
+
     @Nullable
     public static Customer fromJson(@NonNull JSONObject jsonObject) {
         String objectType = optString(jsonObject, FIELD_OBJECT);
@@ -0,0 +1,163 @@
+package com.stripe.android.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import org.json.JSONException;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link CustomerSource}s in the {@code data} of a list, each read from the response the
+ * first time it is used. While the list is read, only the fields needed to decide whether to
+ * keep a source are read, so nothing is built for the sources that are dropped, such as
+ * Apple Pay cards, or for the ones that are never used.
+ */
+final class CustomerSourceList extends AbstractList<CustomerSource> {
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_OBJECT = "object";
+    private static final String FIELD_TYPE = "type";
+    private static final String FIELD_CARD = "card";
+    private static final String FIELD_TOKENIZATION_METHOD = "tokenization_method";
+
+    // customer sources that were tokenized this way can't be used on Android
+    private static final String VALUE_APPLE_PAY = "apple_pay";
+
+    private static final LazyJsonValue.Decoder<CustomerSource> DECODER =
+            new LazyJsonValue.Decoder<CustomerSource>() {
+                @Nullable
+                @Override
+                public CustomerSource decode(@NonNull StripeJsonReader reader)
+                        throws JSONException {
+                    return CustomerSource.fromJson(reader.nextJsonObject());
+                }
+            };
+
+    @NonNull private final List<LazyJsonValue<CustomerSource>> mSources;
+    @Nullable private final String mLastId;
+
+    private CustomerSourceList(@NonNull List<LazyJsonValue<CustomerSource>> sources,
+                               @Nullable String lastId) {
+        mSources = sources;
+        mLastId = lastId;
+    }
+
+    @Override
+    public CustomerSource get(int index) {
+        return mSources.get(index).get();
+    }
+
+    @Override
+    public int size() {
+        return mSources.size();
+    }
+
+    /**
+     * @return {@code true} if the source at the index has been read from the response
+     */
+    @VisibleForTesting
+    boolean isRead(int index) {
+        return mSources.get(index).isDecoded();
+    }
+
+    /**
+     * @return the ID of the last source in the response, including one that was dropped, i.e.
+     *         the cursor from which the next page starts
+     */
+    @Nullable
+    String getLastId() {
+        return mLastId;
+    }
+
+    /**
+     * Reads the array at the reader, which was created from {@code jsonString}.
+     */
+    @NonNull
+    static CustomerSourceList read(@NonNull StripeJsonReader reader,
+                                   @NonNull String jsonString)
+            throws JSONException {
+        final List<LazyJsonValue<CustomerSource>> sources = new ArrayList<>();
+        String lastId = null;
+        if (!reader.beginArray()) {
+            return new CustomerSourceList(sources, null);
+        }
+
+        while (reader.hasNext()) {
+            final int start = reader.nextValueStart();
+            if (!reader.beginObject()) {
+                continue;
+            }
+
+            String id = null;
+            String objectType = null;
+            String type = null;
+            String tokenizationMethod = null;
+            String cardTokenizationMethod = null;
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case FIELD_ID:
+                        id = reader.nextString();
+                        break;
+                    case FIELD_OBJECT:
+                        objectType = reader.nextString();
+                        break;
+                    case FIELD_TYPE:
+                        type = reader.nextString();
+                        break;
+                    case FIELD_TOKENIZATION_METHOD:
+                        tokenizationMethod = reader.nextString();
+                        break;
+                    case FIELD_CARD:
+                        cardTokenizationMethod = readTokenizationMethod(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+
+            if (id != null) {
+                lastId = id;
+            }
+
+            // see CustomerSource#getTokenizationMethod()
+            if (Card.VALUE_CARD.equals(objectType)) {
+                if (VALUE_APPLE_PAY.equals(tokenizationMethod)) {
+                    continue;
+                }
+            } else if (Source.VALUE_SOURCE.equals(objectType)) {
+                if (Source.CARD.equals(type) && VALUE_APPLE_PAY.equals(cardTokenizationMethod)) {
+                    continue;
+                }
+            } else {
+                continue;
+            }
+            sources.add(new LazyJsonValue<>(jsonString, start, DECODER));
+        }
+        reader.endArray();
+        return new CustomerSourceList(sources, lastId);
+    }
+
+    @Nullable
+    private static String readTokenizationMethod(@NonNull StripeJsonReader reader)
+            throws JSONException {
+        if (!reader.beginObject()) {
+            return null;
+        }
+
+        String tokenizationMethod = null;
+        while (reader.hasNext()) {
+            if (FIELD_TOKENIZATION_METHOD.equals(reader.nextName())) {
+                tokenizationMethod = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return tokenizationMethod;
+    }
+}
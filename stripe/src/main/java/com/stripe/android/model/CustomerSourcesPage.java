@@ -0,0 +1,126 @@
+package com.stripe.android.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.stripe.android.utils.ObjectUtils;
+
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of the list of a Customer's sources, {@code GET /v1/customers/:id/sources}.
+ */
+public final class CustomerSourcesPage extends StripeModel {
+    private static final String FIELD_OBJECT = "object";
+    private static final String FIELD_DATA = "data";
+    private static final String FIELD_HAS_MORE = "has_more";
+
+    private static final String VALUE_LIST = "list";
+
+    /**
+     * The sources on the page, except for the ones that can't be used on Android. Each one is
+     * read from the response the first time it is used.
+     */
+    @NonNull public final List<CustomerSource> customerSources;
+    public final boolean hasMore;
+    @Nullable private final String mLastCustomerSourceId;
+
+    private CustomerSourcesPage(@NonNull List<CustomerSource> customerSources, boolean hasMore,
+                                @Nullable String lastCustomerSourceId) {
+        this.customerSources = Collections.unmodifiableList(customerSources);
+        this.hasMore = hasMore;
+        mLastCustomerSourceId = lastCustomerSourceId;
+    }
+
+    /**
+     * @return the ID of the last source on this page, including one that is not in
+     *         {@link #customerSources}, i.e. the cursor from which the next page starts, or
+     *         {@code null} if the page is empty
+     */
+    @Nullable
+    public String getLastCustomerSourceId() {
+        return mLastCustomerSourceId;
+    }
+
+    @NonNull
+    @Override
+    public Map<String, Object> toMap() {
+        final List<Map<String, Object>> data = new ArrayList<>(customerSources.size());
+        for (CustomerSource customerSource : customerSources) {
+            data.add(customerSource.toMap());
+        }
+
+        final Map<String, Object> map = new HashMap<>();
+        map.put(FIELD_OBJECT, VALUE_LIST);
+        map.put(FIELD_DATA, data);
+        map.put(FIELD_HAS_MORE, hasMore);
+        return map;
+    }
+
+    @Nullable
+    public static CustomerSourcesPage fromString(@Nullable String jsonString) {
+        if (jsonString == null) {
+            return null;
+        }
+
+        try {
+            return fromReader(new StripeJsonReader(jsonString), jsonString);
+        } catch (JSONException ignored) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static CustomerSourcesPage fromReader(@NonNull StripeJsonReader reader,
+                                                  @NonNull String jsonString)
+            throws JSONException {
+        if (!reader.beginObject()) {
+            return null;
+        }
+
+        CustomerSourceList customerSources = null;
+        boolean hasMore = false;
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case FIELD_DATA:
+                    customerSources = CustomerSourceList.read(reader, jsonString);
+                    break;
+                case FIELD_HAS_MORE:
+                    hasMore = reader.nextBoolean();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (customerSources == null) {
+            return new CustomerSourcesPage(new ArrayList<CustomerSource>(), hasMore, null);
+        }
+        return new CustomerSourcesPage(customerSources, hasMore, customerSources.getLastId());
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        return this == obj || (obj instanceof CustomerSourcesPage
+                && typedEquals((CustomerSourcesPage) obj));
+    }
+
+    private boolean typedEquals(@NonNull CustomerSourcesPage page) {
+        return ObjectUtils.equals(customerSources, page.customerSources)
+                && hasMore == page.hasMore
+                && ObjectUtils.equals(mLastCustomerSourceId, page.mLastCustomerSourceId);
+    }
+
+    @Override
+    public int hashCode() {
+        return ObjectUtils.hash(customerSources, hasMore, mLastCustomerSourceId);
+    }
+}
@@ -0,0 +1,98 @@
+package com.stripe.android.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import org.json.JSONException;
+
+import java.util.Map;
+
+/**
+ * A field of a model that is read from the response's JSON the first time it is used, rather
+ * than when the model is read. It keeps the response and the index of the field's value in it
+ * until then, and the value that was read afterwards. It is safe to use from more than one
+ * thread, and the value is read only once.
+ *
+ * @param <T> the type of the field
+ */
+final class LazyJsonValue<T> {
+    /**
+     * See {@link StripeJsonReader#nextMap()}.
+     */
+    static final Decoder<Map<String, Object>> MAP_DECODER = new Decoder<Map<String, Object>>() {
+        @Nullable
+        @Override
+        public Map<String, Object> decode(@NonNull StripeJsonReader reader)
+                throws JSONException {
+            return reader.nextMap();
+        }
+    };
+
+    @Nullable private String mJson;
+    private final int mStart;
+    @Nullable private Decoder<T> mDecoder;
+    @Nullable private T mValue;
+    private volatile boolean mDecoded;
+
+    /**
+     * @param start the index of the value in {@code json}, see
+     *              {@link StripeJsonReader#skipValueFrom()}
+     */
+    LazyJsonValue(@NonNull String json, int start, @NonNull Decoder<T> decoder) {
+        mJson = json;
+        mStart = start;
+        mDecoder = decoder;
+    }
+
+    private LazyJsonValue(@Nullable T value) {
+        mStart = -1;
+        mValue = value;
+        mDecoded = true;
+    }
+
+    /**
+     * @return a field whose value was already read or set
+     */
+    @NonNull
+    static <T> LazyJsonValue<T> of(@Nullable T value) {
+        return new LazyJsonValue<>(value);
+    }
+
+    /**
+     * @return the value, read from the JSON on the first call, or {@code null} if it could not
+     *         be read
+     */
+    @Nullable
+    T get() {
+        if (!mDecoded) {
+            synchronized (this) {
+                if (!mDecoded) {
+                    try {
+                        mValue = mDecoder.decode(new StripeJsonReader(mJson, mStart));
+                    } catch (JSONException ignored) {
+                        mValue = null;
+                    }
+                    // the response is no longer needed once the value is read
+                    mJson = null;
+                    mDecoder = null;
+                    mDecoded = true;
+                }
+            }
+        }
+        return mValue;
+    }
+
+    @VisibleForTesting
+    boolean isDecoded() {
+        return mDecoded;
+    }
+
+    /**
+     * Reads a field's value from a reader positioned at it.
+     */
+    interface Decoder<T> {
+        @Nullable
+        T decode(@NonNull StripeJsonReader reader) throws JSONException;
+    }
+}
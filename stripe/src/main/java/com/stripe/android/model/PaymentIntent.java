@@ -66,14 +66,14 @@ public final class PaymentIntent extends StripeModel implements StripeIntent {
     @Nullable private final String mCurrency;
     @Nullable private final String mDescription;
     @Nullable private final Boolean mLiveMode;
-    @Nullable private final Map<String, Object> mNextAction;
-    @Nullable private final NextActionType mNextActionType;
+    @NonNull private final LazyJsonValue<Map<String, Object>> mNextAction;
     @Nullable private final String mReceiptEmail;
     @Nullable private final String mSource;
     @Nullable private final Status mStatus;
     @Nullable private final Usage mSetupFutureUsage;
 
     @Nullable
+    @Override
     public String getId() {
         return mId;
     }
@@ -138,12 +138,14 @@ public final class PaymentIntent extends StripeModel implements StripeIntent {
 
     @Nullable
     public Map<String, Object> getNextAction() {
-        return mNextAction;
+        return mNextAction.get();
     }
 
     @Nullable
     public NextActionType getNextActionType() {
-        return mNextActionType;
+        final Map<String, Object> nextAction = getNextAction();
+        return nextAction != null ?
+                NextActionType.fromCode((String) nextAction.get(FIELD_NEXT_ACTION_TYPE)) : null;
     }
 
     @Nullable
@@ -159,24 +161,25 @@ public final class PaymentIntent extends StripeModel implements StripeIntent {
     @Nullable
     @Override
     public SdkData getStripeSdkData() {
-        if (mNextAction == null || NextActionType.UseStripeSdk != mNextActionType) {
+        final Map<String, Object> nextAction = getNextAction();
+        if (nextAction == null || NextActionType.UseStripeSdk != getNextActionType()) {
             return null;
         }
 
         //noinspection ConstantConditions,unchecked
-        return new SdkData((Map<String, ?>) mNextAction.get(NextActionType.UseStripeSdk.code));
+        return new SdkData((Map<String, ?>) nextAction.get(NextActionType.UseStripeSdk.code));
     }
 
     @Nullable
     public RedirectData getRedirectData() {
-        if (NextActionType.RedirectToUrl != mNextActionType) {
+        if (NextActionType.RedirectToUrl != getNextActionType()) {
             return null;
         }
 
         final Map<String, Object> nextAction;
 
         if (Status.RequiresAction == mStatus) {
-            nextAction = mNextAction;
+            nextAction = getNextAction();
         } else {
             nextAction = null;
         }
@@ -225,7 +228,7 @@ public final class PaymentIntent extends StripeModel implements StripeIntent {
             @Nullable String currency,
             @Nullable String description,
             @Nullable Boolean liveMode,
-            @Nullable Map<String, Object> nextAction,
+            @NonNull LazyJsonValue<Map<String, Object>> nextAction,
             @Nullable String receiptEmail,
             @Nullable String source,
             @Nullable Status status,
@@ -247,8 +250,6 @@ public final class PaymentIntent extends StripeModel implements StripeIntent {
         mSource = source;
         mStatus = status;
         mSetupFutureUsage = setupFutureUsage;
-        mNextActionType = mNextAction != null ?
-                NextActionType.fromCode((String) mNextAction.get(FIELD_NEXT_ACTION_TYPE)) : null;
     }
 
     @NonNull
@@ -258,13 +259,128 @@ public final class PaymentIntent extends StripeModel implements StripeIntent {
 
     @Nullable
     public static PaymentIntent fromString(@Nullable String jsonString) {
+        if (jsonString == null) {
+            return null;
+        }
+
         try {
-            return fromJson(new JSONObject(jsonString));
+            return fromReader(new StripeJsonReader(jsonString));
         } catch (JSONException ignored) {
             return null;
         }
     }
 
+    /**
+     * Reads the same fields as {@link #fromJson(JSONObject)}, straight from the JSON.
+     */
+    @Nullable
+    private static PaymentIntent fromReader(@NonNull StripeJsonReader reader)
+            throws JSONException {
+        if (!reader.beginObject()) {
+            return null;
+        }
+
+        String id = null;
+        String objectType = null;
+        List<String> paymentMethodTypes = new ArrayList<>();
+        Long amount = null;
+        Long canceledAt = null;
+        String captureMethod = null;
+        String clientSecret = null;
+        String confirmationMethod = null;
+        Long created = null;
+        String currency = null;
+        String description = null;
+        Boolean livemode = null;
+        String receiptEmail = null;
+        String status = null;
+        String setupFutureUsage = null;
+        LazyJsonValue<Map<String, Object>> nextAction = LazyJsonValue.of(null);
+        String source = null;
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case FIELD_ID:
+                    id = reader.nextString();
+                    break;
+                case FIELD_OBJECT:
+                    objectType = reader.nextString();
+                    break;
+                case FIELD_PAYMENT_METHOD_TYPES:
+                    paymentMethodTypes = reader.nextStringList();
+                    break;
+                case FIELD_AMOUNT:
+                    amount = reader.nextLong();
+                    break;
+                case FIELD_CANCELED:
+                    canceledAt = reader.nextLong();
+                    break;
+                case FIELD_CAPTURE_METHOD:
+                    captureMethod = reader.nextString();
+                    break;
+                case FIELD_CLIENT_SECRET:
+                    clientSecret = reader.nextString();
+                    break;
+                case FIELD_CONFIRMATION_METHOD:
+                    confirmationMethod = reader.nextString();
+                    break;
+                case FIELD_CREATED:
+                    created = reader.nextLong();
+                    break;
+                case FIELD_CURRENCY:
+                    currency = reader.nextCurrency();
+                    break;
+                case FIELD_DESCRIPTION:
+                    description = reader.nextString();
+                    break;
+                case FIELD_LIVEMODE:
+                    livemode = reader.nextBoolean();
+                    break;
+                case FIELD_RECEIPT_EMAIL:
+                    receiptEmail = reader.nextString();
+                    break;
+                case FIELD_STATUS:
+                    status = reader.nextString();
+                    break;
+                case FIELD_SETUP_FUTURE_USAGE:
+                    setupFutureUsage = reader.nextString();
+                    break;
+                case FIELD_NEXT_ACTION:
+                    nextAction = reader.nextLazyValue(LazyJsonValue.MAP_DECODER);
+                    break;
+                case FIELD_SOURCE:
+                    source = reader.nextString();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (!VALUE_PAYMENT_INTENT.equals(objectType)) {
+            return null;
+        }
+
+        return new PaymentIntent(
+                id,
+                objectType,
+                paymentMethodTypes,
+                amount,
+                canceledAt,
+                captureMethod,
+                clientSecret,
+                confirmationMethod,
+                created,
+                currency,
+                description,
+                livemode,
+                nextAction,
+                receiptEmail,
+                source,
+                Status.fromCode(status),
+                Usage.fromCode(setupFutureUsage));
+    }
+
     @Nullable
     public static PaymentIntent fromJson(@Nullable JSONObject jsonObject) {
         if (jsonObject == null ||
@@ -289,7 +405,8 @@ public final class PaymentIntent extends StripeModel implements StripeIntent {
         final Status status = Status.fromCode(optString(jsonObject, FIELD_STATUS));
         final Usage setupFutureUsage =
                 Usage.fromCode(optString(jsonObject, FIELD_SETUP_FUTURE_USAGE));
-        final Map<String, Object> nextAction = optMap(jsonObject, FIELD_NEXT_ACTION);
+        final LazyJsonValue<Map<String, Object>> nextAction =
+                LazyJsonValue.of(optMap(jsonObject, FIELD_NEXT_ACTION));
         final String source = optString(jsonObject, FIELD_SOURCE);
 
         return new PaymentIntent(
@@ -328,7 +445,7 @@ public final class PaymentIntent extends StripeModel implements StripeIntent {
         map.put(FIELD_CURRENCY, mCurrency);
         map.put(FIELD_DESCRIPTION, mDescription);
         map.put(FIELD_LIVEMODE, mLiveMode);
-        map.put(FIELD_NEXT_ACTION, mNextAction);
+        map.put(FIELD_NEXT_ACTION, getNextAction());
         map.put(FIELD_RECEIPT_EMAIL, mReceiptEmail);
         map.put(FIELD_STATUS, mStatus != null ? mStatus.code : null);
         map.put(FIELD_SETUP_FUTURE_USAGE,
@@ -360,16 +477,15 @@ public final class PaymentIntent extends StripeModel implements StripeIntent {
                 && ObjectUtils.equals(mStatus, paymentIntent.mStatus)
                 && ObjectUtils.equals(mSetupFutureUsage, paymentIntent.mSetupFutureUsage)
                 && ObjectUtils.equals(mPaymentMethodTypes, paymentIntent.mPaymentMethodTypes)
-                && ObjectUtils.equals(mNextAction, paymentIntent.mNextAction)
-                && ObjectUtils.equals(mNextActionType, paymentIntent.mNextActionType);
+                && ObjectUtils.equals(getNextAction(), paymentIntent.getNextAction());
     }
 
     @Override
     public int hashCode() {
         return ObjectUtils.hash(mId, mObjectType, mAmount, mCanceledAt, mCaptureMethod,
                 mClientSecret, mConfirmationMethod, mCreated, mCurrency, mDescription, mLiveMode,
-                mReceiptEmail, mSource, mStatus, mPaymentMethodTypes, mNextAction,
-                mNextActionType, mSetupFutureUsage);
+                mReceiptEmail, mSource, mStatus, mPaymentMethodTypes, getNextAction(),
+                mSetupFutureUsage);
     }
 
 }
@@ -119,12 +119,75 @@ public final class PaymentMethod extends StripeModel implements Parcelable {
         }
 
         try {
-            return fromJson(new JSONObject(jsonString));
+            return fromReader(new StripeJsonReader(jsonString));
         } catch (JSONException ignored) {
             return null;
         }
     }
 
+    /**
+     * Reads the same fields as {@link #fromJson(JSONObject)}, straight from the JSON.
+     */
+    @Nullable
+    static PaymentMethod fromReader(@NonNull StripeJsonReader reader)
+            throws JSONException {
+        if (!reader.beginObject()) {
+            return null;
+        }
+
+        String type = null;
+        // the type may come after the details of the payment method
+        JSONObject card = null;
+        JSONObject ideal = null;
+        final Builder builder = new Builder();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case FIELD_ID:
+                    builder.setId(reader.nextString());
+                    break;
+                case FIELD_TYPE:
+                    type = reader.nextString();
+                    builder.setType(type);
+                    break;
+                case FIELD_CREATED:
+                    builder.setCreated(reader.nextLong());
+                    break;
+                case FIELD_BILLING_DETAILS:
+                    builder.setBillingDetails(BillingDetails.fromJson(reader.nextJsonObject()));
+                    break;
+                case FIELD_CUSTOMER:
+                    builder.setCustomerId(reader.nextString());
+                    break;
+                case FIELD_LIVEMODE:
+                    builder.setLiveMode(reader.nextBoolean());
+                    break;
+                case FIELD_METADATA:
+                    builder.setMetadata(reader.nextStringMap());
+                    break;
+                case FIELD_CARD:
+                    card = reader.nextJsonObject();
+                    break;
+                case FIELD_IDEAL:
+                    ideal = reader.nextJsonObject();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (FIELD_CARD.equals(type)) {
+            builder.setCard(Card.fromJson(card));
+        } else if (FIELD_CARD_PRESENT.equals(type)) {
+            builder.setCardPresent(CardPresent.EMPTY);
+        } else if (FIELD_IDEAL.equals(type)) {
+            builder.setIdeal(Ideal.fromJson(ideal));
+        }
+
+        return builder.build();
+    }
+
     @Nullable
     public static PaymentMethod fromJson(@Nullable JSONObject paymentMethod) {
         if (paymentMethod == null) {
@@ -0,0 +1,127 @@
+package com.stripe.android.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.stripe.android.utils.ObjectUtils;
+
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of a list of a Customer's {@link PaymentMethod}s. See
+ * <a href="https://stripe.com/docs/api/payment_methods/list">List a Customer's PaymentMethods</a>.
+ */
+public final class PaymentMethodsPage extends StripeModel {
+    private static final String FIELD_OBJECT = "object";
+    private static final String FIELD_DATA = "data";
+    private static final String FIELD_HAS_MORE = "has_more";
+
+    private static final String VALUE_LIST = "list";
+
+    @NonNull public final List<PaymentMethod> paymentMethods;
+    public final boolean hasMore;
+
+    PaymentMethodsPage(@NonNull List<PaymentMethod> paymentMethods, boolean hasMore) {
+        this.paymentMethods = Collections.unmodifiableList(paymentMethods);
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * @return the ID of the last {@link PaymentMethod} on this page, i.e. the cursor from
+     *         which the next page starts, or {@code null} if the page is empty
+     */
+    @Nullable
+    public String getLastPaymentMethodId() {
+        return paymentMethods.isEmpty() ? null :
+                paymentMethods.get(paymentMethods.size() - 1).id;
+    }
+
+    @NonNull
+    @Override
+    public Map<String, Object> toMap() {
+        final List<Map<String, Object>> data = new ArrayList<>(paymentMethods.size());
+        for (PaymentMethod paymentMethod : paymentMethods) {
+            data.add(paymentMethod.toMap());
+        }
+
+        final Map<String, Object> map = new HashMap<>();
+        map.put(FIELD_OBJECT, VALUE_LIST);
+        map.put(FIELD_DATA, data);
+        map.put(FIELD_HAS_MORE, hasMore);
+        return map;
+    }
+
+    /**
+     * Reads the page straight from the JSON, skipping anything in {@code data} that is not an
+     * object.
+     */
+    @Nullable
+    public static PaymentMethodsPage fromString(@Nullable String jsonString) {
+        if (jsonString == null) {
+            return null;
+        }
+
+        try {
+            return fromReader(new StripeJsonReader(jsonString));
+        } catch (JSONException ignored) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static PaymentMethodsPage fromReader(@NonNull StripeJsonReader reader)
+            throws JSONException {
+        if (!reader.beginObject()) {
+            return null;
+        }
+
+        final List<PaymentMethod> paymentMethods = new ArrayList<>();
+        boolean hasMore = false;
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case FIELD_DATA:
+                    if (reader.beginArray()) {
+                        while (reader.hasNext()) {
+                            final PaymentMethod paymentMethod = PaymentMethod.fromReader(reader);
+                            if (paymentMethod != null) {
+                                paymentMethods.add(paymentMethod);
+                            }
+                        }
+                        reader.endArray();
+                    }
+                    break;
+                case FIELD_HAS_MORE:
+                    hasMore = reader.nextBoolean();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        return new PaymentMethodsPage(paymentMethods, hasMore);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        return this == obj || (obj instanceof PaymentMethodsPage
+                && typedEquals((PaymentMethodsPage) obj));
+    }
+
+    private boolean typedEquals(@NonNull PaymentMethodsPage page) {
+        return ObjectUtils.equals(paymentMethods, page.paymentMethods)
+                && hasMore == page.hasMore;
+    }
+
+    @Override
+    public int hashCode() {
+        return ObjectUtils.hash(paymentMethods, hasMore);
+    }
+}
@@ -12,6 +12,7 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -51,8 +52,7 @@ public final class SetupIntent extends StripeModel implements StripeIntent {
     @Nullable private final String mCustomerId;
     @Nullable private final String mDescription;
     private final boolean mLiveMode;
-    @Nullable private final Map<String, Object> mNextAction;
-    @Nullable private final NextActionType mNextActionType;
+    @NonNull private final LazyJsonValue<Map<String, Object>> mNextAction;
     @Nullable private final String mPaymentMethodId;
     @Nullable private final List<String> mPaymentMethodTypes;
     @Nullable private final Status mStatus;
@@ -67,8 +67,6 @@ public final class SetupIntent extends StripeModel implements StripeIntent {
         mDescription = builder.mDescription;
         mLiveMode = builder.mLiveMode;
         mNextAction = builder.mNextAction;
-        mNextActionType = mNextAction != null ?
-                NextActionType.fromCode((String) mNextAction.get(FIELD_NEXT_ACTION_TYPE)) : null;
         mPaymentMethodId = builder.mPaymentMethodId;
         mPaymentMethodTypes = builder.mPaymentMethodTypes;
         mStatus = builder.mStatus;
@@ -83,6 +81,7 @@ public final class SetupIntent extends StripeModel implements StripeIntent {
     }
 
     @Nullable
+    @Override
     public String getId() {
         return mId;
     }
@@ -133,20 +132,22 @@ public final class SetupIntent extends StripeModel implements StripeIntent {
     @Nullable
     @Override
     public NextActionType getNextActionType() {
-        return mNextActionType;
+        final Map<String, Object> nextAction = mNextAction.get();
+        return nextAction != null ?
+                NextActionType.fromCode((String) nextAction.get(FIELD_NEXT_ACTION_TYPE)) : null;
     }
 
     @Nullable
     @Override
     public RedirectData getRedirectData() {
-        if (NextActionType.RedirectToUrl != mNextActionType) {
+        if (NextActionType.RedirectToUrl != getNextActionType()) {
             return null;
         }
 
         final Map<String, Object> nextAction;
 
         if (Status.RequiresAction == mStatus) {
-            nextAction = mNextAction;
+            nextAction = mNextAction.get();
         } else {
             nextAction = null;
         }
@@ -186,12 +187,13 @@ public final class SetupIntent extends StripeModel implements StripeIntent {
     @Nullable
     @Override
     public SdkData getStripeSdkData() {
-        if (mNextAction == null || NextActionType.UseStripeSdk != mNextActionType) {
+        final Map<String, Object> nextAction = mNextAction.get();
+        if (nextAction == null || NextActionType.UseStripeSdk != getNextActionType()) {
             return null;
         }
 
         //noinspection ConstantConditions,unchecked
-        return new SdkData((Map<String, ?>) mNextAction.get(NextActionType.UseStripeSdk.code));
+        return new SdkData((Map<String, ?>) nextAction.get(NextActionType.UseStripeSdk.code));
     }
 
     @Nullable
@@ -202,13 +204,83 @@ public final class SetupIntent extends StripeModel implements StripeIntent {
 
     @Nullable
     public static SetupIntent fromString(@Nullable String jsonString) {
+        if (jsonString == null) {
+            return null;
+        }
+
         try {
-            return fromJson(new JSONObject(jsonString));
+            return fromReader(new StripeJsonReader(jsonString));
         } catch (JSONException ignored) {
             return null;
         }
     }
 
+    /**
+     * Reads the same fields as {@link #fromJson(JSONObject)}, straight from the JSON.
+     */
+    @Nullable
+    private static SetupIntent fromReader(@NonNull StripeJsonReader reader)
+            throws JSONException {
+        if (!reader.beginObject()) {
+            return null;
+        }
+
+        String objectType = null;
+        final Builder builder = new Builder()
+                .setPaymentMethodTypes(new ArrayList<String>());
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case FIELD_ID:
+                    builder.setId(reader.nextString());
+                    break;
+                case FIELD_OBJECT:
+                    objectType = reader.nextString();
+                    builder.setObjectType(objectType);
+                    break;
+                case FIELD_CREATED:
+                    builder.setCreated(reader.nextLong());
+                    break;
+                case FIELD_CLIENT_SECRET:
+                    builder.setClientSecret(reader.nextString());
+                    break;
+                case FIELD_CUSTOMER:
+                    builder.setCustomerId(reader.nextString());
+                    break;
+                case FIELD_DESCRIPTION:
+                    builder.setDescription(reader.nextString());
+                    break;
+                case FIELD_LIVEMODE:
+                    builder.setLiveMode(reader.nextBoolean());
+                    break;
+                case FIELD_PAYMENT_METHOD:
+                    builder.setPaymentMethodId(reader.nextString());
+                    break;
+                case FIELD_PAYMENT_METHOD_TYPES:
+                    builder.setPaymentMethodTypes(reader.nextStringList());
+                    break;
+                case FIELD_STATUS:
+                    builder.setStatus(Status.fromCode(reader.nextString()));
+                    break;
+                case FIELD_USAGE:
+                    builder.setUsage(Usage.fromCode(reader.nextString()));
+                    break;
+                case FIELD_NEXT_ACTION:
+                    builder.setNextAction(reader.nextLazyValue(LazyJsonValue.MAP_DECODER));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (!VALUE_SETUP_INTENT.equals(objectType)) {
+            return null;
+        }
+
+        return builder.build();
+    }
+
     @Nullable
     public static SetupIntent fromJson(@Nullable JSONObject jsonObject) {
         if (jsonObject == null ||
@@ -246,7 +318,7 @@ public final class SetupIntent extends StripeModel implements StripeIntent {
         map.put(FIELD_CUSTOMER, mCustomerId);
         map.put(FIELD_DESCRIPTION, mDescription);
         map.put(FIELD_LIVEMODE, mLiveMode);
-        map.put(FIELD_NEXT_ACTION, mNextAction);
+        map.put(FIELD_NEXT_ACTION, mNextAction.get());
         map.put(FIELD_STATUS, mStatus != null ? mStatus.code : null);
         map.put(FIELD_USAGE, mUsage != null ? mUsage.code : null);
         StripeNetworkUtils.removeNullAndEmptyParams(map);
@@ -270,15 +342,14 @@ public final class SetupIntent extends StripeModel implements StripeIntent {
                 && ObjectUtils.equals(mUsage, setupIntent.mUsage)
                 && ObjectUtils.equals(mPaymentMethodId, setupIntent.mPaymentMethodId)
                 && ObjectUtils.equals(mPaymentMethodTypes, setupIntent.mPaymentMethodTypes)
-                && ObjectUtils.equals(mNextAction, setupIntent.mNextAction)
-                && ObjectUtils.equals(mNextActionType, setupIntent.mNextActionType);
+                && ObjectUtils.equals(mNextAction.get(), setupIntent.mNextAction.get());
     }
 
     @Override
     public int hashCode() {
         return ObjectUtils.hash(mId, mObjectType, mCustomerId, mClientSecret, mCreated,
                 mDescription, mLiveMode, mStatus, mPaymentMethodId, mPaymentMethodTypes,
-                mNextAction, mNextActionType, mUsage);
+                mNextAction.get(), mUsage);
     }
 
     static final class Builder implements ObjectBuilder<SetupIntent> {
@@ -289,7 +360,7 @@ public final class SetupIntent extends StripeModel implements StripeIntent {
         @Nullable String mCustomerId;
         @Nullable String mDescription;
         boolean mLiveMode;
-        @Nullable Map<String, Object> mNextAction;
+        @NonNull LazyJsonValue<Map<String, Object>> mNextAction = LazyJsonValue.of(null);
         @Nullable String mPaymentMethodId;
         @Nullable List<String> mPaymentMethodTypes;
         @Nullable Status mStatus;
@@ -339,6 +410,12 @@ public final class SetupIntent extends StripeModel implements StripeIntent {
 
         @NonNull
         Builder setNextAction(@Nullable Map<String, Object> nextAction) {
+            mNextAction = LazyJsonValue.of(nextAction);
+            return this;
+        }
+
+        @NonNull
+        Builder setNextAction(@NonNull LazyJsonValue<Map<String, Object>> nextAction) {
             mNextAction = nextAction;
             return this;
         }
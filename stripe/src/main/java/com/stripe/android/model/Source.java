@@ -126,47 +126,107 @@ public final class Source extends StripeModel implements StripePaymentSource {
     private static final String FIELD_TYPE = "type";
     private static final String FIELD_USAGE = "usage";
 
+    private static final LazyJsonValue.Decoder<SourceCodeVerification>
+            CODE_VERIFICATION_DECODER = new LazyJsonValue.Decoder<SourceCodeVerification>() {
+                @Nullable
+                @Override
+                public SourceCodeVerification decode(@NonNull StripeJsonReader reader)
+                        throws JSONException {
+                    return SourceCodeVerification.fromJson(reader.nextJsonObject());
+                }
+            };
+    private static final LazyJsonValue.Decoder<SourceOwner> OWNER_DECODER =
+            new LazyJsonValue.Decoder<SourceOwner>() {
+                @Nullable
+                @Override
+                public SourceOwner decode(@NonNull StripeJsonReader reader)
+                        throws JSONException {
+                    return SourceOwner.fromJson(reader.nextJsonObject());
+                }
+            };
+    private static final LazyJsonValue.Decoder<SourceReceiver> RECEIVER_DECODER =
+            new LazyJsonValue.Decoder<SourceReceiver>() {
+                @Nullable
+                @Override
+                public SourceReceiver decode(@NonNull StripeJsonReader reader)
+                        throws JSONException {
+                    return SourceReceiver.fromJson(reader.nextJsonObject());
+                }
+            };
+    private static final LazyJsonValue.Decoder<SourceRedirect> REDIRECT_DECODER =
+            new LazyJsonValue.Decoder<SourceRedirect>() {
+                @Nullable
+                @Override
+                public SourceRedirect decode(@NonNull StripeJsonReader reader)
+                        throws JSONException {
+                    return SourceRedirect.fromJson(reader.nextJsonObject());
+                }
+            };
+    private static final LazyJsonValue.Decoder<StripeSourceTypeModel> CARD_DATA_DECODER =
+            new LazyJsonValue.Decoder<StripeSourceTypeModel>() {
+                @Nullable
+                @Override
+                public StripeSourceTypeModel decode(@NonNull StripeJsonReader reader)
+                        throws JSONException {
+                    return SourceCardData.fromJson(reader.nextJsonObject());
+                }
+            };
+    private static final LazyJsonValue.Decoder<StripeSourceTypeModel>
+            SEPA_DEBIT_DATA_DECODER = new LazyJsonValue.Decoder<StripeSourceTypeModel>() {
+                @Nullable
+                @Override
+                public StripeSourceTypeModel decode(@NonNull StripeJsonReader reader)
+                        throws JSONException {
+                    return SourceSepaDebitData.fromJson(reader.nextJsonObject());
+                }
+            };
+
     @Nullable private String mId;
     @Nullable private Long mAmount;
     @Nullable private String mClientSecret;
-    @Nullable private SourceCodeVerification mCodeVerification;
+    @NonNull private LazyJsonValue<SourceCodeVerification> mCodeVerification;
     @Nullable private Long mCreated;
     @Nullable private String mCurrency;
     @Nullable private String mTypeRaw;
     @Nullable @SourceFlow private String mFlow;
     @Nullable private Boolean mLiveMode;
     @Nullable private Map<String, String> mMetaData;
-    @Nullable private SourceOwner mOwner;
-    @Nullable private SourceReceiver mReceiver;
-    @Nullable private SourceRedirect mRedirect;
+    @NonNull private LazyJsonValue<SourceOwner> mOwner;
+    @NonNull private LazyJsonValue<SourceReceiver> mReceiver;
+    @NonNull private LazyJsonValue<SourceRedirect> mRedirect;
     @Nullable @SourceStatus private String mStatus;
-    @Nullable private Map<String, Object> mSourceTypeData;
-    @Nullable private final StripeSourceTypeModel mSourceTypeModel;
+    @NonNull private LazyJsonValue<Map<String, Object>> mSourceTypeData;
+    @NonNull private final LazyJsonValue<StripeSourceTypeModel> mSourceTypeModel;
     @Nullable @SourceType private String mType;
     @Nullable @Usage private String mUsage;
 
     private Source(@Nullable String id, @Nullable SourceCardData sourceTypeModel) {
         mId = id;
         mType = CARD;
-        mSourceTypeModel = sourceTypeModel;
+        mCodeVerification = LazyJsonValue.of(null);
+        mOwner = LazyJsonValue.of(null);
+        mReceiver = LazyJsonValue.of(null);
+        mRedirect = LazyJsonValue.of(null);
+        mSourceTypeData = LazyJsonValue.of(null);
+        mSourceTypeModel = LazyJsonValue.<StripeSourceTypeModel>of(sourceTypeModel);
     }
 
     private Source(
             @Nullable String id,
             @Nullable Long amount,
             @Nullable String clientSecret,
-            @Nullable SourceCodeVerification codeVerification,
+            @NonNull LazyJsonValue<SourceCodeVerification> codeVerification,
             @Nullable Long created,
             @Nullable String currency,
             @Nullable @SourceFlow String flow,
             @Nullable Boolean liveMode,
             @Nullable Map<String, String> metaData,
-            @Nullable SourceOwner owner,
-            @Nullable SourceReceiver receiver,
-            @Nullable SourceRedirect redirect,
+            @NonNull LazyJsonValue<SourceOwner> owner,
+            @NonNull LazyJsonValue<SourceReceiver> receiver,
+            @NonNull LazyJsonValue<SourceRedirect> redirect,
             @Nullable @SourceStatus String status,
-            @Nullable Map<String, Object> sourceTypeData,
-            @Nullable StripeSourceTypeModel sourceTypeModel,
+            @NonNull LazyJsonValue<Map<String, Object>> sourceTypeData,
+            @NonNull LazyJsonValue<StripeSourceTypeModel> sourceTypeModel,
             @NonNull @SourceType String type,
             @NonNull String rawType,
             @Nullable @Usage String usage
@@ -206,7 +266,7 @@ public final class Source extends StripeModel implements StripePaymentSource {
     }
 
     public SourceCodeVerification getCodeVerification() {
-        return mCodeVerification;
+        return mCodeVerification.get();
     }
 
     public Long getCreated() {
@@ -231,15 +291,15 @@ public final class Source extends StripeModel implements StripePaymentSource {
     }
 
     public SourceOwner getOwner() {
-        return mOwner;
+        return mOwner.get();
     }
 
     public SourceReceiver getReceiver() {
-        return mReceiver;
+        return mReceiver.get();
     }
 
     public SourceRedirect getRedirect() {
-        return mRedirect;
+        return mRedirect.get();
     }
 
     @SourceStatus
@@ -248,11 +308,11 @@ public final class Source extends StripeModel implements StripePaymentSource {
     }
 
     public Map<String, Object> getSourceTypeData() {
-        return mSourceTypeData;
+        return mSourceTypeData.get();
     }
 
     public StripeSourceTypeModel getSourceTypeModel() {
-        return mSourceTypeModel;
+        return mSourceTypeModel.get();
     }
 
     /**
@@ -296,7 +356,7 @@ public final class Source extends StripeModel implements StripePaymentSource {
     }
 
     public void setCodeVerification(SourceCodeVerification codeVerification) {
-        mCodeVerification = codeVerification;
+        mCodeVerification = LazyJsonValue.of(codeVerification);
     }
 
     public void setCreated(long created) {
@@ -320,15 +380,15 @@ public final class Source extends StripeModel implements StripePaymentSource {
     }
 
     public void setOwner(SourceOwner owner) {
-        mOwner = owner;
+        mOwner = LazyJsonValue.of(owner);
     }
 
     public void setReceiver(SourceReceiver receiver) {
-        mReceiver = receiver;
+        mReceiver = LazyJsonValue.of(receiver);
     }
 
     public void setRedirect(SourceRedirect redirect) {
-        mRedirect = redirect;
+        mRedirect = LazyJsonValue.of(redirect);
     }
 
     public void setStatus(@SourceStatus String status) {
@@ -336,7 +396,7 @@ public final class Source extends StripeModel implements StripePaymentSource {
     }
 
     public void setSourceTypeData(Map<String, Object> sourceTypeData) {
-        mSourceTypeData = sourceTypeData;
+        mSourceTypeData = LazyJsonValue.of(sourceTypeData);
     }
 
     public void setTypeRaw(@NonNull @Size(min = 1) String typeRaw) {
@@ -360,8 +420,9 @@ public final class Source extends StripeModel implements StripePaymentSource {
         map.put(FIELD_OBJECT, VALUE_SOURCE);
         map.put(FIELD_AMOUNT, mAmount);
         map.put(FIELD_CLIENT_SECRET, mClientSecret);
-        if (mCodeVerification != null) {
-            map.put(FIELD_CODE_VERIFICATION, mCodeVerification.toMap());
+        final SourceCodeVerification codeVerification = getCodeVerification();
+        if (codeVerification != null) {
+            map.put(FIELD_CODE_VERIFICATION, codeVerification.toMap());
         }
 
         map.put(FIELD_CREATED, mCreated);
@@ -370,17 +431,20 @@ public final class Source extends StripeModel implements StripePaymentSource {
         map.put(FIELD_LIVEMODE, mLiveMode);
         map.put(FIELD_METADATA, mMetaData);
 
-        if (mOwner != null) {
-            map.put(FIELD_OWNER, mOwner.toMap());
+        final SourceOwner owner = getOwner();
+        if (owner != null) {
+            map.put(FIELD_OWNER, owner.toMap());
         }
-        if (mReceiver != null) {
-            map.put(FIELD_RECEIVER, mReceiver.toMap());
+        final SourceReceiver receiver = getReceiver();
+        if (receiver != null) {
+            map.put(FIELD_RECEIVER, receiver.toMap());
         }
-        if (mRedirect != null) {
-            map.put(FIELD_REDIRECT, mRedirect.toMap());
+        final SourceRedirect redirect = getRedirect();
+        if (redirect != null) {
+            map.put(FIELD_REDIRECT, redirect.toMap());
         }
 
-        map.put(mTypeRaw, mSourceTypeData);
+        map.put(mTypeRaw, getSourceTypeData());
 
         map.put(FIELD_STATUS, mStatus);
         map.put(FIELD_TYPE, mTypeRaw);
@@ -391,13 +455,160 @@ public final class Source extends StripeModel implements StripePaymentSource {
 
     @Nullable
     public static Source fromString(@Nullable String jsonString) {
+        if (jsonString == null) {
+            return null;
+        }
+
         try {
-            return fromJson(new JSONObject(jsonString));
+            return fromReader(new StripeJsonReader(jsonString), jsonString);
         } catch (JSONException ignored) {
             return null;
         }
     }
 
+    /**
+     * Reads the same fields as {@link #fromJson(JSONObject)}, straight from the JSON. The
+     * owner, receiver, redirect, code verification and type data are only read when they are
+     * first used, as most callers only need a Source's ID and status.
+     */
+    @Nullable
+    private static Source fromReader(@NonNull StripeJsonReader reader,
+                                     @NonNull String jsonString)
+            throws JSONException {
+        if (!reader.beginObject()) {
+            return null;
+        }
+
+        String objectType = null;
+        String id = null;
+        Long amount = null;
+        String clientSecret = null;
+        LazyJsonValue<SourceCodeVerification> codeVerification = LazyJsonValue.of(null);
+        Long created = null;
+        String currency = null;
+        String flow = null;
+        boolean liveMode = false;
+        Map<String, String> metadata = null;
+        LazyJsonValue<SourceOwner> owner = LazyJsonValue.of(null);
+        LazyJsonValue<SourceReceiver> receiver = LazyJsonValue.of(null);
+        LazyJsonValue<SourceRedirect> redirect = LazyJsonValue.of(null);
+        String status = null;
+        String typeRawOpt = null;
+        String usage = null;
+        // the type data is the field named after the type, which may come before the type
+        final Map<String, Integer> typeDataCandidates = new HashMap<>();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            switch (name) {
+                case FIELD_OBJECT:
+                    objectType = reader.nextString();
+                    break;
+                case FIELD_ID:
+                    id = reader.nextString();
+                    break;
+                case FIELD_AMOUNT:
+                    amount = reader.nextLong();
+                    break;
+                case FIELD_CLIENT_SECRET:
+                    clientSecret = reader.nextString();
+                    break;
+                case FIELD_CODE_VERIFICATION:
+                    codeVerification = reader.nextLazyValue(CODE_VERIFICATION_DECODER);
+                    break;
+                case FIELD_CREATED:
+                    created = reader.nextLong();
+                    break;
+                case FIELD_CURRENCY:
+                    currency = reader.nextString();
+                    break;
+                case FIELD_FLOW:
+                    flow = reader.nextString();
+                    break;
+                case FIELD_LIVEMODE:
+                    liveMode = reader.nextBoolean();
+                    break;
+                case FIELD_METADATA:
+                    metadata = reader.nextStringMap();
+                    break;
+                case FIELD_OWNER:
+                    owner = reader.nextLazyValue(OWNER_DECODER);
+                    break;
+                case FIELD_RECEIVER:
+                    receiver = reader.nextLazyValue(RECEIVER_DECODER);
+                    break;
+                case FIELD_REDIRECT:
+                    redirect = reader.nextLazyValue(REDIRECT_DECODER);
+                    break;
+                case FIELD_STATUS:
+                    status = reader.nextString();
+                    break;
+                case FIELD_TYPE:
+                    typeRawOpt = reader.nextString();
+                    break;
+                case FIELD_USAGE:
+                    usage = reader.nextString();
+                    break;
+                default:
+                    if ((typeRawOpt == null || typeRawOpt.equals(name))
+                            && reader.isNextObject()) {
+                        typeDataCandidates.put(name, reader.skipValueFrom());
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (VALUE_CARD.equals(objectType)) {
+            // SourceCardData reads a card from all of its fields
+            return fromCardJson(new JSONObject(jsonString));
+        } else if (!VALUE_SOURCE.equals(objectType)) {
+            return null;
+        }
+
+        @SourceType final String typeRaw = typeRawOpt != null ? typeRawOpt : UNKNOWN;
+        final Integer typeDataStart = typeDataCandidates.get(typeRaw);
+        final LazyJsonValue<Map<String, Object>> sourceTypeData;
+        final LazyJsonValue<StripeSourceTypeModel> sourceTypeModel;
+        if (typeDataStart == null) {
+            sourceTypeData = LazyJsonValue.of(null);
+            sourceTypeModel = LazyJsonValue.of(null);
+        } else {
+            sourceTypeData = new LazyJsonValue<>(jsonString, typeDataStart,
+                    LazyJsonValue.MAP_DECODER);
+            if (CARD.equals(typeRaw)) {
+                sourceTypeModel = new LazyJsonValue<>(jsonString, typeDataStart,
+                        CARD_DATA_DECODER);
+            } else if (SEPA_DEBIT.equals(typeRaw)) {
+                sourceTypeModel = new LazyJsonValue<>(jsonString, typeDataStart,
+                        SEPA_DEBIT_DATA_DECODER);
+            } else {
+                sourceTypeModel = LazyJsonValue.of(null);
+            }
+        }
+
+        return new Source(
+                id,
+                amount,
+                clientSecret,
+                codeVerification,
+                created,
+                currency,
+                asSourceFlow(flow),
+                liveMode,
+                metadata,
+                owner,
+                receiver,
+                redirect,
+                asSourceStatus(status),
+                sourceTypeData,
+                sourceTypeModel,
+                asSourceType(typeRaw),
+                typeRaw,
+                asUsage(usage));
+    }
+
     @Nullable
     public static Source fromJson(@Nullable JSONObject jsonObject) {
         if (jsonObject == null) {
@@ -467,18 +678,18 @@ public final class Source extends StripeModel implements StripePaymentSource {
                 id,
                 amount,
                 clientSecret,
-                codeVerification,
+                LazyJsonValue.of(codeVerification),
                 created,
                 currency,
                 flow,
                 liveMode,
                 metadata,
-                owner,
-                receiver,
-                redirect,
+                LazyJsonValue.of(owner),
+                LazyJsonValue.of(receiver),
+                LazyJsonValue.of(redirect),
                 status,
-                sourceTypeData,
-                sourceTypeModel,
+                LazyJsonValue.of(sourceTypeData),
+                LazyJsonValue.of(sourceTypeModel),
                 type,
                 typeRaw,
                 usage);
@@ -598,27 +809,27 @@ public final class Source extends StripeModel implements StripePaymentSource {
         return ObjectUtils.equals(mId, source.mId)
                 && ObjectUtils.equals(mAmount, source.mAmount)
                 && ObjectUtils.equals(mClientSecret, source.mClientSecret)
-                && ObjectUtils.equals(mCodeVerification, source.mCodeVerification)
+                && ObjectUtils.equals(getCodeVerification(), source.getCodeVerification())
                 && ObjectUtils.equals(mCreated, source.mCreated)
                 && ObjectUtils.equals(mCurrency, source.mCurrency)
                 && ObjectUtils.equals(mTypeRaw, source.mTypeRaw)
                 && ObjectUtils.equals(mFlow, source.mFlow)
                 && ObjectUtils.equals(mLiveMode, source.mLiveMode)
                 && ObjectUtils.equals(mMetaData, source.mMetaData)
-                && ObjectUtils.equals(mOwner, source.mOwner)
-                && ObjectUtils.equals(mReceiver, source.mReceiver)
-                && ObjectUtils.equals(mRedirect, source.mRedirect)
+                && ObjectUtils.equals(getOwner(), source.getOwner())
+                && ObjectUtils.equals(getReceiver(), source.getReceiver())
+                && ObjectUtils.equals(getRedirect(), source.getRedirect())
                 && ObjectUtils.equals(mStatus, source.mStatus)
-                && ObjectUtils.equals(mSourceTypeData, source.mSourceTypeData)
-                && ObjectUtils.equals(mSourceTypeModel, source.mSourceTypeModel)
+                && ObjectUtils.equals(getSourceTypeData(), source.getSourceTypeData())
+                && ObjectUtils.equals(getSourceTypeModel(), source.getSourceTypeModel())
                 && ObjectUtils.equals(mType, source.mType)
                 && ObjectUtils.equals(mUsage, source.mUsage);
     }
 
     @Override
     public int hashCode() {
-        return ObjectUtils.hash(mId, mAmount, mClientSecret, mCodeVerification, mCreated, mCurrency,
-                mTypeRaw, mFlow, mLiveMode, mMetaData, mOwner, mReceiver, mRedirect, mStatus,
-                mSourceTypeData, mSourceTypeModel, mType, mUsage);
+        return ObjectUtils.hash(mId, mAmount, mClientSecret, getCodeVerification(), mCreated,
+                mCurrency, mTypeRaw, mFlow, mLiveMode, mMetaData, getOwner(), getReceiver(),
+                getRedirect(), mStatus, getSourceTypeData(), getSourceTypeModel(), mType, mUsage);
     }
 }
@@ -12,6 +12,9 @@ import java.util.Objects;
  * An interface for methods available in {@link PaymentIntent}
  */
 public interface StripeIntent {
+    @Nullable
+    String getId();
+
     boolean requiresAction();
 
     boolean requiresConfirmation();
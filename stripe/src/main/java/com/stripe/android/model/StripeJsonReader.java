@@ -0,0 +1,504 @@
+package com.stripe.android.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.Size;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a model from its JSON in a single pass, without building a {@link JSONObject} of the
+ * whole response first. The {@code next*} methods read the value of the field whose name was
+ * just read, and return what the matching {@link StripeJsonUtils} method, or the
+ * {@link JSONObject} method that it calls through to, returns for a field with that value.
+ * Values are read the way {@link JSONTokener} reads them, and the tokener itself is used for
+ * strings with escapes and for the objects and arrays that a caller asks for as such.
+ * Fields that a model does not know are skipped with {@link #skipValue()}, without building
+ * anything for them.
+ */
+final class StripeJsonReader {
+    private static final String NULL = "null";
+    // the characters that end an unquoted value, as in JSONTokener
+    private static final String LITERAL_DELIMITERS = "{}[]/\\:,=;# \t\f\r\n";
+
+    @NonNull private final String mJson;
+    private int mPos;
+    private int mDepth;
+    private boolean mAfterSeparator;
+
+    StripeJsonReader(@NonNull String json) {
+        this(json, 0);
+    }
+
+    /**
+     * @param start the index in {@code json} of the value to read, e.g. one returned by
+     *              {@link #skipValueFrom()}
+     */
+    StripeJsonReader(@NonNull String json, int start) {
+        mJson = json;
+        mPos = start;
+    }
+
+    /**
+     * Begins reading the next value if it is an object, or skips it otherwise.
+     *
+     * @return {@code true} if an object was begun
+     */
+    boolean beginObject() throws JSONException {
+        return begin('{');
+    }
+
+    void endObject() throws JSONException {
+        end('}');
+    }
+
+    /**
+     * Begins reading the next value if it is an array, or skips it otherwise.
+     *
+     * @return {@code true} if an array was begun
+     */
+    boolean beginArray() throws JSONException {
+        return begin('[');
+    }
+
+    void endArray() throws JSONException {
+        end(']');
+    }
+
+    /**
+     * @return {@code true} if the current object or array has another field or element
+     */
+    boolean hasNext() throws JSONException {
+        final char c = peek();
+        if (c == '}' || c == ']') {
+            if (mAfterSeparator) {
+                throw syntaxError("Expected a value before " + c);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    @NonNull
+    String nextName() throws JSONException {
+        final char c = peek();
+        final Object name = c == '"' || c == '\'' ? readString(c) : readLiteral();
+        if (!(name instanceof String)) {
+            throw syntaxError("Names must be strings, but " + name + " is not");
+        }
+        if (peek() != ':') {
+            throw syntaxError("Expected ':' after " + name);
+        }
+        mPos++;
+        mAfterSeparator = false;
+        return (String) name;
+    }
+
+    /**
+     * @return {@code true} if the next value is an object
+     */
+    boolean isNextObject() {
+        return peek() == '{';
+    }
+
+    void skipValue() throws JSONException {
+        final char c = peek();
+        if (c == '{') {
+            beginObject();
+            while (hasNext()) {
+                nextName();
+                skipValue();
+            }
+            endObject();
+        } else if (c == '[') {
+            beginArray();
+            while (hasNext()) {
+                skipValue();
+            }
+            endArray();
+        } else {
+            if (c == '"' || c == '\'') {
+                skipString(c);
+            } else {
+                skipLiteral();
+            }
+            endValue();
+        }
+    }
+
+    /**
+     * Skips the next value, so that it can be read later with
+     * {@link #StripeJsonReader(String, int)}.
+     *
+     * @return the index of the value in the JSON
+     */
+    int skipValueFrom() throws JSONException {
+        final int start = nextValueStart();
+        skipValue();
+        return start;
+    }
+
+    /**
+     * @return the index of the next value in the JSON, without reading it
+     */
+    int nextValueStart() {
+        peek();
+        return mPos;
+    }
+
+    /**
+     * Skips the next value, to be read with the decoder when it is first used.
+     */
+    @NonNull
+    <T> LazyJsonValue<T> nextLazyValue(@NonNull LazyJsonValue.Decoder<T> decoder)
+            throws JSONException {
+        return new LazyJsonValue<>(mJson, skipValueFrom(), decoder);
+    }
+
+    /**
+     * See {@link StripeJsonUtils#optString(JSONObject, String)}.
+     */
+    @Nullable
+    String nextString() throws JSONException {
+        return StripeJsonUtils.nullIfNullOrEmpty(nextValue().toString());
+    }
+
+    /**
+     * See {@link StripeJsonUtils#optCurrency(JSONObject, String)}.
+     */
+    @Nullable
+    @Size(3)
+    String nextCurrency() throws JSONException {
+        final String value = nextString();
+        return value != null && value.length() == 3 ? value : null;
+    }
+
+    /**
+     * See {@link JSONObject#optLong(String)}.
+     */
+    long nextLong() throws JSONException {
+        final Object value = nextValue();
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        } else if (value instanceof String) {
+            try {
+                return (long) Double.parseDouble((String) value);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * See {@link JSONObject#optInt(String)}.
+     */
+    int nextInt() throws JSONException {
+        final Object value = nextValue();
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        } else if (value instanceof String) {
+            try {
+                return (int) Double.parseDouble((String) value);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * See {@link JSONObject#optBoolean(String)}.
+     */
+    boolean nextBoolean() throws JSONException {
+        final Object value = nextValue();
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return value instanceof String && "true".equalsIgnoreCase((String) value);
+    }
+
+    /**
+     * See {@link StripeJsonUtils#optMap(JSONObject, String)}. The map is read straight from
+     * the JSON.
+     */
+    @Nullable
+    Map<String, Object> nextMap() throws JSONException {
+        if (!beginObject()) {
+            return null;
+        }
+
+        final Map<String, Object> map = new HashMap<>();
+        while (hasNext()) {
+            final String key = nextName();
+            final Object value = nextMapValue();
+            // a later duplicate of a key replaces the earlier one, as in a JSONObject
+            if (value != null) {
+                map.put(key, value);
+            } else {
+                map.remove(key);
+            }
+        }
+        endObject();
+        return map;
+    }
+
+    /**
+     * See {@link StripeJsonUtils#optHash(JSONObject, String)}.
+     */
+    @Nullable
+    Map<String, String> nextStringMap() throws JSONException {
+        if (!beginObject()) {
+            return null;
+        }
+
+        final Map<String, String> map = new HashMap<>();
+        while (hasNext()) {
+            final String key = nextName();
+            final Object value = nextValue();
+            if (!NULL.equals(value)) {
+                map.put(key, value.toString());
+            } else {
+                map.remove(key);
+            }
+        }
+        endObject();
+        return map;
+    }
+
+    /**
+     * See {@link StripeModel#jsonArrayToList(JSONArray)}, called with
+     * {@link JSONObject#optJSONArray(String)}.
+     */
+    @NonNull
+    List<String> nextStringList() throws JSONException {
+        final List<String> list = new ArrayList<>();
+        if (!beginArray()) {
+            return list;
+        }
+
+        while (hasNext()) {
+            list.add(nextValue().toString());
+        }
+        endArray();
+        return list;
+    }
+
+    /**
+     * See {@link JSONObject#optJSONObject(String)}. Used for the fields that are read by a
+     * model's {@code fromJson(JSONObject)}, so that only the field's value is built as a
+     * {@link JSONObject}.
+     */
+    @Nullable
+    JSONObject nextJsonObject() throws JSONException {
+        if (peek() != '{') {
+            skipValue();
+            return null;
+        }
+
+        return (JSONObject) nextValue();
+    }
+
+    /**
+     * Reads a value of a map the way {@link StripeJsonUtils#jsonObjectToMap(JSONObject)}
+     * converts it.
+     *
+     * @return the value, or {@code null} if the map leaves it out
+     */
+    @Nullable
+    private Object nextMapValue() throws JSONException {
+        final char c = peek();
+        if (c == '{') {
+            return nextMap();
+        } else if (c == '[') {
+            final List<Object> list = new ArrayList<>();
+            beginArray();
+            while (hasNext()) {
+                final Object value = nextMapValue();
+                if (value != null) {
+                    list.add(value);
+                }
+            }
+            endArray();
+            return list;
+        } else {
+            // JSON null is kept as JSONObject.NULL, only the string "null" is left out
+            final Object value = nextValue();
+            return NULL.equals(value) ? null : value;
+        }
+    }
+
+    /**
+     * @return the next value as a {@link JSONObject} reads it, i.e. a {@link String},
+     *         {@link Boolean}, {@link Number} or {@link JSONObject#NULL}, or a
+     *         {@link JSONObject} or {@link JSONArray} that the caller asked for
+     */
+    @NonNull
+    private Object nextValue() throws JSONException {
+        final char c = peek();
+        final Object value;
+        if (c == '{' || c == '[') {
+            final int start = mPos;
+            // skipping also reads the separator after the value, which the tokener ignores
+            skipValue();
+            return new JSONTokener(mJson.substring(start, mPos)).nextValue();
+        } else if (c == '"' || c == '\'') {
+            value = readString(c);
+        } else {
+            value = readLiteral();
+        }
+        endValue();
+        return value;
+    }
+
+    private boolean begin(char open) throws JSONException {
+        if (peek() != open) {
+            skipValue();
+            return false;
+        }
+
+        mPos++;
+        mDepth++;
+        mAfterSeparator = false;
+        return true;
+    }
+
+    private void end(char close) throws JSONException {
+        if (peek() != close) {
+            throw syntaxError("Expected " + close);
+        }
+        mPos++;
+        mDepth--;
+        endValue();
+    }
+
+    /**
+     * Reads the separator after a field or element, if any.
+     */
+    private void endValue() throws JSONException {
+        mAfterSeparator = false;
+        if (mDepth == 0) {
+            // like a JSONObject, ignore whatever follows the top-level value
+            return;
+        }
+
+        final char c = peek();
+        if (c == ',' || c == ';') {
+            mPos++;
+            mAfterSeparator = true;
+        } else if (c != '}' && c != ']') {
+            throw syntaxError("Unterminated object or array");
+        }
+    }
+
+    @NonNull
+    private String readString(char quote) throws JSONException {
+        final int start = mPos;
+        final boolean hasEscapes = skipString(quote);
+        if (hasEscapes) {
+            return (String) new JSONTokener(mJson.substring(start, mPos)).nextValue();
+        }
+        return mJson.substring(start + 1, mPos - 1);
+    }
+
+    /**
+     * @return {@code true} if the string has escapes
+     */
+    private boolean skipString(char quote) throws JSONException {
+        boolean hasEscapes = false;
+        for (int i = mPos + 1; i < mJson.length(); i++) {
+            final char c = mJson.charAt(i);
+            if (c == quote) {
+                mPos = i + 1;
+                return hasEscapes;
+            } else if (c == '\\') {
+                hasEscapes = true;
+                i++;
+            }
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    /**
+     * See {@code JSONTokener#readLiteral()}.
+     */
+    @NonNull
+    private Object readLiteral() throws JSONException {
+        final String literal = mJson.substring(mPos, skipLiteral());
+        if (NULL.equalsIgnoreCase(literal)) {
+            return JSONObject.NULL;
+        } else if ("true".equalsIgnoreCase(literal)) {
+            return Boolean.TRUE;
+        } else if ("false".equalsIgnoreCase(literal)) {
+            return Boolean.FALSE;
+        }
+
+        if (literal.indexOf('.') == -1) {
+            int base = 10;
+            String number = literal;
+            if (number.startsWith("0x") || number.startsWith("0X")) {
+                number = number.substring(2);
+                base = 16;
+            } else if (number.startsWith("0") && number.length() > 1) {
+                number = number.substring(1);
+                base = 8;
+            }
+            try {
+                final long value = Long.parseLong(number, base);
+                if (value <= Integer.MAX_VALUE && value >= Integer.MIN_VALUE) {
+                    return (int) value;
+                }
+                return value;
+            } catch (NumberFormatException ignored) {
+            }
+        }
+
+        try {
+            return Double.valueOf(literal);
+        } catch (NumberFormatException ignored) {
+            return literal;
+        }
+    }
+
+    /**
+     * @return the index after the literal
+     */
+    private int skipLiteral() throws JSONException {
+        final int start = mPos;
+        int end = start;
+        while (end < mJson.length() && LITERAL_DELIMITERS.indexOf(mJson.charAt(end)) == -1) {
+            end++;
+        }
+        if (end == start) {
+            throw syntaxError(start < mJson.length() ? "Expected literal value" : "End of input");
+        }
+        mPos = end;
+        return end;
+    }
+
+    /**
+     * @return the next character that is not whitespace, without reading it, or {@code 0} at
+     *         the end of the input
+     */
+    private char peek() {
+        while (mPos < mJson.length()) {
+            final char c = mJson.charAt(mPos);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return c;
+            }
+            mPos++;
+        }
+        return 0;
+    }
+
+    @NonNull
+    private JSONException syntaxError(@NonNull String message) {
+        return new JSONException(message + " at character " + mPos);
+    }
+}
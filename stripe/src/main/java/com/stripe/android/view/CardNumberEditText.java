@@ -177,7 +177,7 @@ public class CardNumberEditText extends StripeEditText {
                 }
 
                 if (start < 4) {
-                    updateCardBrandFromNumber(s.toString());
+                    updateCardBrandFromNumber(s);
                 }
 
                 if (start > 16) {
@@ -255,7 +255,7 @@ public class CardNumberEditText extends StripeEditText {
         updateLengthFilter();
     }
 
-    private void updateCardBrandFromNumber(String partialNumber) {
+    private void updateCardBrandFromNumber(@NonNull CharSequence partialNumber) {
         updateCardBrand(CardUtils.getPossibleCardType(partialNumber));
     }
 
@@ -23,6 +23,8 @@ class MaskedCardAdapter extends RecyclerView.Adapter<MaskedCardAdapter.ViewHolde
     private static final int NO_SELECTION = -1;
     @NonNull private final List<PaymentMethod> mPaymentMethods;
     private int mSelectedIndex = NO_SELECTION;
+    // whether the user picked the selected payment method since the list was last replaced
+    private boolean mIsSelectedByUser;
 
     MaskedCardAdapter(@NonNull List<PaymentMethod> paymentMethods) {
         mPaymentMethods = new ArrayList<>();
@@ -36,6 +38,7 @@ class MaskedCardAdapter extends RecyclerView.Adapter<MaskedCardAdapter.ViewHolde
 
         mPaymentMethods.clear();
         mPaymentMethods.addAll(paymentMethods);
+        mIsSelectedByUser = false;
 
         // if there were no selected payment methods, or the previously selected payment method
         // was not found and set selected, select the newest payment method
@@ -46,6 +49,25 @@ class MaskedCardAdapter extends RecyclerView.Adapter<MaskedCardAdapter.ViewHolde
         notifyDataSetChanged();
     }
 
+    /**
+     * Adds the next page of payment methods after the ones already shown. The selection is
+     * kept, unless nothing was selected yet.
+     */
+    void addPaymentMethods(@NonNull List<PaymentMethod> paymentMethods) {
+        if (paymentMethods.isEmpty()) {
+            return;
+        }
+
+        final int positionStart = mPaymentMethods.size();
+        mPaymentMethods.addAll(paymentMethods);
+        if (mSelectedIndex == NO_SELECTION) {
+            setSelectedIndex(getNewestPaymentMethodIndex());
+            notifyDataSetChanged();
+        } else {
+            notifyItemRangeInserted(positionStart, paymentMethods.size());
+        }
+    }
+
     private int getNewestPaymentMethodIndex() {
         int index = NO_SELECTION;
         Long created = 0L;
@@ -115,6 +137,10 @@ class MaskedCardAdapter extends RecyclerView.Adapter<MaskedCardAdapter.ViewHolde
         return mPaymentMethods.get(mSelectedIndex);
     }
 
+    boolean isSelectedByUser() {
+        return mIsSelectedByUser;
+    }
+
     void setSelectedIndex(int selectedIndex) {
         mSelectedIndex = selectedIndex;
     }
@@ -133,6 +159,7 @@ class MaskedCardAdapter extends RecyclerView.Adapter<MaskedCardAdapter.ViewHolde
                     if (!maskedCardView.isSelected()) {
                         maskedCardView.toggleSelected();
                         setSelectedIndex(index);
+                        mIsSelectedByUser = true;
                         notifyDataSetChanged();
                     }
                 }
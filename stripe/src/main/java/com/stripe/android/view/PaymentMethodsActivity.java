@@ -43,6 +43,8 @@ public class PaymentMethodsActivity extends AppCompatActivity {
     public static final String TOKEN_PAYMENT_METHODS_ACTIVITY = "PaymentMethodsActivity";
 
     static final int REQUEST_CODE_ADD_CARD = 700;
+    static final int PAYMENT_METHODS_PAGE_SIZE = 20;
+
     private boolean mCommunicating;
     @Nullable private MaskedCardAdapter mMaskedCardAdapter;
     private ProgressBar mProgressBar;
@@ -50,6 +52,8 @@ public class PaymentMethodsActivity extends AppCompatActivity {
     private boolean mStartedFromPaymentSession;
 
     private CustomerSession mCustomerSession;
+    // the listener of the latest request, so that pages of an earlier one are ignored
+    @Nullable private GetPaymentMethodsPageListener mPaymentMethodsPageListener;
 
     /**
      * @deprecated use {@link PaymentMethodsActivityStarter#newIntent()}
@@ -164,8 +168,18 @@ public class PaymentMethodsActivity extends AppCompatActivity {
 
     private void getCustomerPaymentMethods(@Nullable String selectPaymentMethodId) {
         setCommunicatingProgress(true);
-        mCustomerSession.getPaymentMethods(PaymentMethod.Type.Card,
-                new GetPaymentMethodsRetrievalListener(this, selectPaymentMethodId));
+        cancelCustomerPaymentMethods();
+        mPaymentMethodsPageListener =
+                new GetPaymentMethodsPageListener(this, selectPaymentMethodId);
+        mCustomerSession.getPaymentMethods(PaymentMethod.Type.Card, PAYMENT_METHODS_PAGE_SIZE,
+                mPaymentMethodsPageListener);
+    }
+
+    private void cancelCustomerPaymentMethods() {
+        if (mPaymentMethodsPageListener != null) {
+            mCustomerSession.cancelPaymentMethodsPages(mPaymentMethodsPageListener);
+            mPaymentMethodsPageListener = null;
+        }
     }
 
     private void updatePaymentMethods(@NonNull List<PaymentMethod> paymentMethods,
@@ -184,6 +198,33 @@ public class PaymentMethodsActivity extends AppCompatActivity {
         }
     }
 
+    private void addPaymentMethods(@NonNull List<PaymentMethod> paymentMethods,
+                                   @Nullable String selectPaymentMethodId) {
+        if (mMaskedCardAdapter == null) {
+            updatePaymentMethods(paymentMethods, selectPaymentMethodId);
+            return;
+        }
+
+        mMaskedCardAdapter.addPaymentMethods(paymentMethods);
+        // the payment method to select may only turn up on a later page, but by then the user
+        // may already have picked another one
+        if (selectPaymentMethodId != null && !mMaskedCardAdapter.isSelectedByUser() &&
+                containsPaymentMethod(paymentMethods, selectPaymentMethodId)) {
+            mMaskedCardAdapter.setSelectedPaymentMethod(selectPaymentMethodId);
+            mMaskedCardAdapter.notifyDataSetChanged();
+        }
+    }
+
+    private static boolean containsPaymentMethod(@NonNull List<PaymentMethod> paymentMethods,
+                                                 @NonNull String paymentMethodId) {
+        for (PaymentMethod paymentMethod : paymentMethods) {
+            if (paymentMethodId.equals(paymentMethod.id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void initLoggingTokens() {
         if (mStartedFromPaymentSession) {
             mCustomerSession.addProductUsageTokenIfValid(TOKEN_PAYMENT_SESSION);
@@ -197,12 +238,16 @@ public class PaymentMethodsActivity extends AppCompatActivity {
     }
 
     private void setCommunicatingProgress(boolean communicating) {
-        mCommunicating = communicating;
         if (communicating) {
             mProgressBar.setVisibility(View.VISIBLE);
         } else {
             mProgressBar.setVisibility(View.GONE);
         }
+        setCommunicating(communicating);
+    }
+
+    private void setCommunicating(boolean communicating) {
+        mCommunicating = communicating;
         supportInvalidateOptionsMenu();
     }
 
@@ -237,33 +282,46 @@ public class PaymentMethodsActivity extends AppCompatActivity {
                 .show();
     }
 
-    private static final class GetPaymentMethodsRetrievalListener extends
-            CustomerSession.ActivityPaymentMethodsRetrievalListener<PaymentMethodsActivity> {
+    private static final class GetPaymentMethodsPageListener extends
+            CustomerSession.ActivityPaymentMethodsPageListener<PaymentMethodsActivity> {
 
         @Nullable final String mSelectPaymentMethodId;
+        private boolean mIsFirstPage = true;
 
-        GetPaymentMethodsRetrievalListener(@NonNull PaymentMethodsActivity activity,
-                                           @Nullable String selectPaymentMethodId) {
+        GetPaymentMethodsPageListener(@NonNull PaymentMethodsActivity activity,
+                                      @Nullable String selectPaymentMethodId) {
             super(activity);
             mSelectPaymentMethodId = selectPaymentMethodId;
         }
 
         @Override
-        public void onPaymentMethodsRetrieved(@NonNull List<PaymentMethod> paymentMethods) {
+        public void onPaymentMethodsPageRetrieved(@NonNull List<PaymentMethod> paymentMethods,
+                                                  boolean hasMore) {
             final PaymentMethodsActivity activity = getActivity();
-            if (activity == null) {
+            if (activity == null || activity.mPaymentMethodsPageListener != this) {
                 return;
             }
 
-            activity.updatePaymentMethods(paymentMethods, mSelectPaymentMethodId);
-            activity.setCommunicatingProgress(false);
+            // the first page replaces what was shown before, later pages are added to it
+            if (mIsFirstPage) {
+                mIsFirstPage = false;
+                activity.updatePaymentMethods(paymentMethods, mSelectPaymentMethodId);
+                // a payment method can be chosen while the later pages are still loading
+                activity.setCommunicating(false);
+            } else {
+                activity.addPaymentMethods(paymentMethods, mSelectPaymentMethodId);
+            }
+
+            if (!hasMore) {
+                activity.setCommunicatingProgress(false);
+            }
         }
 
         @Override
         public void onError(int errorCode, @NonNull String errorMessage,
                             @Nullable StripeError stripeError) {
             final PaymentMethodsActivity activity = getActivity();
-            if (activity == null) {
+            if (activity == null || activity.mPaymentMethodsPageListener != this) {
                 return;
             }
 
@@ -278,6 +336,12 @@ public class PaymentMethodsActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        cancelCustomerPaymentMethods();
+        super.onDestroy();
+    }
+
     @Override
     protected void onSaveInstanceState(Bundle outState) {
         super.onSaveInstanceState(outState);
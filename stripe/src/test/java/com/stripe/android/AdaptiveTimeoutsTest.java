@@ -0,0 +1,81 @@
+package com.stripe.android;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+public class AdaptiveTimeoutsTest {
+    private static final String ENDPOINT = "api.stripe.com";
+
+    private final AdaptiveTimeouts mTimeouts = new AdaptiveTimeouts();
+
+    @Test
+    public void getTimeoutMillis_withFewSamples_shouldReturnDefaults() {
+        for (int i = 0; i < 4; i++) {
+            mTimeouts.onRequestCompleted(ENDPOINT, 100, 200);
+        }
+
+        assertEquals(AdaptiveTimeouts.DEFAULT_CONNECT_TIMEOUT_MILLIS,
+                mTimeouts.getConnectTimeoutMillis(ENDPOINT));
+        assertEquals(AdaptiveTimeouts.DEFAULT_READ_TIMEOUT_MILLIS,
+                mTimeouts.getReadTimeoutMillis(ENDPOINT));
+    }
+
+    @Test
+    public void getTimeoutMillis_withFastEndpoint_shouldReturnFloors() {
+        for (int i = 0; i < 20; i++) {
+            mTimeouts.onRequestCompleted(ENDPOINT, 100, 200);
+        }
+
+        assertEquals(AdaptiveTimeouts.MIN_CONNECT_TIMEOUT_MILLIS,
+                mTimeouts.getConnectTimeoutMillis(ENDPOINT));
+        assertEquals(AdaptiveTimeouts.MIN_READ_TIMEOUT_MILLIS,
+                mTimeouts.getReadTimeoutMillis(ENDPOINT));
+        // other endpoints keep the defaults
+        assertEquals(AdaptiveTimeouts.DEFAULT_READ_TIMEOUT_MILLIS,
+                mTimeouts.getReadTimeoutMillis("q.stripe.com"));
+    }
+
+    @Test
+    public void getTimeoutMillis_shouldUse95thPercentileOfRecentLatencies() {
+        // 19 fast requests and one slow one: the 95th percentile is the fastest of the slow
+        // tail, which is the 19th latency in order
+        for (int i = 1; i <= 19; i++) {
+            mTimeouts.onRequestCompleted(ENDPOINT, 3000 + i, 6000 + i);
+        }
+        mTimeouts.onRequestCompleted(ENDPOINT, 60000, 60000);
+
+        assertEquals(4 * 3019, mTimeouts.getConnectTimeoutMillis(ENDPOINT));
+        assertEquals(4 * 6019, mTimeouts.getReadTimeoutMillis(ENDPOINT));
+    }
+
+    @Test
+    public void getTimeoutMillis_withSlowEndpoint_shouldBeCappedAtDefaults() {
+        for (int i = 0; i < 5; i++) {
+            mTimeouts.onRequestCompleted(ENDPOINT, 20000, 40000);
+        }
+
+        assertEquals(AdaptiveTimeouts.DEFAULT_CONNECT_TIMEOUT_MILLIS,
+                mTimeouts.getConnectTimeoutMillis(ENDPOINT));
+        assertEquals(AdaptiveTimeouts.DEFAULT_READ_TIMEOUT_MILLIS,
+                mTimeouts.getReadTimeoutMillis(ENDPOINT));
+    }
+
+    @Test
+    public void getTimeoutMillis_shouldOnlyUseLast20Latencies() {
+        for (int i = 0; i < 20; i++) {
+            mTimeouts.onRequestCompleted(ENDPOINT, 20000, 40000);
+        }
+        for (int i = 0; i < 20; i++) {
+            mTimeouts.onRequestCompleted(ENDPOINT, 100, 200);
+        }
+
+        assertEquals(AdaptiveTimeouts.MIN_CONNECT_TIMEOUT_MILLIS,
+                mTimeouts.getConnectTimeoutMillis(ENDPOINT));
+        assertEquals(AdaptiveTimeouts.MIN_READ_TIMEOUT_MILLIS,
+                mTimeouts.getReadTimeoutMillis(ENDPOINT));
+    }
+}
@@ -0,0 +1,190 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class AnalyticsJournalTest {
+    private static final long MAX_SIZE_BYTES = 64 * 1024;
+
+    @Rule public final TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+    private File mFile;
+    private AnalyticsJournal mJournal;
+
+    @Before
+    public void setup() throws IOException {
+        mFile = new File(mTemporaryFolder.getRoot(), "journal");
+        mJournal = new AnalyticsJournal(mFile, MAX_SIZE_BYTES);
+    }
+
+    @Test
+    public void drain_withNoJournal_shouldReturnEmptyList() {
+        assertTrue(mJournal.drain().isEmpty());
+    }
+
+    @Test
+    public void appendAndDrain_shouldReplayRequestsInOrder() throws Exception {
+        final ApiRequest first = createAnalyticsRequest(0);
+        final ApiRequest second = createAnalyticsRequest(1);
+        assertTrue(mJournal.append(first));
+        assertTrue(mJournal.append(second));
+
+        final List<StripeRequest> requests = mJournal.drain();
+        assertEquals(2, requests.size());
+        assertEquals(first.getUrl(), requests.get(0).getUrl());
+        assertEquals(second.getUrl(), requests.get(1).getUrl());
+        assertEquals(first.getHeaders(), requests.get(0).getHeaders());
+        assertEquals(first.getContentType(), requests.get(0).getContentType());
+        assertFalse(mFile.exists());
+        assertTrue(mJournal.drain().isEmpty());
+    }
+
+    @Test
+    public void append_withFingerprintRequest_shouldNotWriteIt() {
+        assertFalse(mJournal.append(new FingerprintRequest(
+                new HashMap<String, Object>(), "guid")));
+        assertFalse(mFile.exists());
+    }
+
+    @Test
+    public void append_withApiRequest_shouldNotWriteIt() {
+        assertFalse(mJournal.append(ApiRequest.createGet(StripeApiHandler.getPaymentMethodsUrl(),
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null)));
+        assertFalse(mFile.exists());
+    }
+
+    @Test
+    public void drain_withStaleRequest_shouldDropIt() throws Exception {
+        mJournal.append(createAnalyticsRequest(0), 1000L);
+        mJournal.append(createAnalyticsRequest(1), 2000L);
+
+        final List<StripeRequest> requests =
+                mJournal.drain(1001L + AnalyticsJournal.MAX_AGE_MILLIS);
+        assertEquals(1, requests.size());
+        assertTrue(requests.get(0).getUrl().contains("index=1"));
+    }
+
+    @Test
+    public void append_withReplayedRequest_shouldKeepItsCreationTime() {
+        mJournal.append(createAnalyticsRequest(0), 1000L);
+        final StripeRequest replayed = mJournal.drain(1000L).get(0);
+
+        mJournal.append(replayed, 2000L);
+        assertTrue(mJournal.drain(1001L + AnalyticsJournal.MAX_AGE_MILLIS).isEmpty());
+    }
+
+    @Test
+    public void drain_withRequestJournaledTwice_shouldReturnItOnce() {
+        mJournal.append(createAnalyticsRequest(0));
+        final StripeRequest replayed = mJournal.drain().get(0);
+
+        mJournal.append(replayed);
+        mJournal.append(replayed);
+        assertEquals(1, mJournal.drain().size());
+    }
+
+    @Test
+    public void append_whenFull_shouldDropRequest() {
+        final AnalyticsJournal journal = new AnalyticsJournal(mFile, 1024);
+        int appended = 0;
+        while (journal.append(createAnalyticsRequest(appended))) {
+            appended++;
+        }
+
+        assertTrue(mFile.length() <= 1024);
+        assertEquals(appended, journal.drain().size());
+    }
+
+    @Test
+    public void drain_withPartlyWrittenRecord_shouldSkipIt() throws IOException {
+        mJournal.append(createAnalyticsRequest(0));
+        mJournal.append(createAnalyticsRequest(1));
+        try (RandomAccessFile file = new RandomAccessFile(mFile, "rw")) {
+            file.setLength(file.length() - 10);
+        }
+
+        assertEquals(1, mJournal.drain().size());
+    }
+
+    @Test
+    public void drain_withCorruptJournal_shouldReturnEmptyList() throws IOException {
+        try (FileOutputStream output = new FileOutputStream(mFile)) {
+            output.write(new byte[] { 0x7F, 0x00, 0x00, 0x01, 0x02 });
+        }
+
+        assertTrue(mJournal.drain().isEmpty());
+        assertFalse(mFile.exists());
+    }
+
+    @Test
+    public void append_shouldNotWriteAuthorizationHeader() throws IOException {
+        mJournal.append(createAnalyticsRequest(0));
+
+        final byte[] bytes;
+        try (RandomAccessFile file = new RandomAccessFile(mFile, "r")) {
+            bytes = new byte[(int) file.length()];
+            file.readFully(bytes);
+        }
+        final String journal = new String(bytes, StandardCharsets.ISO_8859_1);
+        assertFalse(journal.contains(ApiRequest.HEADER_AUTHORIZATION));
+        assertFalse(journal.contains("Bearer"));
+    }
+
+    @Test
+    public void drain_shouldRebuildAuthorizationFromPublishableKey() {
+        mJournal.append(createAnalyticsRequest(0));
+
+        assertEquals("Bearer " + ApiKeyFixtures.FAKE_PUBLISHABLE_KEY,
+                mJournal.drain().get(0).getHeaders().get(ApiRequest.HEADER_AUTHORIZATION));
+    }
+
+    @Test
+    public void drain_withAuthorizedRequestWithoutPublishableKey_shouldDropIt() {
+        mJournal.append(ApiRequest.createAnalyticsRequest(new HashMap<String, Object>(),
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null));
+
+        assertTrue(mJournal.drain().isEmpty());
+    }
+
+    @Test
+    public void getPublishableKey_shouldReadItFromQuery() {
+        assertEquals("pk_test_123",
+                AnalyticsJournal.getPublishableKey(
+                        "https://q.stripe.com?event=a&publishable_key=pk_test_123&index=1"));
+        assertNull(AnalyticsJournal.getPublishableKey("https://q.stripe.com?event=a"));
+        assertNull(AnalyticsJournal.getPublishableKey("https://q.stripe.com"));
+        assertNull(AnalyticsJournal.getPublishableKey(
+                "https://q.stripe.com?publishable_key=sk_test_123"));
+    }
+
+    @NonNull
+    private static ApiRequest createAnalyticsRequest(int index) {
+        final Map<String, Object> params = new HashMap<>();
+        params.put("event", "stripe_android.payment_method_creation");
+        params.put(LoggingUtils.FIELD_PUBLISHABLE_KEY, ApiKeyFixtures.FAKE_PUBLISHABLE_KEY);
+        params.put("index", index);
+        return ApiRequest.createAnalyticsRequest(params,
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null);
+    }
+}
@@ -0,0 +1,128 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+
+import com.stripe.android.exception.APIConnectionException;
+import com.stripe.android.exception.StripeException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+public class AnalyticsRequestQueueTest {
+    private static final int CAPACITY = 5;
+    private static final int BATCH_SIZE = 3;
+    private static final long FLUSH_DELAY_MILLIS = 500L;
+
+    @Mock private RequestExecutor mRequestExecutor;
+    @Mock private AnalyticsJournal mJournal;
+    @Mock private ScheduledExecutorService mScheduler;
+
+    private AnalyticsRequestQueue mAnalyticsRequestQueue;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        mAnalyticsRequestQueue = new AnalyticsRequestQueue(mRequestExecutor, mJournal, mScheduler,
+                CAPACITY, BATCH_SIZE, FLUSH_DELAY_MILLIS);
+    }
+
+    @Test
+    public void enqueue_withFirstRequest_shouldScheduleDelayedFlush() {
+        assertTrue(mAnalyticsRequestQueue.enqueue(createAnalyticsRequest(0)));
+        assertTrue(mAnalyticsRequestQueue.enqueue(createAnalyticsRequest(1)));
+
+        verify(mScheduler).schedule(any(Runnable.class), eq(FLUSH_DELAY_MILLIS),
+                eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void enqueue_withFullBatch_shouldScheduleImmediateFlush() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            mAnalyticsRequestQueue.enqueue(createAnalyticsRequest(i));
+        }
+
+        verify(mScheduler).schedule(any(Runnable.class), eq(0L), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void enqueue_whenFull_shouldDropRequests() {
+        for (int i = 0; i < CAPACITY; i++) {
+            assertTrue(mAnalyticsRequestQueue.enqueue(createAnalyticsRequest(i)));
+        }
+
+        assertFalse(mAnalyticsRequestQueue.enqueue(createAnalyticsRequest(CAPACITY)));
+        assertEquals(CAPACITY, mAnalyticsRequestQueue.size());
+    }
+
+    @Test
+    public void flush_shouldSendOneBatchAndIgnoreErrors() throws StripeException {
+        when(mRequestExecutor.executeAndForget(any(StripeRequest.class)))
+                .thenThrow(new APIConnectionException("offline", null));
+        for (int i = 0; i < CAPACITY; i++) {
+            mAnalyticsRequestQueue.enqueue(createAnalyticsRequest(i));
+        }
+
+        mAnalyticsRequestQueue.flush();
+        verify(mRequestExecutor, times(BATCH_SIZE)).executeAndForget(any(StripeRequest.class));
+        assertEquals(CAPACITY - BATCH_SIZE, mAnalyticsRequestQueue.size());
+
+        mAnalyticsRequestQueue.flush();
+        verify(mRequestExecutor, times(CAPACITY)).executeAndForget(any(StripeRequest.class));
+        assertEquals(0, mAnalyticsRequestQueue.size());
+    }
+
+    @Test
+    public void flush_whenOffline_shouldJournalRequests() throws StripeException {
+        when(mRequestExecutor.executeAndForget(any(StripeRequest.class)))
+                .thenThrow(new APIConnectionException("offline", null));
+        final ApiRequest request = createAnalyticsRequest(0);
+        mAnalyticsRequestQueue.enqueue(request);
+
+        mAnalyticsRequestQueue.flush();
+        verify(mJournal).append(request);
+        verify(mJournal, never()).drain();
+    }
+
+    @Test
+    public void flush_whenBackOnline_shouldReplayJournaledRequests() {
+        final ApiRequest journaledRequest = createAnalyticsRequest(1);
+        when(mJournal.drain())
+                .thenReturn(Collections.<StripeRequest>singletonList(journaledRequest));
+        mAnalyticsRequestQueue.enqueue(createAnalyticsRequest(0));
+
+        mAnalyticsRequestQueue.flush();
+        verify(mJournal).drain();
+        assertEquals(1, mAnalyticsRequestQueue.size());
+        verify(mJournal, never()).append(any(StripeRequest.class));
+    }
+
+    @NonNull
+    private static ApiRequest createAnalyticsRequest(int index) {
+        final Map<String, Object> params = new HashMap<>();
+        params.put("event", "stripe_android.payment_method_creation");
+        params.put("index", index);
+        return ApiRequest.createAnalyticsRequest(params,
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null);
+    }
+}
@@ -0,0 +1,136 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+@RunWith(RobolectricTestRunner.class)
+public class ApiOperationExecutorTest {
+
+    @NonNull private final ThreadPoolExecutor mExecutor =
+            ApiOperationExecutor.createThreadPoolExecutor(1);
+    @NonNull private final List<String> mCompleted =
+            Collections.synchronizedList(new ArrayList<String>());
+
+    @After
+    public void tearDown() {
+        mExecutor.shutdownNow();
+    }
+
+    @Test
+    public void execute_withQueuedWork_shouldRunByPriorityThenInOrder()
+            throws InterruptedException {
+        final CountDownLatch blockingLatch = blockWorker();
+        mExecutor.execute(createBackgroundWork("background 1"));
+        new FakeApiOperation("interactive", RequestScheduler.Priority.Interactive)
+                .executeOnExecutor(mExecutor);
+        mExecutor.execute(createBackgroundWork("background 2"));
+        new FakeApiOperation("critical", RequestScheduler.Priority.PaymentCritical)
+                .executeOnExecutor(mExecutor);
+
+        blockingLatch.countDown();
+        awaitCompletion(5);
+
+        assertEquals(Arrays.asList("blocking", "critical", "interactive", "background 1",
+                "background 2"), new ArrayList<>(mCompleted));
+    }
+
+    @Test
+    public void execute_withBackgroundFlood_shouldNotDelayCriticalOperation()
+            throws InterruptedException {
+        // however much background work is queued, the confirmation is the next to run
+        for (int floodSize : new int[] { 10, 100, 1000 }) {
+            mCompleted.clear();
+            final CountDownLatch blockingLatch = blockWorker();
+            for (int i = 0; i < floodSize; i++) {
+                mExecutor.execute(createBackgroundWork("background " + i));
+            }
+            new FakeApiOperation("critical", RequestScheduler.Priority.PaymentCritical)
+                    .executeOnExecutor(mExecutor);
+
+            blockingLatch.countDown();
+            awaitCompletion(floodSize + 2);
+            assertEquals("critical", mCompleted.get(1));
+        }
+    }
+
+    @NonNull
+    private CountDownLatch blockWorker() throws InterruptedException {
+        final CountDownLatch startedLatch = new CountDownLatch(1);
+        final CountDownLatch blockingLatch = new CountDownLatch(1);
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                startedLatch.countDown();
+                try {
+                    blockingLatch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                mCompleted.add("blocking");
+            }
+        });
+        assertTrue(startedLatch.await(5, TimeUnit.SECONDS));
+        return blockingLatch;
+    }
+
+    @NonNull
+    private Runnable createBackgroundWork(@NonNull final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                mCompleted.add(name);
+            }
+        };
+    }
+
+    private void awaitCompletion(int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (mCompleted.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, mCompleted.size());
+    }
+
+    private final class FakeApiOperation extends ApiOperation<String> {
+        @NonNull private final String mName;
+        @NonNull private final RequestScheduler.Priority mPriority;
+
+        @SuppressWarnings("unchecked")
+        private FakeApiOperation(@NonNull String name,
+                                 @NonNull RequestScheduler.Priority priority) {
+            super(mock(ApiResultCallback.class));
+            mName = name;
+            mPriority = priority;
+        }
+
+        @NonNull
+        @Override
+        RequestScheduler.Priority getPriority() {
+            return mPriority;
+        }
+
+        @Nullable
+        @Override
+        String getResult() {
+            mCompleted.add(mName);
+            return mName;
+        }
+    }
+}
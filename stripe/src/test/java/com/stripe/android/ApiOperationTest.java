@@ -0,0 +1,132 @@
+package com.stripe.android;
+
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.stripe.android.exception.APIConnectionException;
+import com.stripe.android.exception.StripeException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+public class ApiOperationTest {
+
+    @Mock private ApiResultCallback<String> mCallback;
+
+    private final QueuedExecutor mExecutor = new QueuedExecutor();
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void executeOnExecutor_withResult_shouldDeliverResultOnMainThread() {
+        new FakeApiOperation("pm_123", null, mCallback).executeOnExecutor(mExecutor);
+        mExecutor.runAll();
+        shadowOf(Looper.getMainLooper()).idle();
+
+        verify(mCallback).onSuccess("pm_123");
+        verify(mCallback, never()).onError(any(Exception.class));
+    }
+
+    @Test
+    public void executeOnExecutor_withException_shouldDeliverError() {
+        final APIConnectionException exception = new APIConnectionException("timeout", null);
+        new FakeApiOperation(null, exception, mCallback).executeOnExecutor(mExecutor);
+        mExecutor.runAll();
+        shadowOf(Looper.getMainLooper()).idle();
+
+        final ArgumentCaptor<Exception> exceptionArgumentCaptor =
+                ArgumentCaptor.forClass(Exception.class);
+        verify(mCallback).onError(exceptionArgumentCaptor.capture());
+        assertEquals(exception, exceptionArgumentCaptor.getValue());
+        verify(mCallback, never()).onSuccess(anyString());
+    }
+
+    @Test
+    public void cancel_beforeRunning_shouldNotRunOrDeliverResult() {
+        final FakeApiOperation operation = new FakeApiOperation("pm_123", null, mCallback);
+        operation.executeOnExecutor(mExecutor);
+        operation.cancel();
+        mExecutor.runAll();
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertTrue(operation.isCancelled());
+        assertEquals(0, operation.mResultCount);
+        verify(mCallback, never()).onSuccess(anyString());
+        verify(mCallback, never()).onError(any(Exception.class));
+    }
+
+    @Test
+    public void cancel_beforeDelivery_shouldNotDeliverResult() {
+        shadowOf(Looper.getMainLooper()).pause();
+        final FakeApiOperation operation = new FakeApiOperation("pm_123", null, mCallback);
+        operation.executeOnExecutor(mExecutor);
+        mExecutor.runAll();
+        operation.cancel();
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertEquals(1, operation.mResultCount);
+        verify(mCallback, never()).onSuccess(anyString());
+    }
+
+    private static final class FakeApiOperation extends ApiOperation<String> {
+        @Nullable private final String mResult;
+        @Nullable private final StripeException mException;
+        private int mResultCount;
+
+        private FakeApiOperation(@Nullable String result,
+                                 @Nullable StripeException exception,
+                                 @NonNull ApiResultCallback<String> callback) {
+            super(callback);
+            mResult = result;
+            mException = exception;
+        }
+
+        @Nullable
+        @Override
+        String getResult() throws StripeException {
+            mResultCount++;
+            if (mException != null) {
+                throw mException;
+            }
+            return mResult;
+        }
+    }
+
+    private static final class QueuedExecutor implements Executor {
+        @NonNull private final List<Runnable> mRunnables = new ArrayList<>();
+
+        @Override
+        public void execute(@NonNull Runnable runnable) {
+            mRunnables.add(runnable);
+        }
+
+        private void runAll() {
+            for (Runnable runnable : mRunnables) {
+                runnable.run();
+            }
+            mRunnables.clear();
+        }
+    }
+}
@@ -67,6 +67,27 @@ public class ApiRequestTest {
         assertTrue(headerMap.containsKey("Authorization"));
     }
 
+    @Test
+    public void getHeaders_withPost_hasStableIdempotencyKey() {
+        final ApiRequest request = ApiRequest.createPost(StripeApiHandler.getSourcesUrl(),
+                ApiRequest.Options.create(ApiKeyFixtures.DEFAULT_PUBLISHABLE_KEY), null);
+        final String idempotencyKey = request.getHeaders().get("Idempotency-Key");
+
+        assertNotNull(idempotencyKey);
+        assertEquals(idempotencyKey, request.getHeaders().get("Idempotency-Key"));
+        assertNotEquals(idempotencyKey,
+                ApiRequest.createPost(StripeApiHandler.getSourcesUrl(),
+                        ApiRequest.Options.create(ApiKeyFixtures.DEFAULT_PUBLISHABLE_KEY), null)
+                        .getHeaders().get("Idempotency-Key"));
+    }
+
+    @Test
+    public void getHeaders_withGet_hasNoIdempotencyKey() {
+        assertFalse(ApiRequest.createGet(StripeApiHandler.getSourcesUrl(),
+                ApiRequest.Options.create(ApiKeyFixtures.DEFAULT_PUBLISHABLE_KEY), null)
+                .getHeaders().containsKey("Idempotency-Key"));
+    }
+
     @Test
     public void getHeaders_containsPropertyMapValues() throws JSONException {
         final Map<String, String> headers =
@@ -0,0 +1,150 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.stripe.android.model.Card;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link CardBrandTrie}.
+ */
+public class CardBrandTrieTest {
+
+    // longer than the longest prefix in Card
+    private static final int MAX_DIGITS = 5;
+
+    @Test
+    public void lookup_withEveryDigitString_matchesPrefixes() {
+        final StringBuilder builder = new StringBuilder();
+        for (int length = 0; length <= MAX_DIGITS; length++) {
+            assertLookupMatchesPrefixes(builder, length);
+        }
+    }
+
+    @Test
+    public void lookup_withSpacesAndHyphens_matchesPrefixes() {
+        final String[] numbers = {
+                "3 4", "3-7", "2-2-2-1", "2 7-2 0", "\t4", "30\n5", "6\r2", "  ", "-", "3 0 9 9"
+        };
+        for (String number : numbers) {
+            assertEquals(number, getPossibleCardTypeWithPrefixes(number, true),
+                    CardBrandTrie.lookup(number).getBrand());
+        }
+    }
+
+    @Test
+    public void lookup_withOtherCharacters_matchesPrefixes() {
+        final String[] numbers = {"3a4", "a34", "4a", "2221x", "3.4", "٤", "+4", "62_"};
+        for (String number : numbers) {
+            assertEquals(number, getPossibleCardTypeWithPrefixes(number, true),
+                    CardBrandTrie.lookup(number).getBrand());
+            assertEquals(number, getPossibleCardTypeWithPrefixes(number, false),
+                    CardBrandTrie.lookup(number, false).getBrand());
+        }
+    }
+
+    @Test
+    public void lookup_withoutSkipping_doesNotSkipSpacesOrHyphens() {
+        assertEquals(Card.UNKNOWN, CardBrandTrie.lookup("3 4", false).getBrand());
+        assertEquals(Card.DINERS_CLUB, CardBrandTrie.lookup("36-4", false).getBrand());
+        assertEquals(Card.AMERICAN_EXPRESS, CardBrandTrie.lookup("3-4", true).getBrand());
+    }
+
+    @Test
+    public void lookup_withNull_returnsUnknown() {
+        assertSame(CardBrandTrie.UNKNOWN, CardBrandTrie.lookup(null));
+    }
+
+    @Test
+    public void lookup_withStringBuilder_doesNotNeedString() {
+        assertEquals(Card.MASTERCARD,
+                CardBrandTrie.lookup(new StringBuilder("2720 99")).getBrand());
+    }
+
+    @Test
+    public void entries_haveValidLengths() {
+        final CardBrandTrie.Entry amex = CardBrandTrie.forBrand(Card.AMERICAN_EXPRESS);
+        assertTrue(amex.isValidLength(15));
+        assertFalse(amex.isValidLength(16));
+
+        final CardBrandTrie.Entry diners = CardBrandTrie.forBrand(Card.DINERS_CLUB);
+        assertTrue(diners.isValidLength(14));
+        assertFalse(diners.isValidLength(16));
+
+        final CardBrandTrie.Entry visa = CardBrandTrie.forBrand(Card.VISA);
+        assertTrue(visa.isValidLength(16));
+        assertFalse(visa.isValidLength(15));
+    }
+
+    @Test
+    public void forBrand_withEveryBrand_returnsItsEntry() {
+        final String[] brands = {
+                Card.AMERICAN_EXPRESS, Card.DISCOVER, Card.JCB, Card.DINERS_CLUB, Card.VISA,
+                Card.MASTERCARD, Card.UNIONPAY
+        };
+        for (String brand : brands) {
+            assertEquals(brand, CardBrandTrie.forBrand(brand).getBrand());
+        }
+        assertSame(CardBrandTrie.UNKNOWN, CardBrandTrie.forBrand(Card.UNKNOWN));
+        assertSame(CardBrandTrie.UNKNOWN, CardBrandTrie.forBrand(null));
+        assertFalse(CardBrandTrie.UNKNOWN.isValidLength(16));
+    }
+
+    private static void assertLookupMatchesPrefixes(@NonNull StringBuilder builder,
+                                                    int remaining) {
+        if (remaining == 0) {
+            final String number = builder.toString();
+            assertEquals(number, getPossibleCardTypeWithPrefixes(number, true),
+                    CardBrandTrie.lookup(number).getBrand());
+            assertEquals(number, getPossibleCardTypeWithPrefixes(number, false),
+                    CardBrandTrie.lookup(number, false).getBrand());
+            return;
+        }
+
+        for (char digit = '0'; digit <= '9'; digit++) {
+            builder.append(digit);
+            assertLookupMatchesPrefixes(builder, remaining - 1);
+            builder.setLength(builder.length() - 1);
+        }
+    }
+
+    /**
+     * The brand that the prefixes in {@link Card} give, checked one brand at a time.
+     */
+    @NonNull
+    @Card.CardBrand
+    private static String getPossibleCardTypeWithPrefixes(@Nullable String cardNumber,
+                                                          boolean shouldNormalize) {
+        if (StripeTextUtils.isBlank(cardNumber)) {
+            return Card.UNKNOWN;
+        }
+
+        final String number = shouldNormalize
+                ? cardNumber.replaceAll("\\s|-", "")
+                : cardNumber;
+        if (StripeTextUtils.hasAnyPrefix(number, Card.PREFIXES_AMERICAN_EXPRESS)) {
+            return Card.AMERICAN_EXPRESS;
+        } else if (StripeTextUtils.hasAnyPrefix(number, Card.PREFIXES_DISCOVER)) {
+            return Card.DISCOVER;
+        } else if (StripeTextUtils.hasAnyPrefix(number, Card.PREFIXES_JCB)) {
+            return Card.JCB;
+        } else if (StripeTextUtils.hasAnyPrefix(number, Card.PREFIXES_DINERS_CLUB)) {
+            return Card.DINERS_CLUB;
+        } else if (StripeTextUtils.hasAnyPrefix(number, Card.PREFIXES_VISA)) {
+            return Card.VISA;
+        } else if (StripeTextUtils.hasAnyPrefix(number, Card.PREFIXES_MASTERCARD)) {
+            return Card.MASTERCARD;
+        } else if (StripeTextUtils.hasAnyPrefix(number, Card.PREFIXES_UNIONPAY)) {
+            return Card.UNIONPAY;
+        } else {
+            return Card.UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.stripe.android;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class CircuitBreakerTest {
+    private static final String API_ENDPOINT = "api.stripe.com";
+    private static final String ANALYTICS_ENDPOINT = "q.stripe.com";
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final int SHEDDING_THRESHOLD = 2;
+    private static final long OPEN_MILLIS = 10000L;
+
+    private final FakeClock mClock = new FakeClock();
+    private final CircuitBreaker mCircuitBreaker =
+            new CircuitBreaker(FAILURE_THRESHOLD, SHEDDING_THRESHOLD, OPEN_MILLIS, mClock);
+
+    @Test
+    public void allowRequest_withConsecutiveFailures_shouldOpenCircuit() {
+        for (int i = 0; i < FAILURE_THRESHOLD - 1; i++) {
+            assertTrue(mCircuitBreaker.allowRequest(API_ENDPOINT, false));
+            mCircuitBreaker.onFailure(API_ENDPOINT);
+        }
+        assertEquals(CircuitBreaker.State.Closed, mCircuitBreaker.getState(API_ENDPOINT));
+
+        mCircuitBreaker.onFailure(API_ENDPOINT);
+        assertEquals(CircuitBreaker.State.Open, mCircuitBreaker.getState(API_ENDPOINT));
+        assertFalse(mCircuitBreaker.allowRequest(API_ENDPOINT, false));
+        // other endpoints are not affected
+        assertTrue(mCircuitBreaker.allowRequest("m.stripe.com", false));
+    }
+
+    @Test
+    public void allowRequest_withSuccessBetweenFailures_shouldKeepCircuitClosed() {
+        mCircuitBreaker.onFailure(API_ENDPOINT);
+        mCircuitBreaker.onFailure(API_ENDPOINT);
+        mCircuitBreaker.onSuccess(API_ENDPOINT);
+        mCircuitBreaker.onFailure(API_ENDPOINT);
+        mCircuitBreaker.onFailure(API_ENDPOINT);
+
+        assertEquals(CircuitBreaker.State.Closed, mCircuitBreaker.getState(API_ENDPOINT));
+        assertTrue(mCircuitBreaker.allowRequest(API_ENDPOINT, false));
+    }
+
+    @Test
+    public void allowRequest_afterOpenDuration_shouldLetOneProbeThrough() {
+        openCircuit();
+
+        mClock.mTimeMillis += OPEN_MILLIS - 1;
+        assertFalse(mCircuitBreaker.allowRequest(API_ENDPOINT, false));
+
+        mClock.mTimeMillis += 1;
+        assertTrue(mCircuitBreaker.allowRequest(API_ENDPOINT, false));
+        assertEquals(CircuitBreaker.State.HalfOpen, mCircuitBreaker.getState(API_ENDPOINT));
+        assertFalse(mCircuitBreaker.allowRequest(API_ENDPOINT, false));
+    }
+
+    @Test
+    public void onSuccess_withProbe_shouldCloseCircuit() {
+        openCircuit();
+        mClock.mTimeMillis += OPEN_MILLIS;
+        assertTrue(mCircuitBreaker.allowRequest(API_ENDPOINT, false));
+
+        mCircuitBreaker.onSuccess(API_ENDPOINT);
+        assertEquals(CircuitBreaker.State.Closed, mCircuitBreaker.getState(API_ENDPOINT));
+        assertTrue(mCircuitBreaker.allowRequest(API_ENDPOINT, false));
+        assertTrue(mCircuitBreaker.allowRequest(API_ENDPOINT, true));
+    }
+
+    @Test
+    public void onFailure_withProbe_shouldReopenCircuit() {
+        openCircuit();
+        mClock.mTimeMillis += OPEN_MILLIS;
+        assertTrue(mCircuitBreaker.allowRequest(API_ENDPOINT, false));
+
+        mCircuitBreaker.onFailure(API_ENDPOINT);
+        assertEquals(CircuitBreaker.State.Open, mCircuitBreaker.getState(API_ENDPOINT));
+        assertFalse(mCircuitBreaker.allowRequest(API_ENDPOINT, false));
+
+        mClock.mTimeMillis += OPEN_MILLIS;
+        assertTrue(mCircuitBreaker.allowRequest(API_ENDPOINT, false));
+    }
+
+    @Test
+    public void allowRequest_withSheddableRequest_shouldBeShedBeforeCircuitOpens() {
+        for (int i = 0; i < SHEDDING_THRESHOLD; i++) {
+            mCircuitBreaker.onFailure(API_ENDPOINT);
+        }
+
+        // API requests still go through, but analytics to any endpoint are dropped
+        assertTrue(mCircuitBreaker.allowRequest(API_ENDPOINT, false));
+        assertFalse(mCircuitBreaker.allowRequest(API_ENDPOINT, true));
+        assertFalse(mCircuitBreaker.allowRequest(ANALYTICS_ENDPOINT, true));
+
+        mClock.mTimeMillis += OPEN_MILLIS;
+        assertTrue(mCircuitBreaker.allowRequest(ANALYTICS_ENDPOINT, true));
+    }
+
+    @Test
+    public void allowRequest_withSheddableRequestAfterRecovery_shouldBeAllowed() {
+        for (int i = 0; i < SHEDDING_THRESHOLD; i++) {
+            mCircuitBreaker.onFailure(API_ENDPOINT);
+        }
+        mCircuitBreaker.onSuccess(API_ENDPOINT);
+
+        assertTrue(mCircuitBreaker.allowRequest(ANALYTICS_ENDPOINT, true));
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            mCircuitBreaker.onFailure(API_ENDPOINT);
+        }
+        assertEquals(CircuitBreaker.State.Open, mCircuitBreaker.getState(API_ENDPOINT));
+    }
+
+    private static final class FakeClock implements Clock {
+        private long mTimeMillis;
+
+        @Override
+        public long currentTimeMillis() {
+            return mTimeMillis;
+        }
+
+        @Override
+        public void sleep(long millis) {
+            mTimeMillis += millis;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+
+import com.stripe.android.exception.APIConnectionException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+public class ConnectionWarmerTest {
+
+    @Mock private RequestExecutor mRequestExecutor;
+
+    private final QueuedExecutor mExecutor = new QueuedExecutor();
+    private ConnectionWarmer mConnectionWarmer;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        mConnectionWarmer = new ConnectionWarmer(mRequestExecutor, mExecutor);
+    }
+
+    @Test
+    public void warmUp_shouldConnectToApiHostInBackground() throws APIConnectionException {
+        assertTrue(mConnectionWarmer.warmUp());
+        verify(mRequestExecutor, never()).warmUp(anyString());
+
+        mExecutor.runAll();
+        verify(mRequestExecutor).warmUp(ApiRequest.API_HOST);
+    }
+
+    @Test
+    public void warmUp_whenAlreadyWarmingUp_shouldNotConnectAgain()
+            throws APIConnectionException {
+        assertTrue(mConnectionWarmer.warmUp());
+        assertFalse(mConnectionWarmer.warmUp());
+        mExecutor.runAll();
+        verify(mRequestExecutor).warmUp(ApiRequest.API_HOST);
+
+        assertTrue(mConnectionWarmer.warmUp());
+        mExecutor.runAll();
+        verify(mRequestExecutor, times(2)).warmUp(ApiRequest.API_HOST);
+    }
+
+    @Test
+    public void warmUp_withConnectionError_shouldAllowAnotherWarmUp()
+            throws APIConnectionException {
+        when(mRequestExecutor.warmUp(anyString()))
+                .thenThrow(new APIConnectionException("offline", null));
+
+        assertTrue(mConnectionWarmer.warmUp());
+        mExecutor.runAll();
+        assertTrue(mConnectionWarmer.warmUp());
+    }
+
+    @Test
+    public void getDefault_shouldReuseDefaultRequestExecutor() {
+        assertSame(ConnectionWarmer.getDefault(), ConnectionWarmer.getDefault());
+        assertSame(RequestExecutor.getDefault(), RequestExecutor.getDefault());
+    }
+
+    private static final class QueuedExecutor implements Executor {
+        @NonNull private final List<Runnable> mRunnables = new ArrayList<>();
+
+        @Override
+        public void execute(@NonNull Runnable runnable) {
+            mRunnables.add(runnable);
+        }
+
+        private void runAll() {
+            for (Runnable runnable : mRunnables) {
+                runnable.run();
+            }
+            mRunnables.clear();
+        }
+    }
+}
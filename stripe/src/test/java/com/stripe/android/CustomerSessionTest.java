@@ -17,7 +17,10 @@ import com.stripe.android.exception.CardException;
 import com.stripe.android.exception.InvalidRequestException;
 import com.stripe.android.exception.StripeException;
 import com.stripe.android.model.Customer;
+import com.stripe.android.model.CustomerSourcesPage;
 import com.stripe.android.model.PaymentMethod;
+import com.stripe.android.model.PaymentMethodsPage;
+import com.stripe.android.model.PaymentMethodsPageTest;
 import com.stripe.android.model.ShippingInformation;
 import com.stripe.android.model.Source;
 import com.stripe.android.testharness.JsonTestUtils;
@@ -37,6 +40,7 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.invocation.InvocationOnMock;
@@ -44,6 +48,7 @@ import org.mockito.stubbing.Answer;
 import org.robolectric.RobolectricTestRunner;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.List;
@@ -62,7 +67,9 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -1053,6 +1060,172 @@ public class CustomerSessionTest extends BaseViewTest<PaymentFlowActivity> {
         assertNotNull(paymentMethods);
     }
 
+    @Test
+    public void getPaymentMethods_withPageSize_deliversEachPageInOrder()
+            throws StripeException {
+        final PaymentMethodsPage firstPage = PaymentMethodsPage.fromString(
+                PaymentMethodsPageTest.createPageJson(Arrays.asList("pm_1", "pm_2"), true));
+        final PaymentMethodsPage lastPage = PaymentMethodsPage.fromString(
+                PaymentMethodsPageTest.createPageJson(Collections.singletonList("pm_3"), false));
+        when(mApiHandler.getPaymentMethodsPage(anyString(), anyString(), eq(2),
+                ArgumentMatchers.<String>isNull(), anyString(),
+                ArgumentMatchers.<String>anyList(), anyString()))
+                .thenReturn(firstPage);
+        when(mApiHandler.getPaymentMethodsPage(anyString(), anyString(), eq(2), eq("pm_2"),
+                anyString(), ArgumentMatchers.<String>anyList(), anyString()))
+                .thenReturn(lastPage);
+        assertNotNull(firstPage);
+        assertNotNull(lastPage);
+
+        mEphemeralKeyProvider.setNextRawEphemeralKey(FIRST_SAMPLE_KEY_RAW);
+        final CustomerSession customerSession = createCustomerSession(null);
+        final CustomerSession.PaymentMethodsPageListener mockListener =
+                mock(CustomerSession.PaymentMethodsPageListener.class);
+        customerSession.getPaymentMethods(PaymentMethod.Type.Card, 2, mockListener);
+
+        final InOrder inOrder = inOrder(mockListener);
+        inOrder.verify(mockListener)
+                .onPaymentMethodsPageRetrieved(firstPage.paymentMethods, true);
+        inOrder.verify(mockListener)
+                .onPaymentMethodsPageRetrieved(lastPage.paymentMethods, false);
+        verifyNoMoreInteractions(mockListener);
+    }
+
+    @Test
+    public void getPaymentMethods_whenLaterPageFails_callsOnError()
+            throws StripeException {
+        final PaymentMethodsPage firstPage = PaymentMethodsPage.fromString(
+                PaymentMethodsPageTest.createPageJson(Arrays.asList("pm_1", "pm_2"), true));
+        when(mApiHandler.getPaymentMethodsPage(anyString(), anyString(), eq(2),
+                ArgumentMatchers.<String>isNull(), anyString(),
+                ArgumentMatchers.<String>anyList(), anyString()))
+                .thenReturn(firstPage);
+        when(mApiHandler.getPaymentMethodsPage(anyString(), anyString(), eq(2), eq("pm_2"),
+                anyString(), ArgumentMatchers.<String>anyList(), anyString()))
+                .thenThrow(new APIException("The request failed", "request_123", 500, null,
+                        null));
+        assertNotNull(firstPage);
+
+        mEphemeralKeyProvider.setNextRawEphemeralKey(FIRST_SAMPLE_KEY_RAW);
+        final CustomerSession customerSession = createCustomerSession(null);
+        final CustomerSession.PaymentMethodsPageListener mockListener =
+                mock(CustomerSession.PaymentMethodsPageListener.class);
+        customerSession.getPaymentMethods(PaymentMethod.Type.Card, 2, mockListener);
+
+        final InOrder inOrder = inOrder(mockListener);
+        inOrder.verify(mockListener)
+                .onPaymentMethodsPageRetrieved(firstPage.paymentMethods, true);
+        inOrder.verify(mockListener).onError(500, "The request failed", null);
+        verifyNoMoreInteractions(mockListener);
+    }
+
+    @Test
+    public void getPaymentMethods_whenCancelled_stopsFetchingPages()
+            throws StripeException {
+        final PaymentMethodsPage firstPage = PaymentMethodsPage.fromString(
+                PaymentMethodsPageTest.createPageJson(Arrays.asList("pm_1", "pm_2"), true));
+        when(mApiHandler.getPaymentMethodsPage(anyString(), anyString(), eq(2),
+                ArgumentMatchers.<String>isNull(), anyString(),
+                ArgumentMatchers.<String>anyList(), anyString()))
+                .thenReturn(firstPage);
+        assertNotNull(firstPage);
+
+        mEphemeralKeyProvider.setNextRawEphemeralKey(FIRST_SAMPLE_KEY_RAW);
+        final CustomerSession customerSession = createCustomerSession(null);
+        final CustomerSession.PaymentMethodsPageListener mockListener =
+                mock(CustomerSession.PaymentMethodsPageListener.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                customerSession.cancelPaymentMethodsPages(mockListener);
+                return null;
+            }
+        }).when(mockListener).onPaymentMethodsPageRetrieved(firstPage.paymentMethods, true);
+        customerSession.getPaymentMethods(PaymentMethod.Type.Card, 2, mockListener);
+
+        verify(mApiHandler, never()).getPaymentMethodsPage(anyString(), anyString(), eq(2),
+                eq("pm_2"), anyString(), ArgumentMatchers.<String>anyList(), anyString());
+        verify(mockListener).onPaymentMethodsPageRetrieved(firstPage.paymentMethods, true);
+        verifyNoMoreInteractions(mockListener);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getPaymentMethods_withInvalidPageSize_throwsException() {
+        mEphemeralKeyProvider.setNextRawEphemeralKey(FIRST_SAMPLE_KEY_RAW);
+        createCustomerSession(null).getPaymentMethods(PaymentMethod.Type.Card,
+                CustomerSession.MAX_PAYMENT_METHODS_PAGE_SIZE + 1,
+                mock(CustomerSession.PaymentMethodsPageListener.class));
+    }
+
+    @Test
+    public void getCustomerSources_withPageSize_deliversEachPageInOrder()
+            throws StripeException {
+        final CustomerSourcesPage firstPage = CustomerSourcesPage.fromString("{" +
+                "\"object\": \"list\", \"has_more\": true, \"data\": [" +
+                "{\"id\": \"card_1\", \"object\": \"card\"}," +
+                "{\"id\": \"card_2\", \"object\": \"card\"}]}");
+        final CustomerSourcesPage lastPage = CustomerSourcesPage.fromString("{" +
+                "\"object\": \"list\", \"has_more\": false, \"data\": [" +
+                "{\"id\": \"card_3\", \"object\": \"card\"}]}");
+        assertNotNull(firstPage);
+        assertNotNull(lastPage);
+        when(mApiHandler.getCustomerSourcesPage(anyString(), eq(2),
+                ArgumentMatchers.<String>isNull(), anyString()))
+                .thenReturn(firstPage);
+        when(mApiHandler.getCustomerSourcesPage(anyString(), eq(2), eq("card_2"), anyString()))
+                .thenReturn(lastPage);
+
+        mEphemeralKeyProvider.setNextRawEphemeralKey(FIRST_SAMPLE_KEY_RAW);
+        final CustomerSession customerSession = createCustomerSession(null);
+        final CustomerSession.CustomerSourcesPageListener mockListener =
+                mock(CustomerSession.CustomerSourcesPageListener.class);
+        customerSession.getCustomerSources(2, mockListener);
+
+        final InOrder inOrder = inOrder(mockListener);
+        inOrder.verify(mockListener)
+                .onCustomerSourcesPageRetrieved(firstPage.customerSources, true);
+        inOrder.verify(mockListener)
+                .onCustomerSourcesPageRetrieved(lastPage.customerSources, false);
+        verifyNoMoreInteractions(mockListener);
+    }
+
+    @Test
+    public void getCustomerSources_whenCancelled_stopsFetchingPages()
+            throws StripeException {
+        final CustomerSourcesPage firstPage = CustomerSourcesPage.fromString("{" +
+                "\"object\": \"list\", \"has_more\": true, \"data\": [" +
+                "{\"id\": \"card_1\", \"object\": \"card\"}]}");
+        assertNotNull(firstPage);
+        when(mApiHandler.getCustomerSourcesPage(anyString(), eq(2),
+                ArgumentMatchers.<String>isNull(), anyString()))
+                .thenReturn(firstPage);
+
+        mEphemeralKeyProvider.setNextRawEphemeralKey(FIRST_SAMPLE_KEY_RAW);
+        final CustomerSession customerSession = createCustomerSession(null);
+        final CustomerSession.CustomerSourcesPageListener mockListener =
+                mock(CustomerSession.CustomerSourcesPageListener.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                customerSession.cancelCustomerSourcesPages(mockListener);
+                return null;
+            }
+        }).when(mockListener).onCustomerSourcesPageRetrieved(firstPage.customerSources, true);
+        customerSession.getCustomerSources(2, mockListener);
+
+        verify(mApiHandler, never()).getCustomerSourcesPage(anyString(), eq(2), eq("card_1"),
+                anyString());
+        verify(mockListener).onCustomerSourcesPageRetrieved(firstPage.customerSources, true);
+        verifyNoMoreInteractions(mockListener);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getCustomerSources_withInvalidPageSize_throwsException() {
+        mEphemeralKeyProvider.setNextRawEphemeralKey(FIRST_SAMPLE_KEY_RAW);
+        createCustomerSession(null).getCustomerSources(0,
+                mock(CustomerSession.CustomerSourcesPageListener.class));
+    }
+
     private void setupErrorProxy()
             throws StripeException {
         when(mApiHandler.addCustomerSource(
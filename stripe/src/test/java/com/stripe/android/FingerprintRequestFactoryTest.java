@@ -0,0 +1,76 @@
+package com.stripe.android;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.stripe.android.exception.InvalidRequestException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricTestRunner.class)
+public class FingerprintRequestFactoryTest {
+
+    private Locale mDefaultLocale;
+    private CountingUidSupplier mUidSupplier;
+    private FingerprintRequestFactory mFactory;
+
+    @Before
+    public void setup() {
+        mDefaultLocale = Locale.getDefault();
+        final Context context = ApplicationProvider.getApplicationContext();
+        mUidSupplier = new CountingUidSupplier();
+        mFactory = new FingerprintRequestFactory(
+                new TelemetryClientUtil(context, mUidSupplier));
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(mDefaultLocale);
+    }
+
+    @Test
+    public void create_calledTwice_shouldReuseRequestAndBody()
+            throws UnsupportedEncodingException, InvalidRequestException {
+        final FingerprintRequest first = mFactory.create();
+        final FingerprintRequest second = mFactory.create();
+
+        assertSame(first, second);
+        assertSame(first.getOutputBytes(), second.getOutputBytes());
+        assertEquals(1, mUidSupplier.mCount);
+    }
+
+    @Test
+    public void create_afterLocaleChange_shouldCreateNewRequest() {
+        Locale.setDefault(Locale.US);
+        final FingerprintRequest first = mFactory.create();
+        Locale.setDefault(Locale.FRANCE);
+        final FingerprintRequest second = mFactory.create();
+
+        assertNotSame(first, second);
+        assertEquals(1, mUidSupplier.mCount);
+    }
+
+    private static final class CountingUidSupplier implements Supplier<StripeUid> {
+        private int mCount;
+
+        @NonNull
+        @Override
+        public StripeUid get() {
+            mCount++;
+            return StripeUid.create("abc123");
+        }
+    }
+}
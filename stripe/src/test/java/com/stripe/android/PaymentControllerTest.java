@@ -107,6 +107,7 @@ public class PaymentControllerTest {
                 false,
                 Stripe3ds2Fingerprint.DirectoryServer.Visa.name);
         verify(mApiHandler).start3ds2Auth(ArgumentMatchers.<Stripe3ds2AuthParams>any(),
+                eq(PaymentIntentFixtures.PI_REQUIRES_VISA_3DS2.getId()),
                 eq(PUBLISHABLE_KEY),
                 ArgumentMatchers.<ApiResultCallback<Stripe3ds2AuthResult>>any());
 
@@ -132,6 +133,7 @@ public class PaymentControllerTest {
                 false,
                 Stripe3ds2Fingerprint.DirectoryServer.Amex.name);
         verify(mApiHandler).start3ds2Auth(ArgumentMatchers.<Stripe3ds2AuthParams>any(),
+                eq(PaymentIntentFixtures.PI_REQUIRES_AMEX_3DS2.getId()),
                 eq(PUBLISHABLE_KEY),
                 ArgumentMatchers.<ApiResultCallback<Stripe3ds2AuthResult>>any());
 
@@ -209,6 +211,7 @@ public class PaymentControllerTest {
                 "src_123", ApiKeyFixtures.FAKE_PUBLISHABLE_KEY)
                 .cancelled();
         verify(mApiHandler).complete3ds2Auth(eq("src_123"),
+                eq(PaymentIntentFixtures.PI_REQUIRES_VISA_3DS2.getId()),
                 eq(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY),
                 ArgumentMatchers.<ApiResultCallback<Boolean>>any());
     }
@@ -277,7 +280,7 @@ public class PaymentControllerTest {
                 .putExtra(StripeIntentResultExtras.CLIENT_SECRET,
                         SetupIntentFixtures.SI_NEXT_ACTION_REDIRECT.getClientSecret());
 
-        when(mStripe.retrieveSetupIntentSynchronous(
+        when(mStripe.retrieveUncachedSetupIntentSynchronous(
                 eq(SetupIntentParams.createRetrieveParams(
                         SetupIntentFixtures.SI_NEXT_ACTION_REDIRECT.getClientSecret())),
                 eq(PUBLISHABLE_KEY)))
@@ -0,0 +1,158 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.stripe.android.exception.InvalidRequestException;
+import com.stripe.android.model.Address;
+import com.stripe.android.model.CardFixtures;
+import com.stripe.android.model.PaymentMethod;
+import com.stripe.android.model.PaymentMethodCreateParams;
+import com.stripe.android.model.SourceParams;
+
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class QueryStringFactoryTest {
+
+    @NonNull private final QueryStringFactory mQueryStringFactory = new QueryStringFactory();
+
+    @Test
+    public void create_withNullParams_returnsEmptyString() throws InvalidRequestException {
+        assertEquals("", mQueryStringFactory.create(null));
+    }
+
+    @Test
+    public void create_withNestedParams_createsExpectedQueryString()
+            throws InvalidRequestException {
+        final Map<String, Object> card = new LinkedHashMap<>();
+        card.put("number", "4242424242424242");
+        card.put("exp_month", 1);
+        final Map<String, Object> params = new LinkedHashMap<>();
+        params.put("type", "card");
+        params.put("card", card);
+        params.put("expand", Arrays.asList("customer", "source"));
+        params.put("metadata", Collections.emptyList());
+        params.put("description", null);
+
+        assertEquals("type=card&card%5Bnumber%5D=4242424242424242&card%5Bexp_month%5D=1" +
+                        "&expand%5B%5D=customer&expand%5B%5D=source&metadata=&description=",
+                mQueryStringFactory.create(params));
+    }
+
+    @Test
+    public void create_withPaymentMethodCreateParams_matchesUrlEncoder()
+            throws InvalidRequestException, UnsupportedEncodingException {
+        final Map<String, String> metadata = new HashMap<>();
+        metadata.put("order_id", "#123 & more");
+        final PaymentMethodCreateParams paymentMethodCreateParams =
+                PaymentMethodCreateParams.create(
+                        CardFixtures.CARD.toPaymentMethodParamsCard(),
+                        new PaymentMethod.BillingDetails.Builder()
+                                .setName("Jenny Rosen")
+                                .setEmail("jenny.rosen+test@example.com")
+                                .setPhone("(555) 555-5555")
+                                .setAddress(new Address.Builder()
+                                        .setLine1("1 K\u00f6nigstra\u00dfe")
+                                        .setCity("M\u00fcnchen")
+                                        .setPostalCode("80331")
+                                        .setCountry("DE")
+                                        .build())
+                                .build(),
+                        metadata);
+        assertMatchesUrlEncoder(paymentMethodCreateParams.toParamMap());
+    }
+
+    @Test
+    public void create_withSourceParams_matchesUrlEncoder()
+            throws InvalidRequestException, UnsupportedEncodingException {
+        final Map<String, String> metadata = new HashMap<>();
+        metadata.put("emoji", "\uD83D\uDCB3 card");
+        metadata.put("symbols", "a=b&c[d]=e/f?g~h!*'()");
+        final SourceParams sourceParams = SourceParams.createCardParams(CardFixtures.CARD)
+                .setMetaData(metadata);
+        assertMatchesUrlEncoder(sourceParams.toParamMap());
+
+        assertMatchesUrlEncoder(SourceParams.createThreeDSecureParams(1000L, "eur",
+                "stripe://return", "card_id_123").toParamMap());
+    }
+
+    @Test
+    public void create_withUnpairedSurrogate_matchesUrlEncoder()
+            throws InvalidRequestException, UnsupportedEncodingException {
+        final Map<String, Object> params = new HashMap<>();
+        params.put("name", "abc\uD83Ddef");
+        assertMatchesUrlEncoder(params);
+    }
+
+    @Test
+    public void create_withEmptyStringValue_throwsInvalidRequestException() {
+        final Map<String, Object> owner = new HashMap<>();
+        owner.put("name", "");
+        final Map<String, Object> params = new HashMap<>();
+        params.put("owner", owner);
+
+        assertThrows(InvalidRequestException.class,
+                new ThrowingRunnable() {
+                    @Override
+                    public void run() throws Throwable {
+                        mQueryStringFactory.create(params);
+                    }
+                });
+    }
+
+    private void assertMatchesUrlEncoder(@NonNull Map<String, ?> params)
+            throws InvalidRequestException, UnsupportedEncodingException {
+        final List<String> pairs = new ArrayList<>();
+        flattenWithUrlEncoder(pairs, params, null);
+
+        final StringBuilder expected = new StringBuilder();
+        for (String pair : pairs) {
+            if (expected.length() > 0) {
+                expected.append('&');
+            }
+            expected.append(pair);
+        }
+        assertEquals(expected.toString(), mQueryStringFactory.create(params));
+    }
+
+    /**
+     * Reference implementation of the flattening and encoding rules, based on
+     * {@link URLEncoder}.
+     */
+    private static void flattenWithUrlEncoder(@NonNull List<String> pairs,
+                                              @Nullable Object value,
+                                              @Nullable String keyPrefix)
+            throws UnsupportedEncodingException {
+        if (value instanceof Map<?, ?>) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                final String key = keyPrefix == null ?
+                        String.valueOf(entry.getKey()) :
+                        keyPrefix + "[" + entry.getKey() + "]";
+                flattenWithUrlEncoder(pairs, entry.getValue(), key);
+            }
+        } else if (value instanceof List<?> && ((List<?>) value).isEmpty()) {
+            pairs.add(URLEncoder.encode(keyPrefix, "UTF-8") + "=");
+        } else if (value instanceof List<?>) {
+            for (Object item : (List<?>) value) {
+                flattenWithUrlEncoder(pairs, item, keyPrefix + "[]");
+            }
+        } else {
+            pairs.add(URLEncoder.encode(keyPrefix, "UTF-8") + "=" +
+                    URLEncoder.encode(value == null ? "" : value.toString(), "UTF-8"));
+        }
+    }
+}
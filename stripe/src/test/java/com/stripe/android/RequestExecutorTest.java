@@ -7,18 +7,44 @@ import androidx.test.core.app.ApplicationProvider;
 import com.stripe.android.exception.APIConnectionException;
 import com.stripe.android.exception.InvalidRequestException;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
 import org.junit.Test;
 import org.junit.function.ThrowingRunnable;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.robolectric.RobolectricTestRunner;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @RunWith(RobolectricTestRunner.class)
 public class RequestExecutorTest {
@@ -70,4 +96,492 @@ public class RequestExecutorTest {
                     }
                 });
     }
+
+    @Test
+    public void execute_withSuccessfulResponse_shouldKeepConnectionAlive()
+            throws IOException, InvalidRequestException, APIConnectionException {
+        final HttpURLConnection conn = mock(HttpURLConnection.class);
+        when(conn.getResponseCode()).thenReturn(200);
+        when(conn.getInputStream()).thenReturn(new ByteArrayInputStream(
+                "{\"id\": \"pm_123\"}".getBytes(StandardCharsets.UTF_8)));
+
+        final StripeResponse response = new RequestExecutor(new FakeConnectionFactory(conn))
+                .execute(ApiRequest.createGet(StripeApiHandler.getPaymentMethodsUrl(),
+                        ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null));
+
+        assertEquals(200, response.getResponseCode());
+        assertEquals("{\"id\": \"pm_123\"}", response.getResponseBody());
+        verify(conn, never()).disconnect();
+    }
+
+    @Test
+    public void executeAndForget_withSuccessfulResponse_shouldKeepConnectionAlive()
+            throws IOException, InvalidRequestException, APIConnectionException {
+        final HttpURLConnection conn = mock(HttpURLConnection.class);
+        when(conn.getResponseCode()).thenReturn(200);
+        when(conn.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[4096]));
+
+        final int responseCode = new RequestExecutor(new FakeConnectionFactory(conn))
+                .executeAndForget(ApiRequest.createGet(StripeApiHandler.getPaymentMethodsUrl(),
+                        ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null));
+
+        assertEquals(200, responseCode);
+        verify(conn, never()).disconnect();
+    }
+
+    @Test
+    public void execute_withIOException_shouldDisconnect() throws IOException {
+        final HttpURLConnection conn = mock(HttpURLConnection.class);
+        when(conn.getResponseCode()).thenThrow(new IOException("connection reset"));
+
+        final RequestExecutor requestExecutor =
+                new RequestExecutor(new FakeConnectionFactory(conn));
+        assertThrows(APIConnectionException.class,
+                new ThrowingRunnable() {
+                    @Override
+                    public void run() throws Throwable {
+                        requestExecutor.execute(ApiRequest.createGet(
+                                StripeApiHandler.getPaymentMethodsUrl(),
+                                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY),
+                                null));
+                    }
+                });
+        verify(conn).disconnect();
+    }
+
+    @Test
+    public void getResponseBody_withMultiByteCharactersAcrossBuffers_shouldDecodeFullBody()
+            throws IOException {
+        final StringBuilder expectedBody = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            expectedBody.append("Z\u00fcrich \u20ac").append(i);
+        }
+        final byte[] bytes = expectedBody.toString().getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(expectedBody.toString(),
+                RequestExecutor.getResponseBody(new ByteArrayInputStream(bytes), bytes.length));
+        assertEquals(expectedBody.toString(),
+                RequestExecutor.getResponseBody(new ByteArrayInputStream(bytes), -1));
+    }
+
+    @Test
+    public void getResponseBody_withHugeContentLength_shouldNotAllocateIt() throws IOException {
+        final byte[] bytes = "{\"id\": \"pm_123\"}".getBytes(StandardCharsets.UTF_8);
+        assertEquals("{\"id\": \"pm_123\"}",
+                RequestExecutor.getResponseBody(new ByteArrayInputStream(bytes),
+                        Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void getResponseBody_withEmptyBody_shouldReturnNull() throws IOException {
+        assertNull(RequestExecutor.getResponseBody(new ByteArrayInputStream(new byte[0]), 0));
+        assertNull(RequestExecutor.getResponseBody(null, 0));
+    }
+
+    @Test
+    public void execute_withMetricsListener_shouldReportRequestMetrics() throws Exception {
+        final byte[] responseBody = "{\"id\": \"pm_123\"}".getBytes(StandardCharsets.UTF_8);
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/payment_methods", new HttpHandler() {
+            @Override
+            public void handle(@NonNull HttpExchange exchange) throws IOException {
+                final byte[] buffer = new byte[1024];
+                //noinspection StatementWithEmptyBody
+                while (exchange.getRequestBody().read(buffer) != -1) {
+                    // consume the request body
+                }
+                exchange.getResponseHeaders().add("Request-Id", "req_123");
+                exchange.sendResponseHeaders(200, responseBody.length);
+                try (OutputStream output = exchange.getResponseBody()) {
+                    output.write(responseBody);
+                }
+            }
+        });
+        server.start();
+
+        final RequestMetricsListener metricsListener = mock(RequestMetricsListener.class);
+        final Map<String, Object> params = new HashMap<>();
+        params.put("type", "card");
+        final ApiRequest request = ApiRequest.createPost(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/payment_methods",
+                params, ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null);
+        try {
+            final StripeResponse response = new RequestExecutor(metricsListener)
+                    .execute(request);
+            assertEquals(200, response.getResponseCode());
+        } finally {
+            server.stop(0);
+        }
+
+        final ArgumentCaptor<RequestMetrics> metricsArgumentCaptor =
+                ArgumentCaptor.forClass(RequestMetrics.class);
+        verify(metricsListener).onRequestCompleted(metricsArgumentCaptor.capture());
+        final RequestMetrics metrics = metricsArgumentCaptor.getValue();
+        assertEquals("POST", metrics.method);
+        assertEquals(request.getUrl(), metrics.url);
+        assertEquals(200, metrics.statusCode);
+        assertEquals("req_123", metrics.requestId);
+        assertEquals(request.getOutputBytes().length, metrics.bytesSent);
+        assertEquals(responseBody.length, metrics.bytesReceived);
+        assertTrue(metrics.totalMillis >= metrics.connectMillis +
+                metrics.timeToFirstByteMillis + metrics.bodyReadMillis);
+    }
+
+    @Test
+    public void execute_withIOException_shouldNotReportMetrics() throws IOException {
+        final HttpURLConnection conn = mock(HttpURLConnection.class);
+        when(conn.getResponseCode()).thenThrow(new IOException("connection reset"));
+        final RequestMetricsListener metricsListener = mock(RequestMetricsListener.class);
+
+        final RequestExecutor requestExecutor =
+                new RequestExecutor(new FakeConnectionFactory(conn), metricsListener);
+        assertThrows(APIConnectionException.class,
+                new ThrowingRunnable() {
+                    @Override
+                    public void run() throws Throwable {
+                        requestExecutor.executeAndForget(ApiRequest.createGet(
+                                StripeApiHandler.getPaymentMethodsUrl(),
+                                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY),
+                                null));
+                    }
+                });
+        verify(metricsListener, never()).onRequestCompleted(any(RequestMetrics.class));
+    }
+
+    @Test
+    public void execute_withQuery_shouldNotReportIt()
+            throws IOException, InvalidRequestException, APIConnectionException {
+        final HttpURLConnection conn = mock(HttpURLConnection.class);
+        when(conn.getResponseCode()).thenReturn(200);
+        when(conn.getInputStream()).thenReturn(new ByteArrayInputStream(
+                "{\"id\": \"pi_123\"}".getBytes(StandardCharsets.UTF_8)));
+        final RequestMetricsListener metricsListener = mock(RequestMetricsListener.class);
+        final Map<String, Object> params = new HashMap<>();
+        params.put("client_secret", "pi_123_secret_456");
+        final String url = "https://api.stripe.com/v1/payment_intents/pi_123";
+
+        new RequestExecutor(new FakeConnectionFactory(conn), metricsListener)
+                .execute(ApiRequest.createGet(url, params,
+                        ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null));
+
+        final ArgumentCaptor<RequestMetrics> metricsArgumentCaptor =
+                ArgumentCaptor.forClass(RequestMetrics.class);
+        verify(metricsListener).onRequestCompleted(metricsArgumentCaptor.capture());
+        assertEquals(url, metricsArgumentCaptor.getValue().url);
+        assertEquals("/v1/payment_intents/:id", metricsArgumentCaptor.getValue().endpoint);
+    }
+
+    @Test
+    public void getEndpoint_shouldReplaceObjectIds() {
+        assertEquals("/v1/payment_intents/:id/confirm", RequestMetrics.getEndpoint(
+                "https://api.stripe.com/v1/payment_intents/pi_1EceMnCRMbs6FrXf/confirm"));
+        assertEquals("/v1/customers/:id/sources/:id", RequestMetrics.getEndpoint(
+                "https://api.stripe.com/v1/customers/cus_AQsHpvKfKwJDrF/sources/src_123"));
+        assertEquals("/v1/3ds2/challenge_complete", RequestMetrics.getEndpoint(
+                "https://api.stripe.com/v1/3ds2/challenge_complete"));
+        assertEquals("/", RequestMetrics.getEndpoint("https://q.stripe.com"));
+    }
+
+    @Test
+    public void onResponseParsed_shouldReportToListener() {
+        final RequestMetricsListener metricsListener = mock(RequestMetricsListener.class);
+        new RequestExecutor(metricsListener).onResponseParsed("PaymentIntent", 5L);
+        verify(metricsListener).onResponseParsed("PaymentIntent", 5L);
+    }
+
+    @Test
+    public void connectionFactory_withCustomTransport_shouldConfigureItsConnection()
+            throws IOException, InvalidRequestException {
+        final HttpURLConnection conn = mock(HttpURLConnection.class);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        when(conn.getOutputStream()).thenReturn(output);
+        final Map<String, Object> params = new HashMap<>();
+        params.put("type", "card");
+        final ApiRequest request = ApiRequest.createPost(
+                StripeApiHandler.getPaymentMethodsUrl(), params,
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null);
+
+        final RequestExecutor.ConnectionFactory connectionFactory =
+                new RequestExecutor.ConnectionFactory() {
+                    @NonNull
+                    @Override
+                    HttpURLConnection openConnection(@NonNull URL url) {
+                        return conn;
+                    }
+                };
+        connectionFactory.create(request, new RequestMetrics.Builder("POST", "url"),
+                10000, 20000);
+
+        verify(conn).setRequestMethod("POST");
+        verify(conn).setConnectTimeout(10000);
+        verify(conn).setReadTimeout(20000);
+        verify(conn).setRequestProperty("Authorization",
+                "Bearer " + ApiKeyFixtures.FAKE_PUBLISHABLE_KEY);
+        verify(conn).setFixedLengthStreamingMode(output.size());
+        assertEquals("type=card", output.toString("UTF-8"));
+    }
+
+    @Test
+    public void execute_withGzippedResponse_shouldDecompressBody() throws Exception {
+        final StringBuilder json = new StringBuilder("{\"object\": \"list\", \"data\": [");
+        for (int i = 0; i < 100; i++) {
+            json.append(i > 0 ? ", " : "")
+                    .append("{\"id\": \"pm_").append(i)
+                    .append("\", \"object\": \"payment_method\"}");
+        }
+        final String expectedBody = json.append("]}").toString();
+        final ByteArrayOutputStream gzippedBody = new ByteArrayOutputStream();
+        try (GZIPOutputStream output = new GZIPOutputStream(gzippedBody)) {
+            output.write(expectedBody.getBytes(StandardCharsets.UTF_8));
+        }
+
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/payment_methods", new HttpHandler() {
+            @Override
+            public void handle(@NonNull HttpExchange exchange) throws IOException {
+                assertEquals("gzip",
+                        exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                exchange.sendResponseHeaders(200, gzippedBody.size());
+                try (OutputStream output = exchange.getResponseBody()) {
+                    gzippedBody.writeTo(output);
+                }
+            }
+        });
+        server.start();
+
+        final RequestMetricsListener metricsListener = mock(RequestMetricsListener.class);
+        final StripeResponse response;
+        try {
+            response = new RequestExecutor(metricsListener).execute(ApiRequest.createGet(
+                    "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/payment_methods",
+                    ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null));
+        } finally {
+            server.stop(0);
+        }
+
+        assertEquals(expectedBody, response.getResponseBody());
+        final ArgumentCaptor<RequestMetrics> metricsArgumentCaptor =
+                ArgumentCaptor.forClass(RequestMetrics.class);
+        verify(metricsListener).onRequestCompleted(metricsArgumentCaptor.capture());
+        // bytes on the wire are the compressed size
+        assertEquals(gzippedBody.size(), metricsArgumentCaptor.getValue().bytesReceived);
+        assertTrue(gzippedBody.size() < expectedBody.length() / 4);
+    }
+
+    @Test
+    public void createGzipInputStream_withEmptyBody_shouldReturnEmptyStream()
+            throws IOException {
+        assertNull(RequestExecutor.getResponseBody(
+                RequestExecutor.createGzipInputStream(new ByteArrayInputStream(new byte[0])),
+                -1));
+        assertNull(RequestExecutor.createGzipInputStream(null));
+    }
+
+    @Test
+    public void warmUp_shouldLeaveConnectionForNextRequest() throws Exception {
+        final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(@NonNull HttpExchange exchange) throws IOException {
+                requests.add(exchange.getRequestURI().getPath() + " from port "
+                        + exchange.getRemoteAddress().getPort());
+                final byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+                if ("/".equals(exchange.getRequestURI().getPath())) {
+                    exchange.getResponseHeaders().add("Location", "https://stripe.com");
+                    exchange.sendResponseHeaders(302, body.length);
+                } else {
+                    exchange.sendResponseHeaders(200, body.length);
+                }
+                try (OutputStream output = exchange.getResponseBody()) {
+                    output.write(body);
+                }
+            }
+        });
+        server.start();
+
+        final String host = "http://127.0.0.1:" + server.getAddress().getPort();
+        final RequestExecutor requestExecutor = new RequestExecutor();
+        try {
+            assertEquals(302, requestExecutor.warmUp(host));
+            requestExecutor.execute(ApiRequest.createGet(host + "/v1/payment_methods",
+                    ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null));
+        } finally {
+            server.stop(0);
+        }
+
+        assertEquals(2, requests.size());
+        final String port = requests.get(0).substring(requests.get(0).lastIndexOf(' '));
+        // the redirect was not followed, and the request reused the warmed up connection
+        assertEquals("/ from port" + port, requests.get(0));
+        assertEquals("/v1/payment_methods from port" + port, requests.get(1));
+    }
+
+    @Test
+    public void execute_withOpenCircuit_shouldFailWithoutConnecting()
+            throws APIConnectionException, InvalidRequestException {
+        final int[] connectionCount = new int[1];
+        final RequestExecutor.ConnectionFactory connectionFactory =
+                new RequestExecutor.ConnectionFactory() {
+                    @NonNull
+                    @Override
+                    HttpURLConnection create(@NonNull StripeRequest request,
+                                             @NonNull RequestMetrics.Builder metricsBuilder,
+                                             int connectTimeoutMillis,
+                                             int readTimeoutMillis) throws IOException {
+                        connectionCount[0]++;
+                        throw new IOException("connect timed out");
+                    }
+                };
+        final RequestExecutor requestExecutor = new RequestExecutor(connectionFactory,
+                RequestMetricsListener.NO_OP,
+                new CircuitBreaker(2, 1, 30000L, Clock.DEFAULT), new AdaptiveTimeouts());
+        final ApiRequest request = ApiRequest.createGet(StripeApiHandler.getPaymentMethodsUrl(),
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                requestExecutor.execute(request);
+            } catch (APIConnectionException expected) {
+                assertFalse(expected instanceof CircuitBreaker.OpenCircuitException);
+            }
+        }
+        assertThrows(CircuitBreaker.OpenCircuitException.class, new ThrowingRunnable() {
+            @Override
+            public void run() throws Throwable {
+                requestExecutor.execute(request);
+            }
+        });
+        assertEquals(2, connectionCount[0]);
+    }
+
+    @Test
+    public void execute_withOpenCircuitAndPaymentCriticalRequest_shouldConnect()
+            throws IOException, APIConnectionException, InvalidRequestException {
+        final HttpURLConnection conn = mock(HttpURLConnection.class);
+        when(conn.getResponseCode()).thenReturn(503);
+        when(conn.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+        final CircuitBreaker circuitBreaker = new CircuitBreaker(1, 1, 30000L, Clock.DEFAULT);
+        final RequestExecutor requestExecutor = new RequestExecutor(
+                new FakeConnectionFactory(conn), RequestMetricsListener.NO_OP,
+                circuitBreaker, new AdaptiveTimeouts());
+        requestExecutor.execute(ApiRequest.createGet(StripeApiHandler.getPaymentMethodsUrl(),
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null));
+        assertEquals(CircuitBreaker.State.Open, circuitBreaker.getState("api.stripe.com"));
+
+        when(conn.getResponseCode()).thenReturn(200);
+        final StripeResponse response = requestExecutor.execute(ApiRequest.createPaymentPost(
+                "https://api.stripe.com/v1/payment_intents/pi_123/confirm",
+                new HashMap<String, Object>(),
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null));
+        assertEquals(200, response.getResponseCode());
+        assertEquals(CircuitBreaker.State.Closed, circuitBreaker.getState("api.stripe.com"));
+    }
+
+    @Test
+    public void execute_withoutReportingFailure_shouldNotOpenCircuit()
+            throws IOException, APIConnectionException, InvalidRequestException {
+        final HttpURLConnection conn = mock(HttpURLConnection.class);
+        when(conn.getResponseCode()).thenReturn(503);
+        final CircuitBreaker circuitBreaker = new CircuitBreaker(1, 1, 30000L, Clock.DEFAULT);
+        final RequestExecutor requestExecutor = new RequestExecutor(
+                new FakeConnectionFactory(conn), RequestMetricsListener.NO_OP,
+                circuitBreaker, new AdaptiveTimeouts());
+        final ApiRequest request = ApiRequest.createGet(StripeApiHandler.getPaymentMethodsUrl(),
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null);
+
+        requestExecutor.execute(request, false);
+        assertEquals(CircuitBreaker.State.Closed, circuitBreaker.getState("api.stripe.com"));
+
+        requestExecutor.execute(request);
+        assertEquals(CircuitBreaker.State.Open, circuitBreaker.getState("api.stripe.com"));
+    }
+
+    @Test
+    public void execute_afterFastGets_shouldNotShortenPaymentCriticalTimeouts()
+            throws IOException, APIConnectionException, InvalidRequestException {
+        final HttpURLConnection conn = mock(HttpURLConnection.class);
+        when(conn.getResponseCode()).thenReturn(200);
+        when(conn.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+        final List<Integer> readTimeouts = new ArrayList<>();
+        final RequestExecutor.ConnectionFactory connectionFactory =
+                new RequestExecutor.ConnectionFactory() {
+                    @NonNull
+                    @Override
+                    HttpURLConnection create(@NonNull StripeRequest request,
+                                             @NonNull RequestMetrics.Builder metricsBuilder,
+                                             int connectTimeoutMillis,
+                                             int readTimeoutMillis) {
+                        readTimeouts.add(readTimeoutMillis);
+                        return conn;
+                    }
+                };
+        final AdaptiveTimeouts timeouts = new AdaptiveTimeouts();
+        final String getKey = RequestExecutor.getTimeoutKey("api.stripe.com",
+                StripeRequest.Method.GET);
+        for (int i = 0; i < 20; i++) {
+            timeouts.onRequestCompleted(getKey, 100, 200);
+        }
+        final RequestExecutor requestExecutor = new RequestExecutor(connectionFactory,
+                RequestMetricsListener.NO_OP, new CircuitBreaker(), timeouts);
+
+        requestExecutor.execute(ApiRequest.createGet(StripeApiHandler.getPaymentMethodsUrl(),
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null));
+        requestExecutor.execute(ApiRequest.createPost(StripeApiHandler.getPaymentMethodsUrl(),
+                new HashMap<String, Object>(),
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null));
+        requestExecutor.execute(ApiRequest.createPaymentPost(
+                "https://api.stripe.com/v1/payment_intents/pi_123/confirm",
+                new HashMap<String, Object>(),
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null));
+
+        assertEquals(Arrays.asList(AdaptiveTimeouts.MIN_READ_TIMEOUT_MILLIS,
+                AdaptiveTimeouts.DEFAULT_READ_TIMEOUT_MILLIS,
+                AdaptiveTimeouts.DEFAULT_READ_TIMEOUT_MILLIS), readTimeouts);
+    }
+
+    @Test
+    public void executeAndForget_afterServerError_shouldBeShed()
+            throws IOException, APIConnectionException, InvalidRequestException {
+        final HttpURLConnection conn = mock(HttpURLConnection.class);
+        when(conn.getResponseCode()).thenReturn(503);
+        final RequestExecutor requestExecutor = new RequestExecutor(
+                new FakeConnectionFactory(conn), RequestMetricsListener.NO_OP,
+                new CircuitBreaker(5, 1, 30000L, Clock.DEFAULT), new AdaptiveTimeouts());
+        requestExecutor.execute(ApiRequest.createGet(StripeApiHandler.getPaymentMethodsUrl(),
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null));
+
+        assertThrows(CircuitBreaker.OpenCircuitException.class, new ThrowingRunnable() {
+            @Override
+            public void run() throws Throwable {
+                requestExecutor.executeAndForget(new FingerprintRequest(
+                        new HashMap<String, Object>(), UUID.randomUUID().toString()));
+            }
+        });
+    }
+
+    @Test
+    public void getEndpoint_shouldReturnHostAndPort() {
+        assertEquals("api.stripe.com",
+                RequestExecutor.getEndpoint("https://api.stripe.com/v1/sources?id=1"));
+        assertEquals("127.0.0.1:8080", RequestExecutor.getEndpoint("http://127.0.0.1:8080/"));
+    }
+
+    private static final class FakeConnectionFactory extends RequestExecutor.ConnectionFactory {
+        @NonNull private final HttpURLConnection mConnection;
+
+        private FakeConnectionFactory(@NonNull HttpURLConnection connection) {
+            mConnection = connection;
+        }
+
+        @NonNull
+        @Override
+        HttpURLConnection create(@NonNull StripeRequest request,
+                                 @NonNull RequestMetrics.Builder metricsBuilder,
+                                 int connectTimeoutMillis,
+                                 int readTimeoutMillis) {
+            return mConnection;
+        }
+    }
 }
@@ -0,0 +1,278 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+
+import com.stripe.android.exception.APIConnectionException;
+import com.stripe.android.exception.InvalidRequestException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+public class RequestRetrierTest {
+    private static final int MAX_RETRIES = 2;
+    private static final long INITIAL_DELAY_MILLIS = 100L;
+    private static final long MAX_DELAY_MILLIS = 1000L;
+    private static final long DEADLINE_MILLIS = 5000L;
+
+    @Mock private RequestExecutor mRequestExecutor;
+
+    private final FakeClock mClock = new FakeClock();
+    private RequestRetrier mRequestRetrier;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        mRequestRetrier = new RequestRetrier(MAX_RETRIES, INITIAL_DELAY_MILLIS,
+                MAX_DELAY_MILLIS, DEADLINE_MILLIS, mClock, new Random(0));
+    }
+
+    @Test
+    public void execute_withConnectionErrorThenSuccess_shouldRetry()
+            throws APIConnectionException, InvalidRequestException {
+        final ApiRequest request = createGetRequest();
+        when(mRequestExecutor.execute(request))
+                .thenThrow(new APIConnectionException("connection reset", null));
+        when(mRequestExecutor.execute(request, false))
+                .thenReturn(new StripeResponse(200, "{}", null));
+
+        assertEquals(200, mRequestRetrier.execute(mRequestExecutor, request)
+                .getResponseCode());
+        verify(mRequestExecutor).execute(request);
+        verify(mRequestExecutor).execute(request, false);
+        assertEquals(1, mClock.mSleeps.size());
+    }
+
+    @Test
+    public void execute_withPersistentConnectionError_shouldStopAfterMaxRetries()
+            throws APIConnectionException, InvalidRequestException {
+        final ApiRequest request = createPostRequest("https://api.stripe.com/v1/tokens");
+        when(mRequestExecutor.execute(request))
+                .thenThrow(new APIConnectionException("connection reset", null));
+        when(mRequestExecutor.execute(request, false))
+                .thenThrow(new APIConnectionException("connection reset", null));
+
+        assertThrows(APIConnectionException.class, new ThrowingRunnable() {
+            @Override
+            public void run() throws Throwable {
+                mRequestRetrier.execute(mRequestExecutor, request);
+            }
+        });
+        verify(mRequestExecutor).execute(request);
+        verify(mRequestExecutor, times(MAX_RETRIES)).execute(request, false);
+    }
+
+    @Test
+    public void execute_withPersistentServerError_shouldCountOneCircuitBreakerFailure()
+            throws IOException, APIConnectionException, InvalidRequestException {
+        final HttpURLConnection conn = mock(HttpURLConnection.class);
+        when(conn.getResponseCode()).thenReturn(503);
+        final CircuitBreaker circuitBreaker =
+                new CircuitBreaker(MAX_RETRIES, MAX_RETRIES, 30000L, mClock);
+        final RequestExecutor requestExecutor = new RequestExecutor(
+                new RequestExecutor.ConnectionFactory() {
+                    @NonNull
+                    @Override
+                    HttpURLConnection create(@NonNull StripeRequest request,
+                                             @NonNull RequestMetrics.Builder metricsBuilder,
+                                             int connectTimeoutMillis,
+                                             int readTimeoutMillis) {
+                        return conn;
+                    }
+                },
+                RequestMetricsListener.NO_OP, circuitBreaker, new AdaptiveTimeouts());
+
+        assertEquals(503, mRequestRetrier.execute(requestExecutor, createGetRequest())
+                .getResponseCode());
+        verify(conn, times(MAX_RETRIES + 1)).getResponseCode();
+        assertEquals(CircuitBreaker.State.Closed, circuitBreaker.getState("api.stripe.com"));
+    }
+
+    @Test
+    public void execute_withOpenCircuit_shouldNotRetry()
+            throws APIConnectionException, InvalidRequestException {
+        final ApiRequest request = createGetRequest();
+        when(mRequestExecutor.execute(request))
+                .thenThrow(CircuitBreaker.createOpenCircuitException("api.stripe.com"));
+
+        assertThrows(CircuitBreaker.OpenCircuitException.class, new ThrowingRunnable() {
+            @Override
+            public void run() throws Throwable {
+                mRequestRetrier.execute(mRequestExecutor, request);
+            }
+        });
+        verify(mRequestExecutor).execute(request);
+        assertTrue(mClock.mSleeps.isEmpty());
+    }
+
+    @Test
+    public void execute_withNonRetryableResponse_shouldNotRetry()
+            throws APIConnectionException, InvalidRequestException {
+        final ApiRequest request = createGetRequest();
+        when(mRequestExecutor.execute(request))
+                .thenReturn(new StripeResponse(402, "{}", null));
+
+        assertEquals(402, mRequestRetrier.execute(mRequestExecutor, request)
+                .getResponseCode());
+        verify(mRequestExecutor).execute(request);
+        assertTrue(mClock.mSleeps.isEmpty());
+    }
+
+    @Test
+    public void execute_withRetryAfterBeyondDeadline_shouldReturnResponse()
+            throws APIConnectionException, InvalidRequestException {
+        final ApiRequest request = createGetRequest();
+        when(mRequestExecutor.execute(request))
+                .thenReturn(createResponse(429, "Retry-After", "60"));
+
+        assertEquals(429, mRequestRetrier.execute(mRequestExecutor, request)
+                .getResponseCode());
+        verify(mRequestExecutor).execute(request);
+    }
+
+    @Test
+    public void shouldRetry_withServerErrors_shouldOnlyRetryPostOnGatewayErrors() {
+        final ApiRequest get = createGetRequest();
+        final ApiRequest post = createPostRequest("https://api.stripe.com/v1/tokens");
+
+        assertTrue(RequestRetrier.shouldRetry(get, new StripeResponse(500, null, null)));
+        assertFalse(RequestRetrier.shouldRetry(post, new StripeResponse(500, null, null)));
+        assertTrue(RequestRetrier.shouldRetry(post, new StripeResponse(503, null, null)));
+        assertTrue(RequestRetrier.shouldRetry(post, new StripeResponse(429, null, null)));
+        assertFalse(RequestRetrier.shouldRetry(post, new StripeResponse(400, null, null)));
+    }
+
+    @Test
+    public void shouldRetry_withShouldRetryHeader_shouldFollowHeader() {
+        final ApiRequest post = createPostRequest("https://api.stripe.com/v1/tokens");
+        assertFalse(RequestRetrier.shouldRetry(post,
+                createResponse(503, "Stripe-Should-Retry", "false")));
+        assertTrue(RequestRetrier.shouldRetry(post,
+                createResponse(400, "stripe-should-retry", "true")));
+    }
+
+    @Test
+    public void getDelayMillis_shouldBackOffExponentiallyWithJitter() {
+        for (int retryCount = 0; retryCount < 6; retryCount++) {
+            final long maxDelay = Math.min(MAX_DELAY_MILLIS,
+                    INITIAL_DELAY_MILLIS * (1L << retryCount));
+            final long delay = mRequestRetrier.getDelayMillis(retryCount, null);
+            assertTrue(delay >= maxDelay / 2);
+            assertTrue(delay <= maxDelay);
+        }
+        assertEquals(3000L, mRequestRetrier.getDelayMillis(0,
+                createResponse(503, "Retry-After", "3")));
+    }
+
+    @Test
+    public void execute_withStubServer_shouldRetryRateLimitedAndUnavailableResponses()
+            throws Exception {
+        final List<Integer> statusCodes = new ArrayList<>(Arrays.asList(429, 503, 200));
+        final List<String> idempotencyKeys =
+                Collections.synchronizedList(new ArrayList<String>());
+        final AtomicInteger requestCount = new AtomicInteger();
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/tokens", new HttpHandler() {
+            @Override
+            public void handle(@NonNull HttpExchange exchange) throws IOException {
+                idempotencyKeys.add(
+                        exchange.getRequestHeaders().getFirst("Idempotency-Key"));
+                final int statusCode = statusCodes.get(requestCount.getAndIncrement());
+                final byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+                if (statusCode == 429) {
+                    exchange.getResponseHeaders().add("Retry-After", "1");
+                }
+                exchange.sendResponseHeaders(statusCode, body.length);
+                try (OutputStream output = exchange.getResponseBody()) {
+                    output.write(body);
+                }
+            }
+        });
+        server.start();
+
+        final StripeResponse response;
+        try {
+            response = mRequestRetrier.execute(new RequestExecutor(), createPostRequest(
+                    "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/tokens"));
+        } finally {
+            server.stop(0);
+        }
+
+        assertEquals(200, response.getResponseCode());
+        assertEquals(3, requestCount.get());
+        assertEquals(1000L, (long) mClock.mSleeps.get(0));
+        // every attempt used the same idempotency key
+        assertEquals(3, idempotencyKeys.size());
+        assertEquals(1, new HashSet<>(idempotencyKeys).size());
+    }
+
+    @NonNull
+    private static ApiRequest createGetRequest() {
+        return ApiRequest.createGet(StripeApiHandler.getPaymentMethodsUrl(),
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null);
+    }
+
+    @NonNull
+    private static ApiRequest createPostRequest(@NonNull String url) {
+        final Map<String, Object> params = new HashMap<>();
+        params.put("type", "card");
+        return ApiRequest.createPost(url, params,
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null);
+    }
+
+    @NonNull
+    private static StripeResponse createResponse(int responseCode, @NonNull String headerName,
+                                                 @NonNull String headerValue) {
+        final Map<String, List<String>> headers = new HashMap<>();
+        headers.put(headerName, Collections.singletonList(headerValue));
+        return new StripeResponse(responseCode, "{}", headers);
+    }
+
+    private static final class FakeClock implements Clock {
+        @NonNull private final List<Long> mSleeps = new ArrayList<>();
+        private long mTimeMillis;
+
+        @Override
+        public long currentTimeMillis() {
+            return mTimeMillis;
+        }
+
+        @Override
+        public void sleep(long millis) {
+            mSleeps.add(millis);
+            mTimeMillis += millis;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class RequestSchedulerTest {
+    private static final long MAX_DEFER_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final FakeClock mClock = new FakeClock();
+    private final FakeWaiter mWaiter = new FakeWaiter(mClock);
+    private final RequestScheduler mScheduler =
+            new RequestScheduler(MAX_DEFER_MILLIS, mClock, mWaiter);
+
+    @Test
+    public void onRequestStarting_withBackgroundRequest_shouldWaitForCriticalRequests() {
+        mScheduler.onRequestStarting(RequestScheduler.Priority.PaymentCritical);
+        mScheduler.onRequestStarting(RequestScheduler.Priority.PaymentCritical);
+        assertEquals(2, mScheduler.getCriticalRequestCount());
+
+        // each wait ends with one of the critical requests finishing after 100 ms
+        mWaiter.mOnWait.add(new FinishCriticalRequest(100L));
+        mWaiter.mOnWait.add(new FinishCriticalRequest(100L));
+        mScheduler.onRequestStarting(RequestScheduler.Priority.Background);
+
+        assertEquals(Arrays.asList(MAX_DEFER_MILLIS, MAX_DEFER_MILLIS - 100L),
+                mWaiter.mTimeouts);
+        assertEquals(0, mScheduler.getCriticalRequestCount());
+    }
+
+    @Test
+    public void onRequestStarting_withInteractiveRequest_shouldNotWait() {
+        mScheduler.onRequestStarting(RequestScheduler.Priority.PaymentCritical);
+
+        mScheduler.onRequestStarting(RequestScheduler.Priority.Interactive);
+        mScheduler.onRequestStarting(RequestScheduler.Priority.PaymentCritical);
+        assertTrue(mWaiter.mTimeouts.isEmpty());
+        assertEquals(2, mScheduler.getCriticalRequestCount());
+    }
+
+    @Test
+    public void onRequestStarting_withoutCriticalRequests_shouldNotWait() {
+        mScheduler.onRequestStarting(RequestScheduler.Priority.PaymentCritical);
+        mScheduler.onRequestFinished(RequestScheduler.Priority.PaymentCritical);
+
+        mScheduler.onRequestStarting(RequestScheduler.Priority.Background);
+        assertTrue(mWaiter.mTimeouts.isEmpty());
+    }
+
+    @Test
+    public void onRequestStarting_withBackgroundRequest_shouldWaitAtMostMaxDefer() {
+        mScheduler.onRequestStarting(RequestScheduler.Priority.PaymentCritical);
+
+        mScheduler.onRequestStarting(RequestScheduler.Priority.Background);
+        assertEquals(MAX_DEFER_MILLIS, mClock.mTimeMillis);
+        assertEquals(1, mScheduler.getCriticalRequestCount());
+    }
+
+    @Test
+    public void onRequestStarting_whenInterrupted_shouldStopWaiting() {
+        mScheduler.onRequestStarting(RequestScheduler.Priority.PaymentCritical);
+
+        mWaiter.mOnWait.add(new Runnable() {
+            @Override
+            public void run() {
+                Thread.currentThread().interrupt();
+            }
+        });
+        mScheduler.onRequestStarting(RequestScheduler.Priority.Background);
+        // clears the interrupt
+        assertTrue(Thread.interrupted());
+        assertEquals(1, mWaiter.mTimeouts.size());
+    }
+
+    private final class FinishCriticalRequest implements Runnable {
+        private final long mDelayMillis;
+
+        private FinishCriticalRequest(long delayMillis) {
+            mDelayMillis = delayMillis;
+        }
+
+        @Override
+        public void run() {
+            mClock.mTimeMillis += mDelayMillis;
+            mScheduler.onRequestFinished(RequestScheduler.Priority.PaymentCritical);
+        }
+    }
+
+    private static final class FakeClock implements Clock {
+        private long mTimeMillis;
+
+        @Override
+        public long currentTimeMillis() {
+            return mTimeMillis;
+        }
+
+        @Override
+        public void sleep(long millis) {
+            mTimeMillis += millis;
+        }
+    }
+
+    /**
+     * Runs the next of {@link #mOnWait} in place of waiting, or lets the whole timeout pass
+     * when there are none left. An action that interrupts the thread ends the wait with an
+     * {@link InterruptedException}.
+     */
+    private static final class FakeWaiter implements RequestScheduler.Waiter {
+        @NonNull private final FakeClock mClock;
+        @NonNull private final List<Runnable> mOnWait = new ArrayList<>();
+        @NonNull private final List<Long> mTimeouts = new ArrayList<>();
+
+        private FakeWaiter(@NonNull FakeClock clock) {
+            mClock = clock;
+        }
+
+        @Override
+        public void await(@NonNull Object monitor, long timeoutMillis)
+                throws InterruptedException {
+            mTimeouts.add(timeoutMillis);
+            if (mOnWait.isEmpty()) {
+                mClock.mTimeMillis += timeoutMillis;
+                return;
+            }
+
+            mOnWait.remove(0).run();
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
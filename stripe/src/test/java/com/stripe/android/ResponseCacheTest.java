@@ -0,0 +1,136 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricTestRunner.class)
+public class ResponseCacheTest {
+    private static final String SOURCE_ID = "src_123";
+    private static final String CLIENT_SECRET = "src_client_secret_123";
+    private static final StripeResponse RESPONSE = new StripeResponse(200, "{}", null);
+
+    private final FakeClock mClock = new FakeClock();
+    private final ResponseCache mResponseCache = new ResponseCache(2, mClock);
+
+    @Test
+    public void get_withinTtl_shouldReturnResponse() {
+        final ApiRequest request = createRequest(SOURCE_ID, CLIENT_SECRET);
+        assertNull(mResponseCache.get(request));
+        mResponseCache.put(request, SOURCE_ID, RESPONSE, false);
+
+        mClock.mTimeMillis += ResponseCache.DEFAULT_TTL_MILLIS - 1;
+        assertSame(RESPONSE, mResponseCache.get(createRequest(SOURCE_ID, CLIENT_SECRET)));
+        mClock.mTimeMillis += 1;
+        assertNull(mResponseCache.get(request));
+
+        assertEquals(1, mResponseCache.getHitCount());
+        assertEquals(2, mResponseCache.getMissCount());
+    }
+
+    @Test
+    public void get_withTerminalStatus_shouldReturnResponseForLonger() {
+        final ApiRequest request = createRequest(SOURCE_ID, CLIENT_SECRET);
+        mResponseCache.put(request, SOURCE_ID, RESPONSE, true);
+
+        mClock.mTimeMillis += ResponseCache.TERMINAL_TTL_MILLIS - 1;
+        assertSame(RESPONSE, mResponseCache.get(request));
+        mClock.mTimeMillis += 1;
+        assertNull(mResponseCache.get(request));
+    }
+
+    @Test
+    public void get_withOtherClientSecret_shouldNotReturnResponse() {
+        mResponseCache.put(createRequest(SOURCE_ID, CLIENT_SECRET), SOURCE_ID, RESPONSE, true);
+        assertNull(mResponseCache.get(createRequest(SOURCE_ID, "src_client_secret_456")));
+    }
+
+    @Test
+    public void put_whenFull_shouldEvictLeastRecentlyUsedResponse() {
+        final ApiRequest request1 = createRequest("src_1", CLIENT_SECRET);
+        final ApiRequest request2 = createRequest("src_2", CLIENT_SECRET);
+        final ApiRequest request3 = createRequest("src_3", CLIENT_SECRET);
+        mResponseCache.put(request1, "src_1", RESPONSE, true);
+        mResponseCache.put(request2, "src_2", RESPONSE, true);
+        // use the first response, so that the second one is the least recently used
+        assertNotNull(mResponseCache.get(request1));
+
+        mResponseCache.put(request3, "src_3", RESPONSE, true);
+        assertEquals(2, mResponseCache.size());
+        assertNotNull(mResponseCache.get(request1));
+        assertNull(mResponseCache.get(request2));
+        assertNotNull(mResponseCache.get(request3));
+    }
+
+    @Test
+    public void invalidate_shouldRemoveEveryResponseForObject() {
+        mResponseCache.put(createRequest(SOURCE_ID, CLIENT_SECRET), SOURCE_ID, RESPONSE, true);
+        mResponseCache.put(createRequest("src_456", CLIENT_SECRET), "src_456", RESPONSE, true);
+
+        mResponseCache.invalidate(SOURCE_ID);
+        assertNull(mResponseCache.get(createRequest(SOURCE_ID, CLIENT_SECRET)));
+        assertNotNull(mResponseCache.get(createRequest("src_456", CLIENT_SECRET)));
+    }
+
+    @Test
+    public void createRevalidationRequest_withETag_shouldSendIfNoneMatch() {
+        final ApiRequest request = createRequest(SOURCE_ID, CLIENT_SECRET);
+        final Map<String, List<String>> headers =
+                Collections.singletonMap("ETag", Collections.singletonList("\"abc\""));
+        final StripeResponse response = new StripeResponse(200, "{}", headers);
+        mResponseCache.put(request, SOURCE_ID, response, false);
+        mClock.mTimeMillis += ResponseCache.DEFAULT_TTL_MILLIS;
+
+        final ApiRequest revalidationRequest = mResponseCache.createRevalidationRequest(request);
+        assertNotNull(revalidationRequest);
+        assertEquals(request.getBaseUrl(), revalidationRequest.getBaseUrl());
+        assertEquals(request.params, revalidationRequest.params);
+        assertEquals("\"abc\"",
+                revalidationRequest.createHeaders().get(ApiRequest.HEADER_IF_NONE_MATCH));
+
+        assertSame(response, mResponseCache.onNotModified(request));
+        assertEquals(1, mResponseCache.getRevalidatedCount());
+    }
+
+    @Test
+    public void createRevalidationRequest_withoutETag_shouldReturnNull() {
+        final ApiRequest request = createRequest(SOURCE_ID, CLIENT_SECRET);
+        assertNull(mResponseCache.createRevalidationRequest(request));
+
+        mResponseCache.put(request, SOURCE_ID, RESPONSE, false);
+        assertNull(mResponseCache.createRevalidationRequest(request));
+    }
+
+    @NonNull
+    private static ApiRequest createRequest(@NonNull String sourceId,
+                                            @NonNull String clientSecret) {
+        return ApiRequest.createGet(ApiRequest.API_HOST + "/v1/sources/" + sourceId,
+                Collections.singletonMap("client_secret", clientSecret),
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY), null);
+    }
+
+    private static final class FakeClock implements Clock {
+        private long mTimeMillis;
+
+        @Override
+        public long currentTimeMillis() {
+            return mTimeMillis;
+        }
+
+        @Override
+        public void sleep(long millis) {
+            mTimeMillis += millis;
+        }
+    }
+}
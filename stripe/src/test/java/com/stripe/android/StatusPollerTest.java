@@ -0,0 +1,322 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.stripe.android.exception.APIConnectionException;
+import com.stripe.android.exception.AuthenticationException;
+import com.stripe.android.exception.StripeException;
+import com.stripe.android.model.Source;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+public class StatusPollerTest {
+    private static final long TIMEOUT_MILLIS = 60000L;
+
+    private final FakeScheduler mScheduler = new FakeScheduler();
+    private final StatusPoller mStatusPoller = new StatusPoller(mScheduler, mScheduler);
+
+    @Mock private StripeApiHandler mApiHandler;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void poll_shouldDeliverTransitionsUntilTerminalStatus() {
+        final ScriptedTarget target = new ScriptedTarget(
+                "pending", "pending", "pending", "processing", "chargeable");
+        final RecordingListener<String> listener = new RecordingListener<>();
+        mStatusPoller.poll(target, TIMEOUT_MILLIS, listener);
+        mScheduler.runAll();
+
+        assertEquals(Arrays.asList("changed:pending", "changed:processing",
+                "changed:chargeable", "complete:chargeable"), listener.mEvents);
+        assertEquals(5, target.mRetrieveCount);
+        assertEquals(0, mStatusPoller.getPollCount());
+    }
+
+    @Test
+    public void poll_withUnchangedStatus_shouldBackOff() {
+        final ScriptedTarget target = new ScriptedTarget(
+                "pending", "pending", "pending", "pending", "pending", "pending", "pending",
+                "pending", "pending", "processing", "processing");
+        mStatusPoller.poll(target, 10 * TIMEOUT_MILLIS, new RecordingListener<String>());
+        mScheduler.runAll();
+
+        // the delays after the first poll, and after each unchanged status
+        final List<Long> delays = mScheduler.mDelays;
+        assertEquals(0L, (long) delays.get(0));
+        assertEquals(StatusPoller.INITIAL_DELAY_MILLIS, (long) delays.get(1));
+        for (int i = 2; i < 10; i++) {
+            assertTrue(delays.get(i) > delays.get(i - 1) ||
+                    delays.get(i) == StatusPoller.MAX_DELAY_MILLIS);
+        }
+        assertEquals(StatusPoller.MAX_DELAY_MILLIS, (long) delays.get(9));
+        // a change of status starts over at the initial delay
+        assertEquals(StatusPoller.INITIAL_DELAY_MILLIS, (long) delays.get(10));
+    }
+
+    @Test
+    public void poll_pastDeadline_shouldTimeOutWithLastResult() {
+        final ScriptedTarget target = new ScriptedTarget("pending");
+        final RecordingListener<String> listener = new RecordingListener<>();
+        mStatusPoller.poll(target, TIMEOUT_MILLIS, listener);
+        mScheduler.runAll();
+
+        assertEquals(Arrays.asList("changed:pending", "timeout:pending"), listener.mEvents);
+        // the last poll was made at the deadline
+        assertEquals(TIMEOUT_MILLIS, mScheduler.mTimeMillis);
+        assertEquals(0, mStatusPoller.getPollCount());
+    }
+
+    @Test
+    public void poll_withConcurrentListeners_shouldShareOnePoll() {
+        final ScriptedTarget target = new ScriptedTarget("pending", "pending", "chargeable");
+        final RecordingListener<String> firstListener = new RecordingListener<>();
+        final RecordingListener<String> secondListener = new RecordingListener<>();
+        mStatusPoller.poll(target, TIMEOUT_MILLIS, firstListener);
+        mScheduler.runNext();
+
+        mStatusPoller.poll(new ScriptedTarget(), TIMEOUT_MILLIS, secondListener);
+        assertEquals(1, mStatusPoller.getPollCount());
+        mScheduler.runAll();
+
+        final List<String> expectedEvents = Arrays.asList("changed:pending",
+                "changed:chargeable", "complete:chargeable");
+        assertEquals(expectedEvents, firstListener.mEvents);
+        // the second listener received the last result as soon as it joined
+        assertEquals(expectedEvents, secondListener.mEvents);
+        assertEquals(3, target.mRetrieveCount);
+    }
+
+    @Test
+    public void poll_withConnectionError_shouldKeepPolling() {
+        final ScriptedTarget target = new ScriptedTarget("pending", null, "chargeable");
+        final RecordingListener<String> listener = new RecordingListener<>();
+        mStatusPoller.poll(target, TIMEOUT_MILLIS, listener);
+        mScheduler.runAll();
+
+        assertEquals(Arrays.asList("changed:pending", "changed:chargeable",
+                "complete:chargeable"), listener.mEvents);
+    }
+
+    @Test
+    public void poll_withAuthenticationError_shouldStop() {
+        final ScriptedTarget target = new ScriptedTarget("pending");
+        target.mError = new AuthenticationException("Invalid API key", null, null);
+        final RecordingListener<String> listener = new RecordingListener<>();
+        mStatusPoller.poll(target, TIMEOUT_MILLIS, listener);
+        mScheduler.runAll();
+
+        assertEquals(Arrays.asList("error:AuthenticationException"), listener.mEvents);
+        assertEquals(0, mStatusPoller.getPollCount());
+    }
+
+    @Test
+    public void stop_withLastListener_shouldStopPolling() {
+        final ScriptedTarget target = new ScriptedTarget("pending");
+        final RecordingListener<String> listener = new RecordingListener<>();
+        mStatusPoller.poll(target, TIMEOUT_MILLIS, listener);
+        mScheduler.runNext();
+
+        mStatusPoller.stop(listener);
+        mScheduler.runAll();
+
+        assertEquals(Arrays.asList("changed:pending"), listener.mEvents);
+        assertEquals(1, target.mRetrieveCount);
+        assertEquals(0, mStatusPoller.getPollCount());
+    }
+
+    @Test
+    public void poll_withSourceTarget_shouldStopWhenSourceIsChargeable()
+            throws StripeException {
+        final ApiRequest.Options options =
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY);
+        when(mApiHandler.retrieveSource(eq("src_123"), eq("src_client_secret_123"),
+                any(ApiRequest.Options.class)))
+                .thenReturn(createSource(Source.PENDING), createSource(Source.PENDING),
+                        createSource(Source.CHARGEABLE));
+        final RecordingListener<Source> listener = new RecordingListener<>();
+
+        mStatusPoller.poll(StatusPoller.createSourceTarget(mApiHandler, "src_123",
+                "src_client_secret_123", options), TIMEOUT_MILLIS, listener);
+        mScheduler.runAll();
+
+        assertEquals(Arrays.asList("changed:pending", "changed:chargeable",
+                "complete:chargeable"), listener.mEvents);
+        verify(mApiHandler, times(3)).retrieveSource("src_123", "src_client_secret_123",
+                options);
+    }
+
+    @NonNull
+    private static Source createSource(@NonNull String status) {
+        final Source source = Source.fromString("{\n" +
+                "    \"id\": \"src_123\",\n" +
+                "    \"object\": \"source\",\n" +
+                "    \"client_secret\": \"src_client_secret_123\",\n" +
+                "    \"status\": \"" + status + "\",\n" +
+                "    \"type\": \"card\"\n" +
+                "}");
+        assertNotNull(source);
+        return source;
+    }
+
+    /**
+     * Stands in for the API: each poll returns the next status of the script, and the last
+     * status once the script is used up. A {@code null} status fails with a connection error.
+     */
+    private static final class ScriptedTarget implements StatusPoller.Target<String> {
+        @NonNull private final List<String> mStatuses;
+        @Nullable private StripeException mError;
+        private int mRetrieveCount;
+
+        private ScriptedTarget(@NonNull String... statuses) {
+            mStatuses = Arrays.asList(statuses);
+        }
+
+        @NonNull
+        @Override
+        public Object getKey() {
+            return "src_123";
+        }
+
+        @Nullable
+        @Override
+        public String retrieve() throws StripeException {
+            final String status = mStatuses.get(Math.min(mRetrieveCount, mStatuses.size() - 1));
+            mRetrieveCount++;
+            if (mError != null) {
+                throw mError;
+            } else if (status == null) {
+                throw new APIConnectionException("Connection reset", null);
+            }
+            return status;
+        }
+
+        @Nullable
+        @Override
+        public String getStatus(@NonNull String result) {
+            return result;
+        }
+
+        @Override
+        public boolean isTerminal(@NonNull String result) {
+            return !"pending".equals(result) && !"processing".equals(result);
+        }
+    }
+
+    private static final class RecordingListener<ResultType>
+            implements StatusPollingListener<ResultType> {
+        @NonNull private final List<String> mEvents = new ArrayList<>();
+
+        @Override
+        public void onStatusChanged(@NonNull ResultType result) {
+            mEvents.add("changed:" + getStatus(result));
+        }
+
+        @Override
+        public void onComplete(@NonNull ResultType result) {
+            mEvents.add("complete:" + getStatus(result));
+        }
+
+        @Override
+        public void onTimeout(@Nullable ResultType lastResult) {
+            mEvents.add("timeout:" + (lastResult != null ? getStatus(lastResult) : null));
+        }
+
+        @Override
+        public void onError(@NonNull Exception e) {
+            mEvents.add("error:" + e.getClass().getSimpleName());
+        }
+
+        @Nullable
+        private static String getStatus(@NonNull Object result) {
+            return result instanceof Source ? ((Source) result).getStatus() : (String) result;
+        }
+    }
+
+    /**
+     * Runs scheduled polls in order of their due time, advancing a fake clock to it, and
+     * delivers results right away.
+     */
+    private static final class FakeScheduler implements StatusPoller.Scheduler, Clock {
+        @NonNull private final LinkedList<ScheduledTask> mTasks = new LinkedList<>();
+        @NonNull private final List<Long> mDelays = new ArrayList<>();
+        private long mTimeMillis;
+
+        @Override
+        public void schedule(@NonNull Runnable task, long delayMillis) {
+            mDelays.add(delayMillis);
+            final ScheduledTask scheduledTask = new ScheduledTask(task,
+                    mTimeMillis + delayMillis);
+            int index = 0;
+            final Iterator<ScheduledTask> tasks = mTasks.iterator();
+            while (tasks.hasNext() && tasks.next().mDueAt <= scheduledTask.mDueAt) {
+                index++;
+            }
+            mTasks.add(index, scheduledTask);
+        }
+
+        @Override
+        public void deliver(@NonNull Runnable task) {
+            task.run();
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return mTimeMillis;
+        }
+
+        @Override
+        public void sleep(long millis) {
+            mTimeMillis += millis;
+        }
+
+        private void runNext() {
+            final ScheduledTask task = mTasks.removeFirst();
+            mTimeMillis = Math.max(mTimeMillis, task.mDueAt);
+            task.mTask.run();
+        }
+
+        private void runAll() {
+            // guard against a poll that never stops
+            for (int i = 0; i < 1000 && !mTasks.isEmpty(); i++) {
+                runNext();
+            }
+            assertTrue(mTasks.isEmpty());
+        }
+    }
+
+    private static final class ScheduledTask {
+        @NonNull private final Runnable mTask;
+        private final long mDueAt;
+
+        private ScheduledTask(@NonNull Runnable task, long dueAt) {
+            mTask = task;
+            mDueAt = dueAt;
+        }
+    }
+}
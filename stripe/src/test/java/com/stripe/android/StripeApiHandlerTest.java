@@ -11,9 +11,12 @@ import com.stripe.android.exception.CardException;
 import com.stripe.android.exception.InvalidRequestException;
 import com.stripe.android.exception.StripeException;
 import com.stripe.android.model.Card;
+import com.stripe.android.model.CustomerSourcesPage;
 import com.stripe.android.model.PaymentIntent;
 import com.stripe.android.model.PaymentIntentParams;
 import com.stripe.android.model.PaymentMethod;
+import com.stripe.android.model.PaymentMethodsPage;
+import com.stripe.android.model.PaymentMethodsPageTest;
 import com.stripe.android.model.Source;
 import com.stripe.android.model.SourceParams;
 
@@ -24,23 +27,37 @@ import org.junit.function.ThrowingRunnable;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.robolectric.RobolectricTestRunner;
 
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
+import java.security.Security;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -54,6 +71,21 @@ public class StripeApiHandlerTest {
 
     private static final Card CARD = Card.create("4242424242424242", 1, 2050, "123");
 
+    private static final String PENDING_SOURCE_JSON = "{\n" +
+            "    \"id\": \"src_123\",\n" +
+            "    \"object\": \"source\",\n" +
+            "    \"client_secret\": \"src_client_secret_123\",\n" +
+            "    \"status\": \"pending\",\n" +
+            "    \"type\": \"card\"\n" +
+            "}";
+
+    private static final String REQUIRES_ACTION_PAYMENT_INTENT_JSON = "{\n" +
+            "    \"id\": \"pi_123\",\n" +
+            "    \"object\": \"payment_intent\",\n" +
+            "    \"client_secret\": \"pi_123_secret_456\",\n" +
+            "    \"status\": \"requires_action\"\n" +
+            "}";
+
     @NonNull private final StripeApiHandler mApiHandler =
             new StripeApiHandler(ApplicationProvider.getApplicationContext(), null);
 
@@ -96,6 +128,12 @@ public class StripeApiHandlerTest {
         assertEquals("https://api.stripe.com/v1/customers/" + customerId, customerRequestUrl);
     }
 
+    @Test
+    public void testGetCustomerSourcesUrl() {
+        assertEquals("https://api.stripe.com/v1/customers/cus_123abc/sources",
+                StripeApiHandler.getCustomerSourcesUrl("cus_123abc"));
+    }
+
     @Test
     public void testGetAddCustomerSourceUrl() {
         String customerId = "cus_123abc";
@@ -196,7 +234,7 @@ public class StripeApiHandlerTest {
                 new ThrowingRunnable() {
                     @Override
                     public void run() throws Throwable {
-                        mApiHandler.start3ds2Auth(authParams,
+                        mApiHandler.start3ds2Auth(authParams, "pi_123",
                                 ApiKeyFixtures.DEFAULT_PUBLISHABLE_KEY);
                     }
                 });
@@ -211,7 +249,7 @@ public class StripeApiHandlerTest {
                 new ThrowingRunnable() {
                     @Override
                     public void run() throws Throwable {
-                        mApiHandler.complete3ds2Auth("src_123",
+                        mApiHandler.complete3ds2Auth("src_123", "pi_123",
                                 ApiKeyFixtures.DEFAULT_PUBLISHABLE_KEY);
                     }
                 });
@@ -346,6 +384,347 @@ public class StripeApiHandlerTest {
         verifyNoMoreInteractions(mRequestExecutor);
     }
 
+    @Test
+    public void retrievePaymentIntent_withSlowAnalytics_shouldNotWaitForAnalytics()
+            throws StripeException, InterruptedException {
+        final CountDownLatch analyticsLatch = new CountDownLatch(1);
+        when(mRequestExecutor.executeAndForget(any(StripeRequest.class)))
+                .thenAnswer(new Answer<Integer>() {
+                    @Override
+                    public Integer answer(InvocationOnMock invocation)
+                            throws InterruptedException {
+                        analyticsLatch.await();
+                        return 200;
+                    }
+                });
+        when(mRequestExecutor.execute(any(ApiRequest.class)))
+                .thenReturn(new StripeResponse(200, "{}", null));
+        final StripeApiHandler apiHandler = new StripeApiHandler(
+                ApplicationProvider.getApplicationContext(),
+                mRequestExecutor,
+                true,
+                null);
+
+        try {
+            apiHandler.retrievePaymentIntent(
+                    PaymentIntentParams.createRetrievePaymentIntentParams(
+                            "pi_1ExkUeAWhjPjYwPiXph9ouXa_secret_nGTdfGlzL9Uop59wN55LraiC7"),
+                    ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY));
+
+            // the API request was made while the analytics requests were still blocked
+            verify(mRequestExecutor).execute(any(ApiRequest.class));
+        } finally {
+            analyticsLatch.countDown();
+        }
+    }
+
+    @Test
+    public void retrieveCustomer_withConcurrentIdenticalCalls_shouldMakeOneRequest()
+            throws Exception {
+        final int callCount = 5;
+        final ApiRequest request = ApiRequest.createGet(
+                StripeApiHandler.getRetrieveCustomerUrl("cus_123"),
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_EPHEMERAL_KEY), null);
+        final CountDownLatch responseLatch = new CountDownLatch(1);
+        when(mRequestExecutor.execute(request))
+                .thenAnswer(new Answer<StripeResponse>() {
+                    @Override
+                    public StripeResponse answer(InvocationOnMock invocation)
+                            throws InterruptedException {
+                        responseLatch.await();
+                        return new StripeResponse(200, "{}", null);
+                    }
+                });
+        final RequestCoalescer requestCoalescer = new RequestCoalescer();
+        final StripeApiHandler apiHandler = new StripeApiHandler(
+                ApplicationProvider.getApplicationContext(),
+                mRequestExecutor,
+                false,
+                null,
+                new FingerprintRequestFactory(ApplicationProvider.getApplicationContext()),
+                new AnalyticsRequestQueue(mRequestExecutor,
+                        new AnalyticsJournal(ApplicationProvider.getApplicationContext())),
+                new RequestRetrier(),
+                requestCoalescer);
+
+        final List<Thread> threads = new ArrayList<>();
+        final AtomicInteger completedCount = new AtomicInteger();
+        for (int i = 0; i < callCount; i++) {
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        apiHandler.retrieveCustomer("cus_123",
+                                ApiKeyFixtures.FAKE_EPHEMERAL_KEY);
+                        completedCount.incrementAndGet();
+                    } catch (StripeException e) {
+                        fail(e.getMessage());
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        // wait until every other call is waiting for the first one
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (requestCoalescer.getWaiterCount(request) != callCount - 1) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+        responseLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        assertEquals(callCount, completedCount.get());
+        verify(mRequestExecutor).execute(request);
+    }
+
+    @Test
+    public void retrieveCustomer_withSequentialCalls_shouldMakeEachRequest()
+            throws StripeException {
+        final ApiRequest request = ApiRequest.createGet(
+                StripeApiHandler.getRetrieveCustomerUrl("cus_123"),
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_EPHEMERAL_KEY), null);
+        when(mRequestExecutor.execute(request))
+                .thenReturn(new StripeResponse(200, "{}", null));
+        final StripeApiHandler apiHandler = new StripeApiHandler(
+                ApplicationProvider.getApplicationContext(),
+                mRequestExecutor,
+                false,
+                null);
+
+        apiHandler.retrieveCustomer("cus_123", ApiKeyFixtures.FAKE_EPHEMERAL_KEY);
+        apiHandler.retrieveCustomer("cus_123", ApiKeyFixtures.FAKE_EPHEMERAL_KEY);
+        verify(mRequestExecutor, times(2)).execute(request);
+    }
+
+    @Test
+    public void retrieveSource_withinTtl_shouldMakeOneRequest() throws StripeException {
+        when(mRequestExecutor.execute(any(ApiRequest.class)))
+                .thenReturn(new StripeResponse(200, PENDING_SOURCE_JSON, null));
+        final StripeApiHandler apiHandler = new StripeApiHandler(
+                ApplicationProvider.getApplicationContext(),
+                mRequestExecutor,
+                false,
+                null);
+
+        final ApiRequest.Options options =
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY);
+        final Source source = apiHandler.retrieveSource("src_123", "src_client_secret_123",
+                options);
+        final Source cachedSource = apiHandler.retrieveSource("src_123",
+                "src_client_secret_123", options);
+        assertNotNull(source);
+        assertNotNull(cachedSource);
+        assertEquals(source.getId(), cachedSource.getId());
+        // the cached response is parsed again, so callers don't share a Source
+        assertNotSame(source, cachedSource);
+        verify(mRequestExecutor).execute(any(ApiRequest.class));
+    }
+
+    @Test
+    public void retrieveSource_withStaleResponse_shouldRevalidateWithETag()
+            throws StripeException {
+        final Map<String, List<String>> headers =
+                Collections.singletonMap("ETag", Collections.singletonList("\"v1\""));
+        when(mRequestExecutor.execute(any(ApiRequest.class)))
+                .thenAnswer(new Answer<StripeResponse>() {
+                    @Override
+                    public StripeResponse answer(InvocationOnMock invocation) {
+                        final ApiRequest request = invocation.getArgument(0);
+                        if (request.createHeaders()
+                                .containsKey(ApiRequest.HEADER_IF_NONE_MATCH)) {
+                            return new StripeResponse(HttpURLConnection.HTTP_NOT_MODIFIED,
+                                    null, null);
+                        }
+                        return new StripeResponse(200, PENDING_SOURCE_JSON, headers);
+                    }
+                });
+        final FakeClock clock = new FakeClock();
+        final ResponseCache responseCache = new ResponseCache(10, clock);
+        final StripeApiHandler apiHandler = new StripeApiHandler(
+                ApplicationProvider.getApplicationContext(),
+                mRequestExecutor,
+                false,
+                null,
+                new FingerprintRequestFactory(ApplicationProvider.getApplicationContext()),
+                new AnalyticsRequestQueue(mRequestExecutor,
+                        new AnalyticsJournal(ApplicationProvider.getApplicationContext())),
+                new RequestRetrier(),
+                new RequestCoalescer(),
+                responseCache);
+
+        final ApiRequest.Options options =
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY);
+        apiHandler.retrieveSource("src_123", "src_client_secret_123", options);
+        clock.mTimeMillis += ResponseCache.DEFAULT_TTL_MILLIS;
+        final Source source = apiHandler.retrieveSource("src_123", "src_client_secret_123",
+                options);
+
+        assertNotNull(source);
+        assertEquals("src_123", source.getId());
+        assertEquals(1, responseCache.getRevalidatedCount());
+        verify(mRequestExecutor, times(2)).execute(any(ApiRequest.class));
+
+        // the revalidated response is fresh again
+        apiHandler.retrieveSource("src_123", "src_client_secret_123", options);
+        verify(mRequestExecutor, times(2)).execute(any(ApiRequest.class));
+        assertEquals(1, responseCache.getHitCount());
+    }
+
+    @Test
+    public void retrievePaymentIntent_withoutCache_shouldMakeRequest() throws StripeException {
+        when(mRequestExecutor.execute(any(ApiRequest.class)))
+                .thenReturn(new StripeResponse(200, REQUIRES_ACTION_PAYMENT_INTENT_JSON, null));
+        final StripeApiHandler apiHandler = new StripeApiHandler(
+                ApplicationProvider.getApplicationContext(),
+                mRequestExecutor,
+                false,
+                null);
+        final PaymentIntentParams params =
+                PaymentIntentParams.createRetrievePaymentIntentParams("pi_123_secret_456");
+        final ApiRequest.Options options =
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY);
+
+        apiHandler.retrievePaymentIntent(params, options);
+        apiHandler.retrievePaymentIntent(params, options);
+        verify(mRequestExecutor).execute(any(ApiRequest.class));
+
+        final PaymentIntent paymentIntent =
+                apiHandler.retrievePaymentIntent(params, options, false);
+        assertNotNull(paymentIntent);
+        verify(mRequestExecutor, times(2)).execute(any(ApiRequest.class));
+    }
+
+    @Test
+    public void complete3ds2Auth_shouldInvalidateCachedPaymentIntent() throws StripeException {
+        when(mRequestExecutor.execute(any(ApiRequest.class)))
+                .thenReturn(new StripeResponse(200, REQUIRES_ACTION_PAYMENT_INTENT_JSON, null));
+        final StripeApiHandler apiHandler = new StripeApiHandler(
+                ApplicationProvider.getApplicationContext(),
+                mRequestExecutor,
+                false,
+                null);
+        final PaymentIntentParams params =
+                PaymentIntentParams.createRetrievePaymentIntentParams("pi_123_secret_456");
+        final ApiRequest.Options options =
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY);
+
+        apiHandler.retrievePaymentIntent(params, options);
+        apiHandler.complete3ds2Auth("src_123", "pi_123", ApiKeyFixtures.FAKE_PUBLISHABLE_KEY);
+        apiHandler.retrievePaymentIntent(params, options);
+
+        // retrieve, complete and retrieve again
+        verify(mRequestExecutor, times(3)).execute(any(ApiRequest.class));
+    }
+
+    @Test
+    public void retrievePaymentIntent_shouldReportParseTime() throws StripeException {
+        when(mRequestExecutor.execute(any(ApiRequest.class)))
+                .thenReturn(new StripeResponse(200, REQUIRES_ACTION_PAYMENT_INTENT_JSON, null));
+        final StripeApiHandler apiHandler = new StripeApiHandler(
+                ApplicationProvider.getApplicationContext(),
+                mRequestExecutor,
+                false,
+                null);
+
+        apiHandler.retrievePaymentIntent(
+                PaymentIntentParams.createRetrievePaymentIntentParams("pi_123_secret_456"),
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY));
+        verify(mRequestExecutor).onResponseParsed(eq("PaymentIntent"), anyLong());
+    }
+
+    @Test
+    public void confirmPaymentIntent_shouldInvalidateIntentCachedDuringConfirmation()
+            throws StripeException {
+        final StripeApiHandler apiHandler = new StripeApiHandler(
+                ApplicationProvider.getApplicationContext(),
+                mRequestExecutor,
+                false,
+                null);
+        final PaymentIntentParams retrieveParams =
+                PaymentIntentParams.createRetrievePaymentIntentParams("pi_123_secret_456");
+        final ApiRequest.Options options =
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY);
+        when(mRequestExecutor.execute(any(ApiRequest.class)))
+                .thenAnswer(new Answer<StripeResponse>() {
+                    @Override
+                    public StripeResponse answer(InvocationOnMock invocation)
+                            throws StripeException {
+                        final ApiRequest request = invocation.getArgument(0);
+                        if (request.method == StripeRequest.Method.POST) {
+                            // a poll while the confirmation is in flight caches the old status
+                            apiHandler.retrievePaymentIntent(retrieveParams, options);
+                        }
+                        return new StripeResponse(200, REQUIRES_ACTION_PAYMENT_INTENT_JSON,
+                                null);
+                    }
+                });
+
+        apiHandler.confirmPaymentIntent(
+                PaymentIntentParams.createConfirmPaymentIntentWithPaymentMethodId(
+                        "pm_123", "pi_123_secret_456", "yourapp://post-authentication-return-url",
+                        false),
+                options);
+        apiHandler.retrievePaymentIntent(retrieveParams, options);
+
+        // confirm, the retrieve during it and the retrieve after it
+        verify(mRequestExecutor, times(3)).execute(any(ApiRequest.class));
+    }
+
+    @Test
+    public void retrieveSource_whenChargeable_shouldNotKeepItLonger() throws StripeException {
+        when(mRequestExecutor.execute(any(ApiRequest.class)))
+                .thenReturn(new StripeResponse(200,
+                        PENDING_SOURCE_JSON.replace("pending", Source.CHARGEABLE), null));
+        final FakeClock clock = new FakeClock();
+        final StripeApiHandler apiHandler = new StripeApiHandler(
+                ApplicationProvider.getApplicationContext(),
+                mRequestExecutor,
+                false,
+                null,
+                new FingerprintRequestFactory(ApplicationProvider.getApplicationContext()),
+                new AnalyticsRequestQueue(mRequestExecutor,
+                        new AnalyticsJournal(ApplicationProvider.getApplicationContext())),
+                new RequestRetrier(),
+                new RequestCoalescer(),
+                new ResponseCache(10, clock));
+
+        final ApiRequest.Options options =
+                ApiRequest.Options.create(ApiKeyFixtures.FAKE_PUBLISHABLE_KEY);
+        apiHandler.retrieveSource("src_123", "src_client_secret_123", options);
+        // a chargeable source is consumed when it is charged, so it is only fresh briefly
+        clock.mTimeMillis += ResponseCache.DEFAULT_TTL_MILLIS;
+        apiHandler.retrieveSource("src_123", "src_client_secret_123", options);
+        verify(mRequestExecutor, times(2)).execute(any(ApiRequest.class));
+    }
+
+    @Test
+    public void makeApiRequest_shouldNotModifyDnsCacheTtl() throws StripeException {
+        final String originalDnsCacheTtl = Security.getProperty("networkaddress.cache.ttl");
+        Security.setProperty("networkaddress.cache.ttl", "30");
+        try {
+            final ApiRequest request = ApiRequest.createGet(
+                    StripeApiHandler.getRetrieveCustomerUrl("cus_123"),
+                    ApiRequest.Options.create(ApiKeyFixtures.FAKE_EPHEMERAL_KEY), null);
+            when(mRequestExecutor.execute(request))
+                    .thenReturn(new StripeResponse(200, "{}", null));
+            final StripeApiHandler apiHandler = new StripeApiHandler(
+                    ApplicationProvider.getApplicationContext(),
+                    mRequestExecutor,
+                    false,
+                    null);
+
+            apiHandler.makeApiRequest(request);
+            assertEquals("30", Security.getProperty("networkaddress.cache.ttl"));
+        } finally {
+            Security.setProperty("networkaddress.cache.ttl",
+                    originalDnsCacheTtl != null ? originalDnsCacheTtl : "-1");
+        }
+    }
+
     @Test
     public void getPaymentMethods_whenPopulated_returnsExpectedList()
             throws StripeException, UnsupportedEncodingException {
@@ -558,4 +937,154 @@ public class StripeApiHandlerTest {
                         ApiKeyFixtures.FAKE_EPHEMERAL_KEY);
         assertTrue(paymentMethods.isEmpty());
     }
+
+    @Test
+    public void getPaymentMethods_withManyPages_returnsAllPages()
+            throws StripeException {
+        final PaymentMethodsListStub stub = new PaymentMethodsListStub(5);
+        when(mRequestExecutor.execute(any(ApiRequest.class))).thenAnswer(stub);
+        final StripeApiHandler apiHandler = new StripeApiHandler(
+                ApplicationProvider.getApplicationContext(),
+                mRequestExecutor,
+                false,
+                null);
+        final List<PaymentMethod> paymentMethods = apiHandler
+                .getPaymentMethods("cus_123", PaymentMethod.Type.Card.code,
+                        ApiKeyFixtures.DEFAULT_PUBLISHABLE_KEY, new ArrayList<String>(),
+                        ApiKeyFixtures.FAKE_EPHEMERAL_KEY);
+
+        assertEquals(5, paymentMethods.size());
+        for (int i = 0; i < paymentMethods.size(); i++) {
+            assertEquals("pm_" + (i + 1), paymentMethods.get(i).id);
+        }
+        assertEquals(Arrays.asList(null, "pm_2", "pm_4"), stub.mStartingAfter);
+    }
+
+    @Test
+    public void getCustomerSourcesPage_withLimitAndStartingAfter_returnsPage()
+            throws StripeException, UnsupportedEncodingException {
+        final String responseBody =
+                "{\n" +
+                "    \"object\": \"list\",\n" +
+                "    \"data\": [\n" +
+                "        {\"id\": \"card_3\", \"object\": \"card\", \"last4\": \"4242\"}\n" +
+                "    ],\n" +
+                "    \"has_more\": true,\n" +
+                "    \"url\": \"/v1/customers/cus_123/sources\"\n" +
+                "}";
+        final Map<String, String> queryParams = new HashMap<>();
+        queryParams.put("limit", "1");
+        queryParams.put("starting_after", "card_2");
+
+        final ApiRequest.Options options = ApiRequest.Options
+                .create(ApiKeyFixtures.FAKE_EPHEMERAL_KEY);
+        final String url = ApiRequest.createGet(
+                StripeApiHandler.getCustomerSourcesUrl("cus_123"),
+                queryParams,
+                options,
+                null)
+                .getUrl();
+        when(mRequestExecutor.execute(argThat(
+                new ApiRequestMatcher(
+                        StripeRequest.Method.GET,
+                        url,
+                        options,
+                        queryParams))))
+                .thenReturn(new StripeResponse(200, responseBody, null));
+        final StripeApiHandler apiHandler = new StripeApiHandler(
+                ApplicationProvider.getApplicationContext(),
+                mRequestExecutor,
+                false,
+                null);
+
+        final CustomerSourcesPage page = apiHandler.getCustomerSourcesPage("cus_123", 1,
+                "card_2", ApiKeyFixtures.FAKE_EPHEMERAL_KEY);
+        assertNotNull(page);
+        assertTrue(page.hasMore);
+        assertEquals(1, page.customerSources.size());
+        assertEquals("card_3", page.getLastCustomerSourceId());
+    }
+
+    @Test
+    public void getPaymentMethodsPage_withLimitAndStartingAfter_returnsNextPage()
+            throws StripeException {
+        final PaymentMethodsListStub stub = new PaymentMethodsListStub(5);
+        when(mRequestExecutor.execute(any(ApiRequest.class))).thenAnswer(stub);
+        final StripeApiHandler apiHandler = new StripeApiHandler(
+                ApplicationProvider.getApplicationContext(),
+                mRequestExecutor,
+                false,
+                null);
+
+        final PaymentMethodsPage firstPage = apiHandler.getPaymentMethodsPage("cus_123",
+                PaymentMethod.Type.Card.code, 3, null,
+                ApiKeyFixtures.DEFAULT_PUBLISHABLE_KEY, new ArrayList<String>(),
+                ApiKeyFixtures.FAKE_EPHEMERAL_KEY);
+        assertNotNull(firstPage);
+        assertTrue(firstPage.hasMore);
+        assertEquals(3, firstPage.paymentMethods.size());
+        assertEquals("pm_3", firstPage.getLastPaymentMethodId());
+
+        final PaymentMethodsPage lastPage = apiHandler.getPaymentMethodsPage("cus_123",
+                PaymentMethod.Type.Card.code, 3, firstPage.getLastPaymentMethodId(),
+                ApiKeyFixtures.DEFAULT_PUBLISHABLE_KEY, new ArrayList<String>(),
+                ApiKeyFixtures.FAKE_EPHEMERAL_KEY);
+        assertNotNull(lastPage);
+        assertFalse(lastPage.hasMore);
+        assertEquals(2, lastPage.paymentMethods.size());
+        assertEquals("pm_4", lastPage.paymentMethods.get(0).id);
+        assertEquals(Arrays.asList("3", "3"), stub.mLimits);
+    }
+
+    /**
+     * Serves a Customer's card {@link PaymentMethod}s {@code pm_1} to {@code pm_n} like the
+     * List PaymentMethods API, honouring {@code limit} and {@code starting_after}, with pages of
+     * two by default.
+     */
+    private static final class PaymentMethodsListStub implements Answer<StripeResponse> {
+        private static final int DEFAULT_LIMIT = 2;
+
+        private final int mCount;
+        @NonNull private final List<String> mLimits = new ArrayList<>();
+        @NonNull private final List<String> mStartingAfter = new ArrayList<>();
+
+        private PaymentMethodsListStub(int count) {
+            mCount = count;
+        }
+
+        @Override
+        public StripeResponse answer(InvocationOnMock invocation) {
+            final StripeRequest request = invocation.getArgument(0);
+            assertNotNull(request.params);
+            final String limit = (String) request.params.get("limit");
+            final String startingAfter = (String) request.params.get("starting_after");
+            mLimits.add(limit);
+            mStartingAfter.add(startingAfter);
+
+            final int start = startingAfter == null ? 1 :
+                    Integer.parseInt(startingAfter.substring("pm_".length())) + 1;
+            final int end = Math.min(mCount,
+                    start - 1 + (limit == null ? DEFAULT_LIMIT : Integer.parseInt(limit)));
+            final List<String> ids = new ArrayList<>();
+            for (int i = start; i <= end; i++) {
+                ids.add("pm_" + i);
+            }
+            return new StripeResponse(200,
+                    PaymentMethodsPageTest.createPageJson(ids, end < mCount), null);
+        }
+    }
+
+    private static final class FakeClock implements Clock {
+        private long mTimeMillis;
+
+        @Override
+        public long currentTimeMillis() {
+            return mTimeMillis;
+        }
+
+        @Override
+        public void sleep(long millis) {
+            mTimeMillis += millis;
+        }
+    }
 }
@@ -24,6 +24,7 @@ import java.util.Map;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -183,6 +184,33 @@ public class StripeNetworkUtilsTest {
         assertTrue(uidParams.containsKey("guid"));
     }
 
+    @Test
+    public void createUidParams_calledTwice_shouldOnlyReadAndHashUidOnce() {
+        final int[] count = new int[1];
+        final StripeNetworkUtils networkUtils = new StripeNetworkUtils("com.example.app",
+                new Supplier<StripeUid>() {
+                    @NonNull
+                    @Override
+                    public StripeUid get() {
+                        count[0]++;
+                        return StripeUid.create("abc123");
+                    }
+                });
+
+        final Map<String, String> uidParams = networkUtils.createUidParams();
+        assertSame(uidParams, networkUtils.createUidParams());
+        assertEquals(1, count[0]);
+        assertEquals(StripeTextUtils.shaHashInput("abc123"), uidParams.get("guid"));
+        assertEquals(StripeTextUtils.shaHashInput("com.example.appabc123"),
+                uidParams.get("muid"));
+    }
+
+    @Test
+    public void createUidParams_withBlankUid_shouldReturnEmptyMap() {
+        assertTrue(new StripeNetworkUtils("com.example.app", new FakeUidSupplier(" "))
+                .createUidParams().isEmpty());
+    }
+
     @Test
     public void addUidParamsToPaymentIntent_withSource_addsParamsAtRightLevel() {
         final Map<String, Object> existingMap = new HashMap<>();
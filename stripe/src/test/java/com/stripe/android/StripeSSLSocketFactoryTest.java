@@ -0,0 +1,154 @@
+package com.stripe.android;
+
+import android.support.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManagerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class StripeSSLSocketFactoryTest {
+    private static final String KEY_STORE = "test_tls_server.p12";
+    private static final char[] KEY_STORE_PASSWORD = "stripe".toCharArray();
+    private static final int REQUEST_COUNT = 100;
+
+    private KeyStore mKeyStore;
+    private SSLServerSocket mServerSocket;
+    private final Set<String> mServerSessionIds =
+            Collections.synchronizedSet(new HashSet<String>());
+
+    @Before
+    public void setup() throws IOException, GeneralSecurityException {
+        mKeyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream(KEY_STORE)) {
+            mKeyStore.load(input, KEY_STORE_PASSWORD);
+        }
+        startServer();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mServerSocket.close();
+    }
+
+    @Test
+    public void createSocket_withDefaultConstructor_shouldUseDefaultSocketFactory()
+            throws IOException, GeneralSecurityException {
+        final SSLSocketFactory defaultFactory = HttpsURLConnection.getDefaultSSLSocketFactory();
+        // only a factory that trusts the test server's self-signed certificate can connect
+        HttpsURLConnection.setDefaultSSLSocketFactory(
+                createClientSslContext().getSocketFactory());
+        try (SSLSocket socket = (SSLSocket) new StripeSSLSocketFactory().createSocket(
+                mServerSocket.getInetAddress(), mServerSocket.getLocalPort())) {
+            exchangeByte(socket);
+        } finally {
+            HttpsURLConnection.setDefaultSSLSocketFactory(defaultFactory);
+        }
+    }
+
+    @Test
+    public void createSocket_withSequentialRequests_shouldResumeSession()
+            throws IOException, GeneralSecurityException {
+        final StripeSSLSocketFactory factory =
+                new StripeSSLSocketFactory(createClientSslContext());
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            try (SSLSocket socket = (SSLSocket) factory.createSocket(
+                    mServerSocket.getInetAddress(), mServerSocket.getLocalPort())) {
+                final List<String> enabledProtocols =
+                        Arrays.asList(socket.getEnabledProtocols());
+                assertTrue(enabledProtocols.contains("TLSv1.2"));
+                exchangeByte(socket);
+            }
+        }
+
+        // every connection after the first resumed the first connection's session
+        assertEquals(1, mServerSessionIds.size());
+    }
+
+    @Test
+    public void createSocket_withNewSslContexts_shouldDoFullHandshakes()
+            throws IOException, GeneralSecurityException {
+        for (int i = 0; i < 3; i++) {
+            final StripeSSLSocketFactory factory =
+                    new StripeSSLSocketFactory(createClientSslContext());
+            try (SSLSocket socket = (SSLSocket) factory.createSocket(
+                    mServerSocket.getInetAddress(), mServerSocket.getLocalPort())) {
+                exchangeByte(socket);
+            }
+        }
+
+        assertEquals(3, mServerSessionIds.size());
+    }
+
+    /**
+     * Starts a TLS server that records the ID of each connection's session. The server only
+     * accepts TLS 1.2, where a resumed session keeps the ID of the session it resumes.
+     */
+    private void startServer() throws IOException, GeneralSecurityException {
+        final KeyManagerFactory keyManagerFactory =
+                KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(mKeyStore, KEY_STORE_PASSWORD);
+        final SSLContext serverSslContext = SSLContext.getInstance("TLS");
+        serverSslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+
+        mServerSocket = (SSLServerSocket) serverSslContext.getServerSocketFactory()
+                .createServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+        mServerSocket.setEnabledProtocols(new String[] { "TLSv1.2" });
+
+        final Thread serverThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!mServerSocket.isClosed()) {
+                    try (SSLSocket socket = (SSLSocket) mServerSocket.accept()) {
+                        socket.startHandshake();
+                        mServerSessionIds.add(Arrays.toString(socket.getSession().getId()));
+                        socket.getOutputStream().write(socket.getInputStream().read());
+                    } catch (IOException ignore) {
+                        // the connection failed, or the server was closed
+                    }
+                }
+            }
+        });
+        serverThread.setDaemon(true);
+        serverThread.start();
+    }
+
+    @NonNull
+    private SSLContext createClientSslContext() throws GeneralSecurityException {
+        final TrustManagerFactory trustManagerFactory =
+                TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(mKeyStore);
+        final SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, trustManagerFactory.getTrustManagers(), null);
+        return sslContext;
+    }
+
+    private static void exchangeByte(@NonNull SSLSocket socket) throws IOException {
+        socket.getOutputStream().write(1);
+        assertEquals(1, socket.getInputStream().read());
+    }
+}
@@ -29,8 +29,10 @@ import org.junit.function.ThrowingRunnable;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
 
@@ -38,6 +40,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -64,6 +67,16 @@ public class StripeTest {
         }
     };
 
+    private static final Cancellable CANCELLABLE = new Cancellable() {
+        @Override
+        public void cancel() {
+        }
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
     private static final String TEST_CARD_NUMBER = "4242424242424242";
     private static final String TEST_BANK_ACCOUNT_NUMBER = "000123456789";
     private static final String TEST_BANK_ROUTING_NUMBER = "110000000";
@@ -156,16 +169,18 @@ public class StripeTest {
         final boolean[] tokenCreatorCalled = { false };
         final Stripe stripe = createNonLoggingStripe(
                 new Stripe.TokenCreator() {
+                    @NonNull
                     @Override
-                    public void create(@NonNull Map<String, Object> tokenParams,
-                                       @NonNull ApiRequest.Options requestOptions,
-                                       @NonNull @Token.TokenType String tokenType,
-                                       @Nullable Executor executor,
-                                       @NonNull TokenCallback callback) {
+                    public Cancellable create(@NonNull Map<String, Object> tokenParams,
+                                              @NonNull ApiRequest.Options requestOptions,
+                                              @NonNull @Token.TokenType String tokenType,
+                                              @Nullable Executor executor,
+                                              @NonNull TokenCallback callback) {
                         tokenCreatorCalled[0] = true;
+                        return CANCELLABLE;
                     }
                 });
-        stripe.createToken(DEFAULT_CARD, DEFAULT_TOKEN_CALLBACK);
+        assertSame(CANCELLABLE, stripe.createToken(DEFAULT_CARD, DEFAULT_TOKEN_CALLBACK));
         assertTrue(tokenCreatorCalled[0]);
     }
 
@@ -178,15 +193,17 @@ public class StripeTest {
         };
         final Stripe stripe = createNonLoggingStripe(
                 new Stripe.TokenCreator() {
+                    @NonNull
                     @Override
-                    public void create(@NonNull Map<String, Object> tokenParams,
-                                       @NonNull ApiRequest.Options requestOptions,
-                                       @NonNull @Token.TokenType String tokenType,
-                                       @Nullable Executor executor,
-                                       @NonNull TokenCallback callback) {
+                    public Cancellable create(@NonNull Map<String, Object> tokenParams,
+                                              @NonNull ApiRequest.Options requestOptions,
+                                              @NonNull @Token.TokenType String tokenType,
+                                              @Nullable Executor executor,
+                                              @NonNull TokenCallback callback) {
                         assertEquals(expectedExecutor, executor);
                         assertEquals(NON_LOGGING_PK, requestOptions.apiKey);
                         assertEquals(DEFAULT_TOKEN_CALLBACK, callback);
+                        return CANCELLABLE;
                     }
                 });
         stripe.createToken(DEFAULT_CARD, expectedExecutor, DEFAULT_TOKEN_CALLBACK);
@@ -196,20 +213,56 @@ public class StripeTest {
     public void createTokenShouldUseProvidedKey() {
         final Stripe stripe = createNonLoggingStripe(
                 new Stripe.TokenCreator() {
+                    @NonNull
                     @Override
-                    public void create(@NonNull Map<String, Object> tokenParams,
-                                       @NonNull ApiRequest.Options requestOptions,
-                                       @NonNull @Token.TokenType String tokenType,
-                                       @Nullable Executor executor,
-                                       @NonNull TokenCallback callback) {
+                    public Cancellable create(@NonNull Map<String, Object> tokenParams,
+                                              @NonNull ApiRequest.Options requestOptions,
+                                              @NonNull @Token.TokenType String tokenType,
+                                              @Nullable Executor executor,
+                                              @NonNull TokenCallback callback) {
                         assertEquals(NON_LOGGING_PK, requestOptions.apiKey);
                         assertNull(executor);
                         assertEquals(DEFAULT_TOKEN_CALLBACK, callback);
+                        return CANCELLABLE;
                     }
                 });
         stripe.createToken(DEFAULT_CARD, DEFAULT_TOKEN_CALLBACK);
     }
 
+    @Test
+    public void createPaymentMethod_whenCancelled_shouldNotRun() {
+        final List<Runnable> tasks = new ArrayList<>();
+        final Executor executor = new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                tasks.add(command);
+            }
+        };
+        final boolean[] callbackCalled = { false };
+        final Cancellable cancellable = createNonLoggingStripe().createPaymentMethod(
+                PaymentMethodCreateParams.create(
+                        PaymentMethodCreateParams.Card.create("tok_visa"), null),
+                new ApiResultCallback<PaymentMethod>() {
+                    @Override
+                    public void onSuccess(@NonNull PaymentMethod result) {
+                        callbackCalled[0] = true;
+                    }
+
+                    @Override
+                    public void onError(@NonNull Exception e) {
+                        callbackCalled[0] = true;
+                    }
+                },
+                NON_LOGGING_PK,
+                executor);
+        cancellable.cancel();
+        assertTrue(cancellable.isCancelled());
+
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        assertFalse(callbackCalled[0]);
+    }
+
     @Test
     public void createCardTokenSynchronous_withValidData_returnsToken()
             throws StripeException {
@@ -6,6 +6,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -168,6 +169,18 @@ public class StripeTextUtilsTest {
                 StripeTextUtils.removeSpacesAndHyphens(" -    1-  --- 2   3- - - -------- "));
     }
 
+    @Test
+    public void removeSpacesAndHyphens_removesOtherWhitespace() {
+        assertEquals("4242424242424242",
+                StripeTextUtils.removeSpacesAndHyphens("4242\t4242\n4242\r\n4242\f"));
+    }
+
+    @Test
+    public void removeSpacesAndHyphens_withNothingToRemove_returnsSameString() {
+        final String cardNumber = "4242424242424242";
+        assertSame(cardNumber, StripeTextUtils.removeSpacesAndHyphens(cardNumber));
+    }
+
     @Test
     public void shaHashInput_withNullInput_returnsNull() {
         assertNull(StripeTextUtils.shaHashInput("  "));
@@ -0,0 +1,80 @@
+package com.stripe.android;
+
+import android.content.Context;
+import android.provider.Settings;
+import android.support.annotation.NonNull;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricTestRunner.class)
+public class UidSupplierTest {
+
+    private Context mContext;
+    private List<Runnable> mTasks;
+    private Executor mExecutor;
+
+    @Before
+    public void setup() {
+        UidSupplier.reset();
+        mContext = ApplicationProvider.getApplicationContext();
+        Settings.Secure.putString(mContext.getContentResolver(), Settings.Secure.ANDROID_ID,
+                "abc123");
+        mTasks = new ArrayList<>();
+        mExecutor = new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                mTasks.add(command);
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        UidSupplier.reset();
+    }
+
+    @Test
+    public void constructor_withSeveralInstances_shouldPrefetchOnce() {
+        new UidSupplier(mContext, mExecutor);
+        new UidSupplier(mContext, mExecutor);
+        new UidSupplier(mContext, mExecutor);
+        assertEquals(1, mTasks.size());
+    }
+
+    @Test
+    public void constructor_afterPrefetch_shouldNotPrefetchAgain() {
+        new UidSupplier(mContext, mExecutor);
+        mTasks.get(0).run();
+
+        new UidSupplier(mContext, mExecutor);
+        assertEquals(1, mTasks.size());
+    }
+
+    @Test
+    public void get_shouldShareIdBetweenInstances() {
+        final StripeUid uid = new UidSupplier(mContext, mExecutor).get();
+        assertEquals("abc123", uid.value);
+        assertSame(uid, new UidSupplier(mContext, mExecutor).get());
+    }
+
+    @Test
+    public void reset_shouldAllowAnotherPrefetch() {
+        new UidSupplier(mContext, mExecutor);
+        UidSupplier.reset();
+        new UidSupplier(mContext, mExecutor);
+        assertEquals(2, mTasks.size());
+    }
+}
@@ -0,0 +1,99 @@
+package com.stripe.android.model;
+
+import android.support.annotation.NonNull;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static com.stripe.android.model.CardTest.JSON_CARD_USD;
+import static com.stripe.android.model.CustomerSourceTest.JSON_APPLE_PAY_CARD;
+import static com.stripe.android.model.SourceTest.EXAMPLE_ALIPAY_SOURCE;
+import static com.stripe.android.model.SourceTest.EXAMPLE_JSON_SOURCE_WITHOUT_NULLS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link CustomerSourcesPage}.
+ */
+public class CustomerSourcesPageTest {
+
+    @Test
+    public void fromString_shouldDropApplePaySourcesAndKeepCursor() throws JSONException {
+        final JSONArray data = new JSONArray()
+                .put(new JSONObject(JSON_CARD_USD).put("id", "card_1"))
+                .put(new JSONObject(EXAMPLE_ALIPAY_SOURCE))
+                .put(new JSONObject(EXAMPLE_JSON_SOURCE_WITHOUT_NULLS))
+                .put(new JSONObject(JSON_APPLE_PAY_CARD).put("id", "card_apple_pay"));
+        final CustomerSourcesPage page = CustomerSourcesPage.fromString(createPageJson(data, true));
+        assertNotNull(page);
+        assertTrue(page.hasMore);
+        assertEquals(2, page.customerSources.size());
+        assertEquals("card_1", page.customerSources.get(0).getId());
+        assertEquals(Source.ALIPAY, page.customerSources.get(1).getSourceType());
+        // the next page starts after the last source in the response, even if it was dropped
+        assertEquals("card_apple_pay", page.getLastCustomerSourceId());
+    }
+
+    @Test
+    public void fromString_shouldMatchCustomerSourceFromJson() throws JSONException {
+        final JSONArray data = new JSONArray()
+                .put(new JSONObject(JSON_CARD_USD))
+                .put(new JSONObject(EXAMPLE_ALIPAY_SOURCE));
+        final CustomerSourcesPage page =
+                CustomerSourcesPage.fromString(createPageJson(data, false));
+        assertNotNull(page);
+        assertFalse(page.hasMore);
+        assertEquals(CustomerSource.fromString(JSON_CARD_USD), page.customerSources.get(0));
+        assertEquals(CustomerSource.fromString(EXAMPLE_ALIPAY_SOURCE),
+                page.customerSources.get(1));
+    }
+
+    @Test
+    public void read_shouldReadSourcesOnFirstUse() throws JSONException {
+        final String json = new JSONArray()
+                .put(new JSONObject(JSON_CARD_USD))
+                .put(new JSONObject(EXAMPLE_ALIPAY_SOURCE))
+                .toString();
+        final CustomerSourceList sources =
+                CustomerSourceList.read(new StripeJsonReader(json), json);
+        assertEquals(2, sources.size());
+        assertFalse(sources.isRead(0));
+        assertFalse(sources.isRead(1));
+
+        assertNotNull(sources.get(1));
+        assertFalse(sources.isRead(0));
+        assertTrue(sources.isRead(1));
+    }
+
+    @Test
+    public void fromString_withEmptyData_shouldHaveNoCursor() throws JSONException {
+        final CustomerSourcesPage page =
+                CustomerSourcesPage.fromString(createPageJson(new JSONArray(), false));
+        assertNotNull(page);
+        assertTrue(page.customerSources.isEmpty());
+        assertNull(page.getLastCustomerSourceId());
+    }
+
+    @Test
+    public void fromString_withMalformedJson_shouldReturnNull() {
+        assertNull(CustomerSourcesPage.fromString(null));
+        assertNull(CustomerSourcesPage.fromString("{\"data\": [{\"id\": }]}"));
+        assertNull(CustomerSourcesPage.fromString("[]"));
+    }
+
+    @NonNull
+    private static String createPageJson(@NonNull JSONArray data, boolean hasMore)
+            throws JSONException {
+        return new JSONObject()
+                .put("object", "list")
+                .put("data", data)
+                .put("has_more", hasMore)
+                .put("url", "/v1/customers/cus_123/sources")
+                .toString();
+    }
+}
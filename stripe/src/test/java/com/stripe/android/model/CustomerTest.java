@@ -12,6 +12,7 @@ import static com.stripe.android.model.CustomerSourceTest.JSON_APPLE_PAY_CARD;
 import static com.stripe.android.model.SourceTest.EXAMPLE_ALIPAY_SOURCE;
 import static com.stripe.android.model.SourceTest.EXAMPLE_JSON_SOURCE_WITHOUT_NULLS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -21,7 +22,7 @@ import static org.junit.Assert.assertTrue;
  */
 public class CustomerTest {
 
-    private static final String NON_CUSTOMER_OBJECT =
+    static final String NON_CUSTOMER_OBJECT =
             "{\n" +
                     "    \"object\": \"not_a_customer\",\n" +
                     "    \"has_more\": false,\n" +
@@ -29,7 +30,7 @@ public class CustomerTest {
                     "    \"url\": \"http://google.com\"\n" +
                     "}";
 
-    private static final String TEST_CUSTOMER_OBJECT =
+    static final String TEST_CUSTOMER_OBJECT =
             "{\n" +
             "  \"id\": \"cus_AQsHpvKfKwJDrF\",\n" +
             "  \"object\": \"customer\",\n" +
@@ -87,6 +88,58 @@ public class CustomerTest {
                 Customer.fromString(TEST_CUSTOMER_OBJECT));
     }
 
+    @Test
+    public void fromString_withManySources_matchesFromJson() throws JSONException {
+        final String json = createTestCustomerObjectWithManySources(500);
+        final Customer customer = Customer.fromString(json);
+        final Customer expectedCustomer = Customer.fromJson(new JSONObject(json));
+        assertNotNull(customer);
+        assertNotNull(expectedCustomer);
+        // every fifth source is an Apple Pay card
+        assertEquals(400, customer.getSources().size());
+        assertEquals(expectedCustomer.getSources(), customer.getSources());
+        assertEquals(expectedCustomer, customer);
+        assertNotNull(customer.getSourceById("card_499"));
+        assertNull(customer.getSourceById("card_500"));
+    }
+
+    @Test
+    public void fromString_withManySources_readsSourcesOnFirstUse() throws JSONException {
+        final Customer customer =
+                Customer.fromString(createTestCustomerObjectWithManySources(500));
+        assertNotNull(customer);
+        final CustomerSourceList sources = (CustomerSourceList) customer.getSources();
+        assertFalse(sources.isRead(0));
+
+        final CustomerSource source = sources.get(0);
+        assertNotNull(source);
+        assertEquals("card_1", source.getId());
+        assertTrue(sources.isRead(0));
+        assertFalse(sources.isRead(1));
+    }
+
+    /**
+     * @return a customer with cards {@code card_1} to {@code card_n}, where every fifth card
+     *         was tokenized with Apple Pay
+     */
+    @NonNull
+    private String createTestCustomerObjectWithManySources(int count) throws JSONException {
+        final JSONObject rawJsonCustomer = new JSONObject(TEST_CUSTOMER_OBJECT);
+        final JSONObject sourcesObject = rawJsonCustomer.getJSONObject("sources");
+        final JSONArray sourcesArray = new JSONArray();
+        for (int i = 1; i <= count; i++) {
+            final JSONObject card = new JSONObject(JSON_CARD_USD).put("id", "card_" + i);
+            if (i % 5 == 0) {
+                card.put("tokenization_method", "apple_pay");
+            }
+            sourcesArray.put(card);
+        }
+        sourcesObject.put("data", sourcesArray);
+        sourcesObject.put("has_more", false);
+        sourcesObject.put("total_count", count);
+        return rawJsonCustomer.toString();
+    }
+
     @NonNull
     private String createTestCustomerObjectWithApplePaySource() throws JSONException {
         final JSONObject rawJsonCustomer = new JSONObject(TEST_CUSTOMER_OBJECT);
@@ -0,0 +1,158 @@
+package com.stripe.android.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.stripe.android.model.SourceTest.EXAMPLE_JSON_SOURCE_WITHOUT_NULLS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link LazyJsonValue}.
+ */
+public class LazyJsonValueTest {
+
+    private static final String JSON = "{\"id\": \"src_123\", \"owner\": {\"name\": \"Jenny\"}}";
+
+    @Test
+    public void get_shouldReadValueOnFirstUseOnly() throws JSONException {
+        final CountingDecoder decoder = new CountingDecoder();
+        final LazyJsonValue<Map<String, Object>> value = createOwnerValue(decoder);
+        assertFalse(value.isDecoded());
+        assertEquals(0, decoder.mCount.get());
+
+        final Map<String, Object> expectedOwner = new HashMap<>();
+        expectedOwner.put("name", "Jenny");
+        assertEquals(expectedOwner, value.get());
+        assertTrue(value.isDecoded());
+        assertSame(value.get(), value.get());
+        assertEquals(1, decoder.mCount.get());
+    }
+
+    @Test
+    public void get_fromManyThreads_shouldReadValueOnce() throws Exception {
+        final CountingDecoder decoder = new CountingDecoder();
+        final LazyJsonValue<Map<String, Object>> value = createOwnerValue(decoder);
+        final List<Object> results = Collections.synchronizedList(new ArrayList<Object>());
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ignored) {
+                    }
+                    results.add(value.get());
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, decoder.mCount.get());
+        assertEquals(8, results.size());
+        for (Object result : results) {
+            assertNotNull(result);
+            assertSame(results.get(0), result);
+        }
+    }
+
+    @Test
+    public void get_whenValueCannotBeRead_shouldReturnNull() {
+        final LazyJsonValue<String> value = new LazyJsonValue<>(JSON, 0,
+                new LazyJsonValue.Decoder<String>() {
+                    @Nullable
+                    @Override
+                    public String decode(@NonNull StripeJsonReader reader)
+                            throws JSONException {
+                        throw new JSONException("Not a string");
+                    }
+                });
+        assertNull(value.get());
+        assertTrue(value.isDecoded());
+    }
+
+    @Test
+    public void of_shouldNotReadAnything() {
+        final LazyJsonValue<String> value = LazyJsonValue.of("src_123");
+        assertTrue(value.isDecoded());
+        assertEquals("src_123", value.get());
+    }
+
+    @Test
+    public void source_fromString_shouldReadSectionsLikeFromJson() throws JSONException {
+        final Source source = Source.fromString(EXAMPLE_JSON_SOURCE_WITHOUT_NULLS);
+        final Source expectedSource =
+                Source.fromJson(new JSONObject(EXAMPLE_JSON_SOURCE_WITHOUT_NULLS));
+        assertNotNull(source);
+        assertNotNull(expectedSource);
+        assertEquals(expectedSource.getStatus(), source.getStatus());
+        assertNotNull(source.getOwner());
+        assertEquals(expectedSource.getOwner(), source.getOwner());
+        assertEquals(expectedSource.getReceiver(), source.getReceiver());
+        assertEquals(expectedSource.getRedirect(), source.getRedirect());
+        assertEquals(expectedSource.getCodeVerification(), source.getCodeVerification());
+        assertEquals(expectedSource, source);
+    }
+
+    @Test
+    public void source_setOwner_shouldReplaceUnreadOwner() {
+        final Source source = Source.fromString(EXAMPLE_JSON_SOURCE_WITHOUT_NULLS);
+        assertNotNull(source);
+        source.setOwner(null);
+        assertNull(source.getOwner());
+    }
+
+    @NonNull
+    private static LazyJsonValue<Map<String, Object>> createOwnerValue(
+            @NonNull CountingDecoder decoder) throws JSONException {
+        final StripeJsonReader reader = new StripeJsonReader(JSON);
+        assertTrue(reader.beginObject());
+        LazyJsonValue<Map<String, Object>> value = null;
+        while (reader.hasNext()) {
+            if ("owner".equals(reader.nextName())) {
+                value = reader.nextLazyValue(decoder);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        assertNotNull(value);
+        return value;
+    }
+
+    private static final class CountingDecoder
+            implements LazyJsonValue.Decoder<Map<String, Object>> {
+        @NonNull private final AtomicInteger mCount = new AtomicInteger();
+
+        @Nullable
+        @Override
+        public Map<String, Object> decode(@NonNull StripeJsonReader reader)
+                throws JSONException {
+            mCount.incrementAndGet();
+            return reader.nextMap();
+        }
+    }
+}
@@ -23,7 +23,7 @@ import static org.junit.Assert.assertTrue;
 @RunWith(RobolectricTestRunner.class)
 public class PaymentIntentTest {
 
-    private static final String PAYMENT_INTENT_WITH_SOURCE_JSON = "{\n" +
+    static final String PAYMENT_INTENT_WITH_SOURCE_JSON = "{\n" +
             "  \"id\": \"pi_1CkiBMLENEVhOs7YMtUehLau\",\n" +
             "  \"object\": \"payment_intent\",\n" +
             "  \"payment_method_types\": [\n" +
@@ -72,7 +72,7 @@ public class PaymentIntentTest {
             "  \"status\": \"requires_action\"\n" +
             "}\n";
 
-    private static final String PAYMENT_INTENT_WITH_PAYMENT_METHODS_JSON = "{\n" +
+    static final String PAYMENT_INTENT_WITH_PAYMENT_METHODS_JSON = "{\n" +
             "  \"id\": \"pi_Aabcxyz01aDfoo\",\n" +
             "  \"object\": \"payment_intent\",\n" +
             "  \"amount\": 750,\n" +
@@ -130,7 +130,7 @@ public class PaymentIntentTest {
             "  \"transfer_group\": null\n" +
             "}";
 
-    private static final String PARTIAL_PAYMENT_INTENT_WITH_REDIRECT_URL_JSON = "{\n" +
+    static final String PARTIAL_PAYMENT_INTENT_WITH_REDIRECT_URL_JSON = "{\n" +
             "\t\"id\": \"pi_Aabcxyz01aDfoo\",\n" +
             "\t\"object\": \"payment_intent\",\n" +
             "\t\"status\": \"requires_action\",\n" +
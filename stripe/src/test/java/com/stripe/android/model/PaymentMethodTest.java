@@ -55,7 +55,7 @@ public class PaymentMethodTest {
             "\t}\n" +
             "}";
 
-    private static final String RAW_IDEAL_JSON = "{\n" +
+    static final String RAW_IDEAL_JSON = "{\n" +
             "\t\"id\": \"pm_123456789\",\n" +
             "\t\"created\": 1550757934255,\n" +
             "\t\"customer\": \"cus_AQsHpvKfKwJDrF\",\n" +
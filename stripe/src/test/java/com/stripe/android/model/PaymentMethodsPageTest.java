@@ -0,0 +1,115 @@
+package com.stripe.android.model;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link PaymentMethodsPage}.
+ */
+public class PaymentMethodsPageTest {
+
+    @Test
+    public void fromString_shouldReadPaymentMethodsAndHasMore() {
+        final PaymentMethodsPage page = PaymentMethodsPage.fromString(
+                createPageJson(Arrays.asList("pm_1", "pm_2"), true));
+        assertNotNull(page);
+        assertTrue(page.hasMore);
+        assertEquals(2, page.paymentMethods.size());
+        assertEquals("pm_1", page.paymentMethods.get(0).id);
+        assertEquals(PaymentMethod.Type.Card.code, page.paymentMethods.get(0).type);
+        assertEquals("pm_2", page.getLastPaymentMethodId());
+    }
+
+    @Test
+    public void fromString_withPaymentMethodJson_shouldMatchPaymentMethod() {
+        final PaymentMethodsPage page = PaymentMethodsPage.fromString("{\n" +
+                "  \"object\": \"list\",\n" +
+                "  \"data\": [" + PaymentMethodTest.RAW_CARD_JSON + "],\n" +
+                "  \"has_more\": false,\n" +
+                "  \"url\": \"/v1/payment_methods\"\n" +
+                "}");
+        assertNotNull(page);
+        assertFalse(page.hasMore);
+        assertEquals(1, page.paymentMethods.size());
+        assertEquals(PaymentMethod.fromString(PaymentMethodTest.RAW_CARD_JSON),
+                page.paymentMethods.get(0));
+    }
+
+    @Test
+    public void fromString_shouldSkipEntriesThatAreNotObjects() {
+        final PaymentMethodsPage page = PaymentMethodsPage.fromString("{\n" +
+                "  \"object\": \"list\",\n" +
+                "  \"data\": [\n" +
+                "    null,\n" +
+                "    \"pm_1\",\n" +
+                "    [\"pm_3\"],\n" +
+                "    " + createPaymentMethodJson("pm_2") + "\n" +
+                "  ],\n" +
+                "  \"has_more\": false\n" +
+                "}");
+        assertNotNull(page);
+        assertEquals(1, page.paymentMethods.size());
+        assertEquals("pm_2", page.paymentMethods.get(0).id);
+    }
+
+    @Test
+    public void fromString_withEmptyData_shouldHaveNoLastPaymentMethodId() {
+        final PaymentMethodsPage page = PaymentMethodsPage.fromString(
+                createPageJson(Arrays.<String>asList(), false));
+        assertNotNull(page);
+        assertTrue(page.paymentMethods.isEmpty());
+        assertNull(page.getLastPaymentMethodId());
+    }
+
+    @Test
+    public void fromString_withMalformedJson_shouldReturnNull() {
+        assertNull(PaymentMethodsPage.fromString(null));
+        assertNull(PaymentMethodsPage.fromString("{\"data\": [}"));
+        assertNull(PaymentMethodsPage.fromString("[]"));
+    }
+
+    /**
+     * @return a page of card {@link PaymentMethod}s with the given IDs, created in the reverse
+     *         order of the IDs, as the API lists them
+     */
+    @NonNull
+    public static String createPageJson(@NonNull List<String> paymentMethodIds,
+                                        boolean hasMore) {
+        final StringBuilder data = new StringBuilder();
+        for (String paymentMethodId : paymentMethodIds) {
+            if (data.length() > 0) {
+                data.append(",\n");
+            }
+            data.append(createPaymentMethodJson(paymentMethodId));
+        }
+        return "{\n" +
+                "  \"object\": \"list\",\n" +
+                "  \"data\": [\n" + data + "\n  ],\n" +
+                "  \"has_more\": " + hasMore + ",\n" +
+                "  \"url\": \"/v1/payment_methods\"\n" +
+                "}";
+    }
+
+    @NonNull
+    private static String createPaymentMethodJson(@NonNull String paymentMethodId) {
+        return "{\n" +
+                "  \"id\": \"" + paymentMethodId + "\",\n" +
+                "  \"object\": \"payment_method\",\n" +
+                "  \"card\": {\"brand\": \"visa\", \"last4\": \"4242\"},\n" +
+                "  \"created\": " + (1556736791L - paymentMethodId.hashCode() % 1000) + ",\n" +
+                "  \"customer\": \"cus_123\",\n" +
+                "  \"livemode\": false,\n" +
+                "  \"type\": \"card\"\n" +
+                "}";
+    }
+}
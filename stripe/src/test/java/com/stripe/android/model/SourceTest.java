@@ -85,7 +85,7 @@ public class SourceTest {
 
     private static final String DOGE_COIN = "dogecoin";
 
-    private static final String EXAMPLE_JSON_SOURCE_WITH_NULLS = "{\n"+
+    static final String EXAMPLE_JSON_SOURCE_WITH_NULLS = "{\n"+
             "\"id\": \"src_19t3xKBZqEXluyI4uz2dxAfQ\",\n"+
             "\"object\": \"source\",\n"+
             "\"amount\": 1000,\n"+
@@ -134,7 +134,7 @@ public class SourceTest {
         put("usage", "single_use");
     }};
 
-    private static final String EXAMPLE_JSON_SOURCE_CUSTOM_TYPE = "{\n"+
+    static final String EXAMPLE_JSON_SOURCE_CUSTOM_TYPE = "{\n"+
             "\"id\": \"src_19t3xKBZqEXluyI4uz2dxAfQ\",\n"+
             "\"object\": \"source\",\n"+
             "\"amount\": 1000,\n"+
@@ -173,7 +173,7 @@ public class SourceTest {
             "  \"deleted\": true\n" +
             "}";
 
-    private static final String CREATED_CARD_JSON = "{\n" +
+    static final String CREATED_CARD_JSON = "{\n" +
             "  \"id\": \"card_1ELxrOCRMbs6FrXfdxOGjnaD\",\n" +
             "  \"object\": \"card\",\n" +
             "  \"address_city\": null,\n" +
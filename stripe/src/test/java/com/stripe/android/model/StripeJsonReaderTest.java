@@ -0,0 +1,260 @@
+package com.stripe.android.model;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.stripe.android.model.CardTest.JSON_CARD_USD;
+import static com.stripe.android.model.CustomerSourceTest.JSON_APPLE_PAY_CARD;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test class for {@link StripeJsonReader}, which the models' {@code fromString} methods read
+ * with. Each model read from a string must equal the one that its {@code fromJson} method
+ * reads from a {@link JSONObject} of the same string.
+ */
+public class StripeJsonReaderTest {
+
+    private static final String PAYMENT_INTENT_WITH_UNUSUAL_VALUES_JSON = "{\n" +
+            "  \"amount\": \"1000\",\n" +
+            "  \"canceled_at\": null,\n" +
+            "  \"capture_method\": \"\",\n" +
+            "  \"charges\": {\"object\": \"list\", \"data\": [{\"id\": \"ch_1\"}, [], null]},\n" +
+            "  \"created\": 1557783797.5,\n" +
+            "  \"currency\": \"usdx\",\n" +
+            "  \"description\": \"null\",\n" +
+            "  \"id\": \"pi_1EZlvVCRMbs6FrXfKpq2xMmy\",\n" +
+            "  \"livemode\": \"TRUE\",\n" +
+            "  \"next_action\": {\n" +
+            "    \"type\": \"use_stripe_sdk\",\n" +
+            "    \"use_stripe_sdk\": {\n" +
+            "      \"int\": 1, \"long\": 3000000000, \"double\": 1.50, \"exponent\": 1e3,\n" +
+            "      \"true\": true, \"null\": null, \"null_string\": \"null\",\n" +
+            "      \"list\": [1, \"null\", null, {\"a\": \"null\"}, [false]]\n" +
+            "    }\n" +
+            "  },\n" +
+            "  \"object\": \"payment_intent\",\n" +
+            "  \"payment_method_types\": [\"card\", \"ideal\"],\n" +
+            "  \"status\": \"requires_action\"\n" +
+            "}";
+
+    private static final String SOURCE_WITH_TYPE_DATA_FIRST_JSON = "{\n" +
+            "  \"card\": {\n" +
+            "    \"brand\": \"Visa\",\n" +
+            "    \"exp_month\": 12,\n" +
+            "    \"exp_year\": 2050,\n" +
+            "    \"last4\": \"4242\",\n" +
+            "    \"three_d_secure\": \"optional\",\n" +
+            "    \"dynamic_last4\": null\n" +
+            "  },\n" +
+            "  \"created\": 1486165199,\n" +
+            "  \"id\": \"src_19kIAxBZqEXluyI4s6U9MF3w\",\n" +
+            "  \"livemode\": true,\n" +
+            "  \"metadata\": {\"order\": 12, \"note\": \"null\", \"empty\": null, \"a\": {\"b\": 1}},\n" +
+            "  \"object\": \"source\",\n" +
+            "  \"sepa_debit\": {\"last4\": \"3000\"},\n" +
+            "  \"status\": \"chargeable\",\n" +
+            "  \"type\": \"card\",\n" +
+            "  \"usage\": \"reusable\"\n" +
+            "}";
+
+    private static final String SOURCE_WITH_TYPE_FIRST_JSON = "{\n" +
+            "  \"id\": \"src_1\",\n" +
+            "  \"object\": \"source\",\n" +
+            "  \"type\": \"sepa_debit\",\n" +
+            "  \"card\": {\"last4\": \"4242\"},\n" +
+            "  \"sepa_debit\": {\n" +
+            "    \"bank_code\": \"37040044\",\n" +
+            "    \"country\": \"DE\",\n" +
+            "    \"last4\": \"3000\",\n" +
+            "    \"mandate_reference\": \"NXDSYREGC9PSMKWY\",\n" +
+            "    \"extra\": 3000000000\n" +
+            "  }\n" +
+            "}";
+
+    private static final String CUSTOMER_WITH_SOURCES_JSON = "{\n" +
+            "  \"default_source\": \"card_189fi32eZvKYlo2CHK8NPRME\",\n" +
+            "  \"id\": \"cus_AQsHpvKfKwJDrF\",\n" +
+            "  \"object\": \"customer\",\n" +
+            "  \"shipping\": {\"name\": \"Jenny Rosen\", \"address\": {\"city\": \"Berlin\"}},\n" +
+            "  \"sources\": {\n" +
+            "    \"data\": [\n" +
+            "      " + SourceTest.EXAMPLE_ALIPAY_SOURCE + ",\n" +
+            "      " + JSON_APPLE_PAY_CARD + ",\n" +
+            "      " + JSON_CARD_USD + ",\n" +
+            "      \"not_a_source\"\n" +
+            "    ],\n" +
+            "    \"has_more\": true,\n" +
+            "    \"object\": \"list\",\n" +
+            "    \"total_count\": 4,\n" +
+            "    \"url\": \"/v1/customers/cus_AQsHpvKfKwJDrF/sources\"\n" +
+            "  }\n" +
+            "}";
+
+    private static final String CARD_PRESENT_PAYMENT_METHOD_JSON = "{\n" +
+            "  \"card\": {\"brand\": \"visa\"},\n" +
+            "  \"card_present\": {},\n" +
+            "  \"created\": 1550757934255,\n" +
+            "  \"id\": \"pm_123456789\",\n" +
+            "  \"livemode\": null,\n" +
+            "  \"metadata\": null,\n" +
+            "  \"object\": \"payment_method\",\n" +
+            "  \"type\": \"card_present\"\n" +
+            "}";
+
+    private static final List<String> MALFORMED_JSON = Arrays.asList(
+            "",
+            "{",
+            "[]",
+            "not json",
+            "{\"id\": }",
+            "{\"id\": \"pi_1\" \"object\": \"payment_intent\"}"
+    );
+
+    @Test
+    public void paymentIntent_fromString_shouldMatchFromJson() throws JSONException {
+        for (String json : Arrays.asList(
+                PaymentIntentTest.PAYMENT_INTENT_WITH_SOURCE_JSON,
+                PaymentIntentTest.PAYMENT_INTENT_WITH_PAYMENT_METHODS_JSON,
+                PaymentIntentTest.PARTIAL_PAYMENT_INTENT_WITH_REDIRECT_URL_JSON,
+                PAYMENT_INTENT_WITH_UNUSUAL_VALUES_JSON)) {
+            final PaymentIntent paymentIntent = PaymentIntent.fromString(json);
+            assertNotNull(paymentIntent);
+            assertEquals(PaymentIntent.fromJson(new JSONObject(json)), paymentIntent);
+        }
+    }
+
+    @Test
+    public void paymentIntent_fromString_withUnusualValues_shouldConvertThemLikeJSONObject() {
+        final PaymentIntent paymentIntent =
+                PaymentIntent.fromString(PAYMENT_INTENT_WITH_UNUSUAL_VALUES_JSON);
+        assertNotNull(paymentIntent);
+        assertEquals(Long.valueOf(1000L), paymentIntent.getAmount());
+        assertEquals(Long.valueOf(0L), paymentIntent.getCanceledAt());
+        assertEquals(Long.valueOf(1557783797L), paymentIntent.getCreated());
+        assertNull(paymentIntent.getCaptureMethod());
+        assertNull(paymentIntent.getCurrency());
+        assertNull(paymentIntent.getDescription());
+        assertEquals(Boolean.TRUE, paymentIntent.isLiveMode());
+        assertEquals(StripeIntent.Status.RequiresAction, paymentIntent.getStatus());
+
+        final Map<?, ?> sdkData =
+                (Map<?, ?>) paymentIntent.getNextAction().get("use_stripe_sdk");
+        assertEquals(1, sdkData.get("int"));
+        assertEquals(3000000000L, sdkData.get("long"));
+        assertEquals(1.5, sdkData.get("double"));
+        assertEquals(1000.0, sdkData.get("exponent"));
+        assertEquals(JSONObject.NULL, sdkData.get("null"));
+        assertEquals(Arrays.asList(1, JSONObject.NULL, new HashMap<String, Object>(),
+                Arrays.asList(false)), sdkData.get("list"));
+        assertFalse(sdkData.containsKey("null_string"));
+    }
+
+    @Test
+    public void setupIntent_fromString_shouldMatchFromJson() throws JSONException {
+        final String json = SetupIntentFixtures.SI_NEXT_ACTION_REDIRECT_JSON;
+        final SetupIntent setupIntent = SetupIntent.fromString(json);
+        assertNotNull(setupIntent);
+        assertEquals(SetupIntent.fromJson(new JSONObject(json)), setupIntent);
+    }
+
+    @Test
+    public void source_fromString_shouldMatchFromJson() throws JSONException {
+        for (String json : Arrays.asList(
+                SourceTest.EXAMPLE_ALIPAY_SOURCE,
+                SourceTest.EXAMPLE_JSON_SOURCE_WITHOUT_NULLS,
+                SourceTest.EXAMPLE_JSON_SOURCE_WITH_NULLS,
+                SourceTest.EXAMPLE_JSON_SOURCE_CUSTOM_TYPE,
+                SOURCE_WITH_TYPE_DATA_FIRST_JSON,
+                SOURCE_WITH_TYPE_FIRST_JSON)) {
+            final Source source = Source.fromString(json);
+            assertNotNull(source);
+            assertEquals(Source.fromJson(new JSONObject(json)), source);
+        }
+    }
+
+    @Test
+    public void source_fromString_withCardObject_shouldMatchFromJson() throws JSONException {
+        final String json = SourceTest.CREATED_CARD_JSON;
+        final Source source = Source.fromString(json);
+        assertNotNull(source);
+        // the card keeps its unknown fields as they are, e.g. its metadata as a JSONObject,
+        // which is only equal to itself
+        assertEquals(Source.fromJson(new JSONObject(json)).toMap(), source.toMap());
+    }
+
+    @Test
+    public void source_fromString_shouldReadTypeDataBeforeOrAfterType() {
+        final Source cardSource = Source.fromString(SOURCE_WITH_TYPE_DATA_FIRST_JSON);
+        assertNotNull(cardSource);
+        assertEquals("4242", ((SourceCardData) cardSource.getSourceTypeModel()).getLast4());
+        assertEquals(JSONObject.NULL, cardSource.getSourceTypeData().get("dynamic_last4"));
+        final Map<String, String> metadata = cardSource.getMetaData();
+        assertEquals("12", metadata.get("order"));
+        assertEquals("null", metadata.get("empty"));
+        assertEquals("{\"b\":1}", metadata.get("a"));
+        assertEquals(3, metadata.size());
+
+        final Source sepaDebitSource = Source.fromString(SOURCE_WITH_TYPE_FIRST_JSON);
+        assertNotNull(sepaDebitSource);
+        assertEquals("3000",
+                ((SourceSepaDebitData) sepaDebitSource.getSourceTypeModel()).getLast4());
+        assertEquals(3000000000L, sepaDebitSource.getSourceTypeData().get("extra"));
+    }
+
+    @Test
+    public void paymentMethod_fromString_shouldMatchFromJson() throws JSONException {
+        for (String json : Arrays.asList(
+                PaymentMethodTest.RAW_CARD_JSON,
+                PaymentMethodTest.RAW_IDEAL_JSON,
+                CARD_PRESENT_PAYMENT_METHOD_JSON)) {
+            final PaymentMethod paymentMethod = PaymentMethod.fromString(json);
+            assertNotNull(paymentMethod);
+            assertEquals(PaymentMethod.fromJson(new JSONObject(json)), paymentMethod);
+        }
+    }
+
+    @Test
+    public void customer_fromString_shouldMatchFromJson() throws JSONException {
+        for (String json : Arrays.asList(
+                CustomerTest.TEST_CUSTOMER_OBJECT,
+                CUSTOMER_WITH_SOURCES_JSON)) {
+            final Customer customer = Customer.fromString(json);
+            assertNotNull(customer);
+            assertEquals(Customer.fromJson(new JSONObject(json)), customer);
+        }
+
+        final Customer customer = Customer.fromString(CUSTOMER_WITH_SOURCES_JSON);
+        assertNotNull(customer);
+        // the Apple Pay card and the string are left out
+        assertEquals(2, customer.getSources().size());
+        assertNull(Customer.fromString(CustomerTest.NON_CUSTOMER_OBJECT));
+    }
+
+    @Test
+    public void fromString_withMalformedJson_shouldReturnNull() {
+        for (String json : MALFORMED_JSON) {
+            assertNull(json, PaymentIntent.fromString(json));
+            assertNull(json, SetupIntent.fromString(json));
+            assertNull(json, Source.fromString(json));
+            assertNull(json, PaymentMethod.fromString(json));
+            assertNull(json, Customer.fromString(json));
+        }
+    }
+
+    @Test
+    public void fromString_withOtherObject_shouldReturnNull() {
+        assertNull(PaymentIntent.fromString(SetupIntentFixtures.SI_NEXT_ACTION_REDIRECT_JSON));
+        assertNull(SetupIntent.fromString(PaymentIntentTest.PAYMENT_INTENT_WITH_SOURCE_JSON));
+        assertNull(Source.fromString(CustomerTest.TEST_CUSTOMER_OBJECT));
+        assertNull(PaymentIntent.fromString(null));
+    }
+}
@@ -19,6 +19,7 @@ import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -149,4 +150,26 @@ public class MaskedCardAdapterTest {
         assertNotNull(mMaskedCardAdapter.getSelectedPaymentMethod());
         assertEquals(paymentMethod2.id, mMaskedCardAdapter.getSelectedPaymentMethod().id);
     }
+
+    @Test
+    public void addPaymentMethods_appendsPaymentMethodsAndKeepsSelection() {
+        final PaymentMethod paymentMethod1 =
+                PaymentMethod.fromString(PaymentMethodTest.RAW_CARD_JSON);
+        final PaymentMethod paymentMethod2 = PaymentMethod.fromString(PAYMENT_METHOD_JSON);
+        assertNotNull(paymentMethod1);
+        assertNotNull(paymentMethod2);
+
+        mMaskedCardAdapter.setPaymentMethods(Collections.singletonList(paymentMethod1));
+        mMaskedCardAdapter.setSelectedIndex(0);
+
+        mMaskedCardAdapter.addPaymentMethods(Collections.singletonList(paymentMethod2));
+        assertEquals(2, mMaskedCardAdapter.getItemCount());
+        assertNotNull(mMaskedCardAdapter.getSelectedPaymentMethod());
+        assertEquals(paymentMethod1.id, mMaskedCardAdapter.getSelectedPaymentMethod().id);
+        verify(mAdapterDataObserver).onItemRangeInserted(1, 1);
+
+        mMaskedCardAdapter.addPaymentMethods(Collections.<PaymentMethod>emptyList());
+        assertEquals(2, mMaskedCardAdapter.getItemCount());
+        verify(mAdapterDataObserver).onItemRangeInserted(anyInt(), anyInt());
+    }
 }
@@ -1,6 +1,7 @@
 package com.stripe.android.view;
 
 import android.content.Intent;
+import android.support.annotation.NonNull;
 import android.support.v7.widget.RecyclerView;
 import android.view.MenuItem;
 import android.view.View;
@@ -51,7 +52,8 @@ public class PaymentMethodsActivityTest extends BaseViewTest<PaymentMethodsActiv
     @Mock private CustomerSession mCustomerSession;
 
     private List<PaymentMethod> mPaymentMethods;
-    @Captor private ArgumentCaptor<CustomerSession.PaymentMethodsRetrievalListener> mListenerArgumentCaptor;
+    @Captor private ArgumentCaptor<CustomerSession.PaymentMethodsPageListener>
+            mListenerArgumentCaptor;
 
     private PaymentMethodsActivity mPaymentMethodsActivity;
     private ProgressBar mProgressBar;
@@ -80,6 +82,24 @@ public class PaymentMethodsActivityTest extends BaseViewTest<PaymentMethodsActiv
                 .findViewById(R.id.payment_methods_add_payment_container);
     }
 
+    @NonNull
+    private CustomerSession.PaymentMethodsPageListener recreateActivityWithInitialPaymentMethod(
+            @NonNull String paymentMethodId) {
+        // reset the mock because the activity is being re-created again
+        reset(mCustomerSession);
+        mPaymentMethodsActivity = createActivity(new Intent().putExtra(
+                PaymentMethodsActivity.EXTRA_INITIAL_SELECTED_PAYMENT_METHOD_ID, paymentMethodId));
+        mRecyclerView = mPaymentMethodsActivity.findViewById(R.id.payment_methods_recycler);
+
+        verify(mCustomerSession).getPaymentMethods(eq(PaymentMethod.Type.Card),
+                eq(PaymentMethodsActivity.PAYMENT_METHODS_PAGE_SIZE),
+                mListenerArgumentCaptor.capture());
+        final CustomerSession.PaymentMethodsPageListener listener =
+                mListenerArgumentCaptor.getValue();
+        assertNotNull(listener);
+        return listener;
+    }
+
     @After
     @Override
     public void tearDown() {
@@ -93,19 +113,83 @@ public class PaymentMethodsActivityTest extends BaseViewTest<PaymentMethodsActiv
         assertNotNull(mAddCardView);
 
         verify(mCustomerSession).getPaymentMethods(eq(PaymentMethod.Type.Card),
+                eq(PaymentMethodsActivity.PAYMENT_METHODS_PAGE_SIZE),
                 mListenerArgumentCaptor.capture());
 
         assertEquals(View.VISIBLE, mProgressBar.getVisibility());
         assertEquals(View.VISIBLE, mAddCardView.getVisibility());
         assertEquals(View.VISIBLE, mRecyclerView.getVisibility());
 
-        final CustomerSession.PaymentMethodsRetrievalListener listener =
+        final CustomerSession.PaymentMethodsPageListener listener =
+                mListenerArgumentCaptor.getValue();
+        assertNotNull(listener);
+
+        listener.onPaymentMethodsPageRetrieved(mPaymentMethods, false);
+
+        assertEquals(View.GONE, mProgressBar.getVisibility());
+    }
+
+    @Test
+    public void onPaymentMethodsPageRetrieved_withMorePages_addsPagesUntilLastPage() {
+        verify(mCustomerSession).getPaymentMethods(eq(PaymentMethod.Type.Card),
+                eq(PaymentMethodsActivity.PAYMENT_METHODS_PAGE_SIZE),
+                mListenerArgumentCaptor.capture());
+        final CustomerSession.PaymentMethodsPageListener listener =
                 mListenerArgumentCaptor.getValue();
         assertNotNull(listener);
 
-        listener.onPaymentMethodsRetrieved(mPaymentMethods);
+        listener.onPaymentMethodsPageRetrieved(mPaymentMethods.subList(0, 1), true);
+        final MaskedCardAdapter maskedCardAdapter = (MaskedCardAdapter) mRecyclerView.getAdapter();
+        assertNotNull(maskedCardAdapter);
+        assertEquals(1, maskedCardAdapter.getItemCount());
+        assertEquals(View.VISIBLE, mProgressBar.getVisibility());
+        final PaymentMethod selectedPaymentMethod = maskedCardAdapter.getSelectedPaymentMethod();
+        assertNotNull(selectedPaymentMethod);
 
+        listener.onPaymentMethodsPageRetrieved(mPaymentMethods.subList(1, 2), false);
+        assertEquals(2, maskedCardAdapter.getItemCount());
         assertEquals(View.GONE, mProgressBar.getVisibility());
+        assertEquals(selectedPaymentMethod, maskedCardAdapter.getSelectedPaymentMethod());
+    }
+
+    @Test
+    public void onPaymentMethodsPageRetrieved_withInitialPaymentMethodOnLaterPage_selectsIt() {
+        final PaymentMethod paymentMethod = mPaymentMethods.get(0);
+        final CustomerSession.PaymentMethodsPageListener listener =
+                recreateActivityWithInitialPaymentMethod(paymentMethod.id);
+
+        listener.onPaymentMethodsPageRetrieved(mPaymentMethods.subList(1, 2), true);
+        final MaskedCardAdapter maskedCardAdapter = (MaskedCardAdapter) mRecyclerView.getAdapter();
+        assertNotNull(maskedCardAdapter);
+        assertEquals(mPaymentMethods.get(1), maskedCardAdapter.getSelectedPaymentMethod());
+
+        listener.onPaymentMethodsPageRetrieved(mPaymentMethods.subList(0, 1), false);
+        assertEquals(paymentMethod, maskedCardAdapter.getSelectedPaymentMethod());
+    }
+
+    @Test
+    public void onPaymentMethodsPageRetrieved_afterUserSelection_keepsIt() {
+        final CustomerSession.PaymentMethodsPageListener listener =
+                recreateActivityWithInitialPaymentMethod(mPaymentMethods.get(0).id);
+        final PaymentMethod otherPaymentMethod = PaymentMethod.fromString(
+                MaskedCardAdapterTest.PAYMENT_METHOD_JSON.replace("pm_987654321", "pm_123"));
+        assertNotNull(otherPaymentMethod);
+
+        listener.onPaymentMethodsPageRetrieved(
+                Arrays.asList(otherPaymentMethod, mPaymentMethods.get(1)), true);
+        final MaskedCardAdapter maskedCardAdapter = (MaskedCardAdapter) mRecyclerView.getAdapter();
+        assertNotNull(maskedCardAdapter);
+        assertEquals(otherPaymentMethod, maskedCardAdapter.getSelectedPaymentMethod());
+
+        final MaskedCardAdapter.ViewHolder viewHolder =
+                maskedCardAdapter.createViewHolder(mRecyclerView, 0);
+        maskedCardAdapter.bindViewHolder(viewHolder, 1);
+        viewHolder.itemView.performClick();
+        assertTrue(maskedCardAdapter.isSelectedByUser());
+
+        listener.onPaymentMethodsPageRetrieved(mPaymentMethods.subList(0, 1), false);
+        assertEquals(3, maskedCardAdapter.getItemCount());
+        assertEquals(mPaymentMethods.get(1), maskedCardAdapter.getSelectedPaymentMethod());
     }
 
     @Test
@@ -120,13 +204,14 @@ public class PaymentMethodsActivityTest extends BaseViewTest<PaymentMethodsActiv
         mRecyclerView = mPaymentMethodsActivity.findViewById(R.id.payment_methods_recycler);
 
         verify(mCustomerSession).getPaymentMethods(eq(PaymentMethod.Type.Card),
+                eq(PaymentMethodsActivity.PAYMENT_METHODS_PAGE_SIZE),
                 mListenerArgumentCaptor.capture());
 
-        final CustomerSession.PaymentMethodsRetrievalListener listener =
+        final CustomerSession.PaymentMethodsPageListener listener =
                 mListenerArgumentCaptor.getValue();
         assertNotNull(listener);
 
-        listener.onPaymentMethodsRetrieved(mPaymentMethods);
+        listener.onPaymentMethodsPageRetrieved(mPaymentMethods, false);
 
         final MaskedCardAdapter maskedCardAdapter = (MaskedCardAdapter) mRecyclerView.getAdapter();
         assertNotNull(maskedCardAdapter);
@@ -175,13 +260,14 @@ public class PaymentMethodsActivityTest extends BaseViewTest<PaymentMethodsActiv
         mPaymentMethodsActivity.onActivityResult(REQUEST_CODE_ADD_CARD, RESULT_OK, resultIntent);
         assertEquals(View.VISIBLE, mProgressBar.getVisibility());
         verify(mCustomerSession, times(2)).getPaymentMethods(
-                eq(PaymentMethod.Type.Card), mListenerArgumentCaptor.capture());
+                eq(PaymentMethod.Type.Card), eq(PaymentMethodsActivity.PAYMENT_METHODS_PAGE_SIZE),
+                mListenerArgumentCaptor.capture());
 
-        final CustomerSession.PaymentMethodsRetrievalListener listener =
+        final CustomerSession.PaymentMethodsPageListener listener =
                 mListenerArgumentCaptor.getValue();
         assertNotNull(listener);
 
-        listener.onPaymentMethodsRetrieved(mPaymentMethods);
+        listener.onPaymentMethodsPageRetrieved(mPaymentMethods, false);
         assertEquals(View.GONE, mProgressBar.getVisibility());
         assertNotNull(mRecyclerView.getAdapter());
         assertEquals(2, mRecyclerView.getAdapter().getItemCount());
@@ -197,17 +283,18 @@ public class PaymentMethodsActivityTest extends BaseViewTest<PaymentMethodsActiv
     public void onSaveMenuItem_finishedWithExpectedResult() {
 
         verify(mCustomerSession).getPaymentMethods(eq(PaymentMethod.Type.Card),
+                eq(PaymentMethodsActivity.PAYMENT_METHODS_PAGE_SIZE),
                 mListenerArgumentCaptor.capture());
 
         assertEquals(View.VISIBLE, mProgressBar.getVisibility());
         assertEquals(View.VISIBLE, mAddCardView.getVisibility());
         assertEquals(View.VISIBLE, mRecyclerView.getVisibility());
 
-        final CustomerSession.PaymentMethodsRetrievalListener listener =
+        final CustomerSession.PaymentMethodsPageListener listener =
                 mListenerArgumentCaptor.getValue();
         assertNotNull(listener);
 
-        listener.onPaymentMethodsRetrieved(mPaymentMethods);
+        listener.onPaymentMethodsPageRetrieved(mPaymentMethods, false);
         final MaskedCardAdapter maskedCardAdapter = (MaskedCardAdapter) mRecyclerView.getAdapter();
         assertNotNull(maskedCardAdapter);
         maskedCardAdapter.setSelectedIndex(0);